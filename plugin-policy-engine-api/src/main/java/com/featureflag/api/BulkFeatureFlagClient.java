@@ -0,0 +1,18 @@
+package com.pluginpolicyengine.api;
+
+import com.pluginpolicyengine.core.FlagContext;
+import com.pluginpolicyengine.core.FlagDecisions;
+
+/**
+ * 저장소의 전체 플래그 목록을 알고 있어 한 컨텍스트로 모든 플래그를 평가할 수 있는 클라이언트입니다.
+ * {@code FeatureFlagClientFactory}가 만드는 클라이언트는 모두 이 인터페이스를 구현합니다.
+ */
+public interface BulkFeatureFlagClient extends FeatureFlagClient {
+	/**
+	 * 하나의 컨텍스트로 저장소의 모든 플래그를 평가합니다.
+	 *
+	 * @param ctx 요청/사용자 컨텍스트
+	 * @return 플래그별 평가 결과
+	 */
+	FlagDecisions evaluateAll(FlagContext ctx);
+}
@@ -1,9 +1,15 @@
 package com.pluginpolicyengine.api;
 
 import com.pluginpolicyengine.core.FlagDecision;
+import com.pluginpolicyengine.core.FlagDecisions;
 import com.pluginpolicyengine.core.FlagContext;
 
-/** 애플리케이션 코드에서 사용하는 기능 플래그 평가 진입점입니다.*/
+import java.util.Collection;
+
+/**
+ * 애플리케이션 코드에서 사용하는 기능 플래그 평가 진입점입니다. 저장소의 전체 플래그 평가는
+ * {@link BulkFeatureFlagClient}가 제공합니다.
+ */
 public interface FeatureFlagClient {
 	/**
 	 * 주어진 컨텍스트에서 기능 플래그를 평가하고 상세 결정을 반환합니다.
@@ -25,6 +31,17 @@ public interface FeatureFlagClient {
 		return evaluate(key, ctx).enabled();
 	}
 
+	/**
+	 * 주어진 플래그를 평가하여 선택된 variant의 선언 순서 index를 반환합니다.
+	 *
+	 * @param key 기능 플래그 키
+	 * @param ctx 요청/사용자 컨텍스트
+	 * @return variant index, 기본 variant면 {@link FlagDecision#VARIANT_DEFAULT}, 비활성이면 {@link FlagDecision#VARIANT_OFF}
+	 */
+	default int variantIndex(String key, FlagContext ctx) {
+		return evaluate(key, ctx).variantIndex();
+	}
+
 	/**
 	 * 주어진 플래그를 평가하여 선택된 variant를 반환합니다.
 	 *
@@ -37,4 +54,17 @@ public interface FeatureFlagClient {
 		FlagDecision decision = evaluate(key, ctx);
 		return decision.enabled() ? decision.variant() : (fallbackVariant != null ? fallbackVariant : "off");
 	}
+
+	/**
+	 * 하나의 컨텍스트로 주어진 플래그들을 평가합니다. 없는 키는 {@code FLAG_NOT_FOUND}로 포함됩니다.
+	 *
+	 * @param keys 기능 플래그 키 목록
+	 * @param ctx 요청/사용자 컨텍스트
+	 * @return 키 순서대로의 평가 결과
+	 */
+	default FlagDecisions evaluate(Collection<String> keys, FlagContext ctx) {
+		FlagDecisions.Builder out = FlagDecisions.builder(keys.size());
+		for (String key : keys) out.add(key, evaluate(key, ctx));
+		return out.build();
+	}
 }
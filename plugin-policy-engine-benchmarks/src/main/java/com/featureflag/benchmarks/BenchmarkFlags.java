@@ -0,0 +1,64 @@
+package com.pluginpolicyengine.benchmarks;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.Targeting;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 저장소/동시성 벤치마크가 함께 쓰는 플래그 데이터 생성기입니다.
+ * JSON과 코드로 만든 정의가 같은 내용이 되도록 한곳에서 만듭니다.
+ */
+final class BenchmarkFlags {
+	private BenchmarkFlags() {
+	}
+
+	static String key(int i) {
+		return "flag." + i;
+	}
+
+	/**
+	 * @param count 플래그 수
+	 * @return rollout, variant, 그룹/사용자/속성 타게팅을 섞은 플래그 정의
+	 */
+	static List<FlagDefinition> definitions(int count) {
+		List<FlagDefinition> out = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			out.add(FlagDefinition.builder(key(i))
+				.rolloutPercent(i % 101)
+				.variant("a", 50).variant("b", 50)
+				.targeting(Targeting.builder().allowGroup("beta").denyUser("u-" + i)
+					.requireAttrIn("region", Set.of("KR", "JP")).build())
+				.build());
+		}
+		return out;
+	}
+
+	/**
+	 * {@link #definitions(int)}와 같은 내용의 JSON 파일을 임시 경로에 씁니다.
+	 *
+	 * @param count 플래그 수
+	 * @return 임시 JSON 파일 경로
+	 * @throws IOException 파일을 쓸 수 없는 경우
+	 */
+	static Path writeJson(int count) throws IOException {
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < count; i++) {
+			if (i > 0) sb.append(',');
+			sb.append('"').append(key(i)).append("\": {")
+				.append("\"rolloutPercent\": ").append(i % 101).append(',')
+				.append("\"variants\": [{\"name\": \"a\", \"weight\": 50}, {\"name\": \"b\", \"weight\": 50}],")
+				.append("\"targeting\": {\"allowGroups\": [\"beta\"], \"denyUserIds\": [\"u-").append(i).append("\"],")
+				.append("\"requireAttrsIn\": {\"region\": [\"KR\", \"JP\"]}}}");
+		}
+		sb.append('}');
+		Path file = Files.createTempFile("flags-bench", ".json");
+		Files.writeString(file, sb.toString());
+		return file;
+	}
+}
@@ -0,0 +1,50 @@
+package com.pluginpolicyengine.benchmarks;
+
+import com.pluginpolicyengine.core.BucketHasher;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SHA-256 호환 전략과 MurmurHash3 전략의 버킷 해시 비용을 비교합니다.
+ * {@code -prof gc}로 실행하면 호출당 할당량도 함께 확인할 수 있습니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BucketHasherBenchmark {
+	@Param({"sha256", "murmur3"})
+	public String strategy;
+
+	@Param({"8", "36"})
+	public int basisLength;
+
+	private BucketHasher hasher;
+	private String key;
+	private String basis;
+	private long seed;
+
+	@Setup
+	public void setUp() {
+		hasher = "murmur3".equals(strategy) ? BucketHasher.murmur3() : BucketHasher.sha256();
+		key = "checkout.newFlow";
+		basis = "u".repeat(basisLength);
+		seed = hasher.seed(BucketHasher.Purpose.ROLLOUT, key);
+	}
+
+	/** 플래그 seed를 미리 계산해 둔 상태의 rollout 해시 비용입니다. */
+	@Benchmark
+	public long rolloutHash() {
+		return hasher.hash(BucketHasher.Purpose.ROLLOUT, key, seed, basis);
+	}
+
+	/** 호출마다 seed까지 계산하는 경우의 비용입니다. */
+	@Benchmark
+	public long rolloutHashWithSeed() {
+		return hasher.hash(BucketHasher.Purpose.ROLLOUT, key, hasher.seed(BucketHasher.Purpose.ROLLOUT, key), basis);
+	}
+}
@@ -0,0 +1,97 @@
+package com.pluginpolicyengine.benchmarks;
+
+import com.pluginpolicyengine.config.CachingFeatureFlagClient;
+import com.pluginpolicyengine.config.FeatureFlagClientFactory;
+import com.pluginpolicyengine.core.BucketHasher;
+import com.pluginpolicyengine.core.FeatureFlagService;
+import com.pluginpolicyengine.core.FlagContext;
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.store.InMemoryFlagStore;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 스레드가 같은 저장소를 평가할 때의 경합을 측정합니다.
+ *
+ * <ul>
+ *   <li>{@code readOnly}: 8개 스레드가 평가만 합니다.</li>
+ *   <li>{@code readWrite}: 7개 스레드가 평가하는 동안 1개 스레드가 플래그를 계속 바꿔 스냅샷을 교체합니다.</li>
+ *   <li>{@code cached}: 결정 캐시를 거치는 평가로, 세그먼트 잠금 경합을 확인합니다.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class EvaluationContentionBenchmark {
+	private static final int FLAGS = 1000;
+
+	private InMemoryFlagStore store;
+	private FeatureFlagService service;
+	private CachingFeatureFlagClient cached;
+	private List<FlagDefinition> definitions;
+
+	@Setup
+	public void setUp() {
+		store = new InMemoryFlagStore();
+		definitions = BenchmarkFlags.definitions(FLAGS);
+		store.putAll(definitions);
+		service = new FeatureFlagService(store);
+		cached = FeatureFlagClientFactory.createCaching(store, BucketHasher.sha256(), 100_000);
+	}
+
+	/** 스레드마다 다른 사용자와 키 순서를 사용합니다. */
+	@State(Scope.Thread)
+	public static class Caller {
+		FlagContext[] contexts;
+		String[] keys;
+		int cursor;
+
+		@Setup
+		public void setUp() {
+			contexts = new FlagContext[64];
+			for (int i = 0; i < contexts.length; i++) {
+				contexts[i] = FlagContext.builder().userId("u-" + (System.identityHashCode(this) + i)).group("beta").attr("region", "KR").build();
+			}
+			keys = new String[1024];
+			for (int i = 0; i < keys.length; i++) keys[i] = BenchmarkFlags.key(Math.floorMod(i * 7919 + System.identityHashCode(this), FLAGS));
+		}
+
+		String nextKey() { return keys[cursor++ & 1023]; }
+
+		FlagContext nextContext() { return contexts[cursor & 63]; }
+	}
+
+	@Benchmark
+	@Group("readOnly")
+	@GroupThreads(8)
+	public boolean readOnly(Caller c) {
+		return service.isEnabled(c.nextKey(), c.nextContext());
+	}
+
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(7)
+	public boolean readWriteReader(Caller c) {
+		return service.isEnabled(c.nextKey(), c.nextContext());
+	}
+
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(1)
+	public void readWriteWriter(Caller c) {
+		store.put(definitions.get(Math.floorMod(c.cursor++, FLAGS)));
+	}
+
+	@Benchmark
+	@Group("cached")
+	@GroupThreads(8)
+	public boolean cached(Caller c) {
+		return cached.isEnabled(c.nextKey(), c.nextContext());
+	}
+}
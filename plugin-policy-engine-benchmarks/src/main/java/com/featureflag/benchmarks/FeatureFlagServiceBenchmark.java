@@ -0,0 +1,65 @@
+package com.pluginpolicyengine.benchmarks;
+
+import com.pluginpolicyengine.core.FeatureFlagService;
+import com.pluginpolicyengine.core.FlagContext;
+import com.pluginpolicyengine.core.FlagDecision;
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.Targeting;
+import com.pluginpolicyengine.core.store.InMemoryFlagStore;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FeatureFlagService}의 단건 평가 비용을 평가 사유(reason) 경로별로 측정합니다.
+ * 경로마다 평가 순서에서 멈추는 위치가 다르므로 회귀가 어느 단계에서 생겼는지 구분할 수 있습니다.
+ * {@code -prof gc}로 실행하면 경로별 호출당 할당량도 함께 확인할 수 있습니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeatureFlagServiceBenchmark {
+	@Param({"notFound", "disabled", "deny", "allow", "miss", "rolloutIn", "rolloutOut", "variants"})
+	public String path;
+
+	private FeatureFlagService service;
+	private FlagContext ctx;
+
+	@Setup
+	public void setUp() {
+		InMemoryFlagStore store = new InMemoryFlagStore();
+		store.put(FlagDefinition.builder("disabled").enabled(false).build());
+		store.put(FlagDefinition.builder("deny").targeting(Targeting.builder().denyUser("u-1").build()).build());
+		store.put(FlagDefinition.builder("allow").rolloutPercent(0).targeting(Targeting.builder().allowGroup("staff").build()).build());
+		store.put(FlagDefinition.builder("miss").targeting(Targeting.builder().requireAttrIn("plan", Set.of("enterprise")).build()).build());
+		store.put(FlagDefinition.builder("rolloutIn").rolloutPercent(100).build());
+		store.put(FlagDefinition.builder("rolloutOut").rolloutPercent(0).build());
+		store.put(FlagDefinition.builder("variants").rolloutPercent(100)
+			.variant("a", 50).variant("b", 30).variant("c", 20).build());
+		service = new FeatureFlagService(store);
+		ctx = FlagContext.builder().userId("u-1").group("staff").attr("plan", "pro").build();
+	}
+
+	/** 상세 결과({@link FlagDecision})를 반환하는 경로입니다. */
+	@Benchmark
+	public FlagDecision evaluate() {
+		return service.evaluate(path, ctx);
+	}
+
+	/** 결과 객체 없이 활성 여부만 계산하는 경로입니다. */
+	@Benchmark
+	public boolean isEnabled() {
+		return service.isEnabled(path, ctx);
+	}
+
+	/** variant 이름만 계산하는 경로입니다. */
+	@Benchmark
+	public String variant() {
+		return service.variant(path, ctx, "fallback");
+	}
+}
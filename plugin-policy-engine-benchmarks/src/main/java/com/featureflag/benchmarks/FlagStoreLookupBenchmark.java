@@ -0,0 +1,99 @@
+package com.pluginpolicyengine.benchmarks;
+
+import com.pluginpolicyengine.core.FeatureFlagService;
+import com.pluginpolicyengine.core.FlagContext;
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagStore;
+import com.pluginpolicyengine.core.store.InMemoryFlagStore;
+import com.pluginpolicyengine.store.file.BinaryFlagFiles;
+import com.pluginpolicyengine.store.file.JsonFileFlagStore;
+import com.pluginpolicyengine.store.file.MappedBinaryFlagStore;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 적재가 끝난 뒤의 조회 비용을 저장소 구현별로 비교합니다.
+ * {@code fileOnRequest}는 조회마다 TTL 확인을, {@code fileBackground}는 volatile 읽기만 포함합니다.
+ * cold start 비용은 {@link FlagStoreStartupBenchmark}에서 따로 측정합니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlagStoreLookupBenchmark {
+	@Param({"memory", "fileOnRequest", "fileBackground", "binary"})
+	public String store;
+
+	@Param({"1000", "100000"})
+	public int flagCount;
+
+	private Path json;
+	private Path binary;
+	private FlagStore flags;
+	private FeatureFlagService service;
+	private FlagContext ctx;
+	private String[] keys;
+	private int cursor;
+
+	@Setup
+	public void setUp() throws IOException {
+		json = BenchmarkFlags.writeJson(flagCount);
+		switch (store) {
+			case "memory":
+				InMemoryFlagStore memory = new InMemoryFlagStore();
+				memory.putAll(BenchmarkFlags.definitions(flagCount));
+				flags = memory;
+				break;
+			case "fileOnRequest":
+				flags = new JsonFileFlagStore(json.toString(), Duration.ofSeconds(3), JsonFileFlagStore.RefreshMode.ON_REQUEST);
+				break;
+			case "fileBackground":
+				flags = new JsonFileFlagStore(json.toString(), Duration.ofSeconds(3), JsonFileFlagStore.RefreshMode.BACKGROUND);
+				break;
+			default:
+				binary = Files.createTempFile("flags-bench", ".bin");
+				BinaryFlagFiles.convertJson(json, binary);
+				flags = MappedBinaryFlagStore.open(binary);
+				break;
+		}
+		service = new FeatureFlagService(flags);
+		ctx = FlagContext.builder().userId("u-42").group("beta").attr("region", "KR").build();
+		keys = new String[1024];
+		for (int i = 0; i < keys.length; i++) keys[i] = BenchmarkFlags.key((i * 7919) % flagCount);
+		// 첫 적재와 지연 디코딩을 측정에서 제외합니다.
+		for (String k : keys) flags.findOrNull(k);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		if (flags instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) flags).close();
+			} catch (Exception e) {
+				throw new IOException(e);
+			}
+		}
+		Files.deleteIfExists(json);
+		if (binary != null) Files.deleteIfExists(binary);
+	}
+
+	/** 정의만 조회합니다. */
+	@Benchmark
+	public FlagDefinition findOrNull() {
+		return flags.findOrNull(keys[cursor++ & 1023]);
+	}
+
+	/** 조회와 평가를 함께 합니다. */
+	@Benchmark
+	public boolean isEnabled() {
+		return service.isEnabled(keys[cursor++ & 1023], ctx);
+	}
+}
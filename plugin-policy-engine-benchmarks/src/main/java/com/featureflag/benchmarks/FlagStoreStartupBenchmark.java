@@ -0,0 +1,70 @@
+package com.pluginpolicyengine.benchmarks;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.store.file.BinaryFlagFiles;
+import com.pluginpolicyengine.store.file.JsonFileFlagStore;
+import com.pluginpolicyengine.store.file.MappedBinaryFlagStore;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM 시작 직후 첫 조회까지의 비용을 JSON 파일 저장소와 메모리 매핑 바이너리 저장소로 비교합니다.
+ * 매 호출이 저장소를 새로 여는 cold start이므로 {@link Mode#SingleShotTime}으로 측정합니다.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(3)
+@State(Scope.Benchmark)
+public class FlagStoreStartupBenchmark {
+	@Param({"1000", "10000", "100000"})
+	public int flagCount;
+
+	private Path json;
+	private Path binary;
+	private String lookupKey;
+
+	@Setup
+	public void setUp() throws IOException {
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < flagCount; i++) {
+			if (i > 0) sb.append(',');
+			sb.append("\"flag.").append(i).append("\": {")
+				.append("\"rolloutPercent\": ").append(i % 101).append(',')
+				.append("\"variants\": [{\"name\": \"a\", \"weight\": 50}, {\"name\": \"b\", \"weight\": 50}],")
+				.append("\"targeting\": {\"allowGroups\": [\"beta\"], \"denyUserIds\": [\"u-").append(i).append("\"],")
+				.append("\"requireAttrsIn\": {\"region\": [\"KR\", \"JP\"]}}}");
+		}
+		sb.append('}');
+		json = Files.createTempFile("flags-startup", ".json");
+		binary = Files.createTempFile("flags-startup", ".bin");
+		Files.writeString(json, sb.toString());
+		BinaryFlagFiles.convertJson(json, binary);
+		lookupKey = "flag." + (flagCount / 2);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(json);
+		Files.deleteIfExists(binary);
+	}
+
+	/** JSON 파일 전체를 파싱하고 모든 플래그를 컴파일한 뒤 첫 조회를 합니다. */
+	@Benchmark
+	public FlagDefinition jsonFirstLookup() {
+		return new JsonFileFlagStore(json.toString(), Duration.ofMinutes(1)).findOrNull(lookupKey);
+	}
+
+	/** 헤더만 확인한 뒤 조회한 플래그 하나만 디코딩합니다. */
+	@Benchmark
+	public FlagDefinition binaryFirstLookup() throws IOException {
+		return MappedBinaryFlagStore.open(binary).findOrNull(lookupKey);
+	}
+}
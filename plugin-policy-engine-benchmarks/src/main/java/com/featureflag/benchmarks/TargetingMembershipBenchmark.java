@@ -0,0 +1,93 @@
+package com.pluginpolicyengine.benchmarks;
+
+import com.pluginpolicyengine.core.Targeting;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 큰 사용자 ID 목록의 조회 지연을 {@link HashSet}과 {@link Targeting}의 압축 집합으로 비교합니다.
+ * 힙 사용량은 {@link #main(String[])}로 따로 추정합니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TargetingMembershipBenchmark {
+	@Param({"100", "10000", "500000"})
+	public int size;
+
+	@Param({"hashSet", "targeting"})
+	public String impl;
+
+	private Set<String> ids;
+	private String[] hits;
+	private String[] misses;
+	private int cursor;
+
+	@Setup
+	public void setUp() {
+		List<String> list = userIds(size);
+		ids = "hashSet".equals(impl) ? Collections.unmodifiableSet(new HashSet<>(list)) : Targeting.builder().denyUsers(list).build().denyUserIds();
+		hits = new String[1024];
+		misses = new String[1024];
+		for (int i = 0; i < hits.length; i++) {
+			// 요청마다 새로 만든 문자열을 흉내 내되 hashCode 계산은 측정에서 제외합니다.
+			hits[i] = new String(list.get((i * 7919) % size).toCharArray());
+			misses[i] = "anon-" + i;
+			hits[i].hashCode();
+			misses[i].hashCode();
+		}
+	}
+
+	@Benchmark
+	public boolean hit() {
+		return ids.contains(hits[cursor++ & 1023]);
+	}
+
+	@Benchmark
+	public boolean miss() {
+		return ids.contains(misses[cursor++ & 1023]);
+	}
+
+	/**
+	 * 두 표현의 유지 힙 크기를 GC 후 사용량 차이로 대략 추정합니다.
+	 *
+	 * @param args 사용하지 않음
+	 */
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+		List<String> list = userIds(n);
+		long base = usedHeap();
+		// 파싱 결과처럼 항목마다 별도 String을 갖도록 복사합니다.
+		Set<String> hash = new HashSet<>(n * 2);
+		for (String id : list) hash.add(new String(id.toCharArray()));
+		long hashBytes = usedHeap() - base;
+		base = usedHeap();
+		Set<String> compact = Targeting.builder().denyUsers(list).build().denyUserIds();
+		long compactBytes = usedHeap() - base;
+		System.out.printf("%d ids: HashSet ~%,d bytes, compact ~%,d bytes%n",
+			n, hashBytes, compactBytes);
+		if (hash.size() != compact.size()) throw new IllegalStateException();
+	}
+
+	private static List<String> userIds(int n) {
+		List<String> list = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) list.add("user-" + (i * 31L + 7));
+		return list;
+	}
+
+	private static long usedHeap() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) System.gc();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+}
@@ -0,0 +1,80 @@
+package com.pluginpolicyengine.store.file;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 플래그 파일 한 번의 reload 비용을 트리 모델 파싱과 스트리밍 파싱으로 비교합니다.
+ * 파일 크기가 커질수록 차이가 벌어지므로 {@code -prof gc}로 할당량을 함께 확인합니다.
+ * {@link JsonFlagSerde}가 패키지 전용이라 같은 패키지에 둡니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonFlagSerdeBenchmark {
+	@Param({"1000", "10000", "100000"})
+	public int flagCount;
+
+	private final JsonFlagSerde serde = new JsonFlagSerde();
+	private Path file;
+	private String json;
+	private JsonFlagSerde.Parsed previous;
+
+	@Setup
+	public void setUp() throws IOException {
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < flagCount; i++) {
+			if (i > 0) sb.append(',');
+			sb.append("\"flag.").append(i).append("\": {")
+				.append("\"enabled\": true, \"rolloutPercent\": ").append(i % 101).append(',')
+				.append("\"defaultVariant\": \"control\",")
+				.append("\"variants\": [{\"name\": \"a\", \"weight\": 50}, {\"name\": \"b\", \"weight\": 50}],")
+				.append("\"targeting\": {\"allowGroups\": [\"beta\"], \"denyUserIds\": [\"u-").append(i).append("\"],")
+				.append("\"requireAttrsIn\": {\"plan\": [\"pro\", \"enterprise\"]}}}");
+		}
+		sb.append('}');
+		file = Files.createTempFile("flags-bench", ".json");
+		json = sb.toString();
+		Files.writeString(file, json);
+		previous = serde.parse(file, null);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	/** 파일 전체를 문자열로 읽고 {@code JsonNode} 트리를 거쳐 변환하는 기존 경로입니다. */
+	@Benchmark
+	public Map<String, FlagDefinition> treeModel() throws IOException {
+		return serde.parse(Files.readString(file));
+	}
+
+	/** 이미 메모리에 있는 문자열을 {@link JsonFlagSerde#parseToMap(String)}으로 변환하는 비용입니다(파일 I/O 제외). */
+	@Benchmark
+	public Map<String, FlagDefinition> parseToMap() {
+		return serde.parseToMap(json);
+	}
+
+	/** 토큰 스트림에서 바로 정의를 만드는 경로입니다. */
+	@Benchmark
+	public Map<String, FlagDefinition> streaming() throws IOException {
+		return serde.parse(file);
+	}
+
+	/** 직전 결과를 기준으로 증분 파싱하며, 내용이 같으면 토큰만 건너뛰고 모든 정의를 재사용합니다. */
+	@Benchmark
+	public JsonFlagSerde.Parsed incrementalUnchanged() throws IOException {
+		return serde.parse(file, previous);
+	}
+}
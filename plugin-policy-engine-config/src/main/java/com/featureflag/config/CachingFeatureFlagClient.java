@@ -0,0 +1,109 @@
+package com.pluginpolicyengine.config;
+
+import com.pluginpolicyengine.api.BulkFeatureFlagClient;
+import com.pluginpolicyengine.core.EvaluationRecorder;
+import com.pluginpolicyengine.core.ExposureListener;
+import com.pluginpolicyengine.core.FeatureFlagService;
+import com.pluginpolicyengine.core.FlagContext;
+import com.pluginpolicyengine.core.FlagDecision;
+import com.pluginpolicyengine.core.FlagDecisions;
+import com.pluginpolicyengine.core.FlagSnapshot;
+import com.pluginpolicyengine.core.SnapshotFlagStore;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * 같은 컨텍스트로 같은 플래그를 반복 평가하는 경로를 위한 결정 캐시 클라이언트입니다.
+ *
+ * <p>캐시 키는 (스냅샷 버전, 플래그 키, 컨텍스트)입니다. 그룹/속성 타게팅이 결과에 영향을 주므로
+ * 기준값(basis)만이 아니라 컨텍스트 전체를 키로 씁니다. 스냅샷이 바뀌면 버전이 달라져 이전 항목은
+ * 더 이상 조회되지 않고, 새 버전을 처음 본 호출에서 캐시를 비웁니다. 크기는 세그먼트별 LRU와 TinyLFU
+ * 입장 정책으로 제한합니다.</p>
+ *
+ * <p>{@code evaluate(Collection)}/{@code evaluateAll}은 캐시를 거치지 않습니다.</p>
+ */
+public final class CachingFeatureFlagClient implements BulkFeatureFlagClient {
+	private final FeatureFlagService service;
+	private final SnapshotFlagStore store;
+	private final TinyLfuCache<Key, FlagDecision> cache;
+	private final int maximumSize;
+	private final EvaluationRecorder recorder;
+	private final ExposureListener exposures;
+	private volatile long lastVersion;
+
+	CachingFeatureFlagClient(FeatureFlagService service, SnapshotFlagStore store, int maximumSize, EvaluationRecorder recorder,
+			ExposureListener exposures) {
+		this.service = Objects.requireNonNull(service, "service");
+		this.store = Objects.requireNonNull(store, "store");
+		this.cache = new TinyLfuCache<>(maximumSize);
+		this.maximumSize = maximumSize;
+		this.recorder = Objects.requireNonNull(recorder, "recorder");
+		this.exposures = Objects.requireNonNull(exposures, "exposures");
+		this.lastVersion = store.snapshot().version();
+	}
+
+	@Override
+	public FlagDecision evaluate(String key, FlagContext ctx) {
+		FlagSnapshot snapshot = store.snapshot();
+		long version = snapshot.version();
+		if (version != lastVersion) {
+			lastVersion = version;
+			cache.clear();
+		}
+		Key k = new Key(version, key, ctx);
+		FlagDecision d = cache.get(k);
+		if (d == null) {
+			d = service.evaluate(snapshot, key, ctx);
+			cache.put(k, d);
+		} else {
+			// 미스는 서비스가 기록하므로 적중만 여기서 기록합니다.
+			if (recorder != EvaluationRecorder.NOOP) recorder.record(key, d.reasonCode(), d.variantIndex());
+			if (exposures != ExposureListener.NOOP && d.enabled()) exposures.onExposure(key, ctx, d.variantIndex(), d.variant());
+		}
+		return d;
+	}
+
+	@Override
+	public FlagDecisions evaluate(Collection<String> keys, FlagContext ctx) {
+		return service.evaluate(keys, ctx);
+	}
+
+	@Override
+	public FlagDecisions evaluateAll(FlagContext ctx) {
+		return service.evaluateAll(ctx);
+	}
+
+	/**
+	 * @return 결정 캐시 통계
+	 */
+	public DecisionCacheStats stats() {
+		return new DecisionCacheStats(cache.hits.sum(), cache.misses.sum(), cache.evictions.sum(),
+			cache.rejections.sum(), cache.size(), maximumSize);
+	}
+
+	private static final class Key {
+		private final long version;
+		private final String flag;
+		private final FlagContext ctx;
+		private final int hash;
+
+		Key(long version, String flag, FlagContext ctx) {
+			this.version = version;
+			this.flag = flag;
+			this.ctx = ctx;
+			this.hash = (Long.hashCode(version) * 31 + flag.hashCode()) * 31 + ctx.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key)) return false;
+			Key other = (Key) o;
+			return hash == other.hash && version == other.version && flag.equals(other.flag) && ctx.equals(other.ctx);
+		}
+
+		@Override
+		public int hashCode() { return hash; }
+	}
+}
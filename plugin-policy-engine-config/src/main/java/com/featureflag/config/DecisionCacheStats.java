@@ -0,0 +1,60 @@
+package com.pluginpolicyengine.config;
+
+/**
+ * 결정 캐시의 누적 통계입니다. 값은 조회 시점의 근사치입니다.
+ */
+public final class DecisionCacheStats {
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long rejections;
+	private final int size;
+	private final int maximumSize;
+
+	DecisionCacheStats(long hits, long misses, long evictions, long rejections, int size, int maximumSize) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.rejections = rejections;
+		this.size = size;
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * @return 캐시에서 결과를 찾은 횟수
+	 */
+	public long hits() { return hits; }
+
+	/**
+	 * @return 캐시에 없어 평가한 횟수
+	 */
+	public long misses() { return misses; }
+
+	/**
+	 * @return 새 항목을 넣기 위해 기존 항목을 내보낸 횟수
+	 */
+	public long evictions() { return evictions; }
+
+	/**
+	 * @return 빈도가 낮아 캐시에 넣지 않은 횟수
+	 */
+	public long rejections() { return rejections; }
+
+	/**
+	 * @return 현재 항목 수
+	 */
+	public int size() { return size; }
+
+	/**
+	 * @return 최대 항목 수
+	 */
+	public int maximumSize() { return maximumSize; }
+
+	/**
+	 * @return 조회 대비 적중 비율, 조회가 없으면 0
+	 */
+	public double hitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+}
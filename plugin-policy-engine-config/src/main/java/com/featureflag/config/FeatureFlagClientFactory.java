@@ -1,10 +1,27 @@
 package com.pluginpolicyengine.config;
 
-import com.pluginpolicyengine.api.FeatureFlagClient;
+import com.pluginpolicyengine.api.BulkFeatureFlagClient;
+import com.pluginpolicyengine.core.BucketHasher;
+import com.pluginpolicyengine.core.EvaluationRecorder;
+import com.pluginpolicyengine.core.ExposureListener;
 import com.pluginpolicyengine.core.FeatureFlagService;
 import com.pluginpolicyengine.core.FlagStore;
+import com.pluginpolicyengine.core.SnapshotFlagStore;
 import com.pluginpolicyengine.core.store.InMemoryFlagStore;
+import com.pluginpolicyengine.core.store.LayeredFlagStore;
+import com.pluginpolicyengine.store.file.DirectoryFlagStore;
 import com.pluginpolicyengine.store.file.JsonFileFlagStore;
+import com.pluginpolicyengine.store.file.MappedBinaryFlagStore;
+import com.pluginpolicyengine.store.file.SharedFlagStore;
+import com.pluginpolicyengine.store.remote.RemoteFlagStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 기능 플래그 엔진 구성 요소를 생성하는 순수 Java 팩토리입니다.
@@ -18,9 +35,41 @@ public final class FeatureFlagClientFactory {
 	 *
 	 * @param config 엔진 설정. {@code null}이면 메모리 저장소를 사용합니다.
 	 * @return 기능 플래그 클라이언트
+	 * @throws IllegalArgumentException 결정 캐시를 켰지만 저장소가 스냅샷을 지원하지 않는 경우
 	 */
-	public static FeatureFlagClient create(FeatureFlagConfig config) {
-		return create(createStore(config));
+	public static BulkFeatureFlagClient create(FeatureFlagConfig config) {
+		FeatureFlagConfig resolved = config == null ? FeatureFlagConfig.memory() : config;
+		return create(resolved, createStore(resolved));
+	}
+
+	/**
+	 * 설정에 맞는 저장소와 클라이언트를 만들고, 저장소가 첫 스냅샷을 제공할 수 있게 되면 클라이언트로 완료되는 future를
+	 * 반환합니다. {@code NON_BLOCKING} 재적재 방식과 함께 쓰면 시작 스레드도 파일을 읽지 않습니다({@code warmUp}을 켜면
+	 * 생성 중 기다립니다). 원본을 계속 읽지 못하면 완료되지 않으므로 {@code orTimeout} 등으로 제한합니다.
+	 *
+	 * @param config 엔진 설정. {@code null}이면 메모리 저장소를 사용합니다.
+	 * @return 준비된 클라이언트로 완료되는 future
+	 * @throws IllegalArgumentException 결정 캐시를 켰지만 저장소가 스냅샷을 지원하지 않는 경우
+	 */
+	public static CompletableFuture<BulkFeatureFlagClient> createAsync(FeatureFlagConfig config) {
+		FeatureFlagConfig resolved = config == null ? FeatureFlagConfig.memory() : config;
+		FlagStore store = createStore(resolved);
+		BulkFeatureFlagClient client = create(resolved, store);
+		if (!(store instanceof SnapshotFlagStore)) return CompletableFuture.completedFuture(client);
+		return ((SnapshotFlagStore) store).ready().thenApply(snapshot -> client);
+	}
+
+	private static BulkFeatureFlagClient create(FeatureFlagConfig resolved, FlagStore store) {
+		if (resolved.decisionCacheSize() > 0 && !(store instanceof SnapshotFlagStore)) {
+			throw new IllegalArgumentException("decision cache requires a snapshot store, but store is " + resolved.store());
+		}
+		FeatureFlagService service = new FeatureFlagService(store, resolved.bucketHasher(),
+			resolved.evaluationRecorder(), resolved.exposureListener());
+		if (resolved.decisionCacheSize() > 0) {
+			return new CachingFeatureFlagClient(service, (SnapshotFlagStore) store, resolved.decisionCacheSize(),
+				resolved.evaluationRecorder(), resolved.exposureListener());
+		}
+		return new ServiceFeatureFlagClient(service);
 	}
 
 	/**
@@ -29,9 +78,58 @@ public final class FeatureFlagClientFactory {
 	 * @param store 플래그 저장소
 	 * @return 기능 플래그 클라이언트
 	 */
-	public static FeatureFlagClient create(FlagStore store) {
-		FeatureFlagService service = new FeatureFlagService(store);
-		return service::evaluate;
+	public static BulkFeatureFlagClient create(FlagStore store) {
+		return create(store, BucketHasher.sha256());
+	}
+
+	/**
+	 * 주어진 저장소와 버킷 해시 전략을 사용하는 클라이언트를 생성합니다.
+	 *
+	 * @param store 플래그 저장소
+	 * @param hasher rollout/variant 버킷 해시 전략
+	 * @return 기능 플래그 클라이언트
+	 */
+	public static BulkFeatureFlagClient create(FlagStore store, BucketHasher hasher) {
+		return create(store, hasher, EvaluationRecorder.NOOP);
+	}
+
+	/**
+	 * 주어진 저장소, 버킷 해시 전략, 계측기를 사용하는 클라이언트를 생성합니다.
+	 *
+	 * @param store 플래그 저장소
+	 * @param hasher rollout/variant 버킷 해시 전략
+	 * @param recorder 평가 결과/지연 계측기
+	 * @return 기능 플래그 클라이언트
+	 */
+	public static BulkFeatureFlagClient create(FlagStore store, BucketHasher hasher, EvaluationRecorder recorder) {
+		return new ServiceFeatureFlagClient(new FeatureFlagService(store, hasher, recorder));
+	}
+
+	/**
+	 * 결정 캐시를 사용하는 클라이언트를 생성합니다.
+	 *
+	 * @param store 스냅샷을 지원하는 플래그 저장소
+	 * @param hasher rollout/variant 버킷 해시 전략
+	 * @param maximumSize 결정 캐시 최대 항목 수
+	 * @return 결정 캐시 클라이언트
+	 */
+	public static CachingFeatureFlagClient createCaching(SnapshotFlagStore store, BucketHasher hasher, int maximumSize) {
+		return createCaching(store, hasher, maximumSize, EvaluationRecorder.NOOP);
+	}
+
+	/**
+	 * 결정 캐시와 계측기를 사용하는 클라이언트를 생성합니다. 캐시 적중도 평가 한 건으로 기록됩니다.
+	 *
+	 * @param store 스냅샷을 지원하는 플래그 저장소
+	 * @param hasher rollout/variant 버킷 해시 전략
+	 * @param maximumSize 결정 캐시 최대 항목 수
+	 * @param recorder 평가 결과/지연 계측기
+	 * @return 결정 캐시 클라이언트
+	 */
+	public static CachingFeatureFlagClient createCaching(SnapshotFlagStore store, BucketHasher hasher, int maximumSize,
+			EvaluationRecorder recorder) {
+		return new CachingFeatureFlagClient(new FeatureFlagService(store, hasher, recorder), store, maximumSize, recorder,
+			ExposureListener.NOOP);
 	}
 
 	/**
@@ -39,6 +137,7 @@ public final class FeatureFlagClientFactory {
 	 *
 	 * @param config 엔진 설정. {@code null}이면 메모리 저장소를 사용합니다.
 	 * @return 플래그 저장소
+	 * @throws UncheckedIOException BINARY 저장소 파일이나 SHARED_MEMORY 공유 영역을 열 수 없는 경우
 	 */
 	public static FlagStore createStore(FeatureFlagConfig config) {
 		FeatureFlagConfig resolved = config == null ? FeatureFlagConfig.memory() : config;
@@ -47,9 +146,67 @@ public final class FeatureFlagClientFactory {
 			return new InMemoryFlagStore();
 		}
 
+		if (resolved.store() == FeatureFlagConfig.Store.REMOTE) {
+			if (resolved.remoteUri() == null || resolved.remoteUri().isBlank()) {
+				throw new IllegalArgumentException("remoteUri is required when store is REMOTE");
+			}
+			RemoteFlagStore store = RemoteFlagStore.builder(URI.create(resolved.remoteUri())).build();
+			if (resolved.warmUp()) store.awaitReady(resolved.warmUpTimeout());
+			return store;
+		}
+
 		if (resolved.filePath() == null || resolved.filePath().isBlank()) {
-			throw new IllegalArgumentException("filePath is required when store is FILE");
+			throw new IllegalArgumentException("filePath is required when store is " + resolved.store());
+		}
+		if (resolved.store() == FeatureFlagConfig.Store.BINARY) {
+			try {
+				MappedBinaryFlagStore store = MappedBinaryFlagStore.open(Paths.get(resolved.filePath()));
+				if (resolved.warmUp()) store.warmUp(resolved.parallelLoad());
+				return store;
+			} catch (IOException e) {
+				throw new UncheckedIOException("failed to open binary flag file: " + resolved.filePath(), e);
+			}
 		}
-		return new JsonFileFlagStore(resolved.filePath(), resolved.cacheTtl());
+		if (resolved.store() == FeatureFlagConfig.Store.SHARED_MEMORY) {
+			try {
+				SharedFlagStore store = SharedFlagStore.open(Paths.get(resolved.filePath()));
+				if (resolved.warmUp()) store.warmUp(resolved.parallelLoad());
+				return store;
+			} catch (IOException e) {
+				throw new UncheckedIOException("failed to open shared flag region: " + resolved.filePath(), e);
+			}
+		}
+		if (resolved.store() == FeatureFlagConfig.Store.DIRECTORY) {
+			DirectoryFlagStore store = DirectoryFlagStore.builder(resolved.filePath())
+				.ttl(resolved.cacheTtl())
+				.refreshMode(resolved.refreshMode())
+				.pattern(resolved.shardPattern())
+				.parallelism(resolved.parallelLoad() ? -1 : 0)
+				.build();
+			// NON_BLOCKING에서는 snapshot()이 적재를 기다리지 않으므로 첫 적재 완료를 직접 기다립니다.
+			if (resolved.warmUp()) store.awaitReady(resolved.warmUpTimeout());
+			return store;
+		}
+		JsonFileFlagStore base = createFileStore(resolved, resolved.filePath(), resolved.lastGoodCachePath());
+		if (resolved.overlayFilePaths().isEmpty()) return base;
+		List<JsonFileFlagStore> layers = new ArrayList<>(resolved.overlayFilePaths().size() + 1);
+		layers.add(base);
+		for (String overlay : resolved.overlayFilePaths()) {
+			if (overlay == null || overlay.isBlank()) throw new IllegalArgumentException("overlayFilePaths must not contain blank paths");
+			layers.add(createFileStore(resolved, overlay, null));
+		}
+		// 계층이 스스로 백그라운드에서 갱신되면 병합도 별도 스레드에서 해 조회가 계층을 확인하지 않게 합니다.
+		return new LayeredFlagStore(layers, resolved.refreshMode() == JsonFileFlagStore.RefreshMode.ON_REQUEST ? null : resolved.cacheTtl());
+	}
+
+	private static JsonFileFlagStore createFileStore(FeatureFlagConfig config, String filePath, String lastGoodCachePath) {
+		JsonFileFlagStore store = JsonFileFlagStore.builder(filePath)
+			.ttl(config.cacheTtl())
+			.refreshMode(config.refreshMode())
+			.lastGoodCache(lastGoodCachePath == null ? null : Paths.get(lastGoodCachePath))
+			.parallelParse(config.parallelLoad())
+			.build();
+		if (config.warmUp()) store.warmUp(config.warmUpTimeout());
+		return store;
 	}
 }
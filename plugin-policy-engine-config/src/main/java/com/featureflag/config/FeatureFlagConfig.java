@@ -1,6 +1,13 @@
 package com.pluginpolicyengine.config;
 
+import com.pluginpolicyengine.core.BucketHasher;
+import com.pluginpolicyengine.core.EvaluationRecorder;
+import com.pluginpolicyengine.core.ExposureListener;
+import com.pluginpolicyengine.core.exposure.ExposurePipeline;
+import com.pluginpolicyengine.store.file.JsonFileFlagStore;
+
 import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -9,12 +16,60 @@ import java.util.Objects;
 public final class FeatureFlagConfig {
 	private final Store store;
 	private final String filePath;
+	private final List<String> overlayFilePaths;
+	private final String shardPattern;
+	private final String remoteUri;
 	private final Duration cacheTtl;
+	private final JsonFileFlagStore.RefreshMode refreshMode;
+	private final BucketHasher bucketHasher;
+	private final int decisionCacheSize;
+	private final EvaluationRecorder evaluationRecorder;
+	private final ExposureListener exposureListener;
+	private final boolean warmUp;
+	private final Duration warmUpTimeout;
+	private final boolean parallelLoad;
+	private final String lastGoodCachePath;
 
 	private FeatureFlagConfig(Builder builder) {
 		this.store = Objects.requireNonNull(builder.store, "store");
 		this.filePath = builder.filePath;
+		this.shardPattern = builder.shardPattern == null || builder.shardPattern.isBlank() ? "*.json" : builder.shardPattern;
+		this.remoteUri = builder.remoteUri;
+		this.overlayFilePaths = builder.overlayFilePaths == null ? List.of() : List.copyOf(builder.overlayFilePaths);
+		if (!this.overlayFilePaths.isEmpty() && this.store != Store.FILE) {
+			throw new IllegalArgumentException("overlayFilePaths requires store FILE, but store is " + this.store);
+		}
 		this.cacheTtl = builder.cacheTtl == null ? Duration.ofSeconds(3) : builder.cacheTtl;
+		this.refreshMode = builder.refreshMode == null ? JsonFileFlagStore.RefreshMode.ON_REQUEST : builder.refreshMode;
+		this.bucketHasher = builder.bucketHasher == null ? BucketHasher.sha256() : builder.bucketHasher;
+		if (builder.decisionCacheSize < 0) {
+			throw new IllegalArgumentException("decisionCacheSize must not be negative: " + builder.decisionCacheSize);
+		}
+		this.decisionCacheSize = builder.decisionCacheSize;
+		if (this.refreshMode == JsonFileFlagStore.RefreshMode.NON_BLOCKING) {
+			// 매핑 파일 조회는 페이지 폴트로 디스크를 읽을 수 있고, 결정 캐시는 세그먼트 잠금을 씁니다.
+			if (this.store == Store.BINARY || this.store == Store.SHARED_MEMORY) {
+				throw new IllegalArgumentException("refreshMode NON_BLOCKING does not support store " + this.store);
+			}
+			if (this.decisionCacheSize > 0) {
+				throw new IllegalArgumentException("refreshMode NON_BLOCKING does not support a decision cache");
+			}
+		}
+		this.evaluationRecorder = builder.evaluationRecorder == null ? EvaluationRecorder.NOOP : builder.evaluationRecorder;
+		this.exposureListener = builder.exposureListener == null ? ExposureListener.NOOP : builder.exposureListener;
+		if (this.refreshMode == JsonFileFlagStore.RefreshMode.NON_BLOCKING
+			&& this.exposureListener instanceof ExposurePipeline
+			&& ((ExposurePipeline) this.exposureListener).overflowPolicy() == ExposurePipeline.OverflowPolicy.WAIT) {
+			// WAIT는 버퍼가 가득 차면 평가 스레드가 빈 슬롯을 기다립니다.
+			throw new IllegalArgumentException("refreshMode NON_BLOCKING does not support an exposure pipeline with overflow policy WAIT");
+		}
+		this.warmUp = builder.warmUp;
+		this.warmUpTimeout = builder.warmUpTimeout == null ? Duration.ofSeconds(10) : builder.warmUpTimeout;
+		if (this.warmUpTimeout.isNegative()) {
+			throw new IllegalArgumentException("warmUpTimeout must not be negative: " + this.warmUpTimeout);
+		}
+		this.parallelLoad = builder.parallelLoad;
+		this.lastGoodCachePath = builder.lastGoodCachePath;
 	}
 
 	/**
@@ -24,7 +79,15 @@ public final class FeatureFlagConfig {
 		/** JVM 메모리에 저장된 플래그를 사용하는 저장소입니다. */
 		MEMORY,
 		/** 외부 JSON 파일에서 플래그를 읽는 저장소입니다. */
-		FILE
+		FILE,
+		/** {@code BinaryFlagFiles}로 만든 바이너리 스냅샷을 메모리 매핑으로 읽는 읽기 전용 저장소입니다. */
+		BINARY,
+		/** 디렉터리 안의 JSON 파일(네임스페이스/샤드별)을 병렬로 읽고 바뀐 파일만 다시 읽는 저장소입니다. */
+		DIRECTORY,
+		/** 중앙 플래그 서비스에서 전체 스냅샷과 스트리밍 변경분을 받는 저장소입니다. */
+		REMOTE,
+		/** 같은 호스트의 게시자({@code SharedFlagPublisher})가 공유 메모리 영역에 올린 스냅샷을 읽는 읽기 전용 저장소입니다. */
+		SHARED_MEMORY
 	}
 
 	/**
@@ -63,12 +126,34 @@ public final class FeatureFlagConfig {
 	}
 
 	/**
-	 * @return 저장소가 FILE일 때 사용할 JSON 파일 경로
+	 * @return 저장소가 FILE이면 JSON 파일 경로, BINARY면 바이너리 스냅샷 파일 경로, DIRECTORY면 샤드 디렉터리 경로,
+	 *         SHARED_MEMORY면 공유 영역 파일 경로
 	 */
 	public String filePath() {
 		return filePath;
 	}
 
+	/**
+	 * @return REMOTE 저장소의 플래그 서비스 기준 URI
+	 */
+	public String remoteUri() {
+		return remoteUri;
+	}
+
+	/**
+	 * @return DIRECTORY 저장소에서 샤드로 읽을 파일 이름의 glob 패턴
+	 */
+	public String shardPattern() {
+		return shardPattern;
+	}
+
+	/**
+	 * @return FILE 저장소에서 {@code filePath} 위에 겹칠 JSON 파일 경로(낮은 우선순위부터), 없으면 빈 목록
+	 */
+	public List<String> overlayFilePaths() {
+		return overlayFilePaths;
+	}
+
 	/**
 	 * @return 파일 기반 저장소의 캐시 TTL
 	 */
@@ -76,13 +161,88 @@ public final class FeatureFlagConfig {
 		return cacheTtl;
 	}
 
+	/**
+	 * @return 파일 기반 저장소의 재적재 방식
+	 */
+	public JsonFileFlagStore.RefreshMode refreshMode() {
+		return refreshMode;
+	}
+
+	/**
+	 * @return rollout/variant 버킷 해시 전략
+	 */
+	public BucketHasher bucketHasher() {
+		return bucketHasher;
+	}
+
+	/**
+	 * @return 결정 캐시 최대 항목 수, 0이면 캐시를 사용하지 않음
+	 */
+	public int decisionCacheSize() {
+		return decisionCacheSize;
+	}
+
+	/**
+	 * @return 평가 결과/지연 계측기
+	 */
+	public EvaluationRecorder evaluationRecorder() {
+		return evaluationRecorder;
+	}
+
+	/**
+	 * @return 활성 평가마다 호출할 노출 리스너
+	 */
+	public ExposureListener exposureListener() {
+		return exposureListener;
+	}
+
+	/**
+	 * @return 팩토리에서 클라이언트를 반환하기 전에 플래그를 미리 읽고 컴파일할지 여부
+	 */
+	public boolean warmUp() {
+		return warmUp;
+	}
+
+	/**
+	 * @return 미리 읽기에서 원본을 기다릴 최대 시간
+	 */
+	public Duration warmUpTimeout() {
+		return warmUpTimeout;
+	}
+
+	/**
+	 * @return 파일 기반 저장소의 적재/디코딩을 병렬로 수행할지 여부
+	 */
+	public boolean parallelLoad() {
+		return parallelLoad;
+	}
+
+	/**
+	 * @return FILE 저장소의 last-good 스냅샷 캐시 파일 경로, 사용하지 않으면 {@code null}
+	 */
+	public String lastGoodCachePath() {
+		return lastGoodCachePath;
+	}
+
 	/**
 	 * {@link FeatureFlagConfig} 빌더입니다.
 	 */
 	public static final class Builder {
 		private Store store = Store.MEMORY;
 		private String filePath;
+		private List<String> overlayFilePaths = List.of();
+		private String shardPattern = "*.json";
+		private String remoteUri;
 		private Duration cacheTtl = Duration.ofSeconds(3);
+		private JsonFileFlagStore.RefreshMode refreshMode = JsonFileFlagStore.RefreshMode.ON_REQUEST;
+		private BucketHasher bucketHasher = BucketHasher.sha256();
+		private int decisionCacheSize;
+		private EvaluationRecorder evaluationRecorder = EvaluationRecorder.NOOP;
+		private ExposureListener exposureListener = ExposureListener.NOOP;
+		private boolean warmUp;
+		private Duration warmUpTimeout = Duration.ofSeconds(10);
+		private boolean parallelLoad;
+		private String lastGoodCachePath;
 
 		/**
 		 * 저장소 백엔드를 설정합니다.
@@ -96,9 +256,10 @@ public final class FeatureFlagConfig {
 		}
 
 		/**
-		 * JSON 파일 경로를 설정합니다.
+		 * 플래그 파일 경로를 설정합니다. FILE이면 JSON 파일, BINARY면 바이너리 스냅샷 파일, DIRECTORY면 샤드 파일이 있는
+		 * 디렉터리, SHARED_MEMORY면 게시자가 만든 공유 영역 파일입니다.
 		 *
-		 * @param filePath JSON 파일 경로
+		 * @param filePath 플래그 파일 경로
 		 * @return 현재 빌더
 		 */
 		public Builder filePath(String filePath) {
@@ -106,6 +267,41 @@ public final class FeatureFlagConfig {
 			return this;
 		}
 
+		/**
+		 * REMOTE 저장소가 접속할 플래그 서비스 기준 URI를 설정합니다. 프로토콜은 {@code RemoteFlagStore}를 참고합니다.
+		 *
+		 * @param remoteUri 기준 URI(예: {@code http://flags.internal:8080/v1/})
+		 * @return 현재 빌더
+		 */
+		public Builder remoteUri(String remoteUri) {
+			this.remoteUri = remoteUri;
+			return this;
+		}
+
+		/**
+		 * DIRECTORY 저장소에서 샤드로 읽을 파일 이름의 glob 패턴을 설정합니다. 기본값은 {@code *.json}입니다.
+		 *
+		 * @param shardPattern 파일 이름 glob 패턴
+		 * @return 현재 빌더
+		 */
+		public Builder shardPattern(String shardPattern) {
+			this.shardPattern = shardPattern;
+			return this;
+		}
+
+		/**
+		 * FILE 저장소에서 {@code filePath} 위에 겹칠 JSON 파일을 설정합니다. 뒤에 올수록 우선순위가 높고, 같은 키는
+		 * 우선순위가 높은 파일의 정의가 통째로 대체합니다. 파일마다 같은 TTL/재적재 방식으로 읽으며, 없는 파일은 빈
+		 * 계층으로 취급합니다.
+		 *
+		 * @param overlayFilePaths 겹칠 파일 경로(예: 환경별, 리전별 순)
+		 * @return 현재 빌더
+		 */
+		public Builder overlayFilePaths(List<String> overlayFilePaths) {
+			this.overlayFilePaths = overlayFilePaths;
+			return this;
+		}
+
 		/**
 		 * 파일 저장소 캐시 TTL을 설정합니다.
 		 *
@@ -117,6 +313,118 @@ public final class FeatureFlagConfig {
 			return this;
 		}
 
+		/**
+		 * 파일 저장소 재적재 방식을 설정합니다.
+		 * {@code BACKGROUND}와 {@code NON_BLOCKING}이면 {@code cacheTtl}을 변경 감시 polling 주기로 사용합니다.
+		 * {@code NON_BLOCKING}은 클라이언트 평가가 I/O나 잠금을 쓰지 않도록 보장하는 모드로, 첫 적재도 백그라운드에서
+		 * 하고 BINARY/SHARED_MEMORY 저장소, 결정 캐시, {@code OverflowPolicy.WAIT} 노출 파이프라인은 함께 쓸 수 없습니다. 준비는
+		 * {@code FeatureFlagClientFactory.createAsync}로 기다립니다.
+		 *
+		 * @param refreshMode 재적재 방식
+		 * @return 현재 빌더
+		 */
+		public Builder refreshMode(JsonFileFlagStore.RefreshMode refreshMode) {
+			this.refreshMode = refreshMode;
+			return this;
+		}
+
+		/**
+		 * rollout/variant 버킷 해시 전략을 설정합니다.
+		 * 기본값은 기존 버킷을 유지하는 {@link BucketHasher#sha256()}입니다.
+		 *
+		 * @param bucketHasher 버킷 해시 전략
+		 * @return 현재 빌더
+		 */
+		public Builder bucketHasher(BucketHasher bucketHasher) {
+			this.bucketHasher = bucketHasher;
+			return this;
+		}
+
+		/**
+		 * 결정 캐시 최대 항목 수를 설정합니다. 0(기본값)이면 캐시를 사용하지 않습니다.
+		 * 캐시는 스냅샷을 지원하는 저장소(BINARY를 제외한 모든 저장소)에서만 사용할 수 있습니다.
+		 *
+		 * @param decisionCacheSize 결정 캐시 최대 항목 수
+		 * @return 현재 빌더
+		 */
+		public Builder decisionCacheSize(int decisionCacheSize) {
+			this.decisionCacheSize = decisionCacheSize;
+			return this;
+		}
+
+		/**
+		 * 평가 결과/지연 계측기를 설정합니다. 기본값은 아무것도 기록하지 않는 {@link EvaluationRecorder#NOOP}이며,
+		 * 기본 구현으로 {@code EvaluationMetrics}를 사용할 수 있습니다.
+		 *
+		 * @param evaluationRecorder 계측기
+		 * @return 현재 빌더
+		 */
+		public Builder evaluationRecorder(EvaluationRecorder evaluationRecorder) {
+			this.evaluationRecorder = evaluationRecorder;
+			return this;
+		}
+
+		/**
+		 * 노출 리스너를 설정합니다. variant가 결정된 평가(일괄 평가와 결정 캐시 적중 포함)마다 호출됩니다.
+		 * 기본 구현으로 {@code ExposurePipeline}을 사용할 수 있으며, 파이프라인 종료는 호출자가 관리합니다.
+		 *
+		 * @param exposureListener 노출 리스너
+		 * @return 현재 빌더
+		 */
+		public Builder exposureListener(ExposureListener exposureListener) {
+			this.exposureListener = exposureListener;
+			return this;
+		}
+
+		/**
+		 * 팩토리에서 플래그를 미리 읽고 컴파일할지 설정합니다. 켜면 첫 평가가 파일 읽기/파싱 비용을 치르지 않습니다.
+		 * FILE은 {@code warmUpTimeout} 안에 원본을 읽지 못하면 last-good 캐시로 먼저 시작하고,
+		 * BINARY는 모든 레코드를 한 번 디코딩해 페이지를 미리 올리고, DIRECTORY는 모든 샤드를 병렬로 읽습니다.
+		 * REMOTE는 {@code warmUpTimeout} 동안 첫 전체 스냅샷을 기다리고, SHARED_MEMORY는 현재 스냅샷을 미리 디코딩합니다.
+		 *
+		 * @param warmUp 미리 읽기 여부
+		 * @return 현재 빌더
+		 */
+		public Builder warmUp(boolean warmUp) {
+			this.warmUp = warmUp;
+			return this;
+		}
+
+		/**
+		 * 미리 읽기에서 원본을 기다릴 최대 시간을 설정합니다. 기본값은 10초입니다.
+		 *
+		 * @param warmUpTimeout 최대 대기 시간
+		 * @return 현재 빌더
+		 */
+		public Builder warmUpTimeout(Duration warmUpTimeout) {
+			this.warmUpTimeout = warmUpTimeout;
+			return this;
+		}
+
+		/**
+		 * 파일 기반 저장소의 플래그 파싱/컴파일과 바이너리 디코딩을 공용 ForkJoin 풀에서 병렬로 수행할지 설정합니다.
+		 * DIRECTORY 저장소에서는 바뀐 샤드 파일들을 공용 풀에서 나눠 읽을지 여부이며, 끄면 샤드를 순차로 읽습니다.
+		 *
+		 * @param parallelLoad 병렬 적재 여부
+		 * @return 현재 빌더
+		 */
+		public Builder parallelLoad(boolean parallelLoad) {
+			this.parallelLoad = parallelLoad;
+			return this;
+		}
+
+		/**
+		 * FILE 저장소가 마지막으로 성공한 스냅샷을 기록할 로컬 캐시 파일 경로를 설정합니다.
+		 * 원본 파일을 읽을 수 없거나 {@code warmUpTimeout} 안에 읽지 못하면 이 캐시로 시작합니다.
+		 *
+		 * @param lastGoodCachePath 캐시 파일 경로, {@code null}이면 사용하지 않음
+		 * @return 현재 빌더
+		 */
+		public Builder lastGoodCachePath(String lastGoodCachePath) {
+			this.lastGoodCachePath = lastGoodCachePath;
+			return this;
+		}
+
 		/**
 		 * 설정 객체를 생성합니다.
 		 *
@@ -0,0 +1,51 @@
+package com.pluginpolicyengine.config;
+
+import com.pluginpolicyengine.api.BulkFeatureFlagClient;
+import com.pluginpolicyengine.core.FeatureFlagService;
+import com.pluginpolicyengine.core.FlagContext;
+import com.pluginpolicyengine.core.FlagDecision;
+import com.pluginpolicyengine.core.FlagDecisions;
+
+import java.util.Collection;
+
+/**
+ * {@link FeatureFlagService}에 직접 위임하는 기본 클라이언트입니다.
+ * {@code isEnabled}/{@code variant} 경로는 {@link FlagDecision}을 만들지 않습니다.
+ */
+final class ServiceFeatureFlagClient implements BulkFeatureFlagClient {
+	private final FeatureFlagService service;
+
+	ServiceFeatureFlagClient(FeatureFlagService service) {
+		this.service = service;
+	}
+
+	@Override
+	public FlagDecision evaluate(String key, FlagContext ctx) {
+		return service.evaluate(key, ctx);
+	}
+
+	@Override
+	public boolean isEnabled(String key, FlagContext ctx) {
+		return service.isEnabled(key, ctx);
+	}
+
+	@Override
+	public int variantIndex(String key, FlagContext ctx) {
+		return service.variantIndex(key, ctx);
+	}
+
+	@Override
+	public String variant(String key, FlagContext ctx, String fallbackVariant) {
+		return service.variant(key, ctx, fallbackVariant);
+	}
+
+	@Override
+	public FlagDecisions evaluate(Collection<String> keys, FlagContext ctx) {
+		return service.evaluate(keys, ctx);
+	}
+
+	@Override
+	public FlagDecisions evaluateAll(FlagContext ctx) {
+		return service.evaluateAll(ctx);
+	}
+}
@@ -0,0 +1,162 @@
+package com.pluginpolicyengine.config;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 크기 제한이 있는 동시성 캐시입니다. 세그먼트별 LRU에 TinyLFU 입장 정책을 더했습니다.
+ *
+ * <p>키 해시로 세그먼트를 고르고 세그먼트마다 잠금, access-order {@link LinkedHashMap}, 4비트
+ * count-min 빈도 스케치를 둡니다. 세그먼트가 가득 차면 새 항목의 최근 빈도가 LRU 희생 후보보다 높을 때만
+ * 희생 후보를 내보내고 들어가므로, 한 번만 등장하는 키가 자주 쓰이는 항목을 밀어내지 않습니다.</p>
+ */
+final class TinyLfuCache<K, V> {
+	private final Segment<K, V>[] segments;
+	private final int segmentMask;
+
+	final LongAdder hits = new LongAdder();
+	final LongAdder misses = new LongAdder();
+	final LongAdder evictions = new LongAdder();
+	final LongAdder rejections = new LongAdder();
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	TinyLfuCache(int maximumSize) {
+		if (maximumSize <= 0) throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+		int count = Math.min(Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())) * 4, 64);
+		while (count > 1 && maximumSize / count < 16) count >>= 1;
+		this.segments = new Segment[count];
+		this.segmentMask = count - 1;
+		int base = maximumSize / count;
+		int extra = maximumSize % count;
+		for (int i = 0; i < count; i++) segments[i] = new Segment<>(base + (i < extra ? 1 : 0));
+	}
+
+	V get(K key) {
+		int h = spread(key.hashCode());
+		V v = segment(h).get(key, h);
+		if (v != null) hits.increment();
+		else misses.increment();
+		return v;
+	}
+
+	void put(K key, V value) {
+		int h = spread(key.hashCode());
+		switch (segment(h).put(key, value, h)) {
+			case EVICTED: evictions.increment(); break;
+			case REJECTED: rejections.increment(); break;
+			default: break;
+		}
+	}
+
+	int size() {
+		int n = 0;
+		for (Segment<K, V> s : segments) n += s.size();
+		return n;
+	}
+
+	void clear() {
+		for (Segment<K, V> s : segments) s.clear();
+	}
+
+	private Segment<K, V> segment(int h) { return segments[(h >>> 16) & segmentMask]; }
+
+	private static int spread(int h) {
+		h *= 0x9e3779b9;
+		return h ^ (h >>> 15);
+	}
+
+	private enum PutResult { ADDED, EVICTED, REJECTED }
+
+	private static final class Segment<K, V> {
+		private final int capacity;
+		private final LinkedHashMap<K, V> map;
+		private final FrequencySketch sketch;
+
+		Segment(int capacity) {
+			this.capacity = Math.max(1, capacity);
+			this.map = new LinkedHashMap<>(this.capacity * 4 / 3 + 1, 0.75f, true);
+			this.sketch = new FrequencySketch(this.capacity);
+		}
+
+		synchronized V get(K key, int h) {
+			sketch.increment(h);
+			return map.get(key);
+		}
+
+		synchronized PutResult put(K key, V value, int h) {
+			if (map.containsKey(key) || map.size() < capacity) {
+				map.put(key, value);
+				return PutResult.ADDED;
+			}
+			Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+			Map.Entry<K, V> victim = it.next();
+			int victimHash = spread(victim.getKey().hashCode());
+			if (sketch.frequency(h) <= sketch.frequency(victimHash)) return PutResult.REJECTED;
+			it.remove();
+			map.put(key, value);
+			return PutResult.EVICTED;
+		}
+
+		synchronized int size() { return map.size(); }
+
+		synchronized void clear() { map.clear(); }
+	}
+
+	/**
+	 * 4비트 카운터 16개를 {@code long} 하나에 담는 count-min 스케치입니다. 기록 수가 표본 크기에 이르면
+	 * 모든 카운터를 절반으로 줄여 오래된 빈도를 잊습니다. 세그먼트 잠금 안에서만 사용합니다.
+	 */
+	private static final class FrequencySketch {
+		private static final long RESET_MASK = 0x7777777777777777L;
+		private static final int[] SEEDS = {0x97cb3127, 0xb5ad4ece, 0xc2b2ae35, 0x27d4eb2f};
+
+		private final long[] table;
+		private final int tableMask;
+		private final int sampleSize;
+		private int additions;
+
+		FrequencySketch(int capacity) {
+			int len = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+			this.table = new long[len];
+			this.tableMask = len - 1;
+			this.sampleSize = 10 * Math.max(16, capacity);
+		}
+
+		void increment(int h) {
+			boolean added = false;
+			for (int i = 0; i < 4; i++) {
+				int x = mix(h, i);
+				int index = x & tableMask;
+				int shift = ((x >>> 24) & 15) << 2;
+				long counter = (table[index] >>> shift) & 15L;
+				if (counter < 15) {
+					table[index] += 1L << shift;
+					added = true;
+				}
+			}
+			if (added && ++additions >= sampleSize) reset();
+		}
+
+		int frequency(int h) {
+			int min = 15;
+			for (int i = 0; i < 4; i++) {
+				int x = mix(h, i);
+				int shift = ((x >>> 24) & 15) << 2;
+				min = Math.min(min, (int) ((table[x & tableMask] >>> shift) & 15L));
+			}
+			return min;
+		}
+
+		private void reset() {
+			for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & RESET_MASK;
+			additions >>>= 1;
+		}
+
+		private static int mix(int h, int i) {
+			int x = h * SEEDS[i];
+			return x ^ (x >>> 17);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.pluginpolicyengine.exposure.file;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pluginpolicyengine.core.exposure.ExposureEvent;
+import com.pluginpolicyengine.core.exposure.ExposureSink;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 노출 이벤트를 로컬 파일에 한 줄에 하나씩 JSON으로 덧붙이는 싱크입니다.
+ *
+ * <pre>{"ts":1700000000000,"flag":"checkout.newFlow","basis":"user-1","variantIndex":0,"variant":"A"}</pre>
+ *
+ * <p>배치마다 버퍼를 비우므로 프로세스가 종료돼도 마지막으로 전달된 배치까지는 파일에 남습니다.
+ * 파일 회전은 하지 않으므로 logrotate 등 외부 도구의 copytruncate 방식과 함께 사용합니다.</p>
+ */
+public final class JsonLinesExposureSink implements ExposureSink {
+	private static final JsonFactory JSON = new JsonFactory();
+
+	private final Path file;
+	private JsonGenerator gen;
+
+	/**
+	 * @param file 이벤트를 덧붙일 파일. 없으면 만들고, 상위 디렉터리는 첫 기록 때 만듭니다.
+	 */
+	public JsonLinesExposureSink(Path file) {
+		this.file = Objects.requireNonNull(file, "file");
+	}
+
+	@Override
+	public void write(List<ExposureEvent> events) throws IOException {
+		JsonGenerator g = generator();
+		for (ExposureEvent e : events) {
+			g.writeStartObject();
+			g.writeNumberField("ts", e.timestampMillis());
+			g.writeStringField("flag", e.flagKey());
+			if (e.basisId() != null) g.writeStringField("basis", e.basisId());
+			g.writeNumberField("variantIndex", e.variantIndex());
+			g.writeStringField("variant", e.variant());
+			g.writeEndObject();
+			g.writeRaw('\n');
+		}
+		g.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (gen != null) gen.close();
+		gen = null;
+	}
+
+	private JsonGenerator generator() throws IOException {
+		if (gen == null) {
+			Path dir = file.toAbsolutePath().getParent();
+			if (dir != null) Files.createDirectories(dir);
+			OutputStream out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+			gen = JSON.createGenerator(out, JsonEncoding.UTF8);
+			gen.setRootValueSeparator(null); // 줄바꿈은 직접 씁니다.
+		}
+		return gen;
+	}
+}
@@ -0,0 +1,205 @@
+package com.pluginpolicyengine.store.file;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.Targeting;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * {@link MappedBinaryFlagStore}가 읽는 바이너리 플래그 스냅샷 파일을 만드는 유틸리티입니다.
+ *
+ * <p>형식(빅엔디언, 모든 위치는 파일 시작 기준 바이트 오프셋):</p>
+ * <pre>
+ * header   : magic(int) version(int) flagCount(int) stringCount(int)
+ *            stringTablePos(int) indexPos(int) recordsPos(int) reserved(int)
+ * strings  : stringCount × [byteLength(int) UTF-8 bytes]   -- 중복 제거된 문자열 표
+ * strIndex : stringCount × stringPos(int)                  -- stringTablePos가 가리킴
+ * index    : flagCount × [keyHash(int) keyId(int) recordPos(int)], (keyHash, key) 순 정렬
+ * record   : enabled(byte) rolloutPercent(int) updatedAtMillis(long) defaultVariantId(int)
+ *            variantCount(int) × [nameId(int) weight(int)]
+ *            allowUserIds, denyUserIds, allowGroups, denyGroups : count(int) × id(int), 문자열 순 정렬
+ *            attrCount(int) × [keyId(int) valueCount(int) × id(int)]
+ * </pre>
+ *
+ * <p>키, variant, 그룹, 속성 값, 사용자 ID는 모두 문자열 표에 한 번만 저장되고 id로 참조됩니다.</p>
+ */
+public final class BinaryFlagFiles {
+	static final int MAGIC = 0x46464C42; // "FFLB"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 32;
+	static final int INDEX_ENTRY_BYTES = 12;
+
+	private BinaryFlagFiles() {
+	}
+
+	/**
+	 * JSON 플래그 파일({@link JsonFileFlagStore}와 같은 형식)을 바이너리 스냅샷으로 변환합니다.
+	 *
+	 * @param jsonFile 원본 JSON 파일
+	 * @param binaryFile 생성할 바이너리 파일(임시 파일에 쓴 뒤 교체)
+	 * @return 기록한 플래그 수
+	 * @throws IOException 읽기/쓰기 실패 또는 JSON이 잘못된 경우
+	 */
+	public static int convertJson(Path jsonFile, Path binaryFile) throws IOException {
+		Map<String, FlagDefinition> flags = new JsonFlagSerde().parse(jsonFile);
+		write(flags.values(), binaryFile);
+		return flags.size();
+	}
+
+	/**
+	 * 바이너리 스냅샷 파일 전체를 읽어 플래그 정의로 디코딩합니다. 파일을 매핑하지 않으므로 읽은 뒤
+	 * 같은 경로를 바로 교체할 수 있습니다.
+	 *
+	 * @param binaryFile 바이너리 스냅샷 파일
+	 * @param parallel {@code true}면 레코드 디코딩을 공용 ForkJoin 풀에서 나눠 수행합니다.
+	 * @return 키와 정의의 불변 맵
+	 * @throws IOException 읽기 실패 또는 형식이 맞지 않는 경우
+	 */
+	public static Map<String, FlagDefinition> read(Path binaryFile, boolean parallel) throws IOException {
+		MappedBinaryFlagStore store = MappedBinaryFlagStore.wrap(ByteBuffer.wrap(Files.readAllBytes(binaryFile)));
+		try {
+			store.warmUp(parallel);
+			return store.findAll();
+		} catch (RuntimeException e) {
+			throw new IOException("corrupt binary flag file: " + binaryFile, e);
+		}
+	}
+
+	/**
+	 * 플래그 정의 목록을 바이너리 스냅샷 파일로 기록합니다. 같은 키가 여러 번 나오면 마지막 정의를 사용합니다.
+	 *
+	 * @param definitions 플래그 정의 목록
+	 * @param binaryFile 생성할 바이너리 파일(임시 파일에 쓴 뒤 교체)
+	 * @throws IOException 쓰기 실패
+	 */
+	public static void write(Collection<FlagDefinition> definitions, Path binaryFile) throws IOException {
+		Path dir = binaryFile.toAbsolutePath().getParent();
+		Path tmp = Files.createTempFile(dir, binaryFile.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+				write(definitions, out);
+			}
+			Files.move(tmp, binaryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/**
+	 * 플래그 정의 목록을 바이너리 스냅샷 형식으로 기록합니다. 스트림은 닫지 않습니다.
+	 *
+	 * @param definitions 플래그 정의 목록
+	 * @param out 출력 스트림
+	 * @throws IOException 쓰기 실패
+	 */
+	public static void write(Collection<FlagDefinition> definitions, OutputStream out) throws IOException {
+		Map<String, FlagDefinition> byKey = new LinkedHashMap<>();
+		for (FlagDefinition def : definitions) byKey.put(def.key(), def);
+
+		List<FlagDefinition> sorted = new ArrayList<>(byKey.values());
+		sorted.sort(Comparator.comparingInt((FlagDefinition d) -> d.key().hashCode()).thenComparing(FlagDefinition::key));
+
+		StringTable strings = new StringTable();
+		byte[][] records = new byte[sorted.size()][];
+		int[] keyIds = new int[sorted.size()];
+		for (int i = 0; i < sorted.size(); i++) {
+			keyIds[i] = strings.id(sorted.get(i).key());
+			records[i] = encodeRecord(sorted.get(i), strings);
+		}
+
+		int stringBytes = 0;
+		for (byte[] s : strings.encoded) stringBytes += 4 + s.length;
+		int stringsPos = HEADER_BYTES;
+		int stringTablePos = stringsPos + stringBytes;
+		int indexPos = stringTablePos + strings.encoded.size() * 4;
+		int recordsPos = indexPos + sorted.size() * INDEX_ENTRY_BYTES;
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(sorted.size());
+		data.writeInt(strings.encoded.size());
+		data.writeInt(stringTablePos);
+		data.writeInt(indexPos);
+		data.writeInt(recordsPos);
+		data.writeInt(0);
+
+		for (byte[] s : strings.encoded) {
+			data.writeInt(s.length);
+			data.write(s);
+		}
+		int pos = stringsPos;
+		for (byte[] s : strings.encoded) {
+			data.writeInt(pos);
+			pos += 4 + s.length;
+		}
+		int recordPos = recordsPos;
+		for (int i = 0; i < sorted.size(); i++) {
+			data.writeInt(sorted.get(i).key().hashCode());
+			data.writeInt(keyIds[i]);
+			data.writeInt(recordPos);
+			recordPos += records[i].length;
+		}
+		for (byte[] r : records) data.write(r);
+		data.flush();
+	}
+
+	private static byte[] encodeRecord(FlagDefinition def, StringTable strings) throws IOException {
+		ByteArrayOutputStream buf = new ByteArrayOutputStream(64);
+		DataOutputStream r = new DataOutputStream(buf);
+		r.writeBoolean(def.enabled());
+		r.writeInt(def.rolloutPercent());
+		r.writeLong(def.updatedAt().toEpochMilli());
+		r.writeInt(strings.id(def.defaultVariant()));
+		r.writeInt(def.variants().size());
+		for (FlagDefinition.VariantAllocation v : def.variants()) {
+			r.writeInt(strings.id(v.name()));
+			r.writeInt(v.weight());
+		}
+
+		Targeting t = def.targeting();
+		writeSortedIds(r, t.allowUserIds(), strings);
+		writeSortedIds(r, t.denyUserIds(), strings);
+		writeSortedIds(r, t.allowGroups(), strings);
+		writeSortedIds(r, t.denyGroups(), strings);
+		r.writeInt(t.requireAttrsIn().size());
+		for (Map.Entry<String, Set<String>> e : new TreeMap<>(t.requireAttrsIn()).entrySet()) {
+			r.writeInt(strings.id(e.getKey()));
+			writeSortedIds(r, e.getValue(), strings);
+		}
+		r.flush();
+		return buf.toByteArray();
+	}
+
+	private static void writeSortedIds(DataOutputStream r, Set<String> values, StringTable strings) throws IOException {
+		String[] sorted = values.toArray(new String[0]);
+		Arrays.sort(sorted);
+		r.writeInt(sorted.length);
+		for (String v : sorted) r.writeInt(strings.id(v));
+	}
+
+	/** 문자열을 처음 나온 순서대로 id를 부여해 한 번만 저장합니다. */
+	private static final class StringTable {
+		final Map<String, Integer> ids = new HashMap<>();
+		final List<byte[]> encoded = new ArrayList<>();
+
+		int id(String s) {
+			Integer id = ids.get(s);
+			if (id != null) return id;
+			int next = encoded.size();
+			ids.put(s, next);
+			encoded.add(s.getBytes(StandardCharsets.UTF_8));
+			return next;
+		}
+	}
+}
@@ -0,0 +1,407 @@
+package com.pluginpolicyengine.store.file;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagSnapshot;
+import com.pluginpolicyengine.core.FlagStore;
+import com.pluginpolicyengine.core.SnapshotFlagStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 디렉터리 안의 JSON 파일 여러 개(네임스페이스/샤드별 파일)를 하나의 스냅샷으로 제공하는 {@link FlagStore} 구현체입니다.
+ *
+ * <p>각 파일의 형식은 {@link JsonFileFlagStore}와 같습니다. 재적재 때는 디렉터리를 훑어 mtime이나 크기가 바뀐 파일,
+ * 새로 생긴 파일만 다시 읽고, 사라진 파일은 빼고, 나머지 샤드의 정의는 그대로 재사용합니다. 바뀐 샤드도 증분 파싱하므로
+ * 비용은 바뀐 항목 수에 비례합니다. 여러 샤드를 읽어야 하면(시작 시 등) ForkJoin 풀에서 샤드별로 병렬로 읽습니다.</p>
+ *
+ * <p>같은 키가 여러 샤드에 있으면 파일 이름 순으로 뒤에 오는 샤드의 정의를 사용합니다. 샤드 하나를 읽지 못하면 그 샤드는
+ * 마지막으로 성공한 내용을 유지하고 같은 mtime으로는 다시 읽지 않습니다. 재적재 방식(NON_BLOCKING 포함)과
+ * single-flight 규칙은 {@link JsonFileFlagStore}와 같습니다.</p>
+ */
+public final class DirectoryFlagStore implements SnapshotFlagStore, AutoCloseable {
+	private static final long DEFAULT_POLL_MS = 1_000L;
+
+	private final Path directory;
+	private final long ttlMs;
+	private final PathMatcher matcher;
+	private final ForkJoinPool pool;          // 순차 적재면 null
+	private final JsonFlagSerde serde = new JsonFlagSerde();
+	private final FileChangeWatcher watcher;  // ON_REQUEST면 null
+	private final CompletableFuture<FlagSnapshot> ready = new CompletableFuture<>();
+
+	private final AtomicReference<State> stateRef = new AtomicReference<>(State.empty());
+	private final ReentrantLock reloadLock = new ReentrantLock();
+	private final ReloadCounters counters = new ReloadCounters();
+
+	private DirectoryFlagStore(Builder b) {
+		if (b.directory == null || b.directory.isBlank()) throw new IllegalArgumentException("directory is blank");
+		this.directory = Paths.get(b.directory);
+		this.ttlMs = b.ttl == null ? 0L : Math.max(0L, b.ttl.toMillis());
+		this.matcher = directory.getFileSystem().getPathMatcher("glob:" + b.pattern);
+		this.pool = b.parallelism == 0 ? null
+			: b.parallelism < 0 ? ForkJoinPool.commonPool() : new ForkJoinPool(b.parallelism);
+
+		if (b.refreshMode != JsonFileFlagStore.RefreshMode.ON_REQUEST) {
+			if (b.refreshMode == JsonFileFlagStore.RefreshMode.BACKGROUND) reloadChangedShards();
+			this.watcher = FileChangeWatcher.ofDirectory(directory, ttlMs > 0 ? ttlMs : DEFAULT_POLL_MS,
+				this::reloadChangedShards, "directory-flag-store-refresh");
+			this.watcher.start();
+		} else {
+			this.watcher = null;
+		}
+	}
+
+	/**
+	 * 저장소 빌더를 생성합니다.
+	 *
+	 * @param directory 샤드 파일이 있는 디렉터리
+	 * @return 저장소 빌더
+	 */
+	public static Builder builder(String directory) {
+		return new Builder(directory);
+	}
+
+	@Override
+	public FlagSnapshot snapshot() {
+		return current().snapshot;
+	}
+
+	/**
+	 * 디렉터리를 처음 훑어 샤드를 읽은 뒤 완료되는 future를 반환합니다. 읽지 못한 샤드는 빈 샤드로 둔 채 완료됩니다.
+	 * ON_REQUEST 모드에서 아직 준비되지 않았으면 공용 풀에서 적재를 시작합니다.
+	 *
+	 * @return 준비 시점의 스냅샷으로 완료되는 future
+	 */
+	@Override
+	public CompletableFuture<FlagSnapshot> ready() {
+		if (watcher == null && !ready.isDone()) CompletableFuture.runAsync(this::current);
+		return ready.copy();
+	}
+
+	/**
+	 * {@link #ready()}가 완료될 때까지 최대 {@code timeout} 동안 기다립니다. 시간이 지나도 적재는 백그라운드에서
+	 * 계속되며, 그동안의 조회는 빈 스냅샷을 봅니다.
+	 *
+	 * @param timeout 최대 대기 시간
+	 * @return 시간 안에 첫 적재가 끝났으면 {@code true}
+	 */
+	public boolean awaitReady(Duration timeout) {
+		try {
+			ready().get(Math.max(0L, timeout.toMillis()), TimeUnit.MILLISECONDS);
+			return true;
+		} catch (TimeoutException | ExecutionException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * @return 현재 스냅샷을 이루는 샤드 파일 수
+	 */
+	public int shardCount() {
+		return stateRef.get().shards.size();
+	}
+
+	/**
+	 * 샤드 재적재 통계입니다. 성공한 재적재는 바뀐 샤드 전체를 한 번으로, 실패는 읽지 못한 샤드마다 기록합니다.
+	 * 파싱/재사용 수는 마지막 재적재에서 읽은 샤드의 합계입니다.
+	 *
+	 * @return 재적재 통계
+	 */
+	public ReloadStats reloadStats() {
+		return counters.snapshot(false);
+	}
+
+	/**
+	 * 백그라운드 감시 스레드와 전용 ForkJoin 풀을 종료합니다.
+	 */
+	@Override
+	public void close() {
+		if (watcher != null) watcher.close();
+		if (pool != null && pool != ForkJoinPool.commonPool()) pool.shutdown();
+	}
+
+	private State current() {
+		if (watcher != null) return stateRef.get();
+		long now = System.currentTimeMillis();
+		State cur = stateRef.get();
+		if (isFresh(cur, now)) return cur;
+		if (!reloadLock.tryLock()) {
+			// 다른 스레드가 재적재 중: 적재된 적이 있으면 기존 스냅샷으로 응답(stale-while-revalidate)
+			if (cur.loadedAtMs > 0) return cur;
+			reloadLock.lock(); // 최초 적재만 결과를 기다립니다.
+			try {
+				return stateRef.get();
+			} finally {
+				reloadLock.unlock();
+			}
+		}
+		try {
+			cur = stateRef.get();
+			return isFresh(cur, now) ? cur : reload(cur, now);
+		} finally {
+			reloadLock.unlock();
+		}
+	}
+
+	private boolean isFresh(State cur, long now) {
+		return ttlMs > 0 && cur.loadedAtMs > 0 && (now - cur.loadedAtMs) < ttlMs;
+	}
+
+	/** 감시 스레드에서 호출됩니다. */
+	private void reloadChangedShards() {
+		reloadLock.lock();
+		try {
+			reload(stateRef.get(), System.currentTimeMillis());
+		} finally {
+			reloadLock.unlock();
+		}
+	}
+
+	// reload: 바뀐 샤드만 다시 읽고, 샤드 구성이나 내용이 바뀌었을 때만 새 스냅샷을 게시합니다. reloadLock 안에서만 호출합니다.
+	private State reload(State cur, long now) {
+		Map<Path, FileStamp> listed;
+		try {
+			listed = listShards();
+		} catch (IOException | UncheckedIOException e) {
+			counters.failure(0L, e);
+			State next = cur.touch(Math.max(1L, now));
+			stateRef.set(next);
+			return next;
+		}
+
+		List<Path> changed = new ArrayList<>();
+		for (Map.Entry<Path, FileStamp> e : listed.entrySet()) {
+			Shard prev = cur.shards.get(e.getKey());
+			if (prev == null || !prev.isCurrent(e.getValue())) changed.add(e.getKey());
+		}
+		boolean removed = !listed.keySet().containsAll(cur.shards.keySet());
+		if (changed.isEmpty() && !removed) {
+			State next = cur.touch(Math.max(1L, now));
+			stateRef.set(next);
+			ready.complete(next.snapshot);
+			return next;
+		}
+
+		long started = System.nanoTime();
+		List<Shard> loaded = loadAll(changed, cur, listed);
+		Map<Path, Shard> shards = new TreeMap<>();
+		for (Path path : listed.keySet()) {
+			Shard prev = cur.shards.get(path);
+			if (prev != null) shards.put(path, prev);
+		}
+		int succeeded = 0;
+		int parsed = 0;
+		int reused = 0;
+		boolean contentChanged = removed;
+		for (Shard s : loaded) {
+			Shard prev = shards.put(s.path, s);
+			if (s.failed()) continue;
+			succeeded++;
+			parsed += s.parsed.parsed();
+			reused += s.parsed.reused();
+			contentChanged |= prev == null || !sameInstances(prev.parsed, s.parsed);
+		}
+		if (succeeded > 0) counters.success(System.nanoTime() - started, parsed, reused);
+
+		FlagSnapshot snapshot = contentChanged ? cur.snapshot.next(merge(shards.values())) : cur.snapshot;
+		State next = new State(Map.copyOf(shards), snapshot, Math.max(1L, now));
+		stateRef.set(next);
+		ready.complete(snapshot);
+		return next;
+	}
+
+	/** 바뀐 샤드를 읽습니다. 둘 이상이면 ForkJoin 풀에서 병렬로 읽습니다. */
+	private List<Shard> loadAll(List<Path> changed, State cur, Map<Path, FileStamp> listed) {
+		if (pool == null || changed.size() < 2) {
+			List<Shard> out = new ArrayList<>(changed.size());
+			for (Path path : changed) out.add(load(path, cur.shards.get(path), listed.get(path)));
+			return out;
+		}
+		return pool.submit(() -> changed.parallelStream()
+			.map(path -> load(path, cur.shards.get(path), listed.get(path)))
+			.collect(Collectors.toList())).join();
+	}
+
+	private Shard load(Path path, Shard previous, FileStamp stamp) {
+		long started = System.nanoTime();
+		JsonFlagSerde.Parsed base = previous == null ? null : previous.parsed;
+		try {
+			return new Shard(path, serde.parse(path, base, false), stamp, null);
+		} catch (IOException | RuntimeException e) {
+			counters.failure(System.nanoTime() - started, new IOException(path.getFileName() + ": " + e.getMessage(), e));
+			// 마지막으로 성공한 내용(없으면 빈 샤드)을 유지하고, 같은 파일은 다시 읽지 않도록 실패한 stamp를 남깁니다.
+			return new Shard(path, base, previous == null ? null : previous.stamp, stamp);
+		}
+	}
+
+	private Map<Path, FileStamp> listShards() throws IOException {
+		Map<Path, FileStamp> out = new TreeMap<>();
+		if (!Files.isDirectory(directory)) throw new NoSuchFileException(directory.toString());
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path path : stream) {
+				if (!matcher.matches(path.getFileName())) continue;
+				BasicFileAttributes attrs;
+				try {
+					attrs = Files.readAttributes(path, BasicFileAttributes.class);
+				} catch (NoSuchFileException e) {
+					continue; // 훑는 사이에 지워진 파일
+				}
+				if (attrs.isRegularFile()) out.put(path, new FileStamp(attrs.lastModifiedTime().toMillis(), attrs.size()));
+			}
+		}
+		return out;
+	}
+
+	private static Collection<FlagDefinition> merge(Collection<Shard> shards) {
+		int total = 0;
+		for (Shard s : shards) if (s.parsed != null) total += s.parsed.flags.size();
+		Map<String, FlagDefinition> byKey = new LinkedHashMap<>(total * 2);
+		for (Shard s : shards) if (s.parsed != null) byKey.putAll(s.parsed.flags);
+		return byKey.values();
+	}
+
+	private static boolean sameInstances(JsonFlagSerde.Parsed a, JsonFlagSerde.Parsed b) {
+		if (a == null || b == null || a.flags.size() != b.flags.size()) return false;
+		for (Map.Entry<String, FlagDefinition> e : b.flags.entrySet()) {
+			if (a.flags.get(e.getKey()) != e.getValue()) return false;
+		}
+		return true;
+	}
+
+	private static final class FileStamp {
+		final long mtimeMs;
+		final long size;
+
+		FileStamp(long mtimeMs, long size) {
+			this.mtimeMs = mtimeMs;
+			this.size = size;
+		}
+
+		boolean same(FileStamp other) {
+			return other != null && mtimeMs == other.mtimeMs && size == other.size;
+		}
+	}
+
+	private static final class Shard {
+		final Path path;
+		final JsonFlagSerde.Parsed parsed; // 읽은 적이 없으면 null
+		final FileStamp stamp;             // parsed를 만든 파일 상태
+		final FileStamp failedStamp;       // 마지막으로 실패한 파일 상태, 없으면 null
+
+		Shard(Path path, JsonFlagSerde.Parsed parsed, FileStamp stamp, FileStamp failedStamp) {
+			this.path = path;
+			this.parsed = parsed;
+			this.stamp = stamp;
+			this.failedStamp = failedStamp;
+		}
+
+		boolean failed() { return failedStamp != null; }
+
+		boolean isCurrent(FileStamp listed) {
+			return listed.same(stamp) || listed.same(failedStamp);
+		}
+	}
+
+	private static final class State {
+		final Map<Path, Shard> shards;
+		final FlagSnapshot snapshot;
+		final long loadedAtMs;
+
+		State(Map<Path, Shard> shards, FlagSnapshot snapshot, long loadedAtMs) {
+			this.shards = shards;
+			this.snapshot = snapshot;
+			this.loadedAtMs = loadedAtMs;
+		}
+
+		static State empty() {
+			return new State(Map.of(), FlagSnapshot.empty(), 0L);
+		}
+
+		State touch(long now) {
+			return new State(shards, snapshot, now);
+		}
+	}
+
+	/**
+	 * {@link DirectoryFlagStore} 빌더입니다.
+	 */
+	public static final class Builder {
+		private final String directory;
+		private Duration ttl = Duration.ofSeconds(3);
+		private JsonFileFlagStore.RefreshMode refreshMode = JsonFileFlagStore.RefreshMode.ON_REQUEST;
+		private String pattern = "*.json";
+		private int parallelism = -1;
+
+		private Builder(String directory) {
+			this.directory = directory;
+		}
+
+		/**
+		 * @param ttl ON_REQUEST면 디렉터리를 다시 훑는 주기(0이면 조회마다), BACKGROUND/NON_BLOCKING이면 polling 주기(0이면 1초)
+		 * @return 현재 빌더
+		 */
+		public Builder ttl(Duration ttl) {
+			this.ttl = ttl;
+			return this;
+		}
+
+		/**
+		 * @param refreshMode 재적재 방식. {@code null}이면 ON_REQUEST
+		 * @return 현재 빌더
+		 */
+		public Builder refreshMode(JsonFileFlagStore.RefreshMode refreshMode) {
+			this.refreshMode = refreshMode == null ? JsonFileFlagStore.RefreshMode.ON_REQUEST : refreshMode;
+			return this;
+		}
+
+		/**
+		 * 샤드로 읽을 파일 이름의 glob 패턴을 설정합니다. 기본값은 {@code *.json}입니다.
+		 *
+		 * @param pattern 파일 이름 glob 패턴
+		 * @return 현재 빌더
+		 */
+		public Builder pattern(String pattern) {
+			if (pattern == null || pattern.isBlank()) throw new IllegalArgumentException("pattern is blank");
+			this.pattern = pattern;
+			return this;
+		}
+
+		/**
+		 * 여러 샤드를 읽을 때의 병렬도를 설정합니다. 음수(기본값)면 공용 ForkJoin 풀, 0이면 순차, 양수면 해당 크기의
+		 * 전용 풀을 사용합니다. 전용 풀은 {@link DirectoryFlagStore#close()}에서 종료합니다.
+		 *
+		 * @param parallelism 병렬도
+		 * @return 현재 빌더
+		 */
+		public Builder parallelism(int parallelism) {
+			this.parallelism = parallelism;
+			return this;
+		}
+
+		/**
+		 * 저장소를 생성합니다. BACKGROUND면 생성 시 모든 샤드를 읽은 뒤 감시 스레드를 시작하고, NON_BLOCKING이면 읽지
+		 * 않고 감시 스레드만 시작합니다.
+		 *
+		 * @return 저장소
+		 */
+		public DirectoryFlagStore build() {
+			return new DirectoryFlagStore(this);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.pluginpolicyengine.store.file;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 파일 하나(또는 디렉터리 하나)의 변경을 감시해 콜백을 호출하는 daemon 스레드입니다.
+ *
+ * <p>{@link WatchService}로 상위 디렉터리 이벤트를 받고, 이벤트가 없어도 주기마다 콜백을 호출해
+ * 이벤트 유실이나 감시를 지원하지 않는 파일 시스템을 polling으로 보완합니다.
+ * 콜백은 mtime 비교 등으로 실제 변경 여부를 직접 판단해야 합니다. 스레드가 시작하면 감시 등록 직후 콜백을 한 번
+ * 호출하므로, 생성과 시작 사이의 변경이나(비차단 모드의) 첫 적재도 이 스레드에서 처리됩니다.</p>
+ */
+final class FileChangeWatcher implements AutoCloseable {
+	private final Path dir;
+	private final long pollIntervalMs;
+	private final Runnable onChange;
+	private final Thread thread;
+	private volatile boolean closed;
+	private volatile WatchService watchService;
+
+	/** 파일 하나의 변경을 감시합니다. 상위 디렉터리 이벤트를 받습니다. */
+	static FileChangeWatcher ofFile(Path file, long pollIntervalMs, Runnable onChange, String threadName) {
+		return new FileChangeWatcher(file.toAbsolutePath().getParent(), pollIntervalMs, onChange, threadName);
+	}
+
+	/** 디렉터리 안 항목의 생성/수정/삭제를 감시합니다. */
+	static FileChangeWatcher ofDirectory(Path dir, long pollIntervalMs, Runnable onChange, String threadName) {
+		return new FileChangeWatcher(dir.toAbsolutePath(), pollIntervalMs, onChange, threadName);
+	}
+
+	private FileChangeWatcher(Path dir, long pollIntervalMs, Runnable onChange, String threadName) {
+		this.dir = dir;
+		this.pollIntervalMs = Math.max(10L, pollIntervalMs);
+		this.onChange = onChange;
+		this.thread = new Thread(this::run, threadName);
+		this.thread.setDaemon(true);
+	}
+
+	void start() {
+		thread.start();
+	}
+
+	private void run() {
+		WatchService ws = openWatchService();
+		try {
+			while (!closed) {
+				try {
+					onChange.run();
+				} catch (RuntimeException e) {
+					// 갱신 실패는 다음 주기에 다시 시도합니다.
+				}
+				if (ws == null) sleepPoll();
+				else awaitEvent(ws);
+			}
+		} finally {
+			closeQuietly(ws);
+		}
+	}
+
+	private WatchService openWatchService() {
+		if (dir == null || !Files.isDirectory(dir)) return null;
+		try {
+			WatchService ws = dir.getFileSystem().newWatchService();
+			dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			this.watchService = ws;
+			return ws;
+		} catch (IOException | UnsupportedOperationException e) {
+			return null; // polling으로 대체
+		}
+	}
+
+	/** 디렉터리 이벤트가 오거나 polling 주기가 지날 때까지 기다립니다. 실제 변경 여부는 콜백이 확인합니다. */
+	private void awaitEvent(WatchService ws) {
+		try {
+			WatchKey key = ws.poll(pollIntervalMs, TimeUnit.MILLISECONDS);
+			if (key != null) {
+				key.pollEvents();
+				key.reset();
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			closed = true;
+		}
+	}
+
+	private void sleepPoll() {
+		try {
+			Thread.sleep(pollIntervalMs);
+		} catch (InterruptedException e) {
+			closed = true;
+		}
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		closeQuietly(watchService);
+		thread.interrupt();
+	}
+
+	private static void closeQuietly(WatchService ws) {
+		if (ws == null) return;
+		try {
+			ws.close();
+		} catch (IOException ignored) {
+			// 종료 중 오류는 무시합니다.
+		}
+	}
+}
@@ -1,35 +1,151 @@
 package com.pluginpolicyengine.store.file;
 
+import com.pluginpolicyengine.core.FlagSnapshot;
 import com.pluginpolicyengine.core.FlagStore;
 import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.SnapshotFlagStore;
 
 import java.io.IOException;
 import java.nio.file.*;
 import java.time.Duration;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.concurrent.locks.ReentrantLock;
 
-/** JSON 파일에서 플래그 정의를 읽는 파일 기반 {@link FlagStore} 구현체입니다. */
-public final class JsonFileFlagStore implements FlagStore {
+/**
+ * JSON 파일에서 플래그 정의를 읽는 파일 기반 {@link FlagStore} 구현체입니다.
+ *
+ * <p>{@link RefreshMode#ON_REQUEST}는 조회 시점에 TTL을 확인해 호출 스레드에서 다시 읽고,
+ * {@link RefreshMode#BACKGROUND}는 daemon 스레드가 파일 변경을 감시해 새 스냅샷을 게시하므로
+ * 조회는 volatile 읽기 한 번으로 끝납니다. {@link RefreshMode#NON_BLOCKING}은 첫 적재까지 감시 스레드에서 하므로
+ * 생성과 조회 모두 파일 I/O나 잠금이 없고, 준비는 {@link #ready()}로 기다립니다. 백그라운드 모드는
+ * {@link #close()}로 종료합니다.</p>
+ *
+ * <p>재적재는 한 번에 한 스레드만 수행하고(single-flight), 그동안 다른 호출은 기존 스냅샷을 그대로
+ * 사용합니다. 재적재는 증분 방식이라 내용이 바뀐 항목만 새로 파싱하고 나머지는 기존 정의 인스턴스를
+ * 재사용합니다. 파일 없음, 읽기 실패, 파싱 실패 시에는 마지막으로 성공한 스냅샷을 유지합니다.</p>
+ *
+ * <p>last-good 캐시 파일({@link Builder#lastGoodCache(Path)})을 지정하면 원본을 읽을 때마다 바뀐 스냅샷을
+ * {@link BinaryFlagFiles} 형식으로 기록해 두고, 원본을 한 번도 읽지 못한 상태(파일 없음, 파싱 실패,
+ * {@link #warmUp(Duration)} 시간 초과)에서는 이 캐시로 시작합니다. 원본을 읽는 데 성공하면 바로 원본 스냅샷으로
+ * 바뀝니다.</p>
+ */
+public final class JsonFileFlagStore implements SnapshotFlagStore, AutoCloseable {
+
+	/**
+	 * 파일 재적재 방식입니다.
+	 */
+	public enum RefreshMode {
+		/** 조회 시 TTL이 지났으면 호출 스레드에서 다시 읽습니다. */
+		ON_REQUEST,
+		/** {@link WatchService}(polling 보완)로 변경을 감시해 백그라운드에서 다시 읽습니다. 첫 적재는 생성 시 호출 스레드에서 합니다. */
+		BACKGROUND,
+		/**
+		 * BACKGROUND와 같지만 첫 적재도 감시 스레드에서 합니다. 조회는 파일 I/O나 잠금 없이 마지막으로 게시된 스냅샷만
+		 * 읽으며, 첫 적재 전에는 빈 스냅샷을 봅니다. Loom 가상 스레드나 이벤트 루프에서 평가하는 서비스용입니다.
+		 */
+		NON_BLOCKING
+	}
+
+	private static final long DEFAULT_POLL_MS = 1_000L;
 
 	private final Path filePath;
 	private final long ttlMs;
+	private final Path lastGoodCache;        // 없으면 null
+	private final boolean parallelParse;
 	private final JsonFlagSerde serde;
+	private final FileChangeWatcher watcher; // ON_REQUEST면 null
+	private final CompletableFuture<FlagSnapshot> ready = new CompletableFuture<>();
 
 	private final AtomicReference<Cache> cacheRef = new AtomicReference<>(Cache.empty());
+	private final ReentrantLock reloadLock = new ReentrantLock();
+	private final ReloadCounters counters = new ReloadCounters();
 
 	/**
-	 * JSON 파일 기반 저장소를 생성합니다.
+	 * 조회 시점에 다시 읽는 JSON 파일 기반 저장소를 생성합니다.
 	 *
 	 * @param filePath JSON 파일 경로
 	 * @param ttl 캐시 TTL(0이면 TTL 캐시 비활성)
 	 */
 	public JsonFileFlagStore(String filePath, Duration ttl) {
-		if (filePath == null || filePath.isBlank()) { throw new IllegalArgumentException("filePath is blank");}
-		this.filePath = Paths.get(filePath);
-		this.ttlMs = ttl == null ? 0L : Math.max(0L, ttl.toMillis());
+		this(filePath, ttl, RefreshMode.ON_REQUEST);
+	}
+
+	/**
+	 * JSON 파일 기반 저장소를 생성합니다. {@link RefreshMode#BACKGROUND}면 생성 시 한 번 읽은 뒤
+	 * 감시 스레드를 시작합니다.
+	 *
+	 * @param filePath JSON 파일 경로
+	 * @param ttl ON_REQUEST면 캐시 TTL(0이면 TTL 캐시 비활성), BACKGROUND/NON_BLOCKING이면 polling 주기(0이면 1초)
+	 * @param mode 재적재 방식
+	 */
+	public JsonFileFlagStore(String filePath, Duration ttl, RefreshMode mode) {
+		this(builder(filePath).ttl(ttl).refreshMode(mode));
+	}
+
+	private JsonFileFlagStore(Builder b) {
+		if (b.filePath == null || b.filePath.isBlank()) { throw new IllegalArgumentException("filePath is blank");}
+		this.filePath = Paths.get(b.filePath);
+		this.ttlMs = b.ttl == null ? 0L : Math.max(0L, b.ttl.toMillis());
+		this.lastGoodCache = b.lastGoodCache;
+		this.parallelParse = b.parallelParse;
 		this.serde = new JsonFlagSerde();
+
+		if (b.refreshMode != RefreshMode.ON_REQUEST) {
+			if (b.refreshMode == RefreshMode.BACKGROUND) reloadIfChanged();
+			this.watcher = FileChangeWatcher.ofFile(this.filePath, ttlMs > 0 ? ttlMs : DEFAULT_POLL_MS,
+				this::reloadIfChanged, "json-flag-store-refresh");
+			this.watcher.start();
+		} else {
+			this.watcher = null;
+		}
+	}
+
+	/**
+	 * 저장소 빌더를 생성합니다.
+	 *
+	 * @param filePath JSON 파일 경로
+	 * @return 저장소 빌더
+	 */
+	public static Builder builder(String filePath) {
+		return new Builder(filePath);
+	}
+
+	/**
+	 * 첫 조회를 기다리지 않고 지금 원본 파일을 읽어 컴파일합니다. {@code timeout} 안에 끝나지 않으면
+	 * last-good 캐시 파일로 먼저 시작하고, 원본 적재는 백그라운드에서 계속되어 끝나는 대로 교체됩니다.
+	 *
+	 * @param timeout 원본 적재를 기다릴 최대 시간
+	 * @return 원본 파일의 스냅샷을 제공하게 되었으면 {@code true}, last-good 캐시나 빈 스냅샷이면 {@code false}
+	 */
+	public boolean warmUp(Duration timeout) {
+		if (hasPrimary(cacheRef.get())) return true;
+		CompletableFuture<Void> primary = new CompletableFuture<>();
+		Thread loader = new Thread(() -> {
+			try {
+				loadPrimaryNow();
+			} finally {
+				primary.complete(null);
+			}
+		}, "json-flag-store-warmup");
+		loader.setDaemon(true);
+		loader.start();
+		try {
+			primary.get(Math.max(0L, timeout.toMillis()), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			bootFromLastGood(cacheRef.get(), System.currentTimeMillis(), -1L);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// loadPrimaryNow는 예외를 reload 안에서 처리하므로 도달하지 않습니다.
+		}
+		return hasPrimary(cacheRef.get());
 	}
 
 	/**
@@ -40,9 +156,13 @@ public final class JsonFileFlagStore implements FlagStore {
 	 */
 	@Override
 	public Optional<FlagDefinition> find(String key) {
-		if (key == null || key.isBlank()) return Optional.empty();
-		Cache c = loadIfNeeded();
-		return Optional.ofNullable(c.flags.get(key));
+		return Optional.ofNullable(findOrNull(key));
+	}
+
+	@Override
+	public FlagDefinition findOrNull(String key) {
+		if (key == null || key.isBlank()) return null;
+		return current().snapshot.find(key);
 	}
 
 	/**
@@ -52,43 +172,192 @@ public final class JsonFileFlagStore implements FlagStore {
 	 */
 	@Override
 	public Map<String, FlagDefinition> findAll() {
-		return Collections.unmodifiableMap(loadIfNeeded().flags);
+		return current().snapshot.definitions();
+	}
+
+	/**
+	 * 현재 스냅샷을 반환합니다. ON_REQUEST 모드에서는 필요하면 먼저 파일을 다시 읽습니다.
+	 *
+	 * @return 현재 스냅샷
+	 */
+	@Override
+	public FlagSnapshot snapshot() {
+		return current().snapshot;
+	}
+
+	/**
+	 * 원본 파일이나 last-good 캐시에서 첫 스냅샷을 게시하면 완료되는 future를 반환합니다. ON_REQUEST 모드에서 아직
+	 * 준비되지 않았으면 공용 풀에서 적재를 시작합니다.
+	 *
+	 * @return 준비 시점의 스냅샷으로 완료되는 future
+	 */
+	@Override
+	public CompletableFuture<FlagSnapshot> ready() {
+		if (watcher == null && !ready.isDone()) CompletableFuture.runAsync(this::current);
+		return ready.copy();
+	}
+
+	/**
+	 * @return 재적재 시도/실패 횟수와 소요 시간 통계
+	 */
+	public ReloadStats reloadStats() {
+		return counters.snapshot(cacheRef.get().lastGood);
+	}
+
+	/**
+	 * 백그라운드 감시 스레드를 종료합니다. ON_REQUEST 모드에서는 아무 일도 하지 않습니다.
+	 */
+	@Override
+	public void close() {
+		if (watcher != null) watcher.close();
+	}
+
+	private Cache current() {
+		return watcher != null ? cacheRef.get() : loadIfNeeded();
 	}
 
 	private Cache loadIfNeeded() {
 		long now = System.currentTimeMillis();
 		Cache cur = cacheRef.get();
+		if (isFresh(cur, now)) return cur;
 
-		// TTL이 0이면 매번 읽기(원하면 TTL>0 권장)
-		if (ttlMs > 0 && (now - cur.loadedAtMs) < ttlMs && cur.loadedAtMs > 0) {
-			return cur;
+		if (!reloadLock.tryLock()) {
+			// 다른 스레드가 재적재 중: 적재된 적이 있으면 기존 스냅샷으로 응답(stale-while-revalidate)
+			if (cur.loaded()) return cur;
+			reloadLock.lock(); // 최초 적재만 결과를 기다립니다.
+			try {
+				return cacheRef.get();
+			} finally {
+				reloadLock.unlock();
+			}
 		}
+		try {
+			cur = cacheRef.get();
+			if (isFresh(cur, now)) return cur;
 
-		// 파일 mtime 체크로 “TTL 지나도 파일 안 바뀌면 재파싱 생략” (가벼운 최적화)
-		long mtime = lastModifiedMillis(filePath);
-		if (cur.loadedAtMs > 0 && cur.fileMtimeMs == mtime && ttlMs > 0) {
-			cacheRef.set(new Cache(cur.flags, now, mtime));
-			return cacheRef.get();
+			// 파일 mtime 체크로 “TTL 지나도 파일 안 바뀌면 재파싱 생략” (가벼운 최적화)
+			long mtime = lastModifiedMillis(filePath);
+			if (cur.loaded() && ttlMs > 0 && (cur.fileMtimeMs == mtime || cur.failedMtimeMs == mtime)) {
+				Cache touched = cur.touch(now);
+				cacheRef.set(touched);
+				return touched;
+			}
+			return reload(cur, now, mtime);
+		} finally {
+			reloadLock.unlock();
 		}
+	}
 
-		// reload
-		Map<String, FlagDefinition> parsed = readAndParse(filePath);
-		Cache next = new Cache(parsed, now, mtime);
-		cacheRef.set(next);
-		return next;
+	private boolean isFresh(Cache cur, long now) {
+		return ttlMs > 0 && cur.loaded() && (now - cur.loadedAtMs) < ttlMs;
 	}
 
-	private Map<String, FlagDefinition> readAndParse(Path path) {
-		if (!Files.exists(path)) {
-			return new HashMap<>();
+	/** 원본 스냅샷이 없으면 TTL/mtime과 관계없이 지금 읽습니다. */
+	private void loadPrimaryNow() {
+		reloadLock.lock();
+		try {
+			Cache cur = cacheRef.get();
+			if (!hasPrimary(cur)) reload(cur, System.currentTimeMillis(), lastModifiedMillis(filePath));
+		} finally {
+			reloadLock.unlock();
+		}
+	}
+
+	/** 감시 스레드에서 호출되며 mtime이 바뀐 경우에만 다시 읽습니다. */
+	private void reloadIfChanged() {
+		reloadLock.lock();
+		try {
+			Cache cur = cacheRef.get();
+			long mtime = lastModifiedMillis(filePath);
+			if (cur.loaded() && (cur.fileMtimeMs == mtime || cur.failedMtimeMs == mtime)) return;
+			reload(cur, System.currentTimeMillis(), mtime);
+		} finally {
+			reloadLock.unlock();
 		}
+	}
+
+	// reload: 성공하면 새 스냅샷 하나로 원자적으로 교체, 실패하면 마지막 정상 스냅샷 유지
+	// (원본을 한 번도 읽지 못했으면 last-good 캐시로 시작)
+	private Cache reload(Cache cur, long now, long mtime) {
+		long started = System.nanoTime();
+		JsonFlagSerde.Parsed parsed;
 		try {
-			String json = Files.readString(path);
-			return serde.parseToMap(json);
+			parsed = readAndParse(filePath, cur.parsed);
+		} catch (IOException | RuntimeException e) {
+			counters.failure(System.nanoTime() - started, e);
+			Cache booted = bootFromLastGood(cur, now, mtime);
+			if (booted != null) return booted;
+			return publish(latest -> new Cache(latest.snapshot, latest.parsed, now, latest.fileMtimeMs, mtime, latest.lastGood));
+		}
+		counters.success(System.nanoTime() - started, parsed.parsed(), parsed.reused());
+		Cache next = publish(latest -> {
+			// 내용이 그대로면(mtime만 바뀜) 스냅샷과 버전을 유지해 식별자 기반 캐시가 그대로 유효하도록 합니다.
+			FlagSnapshot snapshot = !latest.lastGood && sameInstances(latest, parsed)
+				? latest.snapshot : latest.snapshot.next(parsed.flags.values());
+			return new Cache(snapshot, parsed, now, mtime, -1L, false);
+		});
+		ready.complete(next.snapshot);
+		if (lastGoodCache != null && next.snapshot != cur.snapshot) writeLastGood(next.snapshot);
+		return next;
+	}
+
+	/**
+	 * 원본 스냅샷이 없을 때 last-good 캐시 파일로 시작합니다. 다른 스레드가 그 사이 원본을 게시했으면 아무것도 하지 않습니다.
+	 *
+	 * @return 게시한 캐시, 시작할 수 없으면 {@code null}
+	 */
+	private Cache bootFromLastGood(Cache cur, long now, long failedMtime) {
+		if (lastGoodCache == null || hasPrimary(cur) || cur.lastGood || !Files.exists(lastGoodCache)) return null;
+		Map<String, FlagDefinition> defs;
+		try {
+			defs = BinaryFlagFiles.read(lastGoodCache, parallelParse);
 		} catch (IOException e) {
-			// 운영에서는 로깅 후 “이전 캐시 유지” 같은 전략도 가능
-			return new HashMap<>();
+			counters.failure(0L, e);
+			return null;
+		}
+		Cache latest = cacheRef.get();
+		if (hasPrimary(latest) || latest.lastGood) return null;
+		// 파일 mtime을 알 수 없는 상태로 두어(-2) 원본이 준비되면 다음 확인에서 바로 읽도록 합니다.
+		Cache booted = new Cache(latest.snapshot.next(defs.values()), null, Math.max(1L, now), -2L, failedMtime, true);
+		if (!cacheRef.compareAndSet(latest, booted)) return null;
+		ready.complete(booted.snapshot);
+		return booted;
+	}
+
+	/** last-good 캐시와 경합할 수 있으므로 최신 캐시를 기준으로 다음 캐시를 만들어 CAS로 게시합니다. */
+	private Cache publish(UnaryOperator<Cache> nextOf) {
+		for (;;) {
+			Cache latest = cacheRef.get();
+			Cache next = nextOf.apply(latest);
+			if (cacheRef.compareAndSet(latest, next)) return next;
+		}
+	}
+
+	private void writeLastGood(FlagSnapshot snapshot) {
+		try {
+			BinaryFlagFiles.write(snapshot.definitions().values(), lastGoodCache);
+		} catch (IOException | RuntimeException e) {
+			counters.lastGoodWriteFailure(e);
+		}
+	}
+
+	private JsonFlagSerde.Parsed readAndParse(Path path, JsonFlagSerde.Parsed previous) throws IOException {
+		if (!Files.exists(path)) {
+			throw new NoSuchFileException(path.toString());
+		}
+		return serde.parse(path, previous, parallelParse);
+	}
+
+	private static boolean hasPrimary(Cache cur) {
+		return cur.parsed != null;
+	}
+
+	private static boolean sameInstances(Cache cur, JsonFlagSerde.Parsed parsed) {
+		if (!cur.loaded() || parsed.parsed() != 0 || parsed.flags.size() != cur.snapshot.size()) return false;
+		for (FlagDefinition def : parsed.flags.values()) {
+			if (cur.snapshot.find(def.key()) != def) return false;
 		}
+		return true;
 	}
 
 	private static long lastModifiedMillis(Path path) {
@@ -100,18 +369,99 @@ public final class JsonFileFlagStore implements FlagStore {
 	}
 
 	private static final class Cache {
-		final Map<String, FlagDefinition> flags;
+		final FlagSnapshot snapshot;
+		final JsonFlagSerde.Parsed parsed; // 증분 재적재 기준, 적재 전이면 null
 		final long loadedAtMs;
-		final long fileMtimeMs;
+		final long fileMtimeMs;   // snapshot을 만든 파일의 mtime
+		final long failedMtimeMs; // 마지막으로 실패한 파일의 mtime(같은 파일 재파싱 방지), 없으면 -1
+		final boolean lastGood;   // last-good 캐시 파일에서 읽은 스냅샷이면 true
 
-		Cache(Map<String, FlagDefinition> flags, long loadedAtMs, long fileMtimeMs) {
-			this.flags = flags == null ? new HashMap<>() : new HashMap<>(flags);
+		Cache(FlagSnapshot snapshot, JsonFlagSerde.Parsed parsed, long loadedAtMs, long fileMtimeMs, long failedMtimeMs,
+				boolean lastGood) {
+			this.snapshot = snapshot;
+			this.parsed = parsed;
 			this.loadedAtMs = loadedAtMs;
 			this.fileMtimeMs = fileMtimeMs;
+			this.failedMtimeMs = failedMtimeMs;
+			this.lastGood = lastGood;
 		}
 
 		static Cache empty() {
-			return new Cache(new HashMap<>(), 0L, 0L);
+			return new Cache(FlagSnapshot.empty(), null, 0L, 0L, -1L, false);
+		}
+
+		boolean loaded() {
+			return loadedAtMs > 0;
+		}
+
+		Cache touch(long now) {
+			return new Cache(snapshot, parsed, now, fileMtimeMs, failedMtimeMs, lastGood);
+		}
+	}
+
+	/**
+	 * {@link JsonFileFlagStore} 빌더입니다.
+	 */
+	public static final class Builder {
+		private final String filePath;
+		private Duration ttl = Duration.ofSeconds(3);
+		private RefreshMode refreshMode = RefreshMode.ON_REQUEST;
+		private Path lastGoodCache;
+		private boolean parallelParse;
+
+		private Builder(String filePath) {
+			this.filePath = filePath;
+		}
+
+		/**
+		 * @param ttl ON_REQUEST면 캐시 TTL(0이면 TTL 캐시 비활성), BACKGROUND/NON_BLOCKING이면 polling 주기(0이면 1초)
+		 * @return 현재 빌더
+		 */
+		public Builder ttl(Duration ttl) {
+			this.ttl = ttl;
+			return this;
+		}
+
+		/**
+		 * @param refreshMode 재적재 방식. {@code null}이면 ON_REQUEST
+		 * @return 현재 빌더
+		 */
+		public Builder refreshMode(RefreshMode refreshMode) {
+			this.refreshMode = refreshMode == null ? RefreshMode.ON_REQUEST : refreshMode;
+			return this;
+		}
+
+		/**
+		 * 마지막으로 성공한 스냅샷을 기록해 둘 로컬 캐시 파일을 설정합니다. 원본을 읽지 못한 채 시작할 때 사용합니다.
+		 *
+		 * @param lastGoodCache 캐시 파일 경로, {@code null}이면 사용하지 않음
+		 * @return 현재 빌더
+		 */
+		public Builder lastGoodCache(Path lastGoodCache) {
+			this.lastGoodCache = lastGoodCache;
+			return this;
+		}
+
+		/**
+		 * 바뀐 항목의 파싱/컴파일과 캐시 파일 디코딩을 공용 ForkJoin 풀에서 병렬로 수행할지 설정합니다.
+		 * 플래그가 수만 개 이상일 때 첫 적재 시간을 줄입니다.
+		 *
+		 * @param parallelParse 병렬 파싱 여부
+		 * @return 현재 빌더
+		 */
+		public Builder parallelParse(boolean parallelParse) {
+			this.parallelParse = parallelParse;
+			return this;
+		}
+
+		/**
+		 * 저장소를 생성합니다. BACKGROUND면 생성 시 한 번 읽은 뒤 감시 스레드를 시작하고, NON_BLOCKING이면 읽지 않고
+		 * 감시 스레드만 시작합니다.
+		 *
+		 * @return 저장소
+		 */
+		public JsonFileFlagStore build() {
+			return new JsonFileFlagStore(this);
 		}
 	}
 }
@@ -0,0 +1,39 @@
+package com.pluginpolicyengine.store.file;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * {@link JsonFileFlagStore}가 읽는 JSON 플래그 형식을 파일 밖(원격 저장소 응답 등)에서 읽고 쓰기 위한 유틸리티입니다.
+ */
+public final class JsonFlagCodec {
+	private static final JsonFlagSerde SERDE = new JsonFlagSerde();
+
+	private JsonFlagCodec() {
+	}
+
+	/**
+	 * Map 또는 List 형태의 JSON 플래그 문서를 읽습니다.
+	 *
+	 * @param json UTF-8 JSON 바이트
+	 * @return 키와 플래그 정의의 맵
+	 * @throws IOException 빈 입력, 잘못된 JSON, 최상위가 객체/배열이 아닌 경우
+	 */
+	public static Map<String, FlagDefinition> read(byte[] json) throws IOException {
+		return SERDE.parse(json, null).flags;
+	}
+
+	/**
+	 * 플래그 정의를 Map 형태 JSON 문서로 씁니다.
+	 *
+	 * @param definitions 플래그 정의 목록
+	 * @return UTF-8 JSON 바이트
+	 * @throws IOException 쓰기 실패
+	 */
+	public static byte[] write(Collection<FlagDefinition> definitions) throws IOException {
+		return SERDE.write(definitions);
+	}
+}
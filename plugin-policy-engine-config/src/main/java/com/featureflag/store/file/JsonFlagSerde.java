@@ -3,15 +3,28 @@ package com.pluginpolicyengine.store.file;
 import com.pluginpolicyengine.core.FlagDefinition;
 import com.pluginpolicyengine.core.Targeting;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
  * 플래그 정의용 내부 JSON 직렬화/역직렬화 유틸리티입니다.
  */
 final class JsonFlagSerde {
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
 
 	private final ObjectMapper om;
 
@@ -41,36 +54,564 @@ final class JsonFlagSerde {
 	 */
 	Map<String, FlagDefinition> parseToMap(String json) {
 		if (json == null || json.isBlank()) return new HashMap<>();
+		try {
+			return parse(json);
+		} catch (IOException | RuntimeException e) {
+			return new HashMap<>();
+		}
+	}
+
+	/**
+	 * {@link #parseToMap(String)}와 같은 포맷을 읽되, 잘못된 입력을 빈 맵 대신 예외로 알립니다.
+	 * 저장소가 실패 시 이전 스냅샷을 유지할 수 있도록 사용합니다.
+	 *
+	 * @param json 객체 맵 또는 리스트 형식의 JSON 문자열
+	 * @return 파싱된 플래그 맵
+	 * @throws IOException 비어 있거나, JSON이 아니거나, 최상위가 객체/배열이 아닌 경우
+	 */
+	Map<String, FlagDefinition> parse(String json) throws IOException {
+		if (json == null || json.isBlank()) throw new IOException("flag file is empty");
+
+		JsonNode root = om.readTree(json);
+		Map<String, FlagDefinition> out = new HashMap<>();
+
+		if (root.isArray()) {
+			for (JsonNode n : root) {
+				FlagDefinition def = toCore(n);
+				if (def != null) out.put(def.key(), def);
+			}
+			return out;
+		}
+
+		if (root.isObject()) {
+			Iterator<Map.Entry<String, JsonNode>> it = root.fields();
+			while (it.hasNext()) {
+				Map.Entry<String, JsonNode> e = it.next();
+				String key = e.getKey();
+				JsonNode node = e.getValue();
+
+				FlagDefinition def = toCore(node, key);
+				if (def != null) out.put(def.key(), def);
+			}
+			return out;
+		}
 
+		throw new IOException("flag file root must be an object or an array");
+	}
+
+	/**
+	 * 파일을 문자열이나 {@link JsonNode} 트리로 만들지 않고 {@link JsonParser} 토큰 스트림에서 바로
+	 * {@link FlagDefinition}을 만듭니다. 파일은 힙에 복사하지 않고 메모리 매핑해 읽습니다. 결과와 실패 조건은
+	 * {@link #parse(String)}와 같습니다.
+	 *
+	 * @param path JSON 파일 경로
+	 * @return 파싱된 플래그 맵
+	 * @throws IOException 읽기 실패, 빈 파일, 잘못된 JSON, 최상위가 객체/배열이 아닌 경우
+	 */
+	Map<String, FlagDefinition> parse(Path path) throws IOException {
+		return parse(path, null).flags;
+	}
+
+	/**
+	 * 이전 파싱 결과를 기준으로 파일을 증분 파싱합니다. 항목(플래그 값)별 원본 바이트 해시가 이전과
+	 * 같으면 토큰을 건너뛰고 기존 {@link FlagDefinition} 인스턴스(와 컴파일된 평가 계획)를 그대로
+	 * 재사용하므로, 재적재 비용과 생성 객체 수는 바뀐 항목 수에 비례합니다.
+	 *
+	 * @param path JSON 파일 경로
+	 * @param previous 이전 파싱 결과, 없으면 {@code null}
+	 * @return 파싱 결과
+	 * @throws IOException 읽기 실패, 빈 파일, 잘못된 JSON, 최상위가 객체/배열이 아닌 경우
+	 */
+	Parsed parse(Path path, Parsed previous) throws IOException {
+		return parse(path, previous, false);
+	}
+
+	/**
+	 * {@link #parse(Path, Parsed)}와 같지만 {@code parallel}이면 {@link #parse(byte[], Parsed, boolean)}처럼
+	 * 바뀐 항목을 병렬로 파싱합니다.
+	 *
+	 * <p>파일은 읽기 전용으로 메모리 매핑합니다. 토큰 스트림은 매핑된 버퍼에서 바로 읽고, 항목 해시와 바뀐 항목의
+	 * 재파싱도 같은 버퍼의 바이트 범위를 직접 사용하므로 파일 전체를 힙 배열로 복사하지 않습니다. 읽는 도중 파일이
+	 * 잘려 매핑 영역에 접근할 수 없게 되면 {@link IOException}으로 알립니다.</p>
+	 *
+	 * @param path JSON 파일 경로
+	 * @param previous 이전 파싱 결과, 없으면 {@code null}
+	 * @param parallel 항목 파싱을 병렬로 수행할지 여부
+	 * @return 파싱 결과
+	 * @throws IOException 읽기 실패, 빈 파일, 잘못된 JSON, 최상위가 객체/배열이 아닌 경우
+	 */
+	Parsed parse(Path path, Parsed previous, boolean parallel) throws IOException {
+		ByteBuffer content;
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = ch.size();
+			if (size > Integer.MAX_VALUE) throw new IOException("flag file is too large: " + size);
+			content = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
 		try {
-			JsonNode root = om.readTree(json);
-			Map<String, FlagDefinition> out = new HashMap<>();
+			return parse(content, previous, parallel);
+		} catch (InternalError e) {
+			// 매핑된 파일이 읽는 도중 잘리면 JVM은 접근 오류를 InternalError로 알립니다.
+			throw new IOException("flag file changed while reading: " + path, e);
+		}
+	}
 
-			if (root.isArray()) {
-				for (JsonNode n : root) {
-					FlagDefinition def = toCore(n);
-					if (def != null) out.put(def.key(), def);
+	/**
+	 * {@link #parse(Path, Parsed)}의 바이트 배열 버전입니다.
+	 *
+	 * @param content UTF-8 JSON 바이트
+	 * @param previous 이전 파싱 결과, 없으면 {@code null}
+	 * @return 파싱 결과
+	 * @throws IOException 빈 입력, 잘못된 JSON, 최상위가 객체/배열이 아닌 경우
+	 */
+	Parsed parse(byte[] content, Parsed previous) throws IOException {
+		return parse(content, previous, false);
+	}
+
+	/**
+	 * {@link #parse(byte[], Parsed)}와 같지만 {@code parallel}이면 바뀐(또는 처음 읽는) 항목의 위치만 먼저
+	 * 훑은 뒤 항목별 파싱과 컴파일을 공용 ForkJoin 풀에서 병렬로 수행합니다. 결과는 순차 파싱과 같습니다.
+	 *
+	 * @param content UTF-8 JSON 바이트
+	 * @param previous 이전 파싱 결과, 없으면 {@code null}
+	 * @param parallel 항목 파싱을 병렬로 수행할지 여부
+	 * @return 파싱 결과
+	 * @throws IOException 빈 입력, 잘못된 JSON, 최상위가 객체/배열이 아닌 경우
+	 */
+	Parsed parse(byte[] content, Parsed previous, boolean parallel) throws IOException {
+		return parse(ByteBuffer.wrap(content), previous, parallel);
+	}
+
+	private Parsed parse(ByteBuffer content, Parsed previous, boolean parallel) throws IOException {
+		boolean incremental = previous != null && !previous.byEntryHash.isEmpty();
+		try (JsonParser p = createParser(content, 0, content.limit())) {
+			JsonToken root = p.nextToken();
+			if (root == null) throw new IOException("flag file is empty");
+
+			EntryReader reader = new EntryReader(p, content, incremental ? previous.byEntryHash : null, parallel);
+			if (root == JsonToken.START_ARRAY) {
+				while (p.nextToken() != JsonToken.END_ARRAY) reader.read(null);
+				return reader.result(null);
+			}
+			if (root == JsonToken.START_OBJECT) {
+				// 트리 모델처럼 같은 맵 키가 반복되면 마지막 값만 남깁니다.
+				Map<String, Entry> byField = new LinkedHashMap<>();
+				while (p.nextToken() == JsonToken.FIELD_NAME) {
+					String key = p.currentName();
+					p.nextToken();
+					byField.put(key, reader.read(key));
+				}
+				return reader.result(byField.values());
+			}
+			throw new IOException("flag file root must be an object or an array");
+		}
+	}
+
+	/**
+	 * 증분 파싱 결과입니다. 다음 재적재에서 변경되지 않은 항목을 찾기 위한 항목 해시 인덱스를 함께 보관합니다.
+	 */
+	static final class Parsed {
+		final Map<String, FlagDefinition> flags;
+		final Map<Long, FlagDefinition> byEntryHash;
+		final int reused;
+
+		Parsed(Map<String, FlagDefinition> flags, Map<Long, FlagDefinition> byEntryHash, int reused) {
+			this.flags = flags;
+			this.byEntryHash = byEntryHash;
+			this.reused = reused;
+		}
+
+		/**
+		 * @return 이전 결과에서 인스턴스를 재사용한 플래그 수
+		 */
+		int reused() { return reused; }
+
+		/**
+		 * @return 새로 파싱한 플래그 수
+		 */
+		int parsed() { return flags.size() - reused; }
+	}
+
+	/** 파일의 항목 하나입니다. 병렬 모드에서 바뀐 항목은 {@code def}가 나중에 채워집니다. */
+	private static final class Entry {
+		final String keyFromMap;
+		final int start;
+		final int end;
+		final long hash;
+		FlagDefinition def;
+
+		Entry(String keyFromMap, int start, int end, long hash, FlagDefinition def) {
+			this.keyFromMap = keyFromMap;
+			this.start = start;
+			this.end = end;
+			this.hash = hash;
+			this.def = def;
+		}
+	}
+
+	/**
+	 * 항목 하나씩 읽으면서 원본 바이트 범위를 해시하고, 이전 결과에 같은 해시가 있으면 재사용합니다.
+	 * 해시는 64비트이며 맵 형식에서는 맵 키도 함께 섞습니다(정의가 맵 키에 따라 달라질 수 있으므로).
+	 * 해시 충돌로 다른 플래그의 정의를 재사용하지 않도록, 건너뛰면서 읽은 항목의 키가 재사용할 정의의 키와 다르면 새로 파싱합니다.
+	 * 병렬 모드에서는 새로 파싱할 항목의 바이트 범위만 모아 두었다가 {@link #result}에서 한꺼번에 파싱합니다.
+	 */
+	private final class EntryReader {
+		private final JsonParser p;
+		private final ByteBuffer content; // 절대 위치로만 읽으므로 병렬 재파싱에서도 공유합니다.
+		private final Map<Long, FlagDefinition> previous; // 첫 적재면 null
+		private final boolean parallel;
+		private final List<Entry> inOrder = new ArrayList<>();
+		private final List<Entry> pending = new ArrayList<>();
+		private final Set<FlagDefinition> reused = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		EntryReader(JsonParser p, ByteBuffer content, Map<Long, FlagDefinition> previous, boolean parallel) {
+			this.p = p;
+			this.content = content;
+			this.previous = previous;
+			this.parallel = parallel;
+		}
+
+		Entry read(String keyFromMap) throws IOException {
+			if (p.currentToken() != JsonToken.START_OBJECT) {
+				// 해시 인덱스에는 넣지 않습니다(객체가 아닌 항목은 재사용 대상이 아님).
+				Entry e = new Entry(keyFromMap, -1, -1, 0L, readFlag(p, keyFromMap));
+				inOrder.add(e);
+				return e;
+			}
+
+			int start = (int) p.currentTokenLocation().getByteOffset();
+			Entry e;
+			if (previous == null && !parallel) {
+				FlagDefinition def = readFlag(p, keyFromMap);
+				e = new Entry(keyFromMap, start, (int) p.currentLocation().getByteOffset(), entryHash(start, keyFromMap), def);
+			} else {
+				String key = skipEntry(keyFromMap);
+				long hash = entryHash(start, keyFromMap);
+				FlagDefinition def = previous == null ? null : previous.get(hash);
+				if (def != null && !def.key().equals(key)) def = null;
+				e = new Entry(keyFromMap, start, (int) p.currentLocation().getByteOffset(), hash, def);
+				if (def != null) {
+					reused.add(def);
+				} else if (parallel) {
+					pending.add(e);
+				} else {
+					e.def = subParse(e);
 				}
-				return out;
 			}
+			inOrder.add(e);
+			return e;
+		}
+
+		/** 맵 형식이면 필드 순서의 최종 항목 목록을, 배열 형식이면 {@code null}을 받습니다. */
+		Parsed result(Collection<Entry> kept) throws IOException {
+			if (!pending.isEmpty()) {
+				try {
+					pending.parallelStream().forEach(e -> {
+						try {
+							e.def = subParse(e);
+						} catch (IOException ex) {
+							throw new UncheckedIOException(ex);
+						}
+					});
+				} catch (UncheckedIOException ex) {
+					throw ex.getCause();
+				}
+			}
+
+			Map<Long, FlagDefinition> byEntryHash = new HashMap<>();
+			for (Entry e : inOrder) if (e.def != null && e.start >= 0) byEntryHash.put(e.hash, e.def);
+			Map<String, FlagDefinition> out = new HashMap<>();
+			for (Entry e : kept != null ? kept : inOrder) if (e.def != null) out.put(e.def.key(), e.def);
+
+			int reusedInResult = 0;
+			if (!reused.isEmpty()) {
+				for (FlagDefinition def : out.values()) if (reused.contains(def)) reusedInResult++;
+			}
+			return new Parsed(out, byEntryHash, reusedInResult);
+		}
+
+		/**
+		 * 객체 항목을 건너뛰면서 최상위 {@code key} 필드만 읽습니다.
+		 *
+		 * @return {@link #readFlag}가 정할 키, 없으면 {@code null}
+		 */
+		private String skipEntry(String keyFromMap) throws IOException {
+			String key = null;
+			while (p.nextToken() == JsonToken.FIELD_NAME) {
+				String field = p.currentName();
+				JsonToken v = p.nextToken();
+				if ("key".equals(field)) key = v == JsonToken.VALUE_STRING ? p.getText() : null;
+				else p.skipChildren();
+			}
+			return key == null || key.isBlank() ? keyFromMap : key;
+		}
+
+		private FlagDefinition subParse(Entry e) throws IOException {
+			try (JsonParser sub = createParser(content, e.start, e.end - e.start)) {
+				sub.nextToken();
+				return readFlag(sub, e.keyFromMap);
+			}
+		}
+
+		private long entryHash(int start, String keyFromMap) {
+			int end = (int) p.currentLocation().getByteOffset();
+			long h = FNV_OFFSET;
+			if (keyFromMap != null) {
+				for (int i = 0; i < keyFromMap.length(); i++) h = (h ^ keyFromMap.charAt(i)) * FNV_PRIME;
+				h = (h ^ 0xff) * FNV_PRIME;
+			}
+			for (int i = start; i < end; i++) h = (h ^ (content.get(i) & 0xff)) * FNV_PRIME;
+			return fmix64(h ^ (end - start));
+		}
+	}
+
+	/** 힙 버퍼는 배열을 그대로, 매핑된 버퍼는 복사 없이 해당 범위를 스트림으로 읽는 파서를 만듭니다. */
+	private JsonParser createParser(ByteBuffer content, int offset, int length) throws IOException {
+		if (content.hasArray()) {
+			return om.getFactory().createParser(content.array(), content.arrayOffset() + offset, length);
+		}
+		return om.getFactory().createParser(new ByteBufferInputStream(content.slice(offset, length)));
+	}
 
-			if (root.isObject()) {
-				Iterator<Map.Entry<String, JsonNode>> it = root.fields();
-				while (it.hasNext()) {
-					Map.Entry<String, JsonNode> e = it.next();
-					String key = e.getKey();
-					JsonNode node = e.getValue();
+	/** 버퍼의 position부터 limit까지를 읽는 스트림입니다. */
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buf;
 
-					FlagDefinition def = toCore(node, key);
-					if (def != null) out.put(def.key(), def);
+		ByteBufferInputStream(ByteBuffer buf) {
+			this.buf = buf;
+		}
+
+		@Override
+		public int read() {
+			return buf.hasRemaining() ? buf.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) return 0;
+			if (!buf.hasRemaining()) return -1;
+			int n = Math.min(len, buf.remaining());
+			buf.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return buf.remaining();
+		}
+	}
+
+	private static long fmix64(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/** 현재 토큰(값의 시작)에서 플래그 하나를 읽고, 값의 마지막 토큰에서 멈춥니다. */
+	private FlagDefinition readFlag(JsonParser p, String keyFromMap) throws IOException {
+		JsonToken t = p.currentToken();
+		if (t == JsonToken.VALUE_NULL) return null;
+
+		String key = null;
+		boolean enabled = true;
+		int rolloutPercent = 100;
+		String defaultVariant = null;
+		Targeting targeting = Targeting.allowAll();
+		List<String> variantNames = List.of();
+		List<Integer> variantWeights = List.of();
+
+		if (t == JsonToken.START_OBJECT) {
+			while (p.nextToken() == JsonToken.FIELD_NAME) {
+				String field = p.currentName();
+				JsonToken v = p.nextToken();
+				switch (field) {
+					case "key": key = v == JsonToken.VALUE_STRING ? p.getText() : null; break;
+					case "enabled": enabled = v != JsonToken.VALUE_FALSE; p.skipChildren(); break;
+					case "rolloutPercent": rolloutPercent = readInt(p, 100); break;
+					case "defaultVariant": defaultVariant = v == JsonToken.VALUE_STRING ? p.getText() : null; break;
+					case "targeting": targeting = readTargeting(p); break;
+					case "variants":
+						variantNames = new ArrayList<>();
+						variantWeights = new ArrayList<>();
+						readVariants(p, variantNames, variantWeights);
+						break;
+					default: p.skipChildren();
 				}
-				return out;
 			}
+		} else {
+			// 트리 모델과 동일하게: 객체가 아닌 값은 필드가 없는 정의로 취급합니다.
+			p.skipChildren();
+		}
 
+		if (key == null || key.isBlank()) key = keyFromMap;
+		if (key == null || key.isBlank()) return null;
+		if (defaultVariant == null || defaultVariant.isBlank()) defaultVariant = "on";
+
+		FlagDefinition.Builder b = FlagDefinition.builder(key)
+			.enabled(enabled)
+			.rolloutPercent(rolloutPercent)
+			.defaultVariant(defaultVariant)
+			.targeting(targeting);
+		for (int i = 0; i < variantNames.size(); i++) b.variant(variantNames.get(i), variantWeights.get(i));
+		return b.build();
+	}
+
+	private static void readVariants(JsonParser p, List<String> names, List<Integer> weights) throws IOException {
+		if (p.currentToken() != JsonToken.START_ARRAY) {
+			p.skipChildren();
+			return;
+		}
+		while (p.nextToken() != JsonToken.END_ARRAY) {
+			if (p.currentToken() != JsonToken.START_OBJECT) {
+				p.skipChildren();
+				continue;
+			}
+			String name = null;
+			int weight = 0;
+			while (p.nextToken() == JsonToken.FIELD_NAME) {
+				String field = p.currentName();
+				JsonToken v = p.nextToken();
+				if ("name".equals(field)) name = v == JsonToken.VALUE_STRING ? p.getText() : null;
+				else if ("weight".equals(field)) weight = readInt(p, 0);
+				else p.skipChildren();
+			}
+			if (name != null && !name.isBlank() && weight > 0) {
+				names.add(name);
+				weights.add(weight);
+			}
+		}
+	}
+
+	private static Targeting readTargeting(JsonParser p) throws IOException {
+		if (p.currentToken() != JsonToken.START_OBJECT) {
+			p.skipChildren();
+			return Targeting.allowAll();
+		}
+		// 같은 필드가 반복되면 트리 모델처럼 마지막 값만 사용합니다.
+		Map<String, List<String>> lists = new HashMap<>();
+		Map<String, Set<String>> requireAttrsIn = null;
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+				case "allowUserIds":
+				case "denyUserIds":
+				case "allowGroups":
+				case "denyGroups":
+					lists.put(field, readStrings(p));
+					break;
+				case "requireAttrsIn":
+					requireAttrsIn = readRequireAttrs(p);
+					break;
+				default:
+					p.skipChildren();
+			}
+		}
+
+		Targeting.Builder b = Targeting.builder();
+		lists.getOrDefault("allowUserIds", List.of()).forEach(b::allowUser);
+		lists.getOrDefault("denyUserIds", List.of()).forEach(b::denyUser);
+		lists.getOrDefault("allowGroups", List.of()).forEach(b::allowGroup);
+		lists.getOrDefault("denyGroups", List.of()).forEach(b::denyGroup);
+		if (requireAttrsIn != null) requireAttrsIn.forEach(b::requireAttrIn);
+		return b.build();
+	}
+
+	private static Map<String, Set<String>> readRequireAttrs(JsonParser p) throws IOException {
+		Map<String, Set<String>> out = new LinkedHashMap<>();
+		if (p.currentToken() != JsonToken.START_OBJECT) {
+			p.skipChildren();
 			return out;
-		} catch (Exception e) {
-			return new HashMap<>();
 		}
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String attrKey = p.currentName();
+			p.nextToken();
+			out.put(attrKey, new HashSet<>(readStrings(p)));
+		}
+		out.values().removeIf(Set::isEmpty);
+		return out;
+	}
+
+	private static List<String> readStrings(JsonParser p) throws IOException {
+		if (p.currentToken() != JsonToken.START_ARRAY) {
+			p.skipChildren();
+			return List.of();
+		}
+		List<String> out = new ArrayList<>();
+		while (p.nextToken() != JsonToken.END_ARRAY) {
+			if (p.currentToken() == JsonToken.VALUE_STRING) out.add(p.getText());
+			else p.skipChildren();
+		}
+		return out;
+	}
+
+	/** {@link JsonNode#canConvertToInt()}/{@link JsonNode#asInt()}와 같은 규칙으로 정수를 읽습니다. */
+	private static int readInt(JsonParser p, int def) throws IOException {
+		JsonToken t = p.currentToken();
+		if (t == JsonToken.VALUE_NUMBER_INT) {
+			return p.getNumberType() == JsonParser.NumberType.INT ? p.getIntValue() : def;
+		}
+		if (t == JsonToken.VALUE_NUMBER_FLOAT) {
+			double d = p.getDoubleValue();
+			return d >= Integer.MIN_VALUE && d <= Integer.MAX_VALUE ? (int) d : def;
+		}
+		p.skipChildren();
+		return def;
+	}
+
+	/**
+	 * 플래그 정의를 Map 형태 JSON으로 씁니다. 결과는 {@link #parse(byte[], Parsed)}로 같은 정의로 읽힙니다.
+	 * 집합 값은 정렬해 써서 같은 정의는 항상 같은 바이트가 됩니다.
+	 *
+	 * @param definitions 플래그 정의 목록
+	 * @return UTF-8 JSON 바이트
+	 * @throws IOException 쓰기 실패
+	 */
+	byte[] write(Collection<FlagDefinition> definitions) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, definitions.size() * 96));
+		try (JsonGenerator g = om.getFactory().createGenerator(out)) {
+			g.writeStartObject();
+			for (FlagDefinition def : definitions) {
+				g.writeFieldName(def.key());
+				writeFlag(g, def);
+			}
+			g.writeEndObject();
+		}
+		return out.toByteArray();
+	}
+
+	private static void writeFlag(JsonGenerator g, FlagDefinition def) throws IOException {
+		g.writeStartObject();
+		g.writeBooleanField("enabled", def.enabled());
+		g.writeNumberField("rolloutPercent", def.rolloutPercent());
+		g.writeStringField("defaultVariant", def.defaultVariant());
+		Targeting t = def.targeting();
+		g.writeObjectFieldStart("targeting");
+		writeStrings(g, "allowUserIds", t.allowUserIds());
+		writeStrings(g, "denyUserIds", t.denyUserIds());
+		writeStrings(g, "allowGroups", t.allowGroups());
+		writeStrings(g, "denyGroups", t.denyGroups());
+		g.writeObjectFieldStart("requireAttrsIn");
+		for (Map.Entry<String, Set<String>> e : new TreeMap<>(t.requireAttrsIn()).entrySet()) writeStrings(g, e.getKey(), e.getValue());
+		g.writeEndObject();
+		g.writeEndObject();
+		g.writeArrayFieldStart("variants");
+		for (FlagDefinition.VariantAllocation v : def.variants()) {
+			g.writeStartObject();
+			g.writeStringField("name", v.name());
+			g.writeNumberField("weight", v.weight());
+			g.writeEndObject();
+		}
+		g.writeEndArray();
+		g.writeEndObject();
+	}
+
+	private static void writeStrings(JsonGenerator g, String field, Set<String> values) throws IOException {
+		g.writeArrayFieldStart(field);
+		for (String v : new TreeSet<>(values)) g.writeString(v);
+		g.writeEndArray();
 	}
 
 	private FlagDefinition toCore(JsonNode node) {
@@ -0,0 +1,198 @@
+package com.pluginpolicyengine.store.file;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagStore;
+import com.pluginpolicyengine.core.Targeting;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * {@link BinaryFlagFiles}로 만든 바이너리 스냅샷을 {@link FileChannel#map}으로 열어 읽는 {@link FlagStore}입니다.
+ *
+ * <p>여는 시점에는 헤더만 검증하고, 플래그는 처음 조회될 때 해당 레코드만 디코딩해 캐시합니다.
+ * 따라서 시작 비용은 플래그 수와 거의 무관하고, 같은 파일을 여는 여러 JVM은 OS 페이지 캐시를 공유합니다.
+ * 키 조회는 정렬된 인덱스를 이진 탐색하며, 없는 키 조회는 객체를 만들지 않습니다.</p>
+ *
+ * <p>열린 시점의 파일 내용을 그대로 제공하는 읽기 전용 저장소입니다. 파일을 갱신하려면
+ * {@link BinaryFlagFiles#write(Collection, Path)}로 새 파일을 원자적으로 교체한 뒤 다시 엽니다.</p>
+ */
+public final class MappedBinaryFlagStore implements FlagStore {
+	private final ByteBuffer buf;
+	private final int flagCount;
+	private final int stringTablePos;
+	private final int indexPos;
+	private final AtomicReferenceArray<FlagDefinition> decoded; // 인덱스 위치별 지연 디코딩 결과
+
+	private MappedBinaryFlagStore(ByteBuffer buf) throws IOException {
+		this.buf = buf;
+		if (buf.capacity() < BinaryFlagFiles.HEADER_BYTES || buf.getInt(0) != BinaryFlagFiles.MAGIC) {
+			throw new IOException("not a binary flag file");
+		}
+		int version = buf.getInt(4);
+		if (version != BinaryFlagFiles.VERSION) throw new IOException("unsupported binary flag file version: " + version);
+		this.flagCount = buf.getInt(8);
+		this.stringTablePos = buf.getInt(16);
+		this.indexPos = buf.getInt(20);
+		if (flagCount < 0 || indexPos < 0 || (long) indexPos + (long) flagCount * BinaryFlagFiles.INDEX_ENTRY_BYTES > buf.capacity()) {
+			throw new IOException("truncated binary flag file");
+		}
+		this.decoded = new AtomicReferenceArray<>(flagCount);
+	}
+
+	/**
+	 * 바이너리 스냅샷 파일을 메모리 매핑으로 엽니다.
+	 *
+	 * @param path 바이너리 스냅샷 파일 경로
+	 * @return 저장소
+	 * @throws IOException 파일을 열 수 없거나 형식이 맞지 않는 경우
+	 */
+	public static MappedBinaryFlagStore open(Path path) throws IOException {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = ch.size();
+			if (size > Integer.MAX_VALUE) throw new IOException("binary flag file is too large: " + size);
+			MappedByteBuffer mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			return new MappedBinaryFlagStore(mapped);
+		}
+	}
+
+	/** 힙 버퍼에 읽어 둔 파일 내용으로 저장소를 만듭니다(매핑 없이 한 번 읽고 버릴 때 사용). */
+	static MappedBinaryFlagStore wrap(ByteBuffer buf) throws IOException {
+		return new MappedBinaryFlagStore(buf);
+	}
+
+	/**
+	 * 모든 레코드를 미리 디코딩해 첫 조회의 디코딩 비용을 시작 시점으로 옮깁니다.
+	 *
+	 * @param parallel {@code true}면 공용 ForkJoin 풀에서 나눠 디코딩합니다.
+	 */
+	public void warmUp(boolean parallel) {
+		IntStream positions = IntStream.range(0, flagCount);
+		(parallel ? positions.parallel() : positions).forEach(this::decodedAt);
+	}
+
+	/**
+	 * @return 파일에 들어 있는 플래그 수
+	 */
+	public int size() { return flagCount; }
+
+	@Override
+	public Optional<FlagDefinition> find(String key) {
+		return Optional.ofNullable(findOrNull(key));
+	}
+
+	@Override
+	public FlagDefinition findOrNull(String key) {
+		if (key == null || key.isBlank()) return null;
+		int hash = key.hashCode();
+		int i = firstIndexOf(hash);
+		for (; i < flagCount && indexHash(i) == hash; i++) {
+			FlagDefinition def = decoded.get(i);
+			if (def != null) {
+				if (def.key().equals(key)) return def;
+				continue;
+			}
+			if (string(buf.getInt(indexEntry(i) + 4)).equals(key)) return decodedAt(i);
+		}
+		return null;
+	}
+
+	/**
+	 * 모든 플래그를 디코딩해 반환합니다. 전체 플래그를 객체로 만들므로 평가 hot path에서는 사용하지 않습니다.
+	 *
+	 * @return 키와 정의의 불변 맵
+	 */
+	@Override
+	public Map<String, FlagDefinition> findAll() {
+		Map<String, FlagDefinition> out = new LinkedHashMap<>(flagCount * 2);
+		for (int i = 0; i < flagCount; i++) {
+			FlagDefinition def = decodedAt(i);
+			out.put(def.key(), def);
+		}
+		return Collections.unmodifiableMap(out);
+	}
+
+	private FlagDefinition decodedAt(int i) {
+		FlagDefinition def = decoded.get(i);
+		if (def != null) return def;
+		def = decode(indexEntry(i));
+		// 경합 시 먼저 게시된 인스턴스를 사용해 같은 플래그는 항상 같은 정의 객체를 반환합니다.
+		return decoded.compareAndSet(i, null, def) ? def : decoded.get(i);
+	}
+
+	private FlagDefinition decode(int entry) {
+		String key = string(buf.getInt(entry + 4));
+		int p = buf.getInt(entry + 8);
+
+		boolean enabled = buf.get(p) != 0;
+		int rolloutPercent = buf.getInt(p + 1);
+		long updatedAt = buf.getLong(p + 5);
+		String defaultVariant = string(buf.getInt(p + 13));
+		int variantCount = buf.getInt(p + 17);
+		p += 21;
+
+		FlagDefinition.Builder b = FlagDefinition.builder(key)
+			.enabled(enabled)
+			.rolloutPercent(rolloutPercent)
+			.defaultVariant(defaultVariant)
+			.updatedAt(Instant.ofEpochMilli(updatedAt));
+		for (int v = 0; v < variantCount; v++, p += 8) b.variant(string(buf.getInt(p)), buf.getInt(p + 4));
+
+		Targeting.Builder t = Targeting.builder();
+		p = readIds(p, t::allowUser);
+		p = readIds(p, t::denyUser);
+		p = readIds(p, t::allowGroup);
+		p = readIds(p, t::denyGroup);
+		int attrCount = buf.getInt(p);
+		p += 4;
+		for (int a = 0; a < attrCount; a++) {
+			String attrKey = string(buf.getInt(p));
+			Set<String> values = new HashSet<>();
+			p = readIds(p + 4, values::add);
+			t.requireAttrIn(attrKey, values);
+		}
+		return b.targeting(t.build()).build();
+	}
+
+	private int readIds(int p, java.util.function.Consumer<String> add) {
+		int count = buf.getInt(p);
+		p += 4;
+		for (int k = 0; k < count; k++, p += 4) add.accept(string(buf.getInt(p)));
+		return p;
+	}
+
+	/** 정렬된 인덱스에서 {@code hash} 이상인 첫 위치를 이진 탐색합니다. */
+	private int firstIndexOf(int hash) {
+		int lo = 0;
+		int hi = flagCount;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (indexHash(mid) < hash) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	private int indexEntry(int i) { return indexPos + i * BinaryFlagFiles.INDEX_ENTRY_BYTES; }
+
+	private int indexHash(int i) { return buf.getInt(indexEntry(i)); }
+
+	private String string(int id) {
+		int pos = buf.getInt(stringTablePos + id * 4);
+		int len = buf.getInt(pos);
+		// 손상되었거나 갱신 중인 영역을 읽어도 큰 배열을 만들지 않도록 범위를 먼저 확인합니다.
+		if (len < 0 || len > buf.capacity() - pos - 4) throw new IndexOutOfBoundsException("string " + id + " out of bounds");
+		byte[] bytes = new byte[len];
+		buf.get(pos + 4, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
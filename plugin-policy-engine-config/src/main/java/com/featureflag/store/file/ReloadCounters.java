@@ -0,0 +1,48 @@
+package com.pluginpolicyengine.store.file;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 재적재 경로에서 잠금 없이 갱신하는 카운터 모음입니다.
+ */
+final class ReloadCounters {
+	private final LongAdder attempts = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAdder lastGoodWriteFailures = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+	private volatile long lastNanos;
+	private volatile int lastParsedFlags;
+	private volatile int lastReusedFlags;
+	private volatile String lastError;
+
+	void success(long nanos, int parsedFlags, int reusedFlags) {
+		lastParsedFlags = parsedFlags;
+		lastReusedFlags = reusedFlags;
+		record(nanos);
+	}
+
+	void failure(long nanos, Throwable error) {
+		failures.increment();
+		lastError = error.getClass().getSimpleName() + ": " + error.getMessage();
+		record(nanos);
+	}
+
+	void lastGoodWriteFailure(Throwable error) {
+		lastGoodWriteFailures.increment();
+		lastError = "last-good cache write failed: " + error.getClass().getSimpleName() + ": " + error.getMessage();
+	}
+
+	private void record(long nanos) {
+		attempts.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		lastNanos = nanos;
+	}
+
+	ReloadStats snapshot(boolean servingLastGood) {
+		return new ReloadStats(attempts.sum(), failures.sum(), totalNanos.sum(), lastNanos, maxNanos.get(), lastError,
+			lastParsedFlags, lastReusedFlags, servingLastGood, lastGoodWriteFailures.sum());
+	}
+}
@@ -0,0 +1,89 @@
+package com.pluginpolicyengine.store.file;
+
+/**
+ * 파일 기반 저장소의 재적재 통계 스냅샷입니다.
+ */
+public final class ReloadStats {
+	private final long attempts;
+	private final long failures;
+	private final long totalNanos;
+	private final long lastNanos;
+	private final long maxNanos;
+	private final String lastError;
+	private final int lastParsedFlags;
+	private final int lastReusedFlags;
+	private final boolean servingLastGood;
+	private final long lastGoodWriteFailures;
+
+	ReloadStats(long attempts, long failures, long totalNanos, long lastNanos, long maxNanos, String lastError,
+		int lastParsedFlags, int lastReusedFlags, boolean servingLastGood, long lastGoodWriteFailures) {
+		this.attempts = attempts;
+		this.failures = failures;
+		this.totalNanos = totalNanos;
+		this.lastNanos = lastNanos;
+		this.maxNanos = maxNanos;
+		this.lastError = lastError;
+		this.lastParsedFlags = lastParsedFlags;
+		this.lastReusedFlags = lastReusedFlags;
+		this.servingLastGood = servingLastGood;
+		this.lastGoodWriteFailures = lastGoodWriteFailures;
+	}
+
+	/**
+	 * @return 파일을 실제로 읽고 파싱하려 한 횟수
+	 */
+	public long attempts() { return attempts; }
+
+	/**
+	 * @return 읽기/파싱에 실패해 이전 스냅샷을 유지한 횟수
+	 */
+	public long failures() { return failures; }
+
+	/**
+	 * @return 전체 재적재 소요 시간 합계(ns)
+	 */
+	public long totalNanos() { return totalNanos; }
+
+	/**
+	 * @return 마지막 재적재 소요 시간(ns)
+	 */
+	public long lastNanos() { return lastNanos; }
+
+	/**
+	 * @return 가장 오래 걸린 재적재 소요 시간(ns)
+	 */
+	public long maxNanos() { return maxNanos; }
+
+	/**
+	 * @return 마지막 실패 사유, 실패한 적이 없으면 {@code null}
+	 */
+	public String lastError() { return lastError; }
+
+	/**
+	 * @return 마지막 성공한 재적재에서 새로 파싱한 플래그 수
+	 */
+	public int lastParsedFlags() { return lastParsedFlags; }
+
+	/**
+	 * @return 마지막 성공한 재적재에서 내용이 같아 기존 정의를 재사용한 플래그 수
+	 */
+	public int lastReusedFlags() { return lastReusedFlags; }
+
+	/**
+	 * @return 원본 파일을 아직 읽지 못해 last-good 캐시 파일의 스냅샷을 제공 중이면 {@code true}
+	 */
+	public boolean servingLastGood() { return servingLastGood; }
+
+	/**
+	 * @return last-good 캐시 파일 기록에 실패한 횟수
+	 */
+	public long lastGoodWriteFailures() { return lastGoodWriteFailures; }
+
+	@Override
+	public String toString() {
+		return "ReloadStats{attempts=" + attempts + ", failures=" + failures + ", totalNanos=" + totalNanos
+			+ ", lastNanos=" + lastNanos + ", maxNanos=" + maxNanos + ", lastError=" + lastError
+			+ ", lastParsedFlags=" + lastParsedFlags + ", lastReusedFlags=" + lastReusedFlags
+			+ ", servingLastGood=" + servingLastGood + ", lastGoodWriteFailures=" + lastGoodWriteFailures + '}';
+	}
+}
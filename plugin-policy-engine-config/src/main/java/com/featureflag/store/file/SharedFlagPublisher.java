@@ -0,0 +1,158 @@
+package com.pluginpolicyengine.store.file;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 플래그 스냅샷을 여러 JVM이 함께 읽는 공유 메모리 영역에 게시합니다. 독자는 {@link SharedFlagStore}입니다.
+ *
+ * <p>한 호스트에서 게시자 하나(사이드카나 대표 JVM)가 원본 저장소의 변경을 받아 {@link #publish(Collection)}하고,
+ * 나머지 JVM은 같은 파일을 매핑해 각자 파싱 없이 읽습니다. 스냅샷은 {@link BinaryFlagFiles} 형식으로 두 슬롯에 번갈아
+ * 씁니다. 게시는 독자가 읽고 있는 활성 슬롯을 건드리지 않고, seqlock 헤더로 슬롯 재사용을 알립니다. 여러 프로세스가
+ * 같은 영역에 게시하면 파일 잠금으로 한 번에 하나씩 게시합니다.</p>
+ *
+ * <p>영역 크기는 만들 때 정하며 늘어나지 않습니다. 스냅샷이 슬롯보다 크면 {@link IOException}을 던지고 이전 스냅샷을
+ * 유지하므로, 예상 스냅샷 크기의 여유 있는 배수로 정합니다. 파일은 보통 {@code /dev/shm} 같은 메모리 파일 시스템에
+ * 둡니다.</p>
+ */
+public final class SharedFlagPublisher implements AutoCloseable {
+	private final Path path;
+	private final FileChannel channel;
+	private final MappedByteBuffer buf;
+	private final int slotCapacity;
+
+	private SharedFlagPublisher(Path path, FileChannel channel, MappedByteBuffer buf) {
+		this.path = path;
+		this.channel = channel;
+		this.buf = buf;
+		this.slotCapacity = buf.getInt(SharedFlagRegion.SLOT_CAPACITY);
+	}
+
+	/**
+	 * 공유 영역을 엽니다. 파일이 없으면 빈 스냅샷을 담은 영역을 만들고, 있으면 기존 영역과 버전을 이어서 씁니다.
+	 *
+	 * @param path 영역 파일 경로
+	 * @param slotCapacity 새로 만들 때 슬롯 하나의 바이트 크기(영역 파일은 이 값의 두 배 + 64바이트)
+	 * @return 게시자
+	 * @throws IOException 파일을 열 수 없거나 기존 파일이 공유 영역 형식이 아닌 경우
+	 */
+	public static SharedFlagPublisher open(Path path, int slotCapacity) throws IOException {
+		if (slotCapacity <= 0) throw new IllegalArgumentException("slotCapacity must be positive: " + slotCapacity);
+		FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		try {
+			FileLock lock = ch.lock();
+			try {
+				return initialize(path, ch, slotCapacity);
+			} finally {
+				lock.release();
+			}
+		} catch (IOException | RuntimeException e) {
+			ch.close();
+			throw e;
+		}
+	}
+
+	private static SharedFlagPublisher initialize(Path path, FileChannel ch, int slotCapacity) throws IOException {
+		boolean existed = ch.size() > 0;
+		long size = existed ? ch.size() : SharedFlagRegion.HEADER_BYTES + 2L * slotCapacity;
+		if (size > Integer.MAX_VALUE) throw new IOException("shared flag region is too large: " + size);
+		MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		if (existed) {
+			SharedFlagRegion.checkHeader(buf, path);
+		} else {
+			buf.putInt(0, SharedFlagRegion.MAGIC);
+			buf.putInt(4, SharedFlagRegion.LAYOUT);
+			buf.putInt(SharedFlagRegion.SLOT_CAPACITY, slotCapacity);
+			byte[] empty = encode(List.of());
+			if (empty.length > slotCapacity) throw new IllegalArgumentException("slotCapacity is too small: " + slotCapacity);
+			buf.put(SharedFlagRegion.slotPos(buf, 0), empty);
+			SharedFlagRegion.slotMeta(buf, 0, 0L, empty.length);
+			SharedFlagRegion.activeSlotRelease(buf, 0);
+			SharedFlagRegion.sequenceRelease(buf, 0L);
+			buf.force();
+		}
+		return new SharedFlagPublisher(path, ch, buf);
+	}
+
+	/**
+	 * 정의 목록을 새 버전으로 게시합니다. 같은 키가 여러 번 나오면 마지막 정의를 사용합니다.
+	 *
+	 * @param definitions 플래그 정의 목록
+	 * @return 게시한 스냅샷 버전
+	 * @throws IOException 스냅샷이 슬롯보다 크거나 파일 잠금에 실패한 경우
+	 */
+	public long publish(Collection<FlagDefinition> definitions) throws IOException {
+		byte[] data = encode(definitions);
+		if (data.length > slotCapacity) {
+			throw new IOException("snapshot of " + data.length + " bytes does not fit shared flag region slot of "
+				+ slotCapacity + " bytes: " + path);
+		}
+		// 파일 잠금은 프로세스 사이만 배타적이므로 같은 JVM 안의 게시는 먼저 모니터로 직렬화합니다.
+		synchronized (this) {
+			FileLock lock = channel.lock();
+			try {
+				long seq = SharedFlagRegion.sequenceVolatile(buf);
+				if ((seq & 1L) != 0) seq++; // 이전 게시자가 중간에 죽은 경우
+				int active = SharedFlagRegion.activeSlotAcquire(buf);
+				int next = 1 - active;
+				long version = SharedFlagRegion.slotVersion(buf, active) + 1;
+
+				SharedFlagRegion.sequenceVolatile(buf, seq + 1);
+				// 이후의 일반 쓰기가 홀수 sequence보다 먼저 보이지 않도록 막습니다(seqlock 쓰기 규칙).
+				VarHandle.storeStoreFence();
+				buf.put(SharedFlagRegion.slotPos(buf, next), data);
+				SharedFlagRegion.slotMeta(buf, next, version, data.length);
+				SharedFlagRegion.activeSlotRelease(buf, next);
+				SharedFlagRegion.sequenceRelease(buf, seq + 2);
+				return version;
+			} finally {
+				lock.release();
+			}
+		}
+	}
+
+	/**
+	 * 스냅샷의 정의 전체를 새 버전으로 게시합니다. 공유 영역 버전은 스냅샷 버전과 별개로 1씩 증가합니다.
+	 *
+	 * @param snapshot 게시할 스냅샷
+	 * @return 게시한 스냅샷 버전
+	 * @throws IOException 스냅샷이 슬롯보다 크거나 파일 잠금에 실패한 경우
+	 */
+	public long publish(FlagSnapshot snapshot) throws IOException {
+		return publish(snapshot.definitions().values());
+	}
+
+	/**
+	 * @return 슬롯 하나의 바이트 크기
+	 */
+	public int slotCapacity() {
+		return slotCapacity;
+	}
+
+	/**
+	 * 파일 채널을 닫습니다. 이미 게시한 스냅샷은 영역 파일에 남아 독자가 계속 읽을 수 있습니다.
+	 *
+	 * @throws IOException 닫기 실패
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private static byte[] encode(Collection<FlagDefinition> definitions) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(256, definitions.size() * 64));
+		BinaryFlagFiles.write(definitions, out);
+		return out.toByteArray();
+	}
+}
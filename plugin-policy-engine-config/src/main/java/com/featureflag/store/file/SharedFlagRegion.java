@@ -0,0 +1,112 @@
+package com.pluginpolicyengine.store.file;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 여러 JVM이 공유하는 플래그 스냅샷 영역(메모리 매핑 파일)의 배치와 seqlock 헤더 접근을 모아 둔 내부 유틸리티입니다.
+ *
+ * <pre>
+ * header (64 bytes, 빅엔디언)
+ *   0  magic(int) "FFSH"       4  layout(int)
+ *   8  sequence(long)          -- seqlock: 홀수면 게시 중, 짝수면 안정
+ *   16 activeSlot(int)         20 slotCapacity(int)
+ *   24 slot 0 version(long)    32 slot 0 length(int)
+ *   40 slot 1 version(long)    48 slot 1 length(int)
+ * slot 0 : [64, 64 + slotCapacity)                 -- {@link BinaryFlagFiles} 형식의 스냅샷
+ * slot 1 : [64 + slotCapacity, 64 + 2 × slotCapacity)
+ * </pre>
+ *
+ * <p>게시자는 sequence를 홀수로 올린 뒤 비활성 슬롯과 그 슬롯의 메타데이터를 쓰고, activeSlot을 바꾼 다음 짝수로
+ * 올립니다. 게시는 활성 슬롯을 건드리지 않으므로 독자는 게시 중(홀수)에도 activeSlot이 가리키는 슬롯을 읽을 수 있습니다.
+ * 독자가 읽은 슬롯은 그 뒤 두 번째 게시가 시작될 때 처음 재사용되므로, 읽기 시작할 때의 sequence로 {@link #reuseBound(long)}를
+ * 구해 두고 그 값을 넘지 않았으면 읽은 내용을 그대로 씁니다.</p>
+ */
+final class SharedFlagRegion {
+	static final int MAGIC = 0x46465348; // "FFSH"
+	static final int LAYOUT = 1;
+	static final int HEADER_BYTES = 64;
+	static final int SEQUENCE = 8;
+	static final int ACTIVE_SLOT = 16;
+	static final int SLOT_CAPACITY = 20;
+	private static final int SLOT_META = 24;
+	private static final int SLOT_META_BYTES = 16;
+
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+	private SharedFlagRegion() {
+	}
+
+	static MappedByteBuffer mapReadOnly(Path path) throws IOException {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = ch.size();
+			if (size > Integer.MAX_VALUE) throw new IOException("shared flag region is too large: " + size);
+			if (size < HEADER_BYTES) throw new IOException("not a shared flag region: " + path);
+			return ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+	}
+
+	static void checkHeader(ByteBuffer buf, Path path) throws IOException {
+		if (buf.getInt(0) != MAGIC) throw new IOException("not a shared flag region: " + path);
+		if (buf.getInt(4) != LAYOUT) throw new IOException("unsupported shared flag region layout: " + buf.getInt(4));
+		long slots = (long) HEADER_BYTES + 2L * buf.getInt(SLOT_CAPACITY);
+		if (buf.getInt(SLOT_CAPACITY) <= 0 || slots > buf.capacity()) throw new IOException("truncated shared flag region: " + path);
+	}
+
+	/**
+	 * sequence {@code seq}를 본 뒤 읽은 활성 슬롯이 재사용되기 전까지의 최대 sequence입니다. 짝수면 다음 게시가 끝날
+	 * 때까지, 홀수(게시 중)면 활성 슬롯이 아직 바뀌기 전일 수 있으므로 그 게시가 끝날 때까지입니다.
+	 */
+	static long reuseBound(long seq) {
+		return (seq & ~1L) + 2;
+	}
+
+	static long sequenceAcquire(ByteBuffer buf) {
+		return (long) LONGS.getAcquire(buf, SEQUENCE);
+	}
+
+	static long sequenceVolatile(ByteBuffer buf) {
+		return (long) LONGS.getVolatile(buf, SEQUENCE);
+	}
+
+	static void sequenceVolatile(ByteBuffer buf, long value) {
+		LONGS.setVolatile(buf, SEQUENCE, value);
+	}
+
+	static void sequenceRelease(ByteBuffer buf, long value) {
+		LONGS.setRelease(buf, SEQUENCE, value);
+	}
+
+	static int activeSlotAcquire(ByteBuffer buf) {
+		return (int) INTS.getAcquire(buf, ACTIVE_SLOT) & 1;
+	}
+
+	static void activeSlotRelease(ByteBuffer buf, int slot) {
+		INTS.setRelease(buf, ACTIVE_SLOT, slot);
+	}
+
+	static int slotPos(ByteBuffer buf, int slot) {
+		return HEADER_BYTES + slot * buf.getInt(SLOT_CAPACITY);
+	}
+
+	static long slotVersion(ByteBuffer buf, int slot) {
+		return buf.getLong(SLOT_META + slot * SLOT_META_BYTES);
+	}
+
+	static int slotLength(ByteBuffer buf, int slot) {
+		return buf.getInt(SLOT_META + slot * SLOT_META_BYTES + 8);
+	}
+
+	static void slotMeta(ByteBuffer buf, int slot, long version, int length) {
+		buf.putLong(SLOT_META + slot * SLOT_META_BYTES, version);
+		buf.putInt(SLOT_META + slot * SLOT_META_BYTES + 8, length);
+	}
+}
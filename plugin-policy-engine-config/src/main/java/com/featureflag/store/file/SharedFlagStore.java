@@ -0,0 +1,199 @@
+package com.pluginpolicyengine.store.file;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagSnapshot;
+import com.pluginpolicyengine.core.SnapshotFlagStore;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link SharedFlagPublisher}가 게시한 공유 메모리 영역을 읽는 {@link SnapshotFlagStore}입니다.
+ *
+ * <p>영역 파일을 읽기 전용으로 매핑하고 활성 슬롯을 {@link MappedBinaryFlagStore}로 바로 읽으므로, 같은 호스트의
+ * JVM들은 스냅샷 바이트를 OS 페이지 캐시 하나로 공유하고 각자 파일을 파싱하지 않습니다. {@link #findOrNull(String)}은
+ * 처음 조회될 때 해당 레코드만 디코딩해 슬롯 버전별로 캐시합니다. {@link #snapshot()}은 게시 버전마다 한 번 모든 레코드를
+ * 디코딩해 그 버전을 스냅샷 버전으로 쓰는 {@link FlagSnapshot}을 만들어 두므로, 평가 서비스(전체 평가와 결정 캐시 포함)는
+ * 게시 사이에 다시 디코딩하지 않습니다.</p>
+ *
+ * <p>조회는 잠금 없이 seqlock 헤더를 확인합니다. 게시는 활성 슬롯을 건드리지 않으므로, 게시 중(홀수 sequence)에는
+ * 마지막으로 안정된 슬롯을 계속 읽고, 읽는 동안 그 슬롯이 재사용되었을 때만 다시 읽습니다. 게시자가 게시 도중 죽어도
+ * 독자는 기다리지 않고 마지막 스냅샷을 제공합니다. 새 버전은 게시가 끝난 뒤 다음 조회에서 바로 반영되며 별도 감시
+ * 스레드가 없습니다.</p>
+ */
+public final class SharedFlagStore implements SnapshotFlagStore {
+	private final Path path;
+	private final ByteBuffer region;
+	private volatile View view;
+
+	private SharedFlagStore(Path path, ByteBuffer region) {
+		this.path = path;
+		this.region = region;
+	}
+
+	/**
+	 * 공유 영역 파일을 엽니다. 게시자가 먼저 영역을 만들어 두어야 합니다.
+	 *
+	 * @param path 영역 파일 경로
+	 * @return 저장소
+	 * @throws IOException 파일을 열 수 없거나 형식이 맞지 않는 경우
+	 */
+	public static SharedFlagStore open(Path path) throws IOException {
+		ByteBuffer region = SharedFlagRegion.mapReadOnly(path);
+		SharedFlagRegion.checkHeader(region, path);
+		SharedFlagStore store = new SharedFlagStore(path, region);
+		store.view = store.stableView();
+		return store;
+	}
+
+	/**
+	 * 현재 활성 스냅샷의 모든 레코드를 미리 디코딩합니다. 이후 게시된 스냅샷은 다시 지연 디코딩합니다.
+	 *
+	 * @param parallel {@code true}면 공용 ForkJoin 풀에서 나눠 디코딩합니다.
+	 */
+	public void warmUp(boolean parallel) {
+		View v = current();
+		try {
+			v.store.warmUp(parallel);
+		} catch (RuntimeException e) {
+			// 미리 디코딩하는 도중 게시가 있었으면 새 스냅샷은 조회할 때 디코딩합니다.
+			if (isStable(v)) throw e;
+			return;
+		}
+		snapshot();
+	}
+
+	/**
+	 * 현재 활성 슬롯의 스냅샷을 반환합니다. 게시 버전마다 처음 호출될 때 모든 레코드를 디코딩합니다.
+	 *
+	 * @return 게시 버전을 버전으로 쓰는 스냅샷
+	 */
+	@Override
+	public FlagSnapshot snapshot() {
+		for (;;) {
+			View v = current();
+			FlagSnapshot snapshot = v.snapshot;
+			if (snapshot != null) return snapshot;
+			Map<String, FlagDefinition> all;
+			try {
+				all = v.store.findAll();
+			} catch (RuntimeException e) {
+				if (isStable(v)) throw e;
+				continue;
+			}
+			if (!isStable(v)) continue;
+			snapshot = FlagSnapshot.of(v.version, all.values());
+			v.snapshot = snapshot;
+			return snapshot;
+		}
+	}
+
+	/**
+	 * @return 현재 활성 스냅샷의 게시 버전
+	 */
+	public long version() {
+		return current().version;
+	}
+
+	/**
+	 * @return 현재 활성 스냅샷의 플래그 수
+	 */
+	public int size() {
+		return current().store.size();
+	}
+
+	@Override
+	public Optional<FlagDefinition> find(String key) {
+		return Optional.ofNullable(findOrNull(key));
+	}
+
+	@Override
+	public FlagDefinition findOrNull(String key) {
+		for (;;) {
+			View v = current();
+			FlagDefinition def;
+			try {
+				def = v.store.findOrNull(key);
+			} catch (RuntimeException e) {
+				// 게시 도중의 바이트를 읽었을 수 있습니다. sequence로 확인해 다시 읽습니다.
+				if (isStable(v)) throw e;
+				continue;
+			}
+			if (isStable(v)) return def;
+		}
+	}
+
+	/**
+	 * 현재 스냅샷의 모든 플래그를 반환합니다. 게시 버전마다 한 번만 디코딩합니다.
+	 *
+	 * @return 키와 정의의 불변 맵
+	 */
+	@Override
+	public Map<String, FlagDefinition> findAll() {
+		return snapshot().definitions();
+	}
+
+	/** 읽는 동안 슬롯이 재사용되지 않았는지 확인합니다. 앞선 버퍼 읽기가 sequence 읽기보다 뒤로 밀리지 않도록 acquire 울타리를 둡니다. */
+	private boolean isStable(View v) {
+		return notReused(v.reuseBound);
+	}
+
+	private boolean notReused(long reuseBound) {
+		VarHandle.acquireFence();
+		return SharedFlagRegion.sequenceVolatile(region) <= reuseBound;
+	}
+
+	private View current() {
+		View v = view;
+		long seq = SharedFlagRegion.sequenceAcquire(region);
+		// 같은 sequence이거나 게시 중이어도 읽던 슬롯이 아직 재사용되지 않았으면 그대로 씁니다.
+		if (seq == v.sequence || ((seq & 1L) != 0 && seq <= v.reuseBound)) return v;
+		v = stableView();
+		view = v;
+		return v;
+	}
+
+	/**
+	 * 활성 슬롯의 뷰를 만듭니다. 게시 중에도 활성 슬롯은 온전하므로 기다리지 않으며, 만드는 동안 그 슬롯이 재사용된 경우(게시가
+	 * 두 번 시작된 경우)에만 다시 읽습니다.
+	 */
+	private View stableView() {
+		for (;;) {
+			long seq = SharedFlagRegion.sequenceAcquire(region);
+			int slot = SharedFlagRegion.activeSlotAcquire(region);
+			long version = SharedFlagRegion.slotVersion(region, slot);
+			int length = SharedFlagRegion.slotLength(region, slot);
+			View v;
+			try {
+				MappedBinaryFlagStore store = MappedBinaryFlagStore.wrap(
+					region.slice(SharedFlagRegion.slotPos(region, slot), length));
+				v = new View(seq, version, store);
+			} catch (IOException | RuntimeException e) {
+				if (notReused(SharedFlagRegion.reuseBound(seq))) {
+					throw new IllegalStateException("corrupt shared flag region: " + path, e);
+				}
+				continue;
+			}
+			if (isStable(v)) return v;
+		}
+	}
+
+	private static final class View {
+		final long sequence;
+		final long reuseBound; // sequence가 이 값을 넘으면 슬롯이 재사용되었을 수 있습니다.
+		final long version;
+		final MappedBinaryFlagStore store;
+		FlagSnapshot snapshot; // 지연 생성(불변이므로 경합 시 중복 생성만 허용)
+
+		View(long sequence, long version, MappedBinaryFlagStore store) {
+			this.sequence = sequence;
+			this.reuseBound = SharedFlagRegion.reuseBound(sequence);
+			this.version = version;
+			this.store = store;
+		}
+	}
+}
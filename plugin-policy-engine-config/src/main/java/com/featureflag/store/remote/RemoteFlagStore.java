@@ -0,0 +1,454 @@
+package com.pluginpolicyengine.store.remote;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagSnapshot;
+import com.pluginpolicyengine.core.FlagStore;
+import com.pluginpolicyengine.core.SnapshotFlagStore;
+import com.pluginpolicyengine.store.file.JsonFlagCodec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 중앙 플래그 서비스에서 전체 스냅샷으로 시작한 뒤 스트리밍 연결로 버전별 변경분(delta)을 받아 반영하는
+ * {@link FlagStore} 구현체입니다.
+ *
+ * <p>프로토콜({@link StandInFlagServer}가 같은 프로토콜을 구현합니다):</p>
+ * <pre>
+ * GET {base}/flags                  → 200, 본문은 JSON 플래그 문서, ETag: "버전"
+ *                                     (If-None-Match가 현재 버전이면 304)
+ * GET {base}/stream?since={버전}    → text/event-stream
+ *   id: 42
+ *   event: delta
+ *   data: {"base": 41, "put": {JSON 플래그 문서}, "remove": ["key", ...]}
+ *
+ *   event: resync                   → 변경분을 이어 줄 수 없으니 전체 스냅샷을 다시 받으라는 뜻
+ *
+ *   : heartbeat                     → 주석 줄. 변경이 없어도 유휴 제한 시간보다 자주 보냅니다.
+ * </pre>
+ *
+ * <p>daemon 스레드 하나가 시작 스냅샷과 스트림 수신을 모두 처리하고, 변경분마다 새 {@link FlagSnapshot} 하나를
+ * 원자적으로 게시하므로 조회는 volatile 읽기와 해시 조회로 끝납니다. 변경분은
+ * {@link FlagSnapshot#withChanges(Collection, Collection)}로 바뀐 키만 컴파일하고 해시하며, 남은 비용은 스냅샷 배열
+ * 복사(플래그 수에 비례하는 메모리 복사)입니다. 변경분의 {@code base}가 마지막으로 반영한 원격
+ * 버전과 다르면(누락) 스트림을 끊고 ETag 조건부 요청으로 전체 스냅샷을 다시 받은 뒤 이어서 구독합니다. 연결이 끊기면
+ * 지수 백오프로 다시 연결하며, 그동안 마지막 스냅샷을 계속 제공합니다. 로컬 스냅샷 버전은 원격 버전과 별개로
+ * 단조 증가합니다.</p>
+ *
+ * <p>LB 유휴 연결 정리나 NAT 만료로 연결이 반쯤 끊기면 읽기가 끝나지 않으므로, 감시 스레드가 heartbeat를 포함해 마지막으로
+ * 줄을 받은 뒤 {@link Builder#idleTimeout(Duration)}이 지난 스트림을 닫고 전체 스냅샷을 다시 받게 합니다.</p>
+ */
+public final class RemoteFlagStore implements SnapshotFlagStore, AutoCloseable {
+	private final URI snapshotUri;
+	private final URI streamUri;
+	private final HttpClient http;
+	private final Duration requestTimeout;
+	private final long minBackoffMs;
+	private final long maxBackoffMs;
+	private final long idleTimeoutNanos;
+	private final ObjectMapper om = new ObjectMapper();
+	private final Thread thread;
+	private final Thread watchdog;
+
+	private final AtomicReference<State> stateRef = new AtomicReference<>(new State(FlagSnapshot.empty(), -1L));
+	private final CompletableFuture<FlagSnapshot> ready = new CompletableFuture<>();
+	private final LongAdder bootstraps = new LongAdder();
+	private final LongAdder deltas = new LongAdder();
+	private final LongAdder resyncs = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder idleTimeouts = new LongAdder();
+	private volatile String lastError;
+	private volatile InputStream openStream;
+	private volatile long lastReceivedNanos;
+	private volatile boolean idleAborted;
+	private volatile boolean closed;
+
+	private RemoteFlagStore(Builder b) {
+		String base = b.baseUri.toString().endsWith("/") ? b.baseUri.toString() : b.baseUri + "/";
+		this.snapshotUri = URI.create(base + "flags");
+		this.streamUri = URI.create(base + "stream");
+		this.http = b.httpClient != null ? b.httpClient
+			: HttpClient.newBuilder().connectTimeout(b.connectTimeout).build();
+		this.requestTimeout = b.requestTimeout;
+		this.minBackoffMs = Math.max(1L, b.minBackoff.toMillis());
+		this.maxBackoffMs = Math.max(minBackoffMs, b.maxBackoff.toMillis());
+		this.idleTimeoutNanos = b.idleTimeout.toNanos();
+		this.thread = new Thread(this::run, "remote-flag-store-sync");
+		this.thread.setDaemon(true);
+		this.watchdog = new Thread(this::watch, "remote-flag-store-watchdog");
+		this.watchdog.setDaemon(true);
+	}
+
+	/**
+	 * 저장소 빌더를 생성합니다.
+	 *
+	 * @param baseUri 플래그 서비스 기준 URI(예: {@code http://flags.internal:8080/v1/})
+	 * @return 저장소 빌더
+	 */
+	public static Builder builder(URI baseUri) {
+		return new Builder(baseUri);
+	}
+
+	@Override
+	public FlagSnapshot snapshot() {
+		return stateRef.get().snapshot;
+	}
+
+	/**
+	 * @return 첫 전체 스냅샷을 받으면 완료되는 future
+	 */
+	@Override
+	public CompletableFuture<FlagSnapshot> ready() {
+		return ready.copy();
+	}
+
+	/**
+	 * 첫 전체 스냅샷을 받을 때까지 기다립니다.
+	 *
+	 * @param timeout 최대 대기 시간
+	 * @return 시간 안에 받았으면 {@code true}
+	 */
+	public boolean awaitReady(Duration timeout) {
+		try {
+			ready.get(Math.max(0L, timeout.toMillis()), TimeUnit.MILLISECONDS);
+			return true;
+		} catch (TimeoutException | ExecutionException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * @return 마지막으로 반영한 원격 버전, 아직 받지 못했으면 -1
+	 */
+	public long remoteVersion() {
+		return stateRef.get().remoteVersion;
+	}
+
+	/**
+	 * @return 동기화 통계
+	 */
+	public RemoteSyncStats syncStats() {
+		return new RemoteSyncStats(bootstraps.sum(), deltas.sum(), resyncs.sum(), failures.sum(), idleTimeouts.sum(),
+			remoteVersion(), lastError);
+	}
+
+	/**
+	 * 스트림 연결과 동기화 스레드를 종료합니다.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		closeQuietly(openStream);
+		thread.interrupt();
+		LockSupport.unpark(watchdog);
+	}
+
+	private void run() {
+		long backoff = minBackoffMs;
+		boolean resync = true;
+		while (!closed) {
+			try {
+				if (resync) bootstrap();
+				resync = false;
+				// 스트림이 정상적으로 끝났거나(서버 종료) 누락을 발견하면 돌아옵니다.
+				resync = stream();
+				backoff = minBackoffMs;
+				if (!resync && !sleep(minBackoffMs)) return;
+			} catch (IOException | RuntimeException e) {
+				if (closed) return;
+				failures.increment();
+				lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+				if (!sleep(backoff)) return;
+				backoff = Math.min(maxBackoffMs, backoff * 2);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/** 열린 스트림에서 유휴 제한 시간 동안 아무 줄도 받지 못하면 스트림을 닫아 동기화 스레드의 읽기를 끝냅니다. */
+	private void watch() {
+		long checkNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(10), idleTimeoutNanos / 4);
+		while (!closed) {
+			LockSupport.parkNanos(this, checkNanos);
+			InputStream in = openStream;
+			if (in != null && System.nanoTime() - lastReceivedNanos > idleTimeoutNanos) {
+				idleAborted = true;
+				closeQuietly(in);
+			}
+		}
+	}
+
+	/** 전체 스냅샷을 받습니다. 원격 버전이 그대로면(304) 현재 스냅샷을 유지합니다. */
+	private void bootstrap() throws IOException, InterruptedException {
+		State cur = stateRef.get();
+		HttpRequest.Builder req = HttpRequest.newBuilder(snapshotUri).timeout(requestTimeout).GET();
+		if (cur.remoteVersion >= 0) req.header("If-None-Match", etag(cur.remoteVersion));
+		HttpResponse<byte[]> res = http.send(req.build(), HttpResponse.BodyHandlers.ofByteArray());
+		bootstraps.increment();
+		if (res.statusCode() == 304) return;
+		if (res.statusCode() != 200) throw new IOException("snapshot request failed: HTTP " + res.statusCode());
+		long version = parseEtag(res.headers().firstValue("ETag").orElse(null));
+		Map<String, FlagDefinition> flags = JsonFlagCodec.read(res.body());
+		State next = new State(cur.snapshot.next(flags.values()), version);
+		stateRef.set(next);
+		ready.complete(next.snapshot);
+	}
+
+	/**
+	 * 스트림을 구독해 변경분을 반영합니다.
+	 *
+	 * @return 전체 스냅샷을 다시 받아야 하면({@code resync}, 누락, 유휴 제한 시간 초과) {@code true}
+	 */
+	private boolean stream() throws IOException, InterruptedException {
+		HttpRequest req = HttpRequest.newBuilder(URI.create(streamUri + "?since=" + stateRef.get().remoteVersion))
+			.header("Accept", "text/event-stream")
+			.timeout(requestTimeout) // 응답 헤더까지만 적용되고, 이후 읽기는 감시 스레드가 제한합니다.
+			.GET()
+			.build();
+		HttpResponse<InputStream> res = http.send(req, HttpResponse.BodyHandlers.ofInputStream());
+		try (InputStream body = res.body()) {
+			if (res.statusCode() != 200) throw new IOException("stream request failed: HTTP " + res.statusCode());
+			idleAborted = false;
+			lastReceivedNanos = System.nanoTime();
+			openStream = body;
+			if (closed) return false;
+			BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+			String event = null;
+			String id = null;
+			StringBuilder data = new StringBuilder();
+			String line;
+			while ((line = readLine(reader)) != null) {
+				lastReceivedNanos = System.nanoTime();
+				if (line.isEmpty()) {
+					if (event != null && !dispatch(event, id, data.toString())) {
+						resyncs.increment();
+						return true;
+					}
+					event = null;
+					id = null;
+					data.setLength(0);
+				} else if (line.startsWith(":")) {
+					continue; // heartbeat
+				} else if (line.startsWith("event:")) {
+					event = line.substring(6).trim();
+				} else if (line.startsWith("id:")) {
+					id = line.substring(3).trim();
+				} else if (line.startsWith("data:")) {
+					if (data.length() > 0) data.append('\n');
+					data.append(line.substring(5).trim());
+				}
+			}
+			if (idleAborted && !closed) {
+				idleTimeouts.increment();
+				resyncs.increment();
+				return true;
+			}
+			return false;
+		} finally {
+			openStream = null;
+		}
+	}
+
+	/** 감시 스레드가 스트림을 닫아 읽기가 실패하면 스트림 끝으로 처리합니다. */
+	private String readLine(BufferedReader reader) throws IOException {
+		try {
+			return reader.readLine();
+		} catch (IOException e) {
+			if (idleAborted || closed) return null;
+			throw e;
+		}
+	}
+
+	/**
+	 * 이벤트 하나를 반영합니다. id나 data를 해석할 수 없는 변경분은 같은 {@code since}로 다시 연결해도 또 받게 되므로
+	 * 실패로 기록하고 전체 스냅샷을 다시 받습니다.
+	 *
+	 * @return 계속 구독해도 되면 {@code true}, 전체 스냅샷을 다시 받아야 하면 {@code false}
+	 */
+	private boolean dispatch(String event, String id, String data) {
+		if ("resync".equals(event)) return false;
+		if (!"delta".equals(event) || id == null) return true;
+		long version;
+		JsonNode node;
+		try {
+			version = Long.parseLong(id);
+			node = om.readTree(data);
+		} catch (NumberFormatException | IOException e) {
+			return malformed(id, e);
+		}
+		long base = node.path("base").asLong(-1L);
+		State cur = stateRef.get();
+		if (version <= cur.remoteVersion) return true; // 재연결 중 이미 반영한 변경분
+		if (base != cur.remoteVersion) return false;     // 누락
+
+		JsonNode put = node.get("put");
+		Map<String, FlagDefinition> puts;
+		try {
+			puts = put == null || put.isNull() ? Map.of() : JsonFlagCodec.read(om.writeValueAsBytes(put));
+		} catch (IOException | RuntimeException e) {
+			return malformed(id, e);
+		}
+		Set<String> removes = new HashSet<>();
+		for (JsonNode k : node.path("remove")) if (k.isTextual()) removes.add(k.asText());
+
+		stateRef.set(new State(cur.snapshot.withChanges(puts.values(), removes), version));
+		deltas.increment();
+		return true;
+	}
+
+	private boolean malformed(String id, Exception e) {
+		failures.increment();
+		lastError = "malformed delta " + id + ": " + e.getClass().getSimpleName() + ": " + e.getMessage();
+		return false;
+	}
+
+	private boolean sleep(long ms) {
+		try {
+			Thread.sleep(ms);
+			return !closed;
+		} catch (InterruptedException e) {
+			return false;
+		}
+	}
+
+	static String etag(long version) {
+		return "\"" + version + "\"";
+	}
+
+	private static long parseEtag(String etag) throws IOException {
+		if (etag == null) throw new IOException("snapshot response has no ETag");
+		String v = etag.startsWith("W/") ? etag.substring(2) : etag;
+		try {
+			return Long.parseLong(v.replace("\"", "").trim());
+		} catch (NumberFormatException e) {
+			throw new IOException("snapshot ETag is not a version: " + etag, e);
+		}
+	}
+
+	private static void closeQuietly(InputStream in) {
+		if (in == null) return;
+		try {
+			in.close();
+		} catch (IOException ignored) {
+			// 종료 중 오류는 무시합니다.
+		}
+	}
+
+	private static final class State {
+		final FlagSnapshot snapshot;
+		final long remoteVersion;
+
+		State(FlagSnapshot snapshot, long remoteVersion) {
+			this.snapshot = snapshot;
+			this.remoteVersion = remoteVersion;
+		}
+	}
+
+	/**
+	 * {@link RemoteFlagStore} 빌더입니다.
+	 */
+	public static final class Builder {
+		private final URI baseUri;
+		private HttpClient httpClient;
+		private Duration connectTimeout = Duration.ofSeconds(5);
+		private Duration requestTimeout = Duration.ofSeconds(30);
+		private Duration minBackoff = Duration.ofMillis(200);
+		private Duration maxBackoff = Duration.ofSeconds(30);
+		private Duration idleTimeout = Duration.ofSeconds(60);
+
+		private Builder(URI baseUri) {
+			this.baseUri = Objects.requireNonNull(baseUri, "baseUri");
+		}
+
+		/**
+		 * @param httpClient 사용할 HTTP 클라이언트, {@code null}이면 기본 클라이언트
+		 * @return 현재 빌더
+		 */
+		public Builder httpClient(HttpClient httpClient) {
+			this.httpClient = httpClient;
+			return this;
+		}
+
+		/**
+		 * @param connectTimeout 기본 HTTP 클라이언트의 연결 제한 시간
+		 * @return 현재 빌더
+		 */
+		public Builder connectTimeout(Duration connectTimeout) {
+			this.connectTimeout = Objects.requireNonNull(connectTimeout, "connectTimeout");
+			return this;
+		}
+
+		/**
+		 * @param requestTimeout 전체 스냅샷 요청 제한 시간
+		 * @return 현재 빌더
+		 */
+		public Builder requestTimeout(Duration requestTimeout) {
+			this.requestTimeout = Objects.requireNonNull(requestTimeout, "requestTimeout");
+			return this;
+		}
+
+		/**
+		 * 연결 실패 후 다시 연결하기까지의 대기 시간 범위를 설정합니다. 실패할 때마다 두 배로 늘립니다.
+		 *
+		 * @param min 최소 대기 시간
+		 * @param max 최대 대기 시간
+		 * @return 현재 빌더
+		 */
+		public Builder backoff(Duration min, Duration max) {
+			this.minBackoff = Objects.requireNonNull(min, "min");
+			this.maxBackoff = Objects.requireNonNull(max, "max");
+			return this;
+		}
+
+		/**
+		 * 스트림에서 heartbeat를 포함해 아무 줄도 받지 못한 채 기다릴 최대 시간을 설정합니다. 지나면 연결이 반쯤 끊긴
+		 * 것으로 보고 스트림을 닫은 뒤 전체 스냅샷을 다시 받습니다. 서버의 heartbeat 간격보다 길어야 합니다.
+		 *
+		 * @param idleTimeout 유휴 제한 시간, 기본 60초
+		 * @return 현재 빌더
+		 * @throws IllegalArgumentException 0 이하인 경우
+		 */
+		public Builder idleTimeout(Duration idleTimeout) {
+			if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+				throw new IllegalArgumentException("idleTimeout must be positive: " + idleTimeout);
+			}
+			this.idleTimeout = idleTimeout;
+			return this;
+		}
+
+		/**
+		 * 저장소를 생성하고 동기화 스레드를 시작합니다. 첫 스냅샷을 받기 전까지는 빈 스냅샷을 제공합니다.
+		 *
+		 * @return 저장소
+		 */
+		public RemoteFlagStore build() {
+			RemoteFlagStore store = new RemoteFlagStore(this);
+			store.thread.start();
+			store.watchdog.start();
+			return store;
+		}
+	}
+}
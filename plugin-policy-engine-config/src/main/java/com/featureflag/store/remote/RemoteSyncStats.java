@@ -0,0 +1,66 @@
+package com.pluginpolicyengine.store.remote;
+
+/**
+ * {@link RemoteFlagStore}의 동기화 통계 스냅샷입니다.
+ */
+public final class RemoteSyncStats {
+	private final long bootstraps;
+	private final long deltasApplied;
+	private final long resyncs;
+	private final long failures;
+	private final long idleTimeouts;
+	private final long remoteVersion;
+	private final String lastError;
+
+	RemoteSyncStats(long bootstraps, long deltasApplied, long resyncs, long failures, long idleTimeouts, long remoteVersion,
+			String lastError) {
+		this.bootstraps = bootstraps;
+		this.deltasApplied = deltasApplied;
+		this.resyncs = resyncs;
+		this.failures = failures;
+		this.idleTimeouts = idleTimeouts;
+		this.remoteVersion = remoteVersion;
+		this.lastError = lastError;
+	}
+
+	/**
+	 * @return 전체 스냅샷 요청 횟수(304 포함)
+	 */
+	public long bootstraps() { return bootstraps; }
+
+	/**
+	 * @return 반영한 변경분 수
+	 */
+	public long deltasApplied() { return deltasApplied; }
+
+	/**
+	 * @return 누락, 서버 요청, 유휴 제한 시간 초과로 전체 스냅샷을 다시 받은 횟수
+	 */
+	public long resyncs() { return resyncs; }
+
+	/**
+	 * @return 연결/요청/파싱 실패 횟수
+	 */
+	public long failures() { return failures; }
+
+	/**
+	 * @return 유휴 제한 시간 동안 아무 줄도 받지 못해 스트림을 닫은 횟수
+	 */
+	public long idleTimeouts() { return idleTimeouts; }
+
+	/**
+	 * @return 마지막으로 반영한 원격 버전, 아직 받지 못했으면 -1
+	 */
+	public long remoteVersion() { return remoteVersion; }
+
+	/**
+	 * @return 마지막 실패 사유, 실패한 적이 없으면 {@code null}
+	 */
+	public String lastError() { return lastError; }
+
+	@Override
+	public String toString() {
+		return "RemoteSyncStats{bootstraps=" + bootstraps + ", deltasApplied=" + deltasApplied + ", resyncs=" + resyncs
+			+ ", failures=" + failures + ", idleTimeouts=" + idleTimeouts + ", remoteVersion=" + remoteVersion + ", lastError=" + lastError + '}';
+	}
+}
@@ -0,0 +1,299 @@
+package com.pluginpolicyengine.store.remote;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.store.file.JsonFlagCodec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RemoteFlagStore} 프로토콜을 구현한 프로세스 내 대역 서버입니다. 테스트와 로컬 개발에서 중앙 플래그 서비스 대신 씁니다.
+ *
+ * <p>루프백 주소의 임의 포트에서 JDK {@link HttpServer}로 동작합니다. {@link #put(FlagDefinition...)}과
+ * {@link #remove(String...)}은 원격 버전을 1 올리고 변경분을 보관한 뒤 연결된 모든 스트림에 보냅니다. 구독자가 요청한
+ * {@code since} 이후 변경분이 보관 범위를 벗어났으면 {@code resync} 이벤트를 보냅니다. 누락과 연결 끊김을 재현하는
+ * {@link #skipVersion()}, {@link #disconnectStreams()}, 잘못된 변경분을 보내는 {@link #publishRaw(String, String)}와
+ * heartbeat를 보내는 {@link #heartbeat()}를 함께 제공합니다.</p>
+ */
+public final class StandInFlagServer implements AutoCloseable {
+	private static final int MAX_RETAINED_DELTAS = 1_024;
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final ObjectMapper om = new ObjectMapper();
+	private final Map<String, FlagDefinition> flags = new LinkedHashMap<>();
+	private final ArrayDeque<Delta> deltas = new ArrayDeque<>();
+	private final List<Subscriber> subscribers = new ArrayList<>();
+	private long version;
+
+	private StandInFlagServer(HttpServer server) {
+		this.server = server;
+		this.executor = Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r, "stand-in-flag-server");
+			t.setDaemon(true);
+			return t;
+		});
+		server.setExecutor(executor);
+		server.createContext("/flags", this::handleSnapshot);
+		server.createContext("/stream", this::handleStream);
+	}
+
+	/**
+	 * 루프백 주소의 임의 포트에서 서버를 시작합니다.
+	 *
+	 * @return 시작된 서버
+	 * @throws IOException 포트를 열 수 없는 경우
+	 */
+	public static StandInFlagServer start() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		StandInFlagServer standIn = new StandInFlagServer(server);
+		server.start();
+		return standIn;
+	}
+
+	/**
+	 * @return {@link RemoteFlagStore#builder(URI)}에 넘길 기준 URI
+	 */
+	public URI uri() {
+		InetSocketAddress address = server.getAddress();
+		return URI.create("http://" + address.getHostString() + ":" + address.getPort() + "/");
+	}
+
+	/**
+	 * @return 현재 원격 버전
+	 */
+	public synchronized long version() {
+		return version;
+	}
+
+	/**
+	 * 정의를 추가하거나 교체하고 변경분 하나로 게시합니다.
+	 *
+	 * @param definitions 추가/교체할 정의
+	 * @return 새 원격 버전
+	 */
+	public synchronized long put(FlagDefinition... definitions) {
+		List<FlagDefinition> puts = List.of(definitions);
+		for (FlagDefinition def : puts) flags.put(def.key(), def);
+		return publish(puts, List.of());
+	}
+
+	/**
+	 * 키를 제거하고 변경분 하나로 게시합니다.
+	 *
+	 * @param keys 제거할 키
+	 * @return 새 원격 버전
+	 */
+	public synchronized long remove(String... keys) {
+		List<String> removes = List.of(keys);
+		flags.keySet().removeAll(removes);
+		return publish(List.of(), removes);
+	}
+
+	/**
+	 * 변경분을 보내지 않고 원격 버전만 1 올립니다. 다음 변경분을 받은 구독자는 누락을 발견하고 전체 스냅샷을 다시 받습니다.
+	 */
+	public synchronized void skipVersion() {
+		version++;
+		deltas.clear();
+	}
+
+	/**
+	 * 정의는 바꾸지 않고 원격 버전을 1 올린 뒤, 주어진 id와 data를 그대로 담은 delta 이벤트를 보관하고 보냅니다.
+	 * 해석할 수 없는 변경분을 받은 구독자의 동작을 재현할 때 씁니다.
+	 *
+	 * @param id 이벤트 {@code id:} 값
+	 * @param data 이벤트 {@code data:} 값
+	 * @return 새 원격 버전
+	 */
+	public synchronized long publishRaw(String id, String data) {
+		long base = version++;
+		return publish(new Delta(id, version, base, data.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * 연결된 모든 스트림에 heartbeat 주석 줄을 보냅니다. 보내지 않으면 구독자는 유휴 제한 시간마다 다시 연결합니다.
+	 */
+	public synchronized void heartbeat() {
+		subscribers.removeIf(s -> !s.send(": heartbeat\n\n"));
+	}
+
+	/**
+	 * 연결된 스트림을 모두 끊습니다. 구독자는 다시 연결해 {@code since} 이후 변경분을 이어 받습니다.
+	 */
+	public synchronized void disconnectStreams() {
+		for (Subscriber s : subscribers) s.close();
+		subscribers.clear();
+	}
+
+	/**
+	 * 스트림을 모두 끊고 서버를 종료합니다.
+	 */
+	@Override
+	public void close() {
+		disconnectStreams();
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private long publish(List<FlagDefinition> puts, List<String> removes) {
+		long base = version++;
+		return publish(new Delta(Long.toString(version), version, base, encodeDelta(base, puts, removes)));
+	}
+
+	private long publish(Delta delta) {
+		deltas.addLast(delta);
+		if (deltas.size() > MAX_RETAINED_DELTAS) deltas.removeFirst();
+		subscribers.removeIf(s -> !s.send(delta.event()));
+		return version;
+	}
+
+	private void handleSnapshot(HttpExchange exchange) throws IOException {
+		byte[] body;
+		String etag;
+		synchronized (this) {
+			etag = RemoteFlagStore.etag(version);
+			if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				exchange.getResponseHeaders().set("ETag", etag);
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			body = JsonFlagCodec.write(flags.values());
+		}
+		exchange.getResponseHeaders().set("ETag", etag);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private void handleStream(HttpExchange exchange) throws IOException {
+		long since = parseSince(exchange.getRequestURI().getRawQuery());
+		exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+		exchange.sendResponseHeaders(200, 0);
+		Subscriber subscriber = new Subscriber(exchange);
+		synchronized (this) {
+			if (since < version) {
+				Delta first = deltas.peekFirst();
+				if (since < 0 || first == null || first.base > since) {
+					subscriber.send("event: resync\ndata: {}\n\n");
+				} else {
+					for (Delta d : deltas) if (d.version > since && !subscriber.send(d.event())) break;
+				}
+			}
+			if (!subscriber.closed) subscribers.add(subscriber);
+		}
+		// 서버 스레드 하나가 연결을 붙잡고 있다가, 연결이 끝나면 반환합니다.
+		subscriber.awaitClose();
+	}
+
+	private static long parseSince(String query) {
+		if (query == null) return -1L;
+		for (String part : query.split("&")) {
+			if (part.startsWith("since=")) {
+				try {
+					return Long.parseLong(part.substring(6));
+				} catch (NumberFormatException e) {
+					return -1L;
+				}
+			}
+		}
+		return -1L;
+	}
+
+	private byte[] encodeDelta(long base, List<FlagDefinition> puts, List<String> removes) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try (JsonGenerator g = om.getFactory().createGenerator(out)) {
+				g.writeStartObject();
+				g.writeNumberField("base", base);
+				g.writeFieldName("put");
+				g.writeRawValue(new String(JsonFlagCodec.write(puts), StandardCharsets.UTF_8));
+				g.writeArrayFieldStart("remove");
+				for (String k : removes) g.writeString(k);
+				g.writeEndArray();
+				g.writeEndObject();
+			}
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static final class Delta {
+		final String id;
+		final long version;
+		final long base;
+		final byte[] data;
+
+		Delta(String id, long version, long base, byte[] data) {
+			this.id = id;
+			this.version = version;
+			this.base = base;
+			this.data = data;
+		}
+
+		String event() {
+			return "id: " + id + "\nevent: delta\ndata: " + new String(data, StandardCharsets.UTF_8) + "\n\n";
+		}
+	}
+
+	private static final class Subscriber {
+		private final HttpExchange exchange;
+		private final OutputStream out;
+		private volatile boolean closed;
+
+		Subscriber(HttpExchange exchange) {
+			this.exchange = exchange;
+			this.out = exchange.getResponseBody();
+		}
+
+		/** @return 보냈으면 {@code true}, 연결이 끊겼으면 {@code false} */
+		synchronized boolean send(String event) {
+			if (closed) return false;
+			try {
+				out.write(event.getBytes(StandardCharsets.UTF_8));
+				out.flush();
+				return true;
+			} catch (IOException e) {
+				close();
+				return false;
+			}
+		}
+
+		synchronized void close() {
+			if (closed) return;
+			closed = true;
+			exchange.close();
+			notifyAll();
+		}
+
+		synchronized void awaitClose() {
+			while (!closed) {
+				try {
+					wait(TimeUnit.SECONDS.toMillis(1));
+				} catch (InterruptedException e) {
+					close();
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+}
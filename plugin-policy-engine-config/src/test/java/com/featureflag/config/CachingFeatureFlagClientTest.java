@@ -0,0 +1,70 @@
+package com.pluginpolicyengine.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.pluginpolicyengine.core.BucketHasher;
+import com.pluginpolicyengine.core.FeatureFlagService;
+import com.pluginpolicyengine.core.FlagContext;
+import com.pluginpolicyengine.core.FlagDecision;
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagReason;
+import com.pluginpolicyengine.core.Targeting;
+import com.pluginpolicyengine.core.store.InMemoryFlagStore;
+
+class CachingFeatureFlagClientTest {
+	@Test
+	void cachesPerContextAndInvalidatesOnSnapshotChange() {
+		InMemoryFlagStore store = new InMemoryFlagStore();
+		store.put(FlagDefinition.builder("beta").rolloutPercent(0)
+			.targeting(Targeting.builder().allowGroup("staff").build()).build());
+		CachingFeatureFlagClient client = FeatureFlagClientFactory.createCaching(store, BucketHasher.sha256(), 64);
+		FeatureFlagService direct = new FeatureFlagService(store);
+
+		// 같은 userId라도 그룹이 다르면 다른 항목이어야 합니다.
+		FlagContext staff = FlagContext.builder().userId("u-1").group("staff").build();
+		FlagContext plain = FlagContext.builder().userId("u-1").build();
+		FlagDecision first = client.evaluate("beta", staff);
+		assertSame(first, client.evaluate("beta", FlagContext.builder().userId("u-1").group("staff").build()));
+		assertEquals(FlagReason.TARGET_ALLOW, first.reasonCode());
+		assertFalse(client.isEnabled("beta", plain));
+		assertEquals(direct.variant("beta", staff, "fb"), client.variant("beta", staff, "fb"));
+		assertEquals(2, client.stats().hits());
+		assertEquals(2, client.stats().misses());
+
+		store.put(FlagDefinition.builder("beta").enabled(false).build());
+		assertFalse(client.isEnabled("beta", staff));
+		assertEquals(1, client.stats().size());
+	}
+
+	@Test
+	void boundedCacheKeepsFrequentEntries() {
+		TinyLfuCache<String, String> cache = new TinyLfuCache<>(32);
+		// 자주 쓰는 키 사이에 한 번만 등장하는 키가 계속 섞여 들어와도 자주 쓰는 키가 밀려나지 않아야 합니다.
+		for (int i = 0; i < 10_000; i++) {
+			String k = (i & 1) == 0 ? "hot-" + ((i >>> 1) & 31) : "cold-" + i;
+			if (cache.get(k) == null) cache.put(k, k);
+		}
+		assertTrue(cache.size() <= 32);
+		int kept = 0;
+		for (int i = 0; i < 32; i++) if (cache.get("hot-" + i) != null) kept++;
+		assertTrue(kept >= 24, "hot entries kept: " + kept);
+	}
+
+	@Test
+	void rejectsDecisionCacheOnNonSnapshotStore() {
+		FeatureFlagConfig config = FeatureFlagConfig.builder()
+			.store(FeatureFlagConfig.Store.BINARY)
+			.filePath("missing.bin")
+			.decisionCacheSize(16)
+			.build();
+
+		assertThrows(RuntimeException.class, () -> FeatureFlagClientFactory.create(config));
+		assertThrows(IllegalArgumentException.class, () -> FeatureFlagConfig.builder().decisionCacheSize(-1).build());
+	}
+}
@@ -1,18 +1,30 @@
 package com.pluginpolicyengine.config;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import com.pluginpolicyengine.api.FeatureFlagClient;
+import com.pluginpolicyengine.core.BucketHasher;
 import com.pluginpolicyengine.core.FlagContext;
+import com.pluginpolicyengine.core.exposure.ExposurePipeline;
+import com.pluginpolicyengine.core.metrics.EvaluationMetrics;
+import com.pluginpolicyengine.exposure.file.JsonLinesExposureSink;
+import com.pluginpolicyengine.store.file.JsonFileFlagStore;
 
 class FeatureFlagClientFactoryTest {
 	@TempDir
@@ -56,4 +68,136 @@ class FeatureFlagClientFactoryTest {
 
 		assertThrows(IllegalArgumentException.class, () -> FeatureFlagClientFactory.create(config));
 	}
+
+	@Test
+	void writesExposuresOfCachedClientToJsonLinesFile() throws Exception {
+		Path log = tempDir.resolve("exposures/exposures.jsonl");
+		ExposurePipeline pipeline = ExposurePipeline.builder(new JsonLinesExposureSink(log)).dedupeWindow(Duration.ZERO).build();
+		FeatureFlagClient exposed = FeatureFlagClientFactory.create(FeatureFlagConfig.builder()
+			.store(FeatureFlagConfig.Store.FILE)
+			.filePath(writeFlags().toString())
+			.decisionCacheSize(16)
+			.exposureListener(pipeline)
+			.build());
+		FlagContext ctx = FlagContext.builder().userId("user-1").build();
+		exposed.variant("exp", ctx, "control");
+		exposed.variant("exp", ctx, "control"); // 캐시 적중도 노출입니다.
+		exposed.isEnabled("missing", ctx);
+		pipeline.close();
+
+		List<String> lines = Files.readAllLines(log);
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(0).contains("\"flag\":\"exp\""), lines.get(0));
+		assertTrue(lines.get(0).contains("\"basis\":\"user-1\""), lines.get(0));
+		assertEquals(lines.get(0).substring(lines.get(0).indexOf("\"flag\"")), lines.get(1).substring(lines.get(1).indexOf("\"flag\"")));
+	}
+
+	@Test
+	void nonBlockingEvaluationNeverWaitsWhileFlagsReload() throws Exception {
+		Path flags = tempDir.resolve("flags.json");
+		Files.writeString(flags, "{\"beta\": {\"rolloutPercent\": 0}}");
+		try (JsonFileFlagStore store = JsonFileFlagStore.builder(flags.toString()).ttl(Duration.ofMillis(10))
+			.refreshMode(JsonFileFlagStore.RefreshMode.NON_BLOCKING).build()) {
+			EvaluationMetrics metrics = new EvaluationMetrics(1.0);
+			FeatureFlagClient client = FeatureFlagClientFactory.create(store, BucketHasher.sha256(), metrics);
+			store.ready().get(5, TimeUnit.SECONDS);
+
+			// ThreadMXBean은 모니터 경합(blocked)과 park/wait(waited) 횟수만 셉니다. 파일 I/O는 이 값으로 드러나지 않으며,
+			// 평가가 파일을 읽지 않는다는 점은 적재가 감시 스레드에서만 일어나는지로 따로 확인합니다(JsonFileFlagStoreTest).
+			// 여기서는 감시 스레드가 재적재 잠금을 잡고 파일을 읽는 동안, 새 스레드(스레드별 digest 생성 포함)가 처음 보는
+			// 키들을 계측과 함께 평가해도 모니터 경합이나 park에 한 번도 들어가지 않는지 확인합니다.
+			AtomicBoolean done = new AtomicBoolean();
+			Thread writer = new Thread(() -> {
+				for (int i = 0; !done.get(); i++) {
+					try {
+						Files.writeString(flags, "{\"beta\": {\"rolloutPercent\": " + (i % 100) + "}}");
+						Thread.sleep(1);
+					} catch (Exception e) {
+						return;
+					}
+				}
+			});
+			writer.start();
+			FlagContext ctx = FlagContext.builder().userId("user-1").build();
+			ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+			ThreadInfo[] seen = new ThreadInfo[2];
+			Thread evaluator = new Thread(() -> {
+				long id = Thread.currentThread().getId();
+				seen[0] = threads.getThreadInfo(id);
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+				for (int i = 0; System.nanoTime() < deadline; i++) {
+					client.isEnabled("beta", ctx);
+					client.isEnabled("missing-" + (i & 63), ctx);
+				}
+				seen[1] = threads.getThreadInfo(id);
+			});
+			evaluator.start();
+			evaluator.join();
+			done.set(true);
+			writer.join();
+
+			assertEquals(seen[0].getBlockedCount(), seen[1].getBlockedCount(), "evaluation contended for a monitor");
+			assertEquals(seen[0].getWaitedCount(), seen[1].getWaitedCount(), "evaluation parked or waited");
+			assertTrue(metrics.snapshot().get("beta").total() > 0);
+			assertTrue(store.reloadStats().attempts() > 1, "flags were reloaded during the run");
+		}
+	}
+
+	@Test
+	void nonBlockingModeRejectsMappedStoresDecisionCacheAndWaitingPipeline() {
+		assertThrows(IllegalArgumentException.class, () -> FeatureFlagConfig.builder()
+			.store(FeatureFlagConfig.Store.BINARY)
+			.filePath("flags.bin")
+			.refreshMode(JsonFileFlagStore.RefreshMode.NON_BLOCKING)
+			.build());
+		assertThrows(IllegalArgumentException.class, () -> FeatureFlagConfig.builder()
+			.store(FeatureFlagConfig.Store.FILE)
+			.filePath("flags.json")
+			.refreshMode(JsonFileFlagStore.RefreshMode.NON_BLOCKING)
+			.decisionCacheSize(16)
+			.build());
+		try (ExposurePipeline waiting = ExposurePipeline.builder(events -> { })
+			.overflowPolicy(ExposurePipeline.OverflowPolicy.WAIT).build()) {
+			assertThrows(IllegalArgumentException.class, () -> FeatureFlagConfig.builder()
+				.store(FeatureFlagConfig.Store.FILE)
+				.filePath("flags.json")
+				.refreshMode(JsonFileFlagStore.RefreshMode.NON_BLOCKING)
+				.exposureListener(waiting)
+				.build());
+		}
+	}
+
+	@Test
+	void nonBlockingDirectoryWarmUpWaitsForTheFirstLoad() throws Exception {
+		Path dir = Files.createDirectories(tempDir.resolve("flags.d"));
+		Files.writeString(dir.resolve("checkout.json"), "{\"checkout.newFlow\": {\"rolloutPercent\": 100}}");
+
+		FeatureFlagClient client = FeatureFlagClientFactory.create(FeatureFlagConfig.builder()
+			.store(FeatureFlagConfig.Store.DIRECTORY)
+			.filePath(dir.toString())
+			.refreshMode(JsonFileFlagStore.RefreshMode.NON_BLOCKING)
+			.warmUp(true)
+			.warmUpTimeout(Duration.ofSeconds(5))
+			.build());
+
+		assertTrue(client.isEnabled("checkout.newFlow", FlagContext.builder().userId("user-1").build()));
+	}
+
+	@Test
+	void createAsyncCompletesWithReadyClient() throws Exception {
+		FeatureFlagClient client = FeatureFlagClientFactory.createAsync(FeatureFlagConfig.builder()
+			.store(FeatureFlagConfig.Store.FILE)
+			.filePath(writeFlags().toString())
+			.build()).get(5, TimeUnit.SECONDS);
+
+		assertTrue(client.isEnabled("exp", FlagContext.builder().userId("user-1").build()));
+	}
+
+	private Path writeFlags() throws Exception {
+		Path flags = tempDir.resolve("exp.json");
+		Files.writeString(flags, """
+			{ "exp": { "variants": [ { "name": "A", "weight": 1 } ] } }
+			""");
+		return flags;
+	}
 }
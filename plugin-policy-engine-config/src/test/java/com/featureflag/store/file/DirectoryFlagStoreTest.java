@@ -0,0 +1,58 @@
+package com.pluginpolicyengine.store.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.pluginpolicyengine.core.FlagSnapshot;
+
+class DirectoryFlagStoreTest {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void reloadsOnlyTheShardWhoseFileChanged() throws Exception {
+		for (int i = 0; i < 8; i++) {
+			write(tempDir.resolve("ns-" + i + ".json"), "{\"ns" + i + ".a\": {}, \"ns" + i + ".b\": {}}", 1_000);
+		}
+		write(tempDir.resolve("notes.txt"), "ignored", 1_000);
+		DirectoryFlagStore store = DirectoryFlagStore.builder(tempDir.toString()).ttl(Duration.ZERO).build();
+
+		FlagSnapshot first = store.snapshot();
+		assertEquals(16, first.size());
+		assertEquals(8, store.shardCount());
+		assertSame(first, store.snapshot(), "unchanged directory keeps the snapshot");
+
+		write(tempDir.resolve("ns-3.json"), "{\"ns3.a\": {}, \"ns3.b\": {\"enabled\": false}}", 2_000);
+		FlagSnapshot second = store.snapshot();
+		assertTrue(second.version() > first.version());
+		assertSame(first.find("ns1.a"), second.find("ns1.a"), "other shards are not re-read");
+		assertSame(first.find("ns3.a"), second.find("ns3.a"), "unchanged entries of the shard are reused");
+		assertEquals(false, second.find("ns3.b").enabled());
+		assertEquals(1, store.reloadStats().lastParsedFlags());
+
+		// 깨진 샤드는 마지막 정상 내용을 유지하고, 지워진 샤드는 빠집니다.
+		write(tempDir.resolve("ns-4.json"), "{\"ns4.a\": ", 2_000);
+		Files.delete(tempDir.resolve("ns-5.json"));
+		FlagSnapshot third = store.snapshot();
+		assertNotNull(third.find("ns4.a"));
+		assertNull(third.find("ns5.a"));
+		assertEquals(7, store.shardCount());
+		assertEquals(1, store.reloadStats().failures());
+	}
+
+	private static void write(Path file, String content, long mtime) throws Exception {
+		Files.writeString(file, content);
+		Files.setLastModifiedTime(file, FileTime.fromMillis(mtime));
+	}
+}
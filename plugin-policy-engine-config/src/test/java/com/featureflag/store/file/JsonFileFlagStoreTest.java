@@ -0,0 +1,139 @@
+package com.pluginpolicyengine.store.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.pluginpolicyengine.core.FlagSnapshot;
+
+class JsonFileFlagStoreTest {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void backgroundModeReloadsOffTheRequestPath() throws Exception {
+		Path flags = tempDir.resolve("flags.json");
+		Files.writeString(flags, "{\"a\": {\"enabled\": true}}");
+
+		try (JsonFileFlagStore store = new JsonFileFlagStore(flags.toString(), Duration.ofMillis(20),
+			JsonFileFlagStore.RefreshMode.BACKGROUND)) {
+			FlagSnapshot first = store.snapshot();
+			assertNotNull(first.find("a"));
+
+			Files.writeString(flags, "{\"a\": {\"enabled\": true}, \"b\": {\"enabled\": false}}");
+			Files.setLastModifiedTime(flags, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+
+			assertTrue(awaitFlag(store, "b"), "background refresh did not publish the change");
+			assertTrue(store.snapshot().version() > first.version());
+			assertEquals(1, first.size(), "published snapshots are immutable");
+		}
+	}
+
+	@Test
+	void keepsLastGoodSnapshotWhenReloadFails() throws Exception {
+		Path flags = tempDir.resolve("flags.json");
+		Files.writeString(flags, "{\"a\": {\"enabled\": true}}");
+		JsonFileFlagStore store = new JsonFileFlagStore(flags.toString(), Duration.ZERO);
+		FlagSnapshot good = store.snapshot();
+		assertNotNull(good.find("a"));
+
+		Files.writeString(flags, "{\"a\": {\"enabled\": tr");
+		assertSame(good, store.snapshot());
+		Files.delete(flags);
+		assertSame(good, store.snapshot());
+
+		ReloadStats stats = store.reloadStats();
+		assertEquals(3, stats.attempts());
+		assertEquals(2, stats.failures());
+		assertNotNull(stats.lastError());
+
+		Files.writeString(flags, "[{\"key\": \"b\"}]");
+		assertNotNull(store.findOrNull("b"));
+		assertNull(store.findOrNull("a"));
+	}
+
+	@Test
+	void reloadReusesDefinitionsOfUnchangedEntries() throws Exception {
+		Path flags = tempDir.resolve("flags.json");
+		Files.writeString(flags, "{\"a\": {\"rolloutPercent\": 10}, \"b\": {\"rolloutPercent\": 20}}");
+		JsonFileFlagStore store = new JsonFileFlagStore(flags.toString(), Duration.ZERO);
+		FlagSnapshot first = store.snapshot();
+
+		Files.writeString(flags, "{\"a\": {\"rolloutPercent\": 10},\n \"b\": {\"rolloutPercent\": 30}}");
+		FlagSnapshot second = store.snapshot();
+		assertSame(first.find("a"), second.find("a"));
+		assertEquals(30, second.find("b").rolloutPercent());
+		assertEquals(1, store.reloadStats().lastParsedFlags());
+		assertEquals(1, store.reloadStats().lastReusedFlags());
+
+		Files.writeString(flags, "{\"a\": {\"rolloutPercent\": 10}, \"b\": {\"rolloutPercent\": 30}}");
+		assertSame(second, store.snapshot(), "content-identical reload keeps the snapshot and its version");
+		assertEquals(0, store.reloadStats().lastParsedFlags());
+	}
+
+	@Test
+	void bootsFromLastGoodCacheWhenPrimaryIsUnavailable() throws Exception {
+		Path flags = tempDir.resolve("flags.json");
+		Path cache = tempDir.resolve("flags.last-good.bin");
+		Files.writeString(flags, "{\"a\": {\"rolloutPercent\": 40}}");
+		JsonFileFlagStore first = JsonFileFlagStore.builder(flags.toString()).ttl(Duration.ZERO).lastGoodCache(cache).build();
+		assertTrue(first.warmUp(Duration.ofSeconds(5)));
+		assertTrue(Files.exists(cache), "a good load persists the last-good cache");
+
+		// 원본이 깨진 채로 재시작해도 마지막으로 성공한 스냅샷으로 시작합니다.
+		Files.writeString(flags, "{\"a\": {\"rolloutPercent\": ");
+		JsonFileFlagStore restarted = JsonFileFlagStore.builder(flags.toString()).ttl(Duration.ZERO).lastGoodCache(cache)
+			.parallelParse(true).build();
+		assertFalse(restarted.warmUp(Duration.ofSeconds(5)));
+		assertEquals(40, restarted.findOrNull("a").rolloutPercent());
+		assertTrue(restarted.reloadStats().servingLastGood());
+
+		// 원본이 고쳐지면 다음 조회에서 원본 스냅샷으로 바뀌고 버전은 계속 증가합니다.
+		long fallbackVersion = restarted.snapshot().version();
+		Files.writeString(flags, "{\"a\": {\"rolloutPercent\": 60}}");
+		assertEquals(60, restarted.findOrNull("a").rolloutPercent());
+		assertTrue(restarted.snapshot().version() > fallbackVersion);
+		assertFalse(restarted.reloadStats().servingLastGood());
+	}
+
+	@Test
+	void nonBlockingModeLoadsOnTheWatcherThread() throws Exception {
+		Path flags = tempDir.resolve("flags.json");
+		try (JsonFileFlagStore store = JsonFileFlagStore.builder(flags.toString()).ttl(Duration.ofMillis(20))
+			.refreshMode(JsonFileFlagStore.RefreshMode.NON_BLOCKING).build()) {
+			// 원본이 없어도 생성과 조회는 기다리지 않고 빈 스냅샷을 봅니다.
+			assertNull(store.findOrNull("a"));
+			assertFalse(store.ready().isDone());
+
+			Files.writeString(flags, "{\"a\": {\"rolloutPercent\": 40}}");
+			FlagSnapshot ready = store.ready().get(5, TimeUnit.SECONDS);
+			assertEquals(40, ready.find("a").rolloutPercent());
+
+			long attempts = store.reloadStats().attempts();
+			for (int i = 0; i < 1_000; i++) store.findOrNull("a");
+			assertSame(ready, store.snapshot());
+			assertEquals(attempts, store.reloadStats().attempts(), "lookups never reload on the caller thread");
+		}
+	}
+
+	static boolean awaitFlag(JsonFileFlagStore store, String key) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (System.currentTimeMillis() < deadline) {
+			if (store.findOrNull(key) != null) return true;
+			Thread.sleep(10);
+		}
+		return false;
+	}
+}
@@ -0,0 +1,128 @@
+package com.pluginpolicyengine.store.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+
+class JsonFlagSerdeTest {
+	private final JsonFlagSerde serde = new JsonFlagSerde();
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void streamingParserMatchesTreeParser() throws Exception {
+		String[] inputs = {
+			"{\"a\": {\"enabled\": false, \"rolloutPercent\": 30.7, \"unknown\": {\"x\": [1, {}]}},"
+				+ " \"b\": {\"key\": \"renamed\", \"defaultVariant\": \"\", \"variants\": [{\"name\": \"x\", \"weight\": 2},"
+				+ " {\"name\": \"y\", \"weight\": 0}, \"bad\", {\"name\": \"z\", \"weight\": 1}]},"
+				+ " \"c\": null, \"d\": \"not-an-object\", \"a\": {\"enabled\": true, \"rolloutPercent\": 99999999999}}",
+			"[{\"key\": \"t\", \"targeting\": {\"allowUserIds\": [\"u1\", 3, null], \"denyGroups\": [\"g\"],"
+				+ " \"requireAttrsIn\": {\"plan\": [\"pro\"], \"empty\": [], \"region\": \"kr\"}}},"
+				+ " {\"enabled\": true}, null, {\"key\": \"v\", \"enabled\": \"yes\", \"targeting\": [1]}]",
+			"  [ ]  "
+		};
+		JsonFlagSerde.Parsed previous = null;
+		JsonFlagSerde.Parsed mapped = null;
+		Path file = tempDir.resolve("flags.json");
+		for (String json : inputs) {
+			Map<String, FlagDefinition> tree = serde.parse(json);
+			Map<String, FlagDefinition> streamed = streamed(json);
+			assertEquals(tree.keySet(), streamed.keySet(), json);
+			for (String key : tree.keySet()) assertSameDefinition(tree.get(key), streamed.get(key));
+
+			// 이전 결과를 기준으로 한 증분 파싱도 같은 결과를 내야 합니다.
+			previous = serde.parse(json.getBytes(StandardCharsets.UTF_8), previous);
+			assertEquals(tree.keySet(), previous.flags.keySet(), json);
+			for (String key : tree.keySet()) assertSameDefinition(tree.get(key), previous.flags.get(key));
+
+			// 항목별 병렬 파싱도 순서(마지막 중복 키 우선)까지 같은 결과를 내야 합니다.
+			Map<String, FlagDefinition> parallel = serde.parse(json.getBytes(StandardCharsets.UTF_8), null, true).flags;
+			assertEquals(tree.keySet(), parallel.keySet(), json);
+			for (String key : tree.keySet()) assertSameDefinition(tree.get(key), parallel.get(key));
+
+			// 파일은 매핑된 버퍼에서 바로 읽으며, 증분 병렬 파싱도 같은 결과를 내야 합니다.
+			Files.writeString(file, json);
+			mapped = serde.parse(file, mapped, true);
+			assertEquals(tree.keySet(), mapped.flags.keySet(), json);
+			for (String key : tree.keySet()) assertSameDefinition(tree.get(key), mapped.flags.get(key));
+		}
+	}
+
+	@Test
+	void mappedFileReparsesOnlyChangedEntries() throws Exception {
+		Path file = tempDir.resolve("flags.json");
+		Files.writeString(file, "{\"a\": {\"rolloutPercent\": 10}, \"b\": {\"rolloutPercent\": 20}}");
+		JsonFlagSerde.Parsed first = serde.parse(file, null);
+		Files.writeString(file, "{\"a\": {\"rolloutPercent\": 10}, \"b\": {\"rolloutPercent\": 30}}");
+		JsonFlagSerde.Parsed second = serde.parse(file, first);
+		assertEquals(1, second.reused());
+		assertEquals(1, second.parsed());
+		assertEquals(30, second.flags.get("b").rolloutPercent());
+
+		Files.writeString(file, "");
+		assertThrows(IOException.class, () -> serde.parse(file, second));
+	}
+
+
+	@Test
+	void entryHashCollisionWithAnotherKeyIsReparsed() throws Exception {
+		for (String json : new String[] {
+			"{\"a\": {\"rolloutPercent\": 10}, \"b\": {\"rolloutPercent\": 20}}",
+			"[{\"key\": \"a\", \"rolloutPercent\": 10}, {\"key\": \"b\", \"rolloutPercent\": 20}]"}) {
+			byte[] content = json.getBytes(StandardCharsets.UTF_8);
+			JsonFlagSerde.Parsed first = serde.parse(content, null);
+			// 모든 항목 해시가 b의 정의와 충돌한 것처럼 만듭니다.
+			Map<Long, FlagDefinition> collided = new HashMap<>();
+			for (Long hash : first.byEntryHash.keySet()) collided.put(hash, first.flags.get("b"));
+			JsonFlagSerde.Parsed second = serde.parse(content,
+				new JsonFlagSerde.Parsed(first.flags, collided, 0));
+
+			assertEquals(2, second.flags.size(), json);
+			assertEquals(10, second.flags.get("a").rolloutPercent(), json);
+			assertSame(first.flags.get("b"), second.flags.get("b"), json);
+			assertEquals(1, second.reused(), json);
+		}
+	}
+	@Test
+	void streamingParserRejectsInvalidInput() {
+		assertThrows(IOException.class, () -> streamed(""));
+		assertThrows(IOException.class, () -> streamed("   "));
+		assertThrows(IOException.class, () -> streamed("\"flags\""));
+		assertThrows(IOException.class, () -> streamed("{\"a\": {\"enabled\": tr"));
+	}
+
+	private Map<String, FlagDefinition> streamed(String json) throws IOException {
+		return serde.parse(json.getBytes(StandardCharsets.UTF_8), null).flags;
+	}
+
+	private static void assertSameDefinition(FlagDefinition expected, FlagDefinition actual) {
+		String key = expected.key();
+		assertEquals(expected.key(), actual.key());
+		assertEquals(expected.enabled(), actual.enabled(), key);
+		assertEquals(expected.rolloutPercent(), actual.rolloutPercent(), key);
+		assertEquals(expected.defaultVariant(), actual.defaultVariant(), key);
+		assertEquals(expected.variants().size(), actual.variants().size(), key);
+		for (int i = 0; i < expected.variants().size(); i++) {
+			assertEquals(expected.variants().get(i).name(), actual.variants().get(i).name(), key);
+			assertEquals(expected.variants().get(i).weight(), actual.variants().get(i).weight(), key);
+		}
+		assertEquals(expected.targeting().allowUserIds(), actual.targeting().allowUserIds(), key);
+		assertEquals(expected.targeting().denyUserIds(), actual.targeting().denyUserIds(), key);
+		assertEquals(expected.targeting().allowGroups(), actual.targeting().allowGroups(), key);
+		assertEquals(expected.targeting().denyGroups(), actual.targeting().denyGroups(), key);
+		assertEquals(expected.targeting().requireAttrsIn(), actual.targeting().requireAttrsIn(), key);
+	}
+}
@@ -0,0 +1,62 @@
+package com.pluginpolicyengine.store.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+
+class MappedBinaryFlagStoreTest {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void convertedFileMatchesJsonDefinitions() throws Exception {
+		Path json = tempDir.resolve("flags.json");
+		Files.writeString(json, "{\"a\": {\"rolloutPercent\": 25, \"defaultVariant\": \"control\","
+			+ " \"variants\": [{\"name\": \"x\", \"weight\": 3}, {\"name\": \"y\", \"weight\": 1}],"
+			+ " \"targeting\": {\"allowUserIds\": [\"u2\", \"u1\"], \"denyGroups\": [\"banned\"],"
+			+ " \"requireAttrsIn\": {\"plan\": [\"pro\", \"enterprise\"]}}},"
+			+ " \"b\": {\"enabled\": false, \"targeting\": {\"allowGroups\": [\"banned\"]}}}");
+		Path bin = tempDir.resolve("flags.bin");
+		assertEquals(2, BinaryFlagFiles.convertJson(json, bin));
+
+		Map<String, FlagDefinition> expected = new JsonFlagSerde().parse(json);
+		MappedBinaryFlagStore store = MappedBinaryFlagStore.open(bin);
+		assertEquals(2, store.size());
+		for (FlagDefinition e : expected.values()) {
+			FlagDefinition a = store.findOrNull(e.key());
+			assertEquals(e.enabled(), a.enabled());
+			assertEquals(e.rolloutPercent(), a.rolloutPercent());
+			assertEquals(e.defaultVariant(), a.defaultVariant());
+			assertEquals(e.variants().size(), a.variants().size());
+			for (int i = 0; i < e.variants().size(); i++) {
+				assertEquals(e.variants().get(i).name(), a.variants().get(i).name());
+				assertEquals(e.variants().get(i).weight(), a.variants().get(i).weight());
+			}
+			assertEquals(e.targeting().allowUserIds(), a.targeting().allowUserIds());
+			assertEquals(e.targeting().denyGroups(), a.targeting().denyGroups());
+			assertEquals(e.targeting().allowGroups(), a.targeting().allowGroups());
+			assertEquals(e.targeting().requireAttrsIn(), a.targeting().requireAttrsIn());
+		}
+		assertSame(store.findOrNull("a"), store.findOrNull("a"), "decoded once and cached");
+		assertNull(store.findOrNull("missing"));
+		assertEquals(expected.keySet(), store.findAll().keySet());
+	}
+
+	@Test
+	void rejectsFilesThatAreNotBinarySnapshots() throws Exception {
+		Path bogus = tempDir.resolve("flags.json");
+		Files.writeString(bogus, "{\"a\": {\"enabled\": true}}");
+		assertThrows(IOException.class, () -> MappedBinaryFlagStore.open(bogus));
+	}
+}
@@ -0,0 +1,176 @@
+package com.pluginpolicyengine.store.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.pluginpolicyengine.config.CachingFeatureFlagClient;
+import com.pluginpolicyengine.config.FeatureFlagClientFactory;
+import com.pluginpolicyengine.core.BucketHasher;
+import com.pluginpolicyengine.core.FlagContext;
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagSnapshot;
+
+class SharedFlagStoreTest {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void readerSeesEachPublishWithoutReopening() throws Exception {
+		Path region = tempDir.resolve("flags.shm");
+		try (SharedFlagPublisher publisher = SharedFlagPublisher.open(region, 4_096)) {
+			SharedFlagStore store = SharedFlagStore.open(region);
+			assertEquals(0, store.version());
+			assertNull(store.findOrNull("beta"));
+
+			publisher.publish(List.of(FlagDefinition.builder("beta").rolloutPercent(10).build()));
+			assertEquals(10, store.findOrNull("beta").rolloutPercent());
+
+			long v = publisher.publish(List.of(FlagDefinition.builder("beta").rolloutPercent(50).build(),
+				FlagDefinition.builder("search").build()));
+			assertEquals(v, store.version());
+			assertEquals(50, store.findOrNull("beta").rolloutPercent());
+			assertEquals(2, store.findAll().size());
+		}
+
+		// 게시자를 다시 열면 기존 영역과 버전을 이어 씁니다.
+		try (SharedFlagPublisher publisher = SharedFlagPublisher.open(region, 4_096)) {
+			assertEquals(3, publisher.publish(List.of()));
+			assertFalse(SharedFlagStore.open(region).find("beta").isPresent());
+		}
+	}
+
+	@Test
+	void oversizedSnapshotKeepsPreviousVersion() throws Exception {
+		Path region = tempDir.resolve("flags.shm");
+		try (SharedFlagPublisher publisher = SharedFlagPublisher.open(region, 256)) {
+			publisher.publish(List.of(FlagDefinition.builder("beta").build()));
+			List<FlagDefinition> many = new ArrayList<>();
+			for (int i = 0; i < 100; i++) many.add(FlagDefinition.builder("flag-" + i).build());
+			assertThrows(IOException.class, () -> publisher.publish(many));
+
+			SharedFlagStore store = SharedFlagStore.open(region);
+			assertEquals(1, store.version());
+			assertNotNull(store.findOrNull("beta"));
+		}
+	}
+
+	@Test
+	void snapshotIsDecodedOncePerPublishedVersion() throws Exception {
+		Path region = tempDir.resolve("flags.shm");
+		try (SharedFlagPublisher publisher = SharedFlagPublisher.open(region, 4_096)) {
+			long v1 = publisher.publish(List.of(FlagDefinition.builder("beta").build()));
+			SharedFlagStore store = SharedFlagStore.open(region);
+			FlagSnapshot first = store.snapshot();
+			assertEquals(v1, first.version());
+			assertSame(first, store.snapshot());
+			assertSame(first.definitions(), store.findAll());
+
+			long v2 = publisher.publish(List.of(FlagDefinition.builder("beta").build(), FlagDefinition.builder("search").build()));
+			FlagSnapshot second = store.snapshot();
+			assertEquals(v2, second.version());
+			assertEquals(2, second.size());
+			assertEquals(1, first.size(), "old snapshot must stay unchanged");
+
+			// 스냅샷 저장소이므로 결정 캐시와 함께 쓸 수 있습니다.
+			CachingFeatureFlagClient client = FeatureFlagClientFactory.createCaching(store, BucketHasher.sha256(), 16);
+			assertTrue(client.isEnabled("search", FlagContext.builder().userId("user-1").build()));
+			assertEquals(2, client.evaluateAll(FlagContext.builder().build()).size());
+		}
+	}
+	@Test
+	void concurrentPublishersAndReadersNeverObserveTornSnapshots() throws Exception {
+		Path region = tempDir.resolve("flags.shm");
+		try (SharedFlagPublisher publisher = SharedFlagPublisher.open(region, 16_384)) {
+			publisher.publish(generation(0));
+			SharedFlagStore store = SharedFlagStore.open(region);
+			AtomicBoolean done = new AtomicBoolean();
+			AtomicReference<String> failure = new AtomicReference<>();
+			List<Thread> threads = new ArrayList<>();
+			for (int r = 0; r < 4; r++) {
+				threads.add(new Thread(() -> {
+					long lastVersion = 0;
+					while (!done.get()) {
+						// 한 세대의 모든 플래그는 같은 rolloutPercent를 가지므로 섞이면 안 됩니다.
+						int expected = -1;
+						for (FlagDefinition def : store.findAll().values()) {
+							if (expected < 0) expected = def.rolloutPercent();
+							if (def.rolloutPercent() != expected) failure.compareAndSet(null, "mixed generations");
+						}
+						if (store.findOrNull("flag-0") == null) failure.compareAndSet(null, "missing flag");
+						long version = store.version();
+						if (version < lastVersion) failure.compareAndSet(null, "version went backwards");
+						lastVersion = version;
+					}
+				}));
+			}
+			for (int p = 0; p < 2; p++) {
+				int offset = p;
+				threads.add(new Thread(() -> {
+					try {
+						for (int g = 1; g <= 150; g++) publisher.publish(generation((g * 2 + offset) % 100));
+					} catch (IOException e) {
+						failure.compareAndSet(null, e.toString());
+					}
+				}));
+			}
+			for (Thread t : threads) t.start();
+			for (Thread t : threads.subList(4, threads.size())) t.join();
+			done.set(true);
+			for (Thread t : threads) t.join();
+			assertNull(failure.get());
+			assertEquals(301, store.version());
+		}
+	}
+
+	@Test
+	void readersKeepServingWhenPublisherDiesMidPublish() throws Exception {
+		Path region = tempDir.resolve("flags.shm");
+		try (SharedFlagPublisher publisher = SharedFlagPublisher.open(region, 4_096)) {
+			publisher.publish(List.of(FlagDefinition.builder("beta").rolloutPercent(10).build()));
+			SharedFlagStore store = SharedFlagStore.open(region);
+			assertEquals(10, store.findOrNull("beta").rolloutPercent());
+
+			// 게시를 시작(홀수 sequence)한 채 멈춘 게시자를 흉내 냅니다. 독자는 기다리지 않고 마지막 스냅샷을 읽어야 합니다.
+			try (FileChannel ch = FileChannel.open(region, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size());
+				SharedFlagRegion.sequenceVolatile(buf, SharedFlagRegion.sequenceVolatile(buf) + 1);
+			}
+			AtomicReference<FlagDefinition> seen = new AtomicReference<>();
+			Thread reader = new Thread(() -> seen.set(store.findOrNull("beta")));
+			reader.start();
+			reader.join(5_000);
+			assertFalse(reader.isAlive(), "reader spun on an abandoned publish");
+			assertEquals(10, seen.get().rolloutPercent());
+			assertNotNull(SharedFlagStore.open(region).findOrNull("beta"));
+
+			// 다음 게시가 남은 홀수 sequence를 정리하고 새 버전을 게시합니다.
+			publisher.publish(List.of(FlagDefinition.builder("beta").rolloutPercent(20).build()));
+			assertEquals(20, store.findOrNull("beta").rolloutPercent());
+			assertEquals(2, store.version());
+		}
+	}
+
+	private static List<FlagDefinition> generation(int rollout) {
+		List<FlagDefinition> defs = new ArrayList<>();
+		for (int i = 0; i < 50; i++) defs.add(FlagDefinition.builder("flag-" + i).rolloutPercent(rollout).build());
+		return defs;
+	}
+}
@@ -0,0 +1,117 @@
+package com.pluginpolicyengine.store.remote;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagSnapshot;
+import com.pluginpolicyengine.core.Targeting;
+
+class RemoteFlagStoreTest {
+	@Test
+	void bootstrapsAppliesDeltasAndResyncsOnGap() throws Exception {
+		try (StandInFlagServer server = StandInFlagServer.start()) {
+			server.put(FlagDefinition.builder("checkout").rolloutPercent(20)
+				.targeting(Targeting.builder().allowGroup("staff").build()).variant("a", 1).build());
+			server.put(FlagDefinition.builder("search").build());
+
+			try (RemoteFlagStore store = RemoteFlagStore.builder(server.uri())
+				.backoff(Duration.ofMillis(10), Duration.ofMillis(100)).build()) {
+				assertTrue(store.awaitReady(Duration.ofSeconds(5)));
+				FlagSnapshot first = store.snapshot();
+				assertEquals(2, first.size());
+				assertEquals(20, first.find("checkout").rolloutPercent());
+				assertTrue(first.find("checkout").targeting().allowGroups().contains("staff"));
+
+				// 스트림 변경분은 스냅샷 하나로 원자적으로 반영됩니다.
+				server.remove("search");
+				long v = server.put(FlagDefinition.builder("beta").enabled(false).build());
+				assertTrue(await(() -> store.remoteVersion() == v), "delta not applied: " + store.syncStats());
+				assertNull(store.findOrNull("search"));
+				assertEquals(false, store.findOrNull("beta").enabled());
+				assertSame(first.find("checkout"), store.snapshot().find("checkout"), "untouched flags are reused");
+
+				// 끊긴 뒤에는 since 이후 변경분을 이어 받습니다.
+				server.disconnectStreams();
+				long v2 = server.put(FlagDefinition.builder("search").build());
+				assertTrue(await(() -> store.remoteVersion() == v2), "reconnect did not catch up: " + store.syncStats());
+
+				// 누락을 발견하면 전체 스냅샷을 다시 받습니다.
+				server.skipVersion();
+				long v3 = server.put(FlagDefinition.builder("late").build());
+				assertTrue(await(() -> store.remoteVersion() == v3), "gap did not resync: " + store.syncStats());
+				assertTrue(store.syncStats().resyncs() >= 1);
+				assertEquals(4, store.snapshot().size());
+			}
+		}
+	}
+
+
+	@Test
+	void silentStreamIsClosedAndResyncedWhileHeartbeatsKeepItOpen() throws Exception {
+		try (StandInFlagServer server = StandInFlagServer.start()) {
+			server.put(FlagDefinition.builder("search").build());
+
+			try (RemoteFlagStore store = RemoteFlagStore.builder(server.uri())
+				.backoff(Duration.ofMillis(10), Duration.ofMillis(100))
+				.idleTimeout(Duration.ofMillis(500))
+				.build()) {
+				assertTrue(store.awaitReady(Duration.ofSeconds(5)));
+				for (int i = 0; i < 15; i++) {
+					server.heartbeat();
+					Thread.sleep(100);
+				}
+				assertEquals(0, store.syncStats().idleTimeouts(), "heartbeats must keep the stream open");
+
+				// 아무것도 보내지 않으면 반쯤 끊긴 연결로 보고 닫은 뒤 전체 스냅샷을 다시 받습니다.
+				long bootstraps = store.syncStats().bootstraps();
+				assertTrue(await(() -> store.syncStats().idleTimeouts() >= 1), "idle stream not closed: " + store.syncStats());
+				assertTrue(await(() -> store.syncStats().bootstraps() > bootstraps), "no resync: " + store.syncStats());
+				long v = server.put(FlagDefinition.builder("beta").build());
+				assertTrue(await(() -> store.remoteVersion() == v), "stream not resumed: " + store.syncStats());
+			}
+		}
+	}
+
+
+	@Test
+	void malformedDeltaResyncsInsteadOfReplayingItForever() throws Exception {
+		try (StandInFlagServer server = StandInFlagServer.start()) {
+			server.put(FlagDefinition.builder("search").build());
+
+			try (RemoteFlagStore store = RemoteFlagStore.builder(server.uri())
+				.backoff(Duration.ofMillis(10), Duration.ofMillis(100)).build()) {
+				assertTrue(store.awaitReady(Duration.ofSeconds(5)));
+
+				// 서버가 보관한 잘못된 변경분은 since로 다시 연결해도 또 오므로 전체 스냅샷으로 건너뛰어야 합니다.
+				long badId = server.publishRaw("not-a-version", "{}");
+				assertTrue(await(() -> store.remoteVersion() == badId), "bad id not skipped: " + store.syncStats());
+				long badData = server.publishRaw(Long.toString(badId + 1), "{\"base\": " + badId + ", \"put\": ");
+				assertTrue(await(() -> store.remoteVersion() == badData), "bad data not skipped: " + store.syncStats());
+
+				long v = server.put(FlagDefinition.builder("beta").build());
+				assertTrue(await(() -> store.remoteVersion() == v), "later deltas not applied: " + store.syncStats());
+				assertNotNull(store.findOrNull("beta"));
+				assertTrue(store.syncStats().resyncs() >= 2);
+				assertTrue(store.syncStats().lastError().startsWith("malformed delta"), store.syncStats().lastError());
+			}
+		}
+	}
+
+	private static boolean await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (System.currentTimeMillis() < deadline) {
+			if (condition.getAsBoolean()) return true;
+			Thread.sleep(10);
+		}
+		return false;
+	}
+}
@@ -0,0 +1,86 @@
+package com.pluginpolicyengine.core;
+
+/**
+ * rollout 버킷과 variant 선택에 사용하는 결정론적 해시 전략입니다.
+ *
+ * <p>구현체는 동일 입력에 대해 항상 같은 값을 반환해야 하며, 평가 경로에서 호출되므로
+ * 호출마다 객체를 할당하지 않아야 합니다. 전략을 바꾸면 기존 사용자의 버킷이 재배치될 수 있습니다.</p>
+ */
+public interface BucketHasher {
+	/**
+	 * 해시 용도입니다. 같은 기준값이라도 용도별로 서로 다른 버킷을 얻기 위해 사용합니다.
+	 */
+	enum Purpose {
+		/** rollout 버킷 계산 */
+		ROLLOUT(""),
+		/** variant 버킷 계산 */
+		VARIANT("variant:");
+
+		private final String prefix;
+
+		Purpose(String prefix) { this.prefix = prefix; }
+
+		/**
+		 * @return SHA-256 호환 모드에서 해시 입력 앞에 붙는 접두어
+		 */
+		public String prefix() { return prefix; }
+	}
+
+	/**
+	 * 플래그 키별 seed를 계산합니다. 같은 키에 대해서는 미리 계산해 재사용할 수 있습니다.
+	 *
+	 * @param purpose 해시 용도
+	 * @param key 기능 플래그 키
+	 * @return 플래그 seed
+	 */
+	long seed(Purpose purpose, String key);
+
+	/**
+	 * 플래그와 기준값(userId/anonId)으로 음수가 아닌 해시를 계산합니다.
+	 *
+	 * @param purpose 해시 용도
+	 * @param key 기능 플래그 키
+	 * @param seed {@link #seed(Purpose, String)}로 계산한 플래그 seed
+	 * @param basis rollout 기준값
+	 * @return 음수가 아닌 해시 값
+	 */
+	long hash(Purpose purpose, String key, long seed, String basis);
+
+	/**
+	 * 기준값만으로 계산할 수 있는 부분을 미리 해시합니다. 같은 기준값으로 여러 플래그를 평가할 때
+	 * 한 번만 계산해 {@link #hash(Purpose, String, long, String, long)}에 재사용합니다.
+	 *
+	 * @param basis rollout 기준값
+	 * @return 기준값 해시(전략이 사용하지 않으면 0)
+	 */
+	default long basisHash(String basis) { return 0L; }
+
+	/**
+	 * {@link #basisHash(String)}로 미리 계산한 값을 사용해 해시를 계산합니다.
+	 * 결과는 {@link #hash(Purpose, String, long, String)}와 같아야 합니다.
+	 *
+	 * @param purpose 해시 용도
+	 * @param key 기능 플래그 키
+	 * @param seed 플래그 seed
+	 * @param basis rollout 기준값
+	 * @param basisHash {@link #basisHash(String)} 결과
+	 * @return 음수가 아닌 해시 값
+	 */
+	default long hash(Purpose purpose, String key, long seed, String basis, long basisHash) {
+		return hash(purpose, key, seed, basis);
+	}
+
+	/**
+	 * 기존 버전과 같은 버킷을 만드는 SHA-256 호환 전략을 반환합니다.
+	 *
+	 * @return SHA-256 호환 해시 전략
+	 */
+	static BucketHasher sha256() { return Sha256BucketHasher.INSTANCE; }
+
+	/**
+	 * 문자열 char를 직접 읽는 MurmurHash3 기반 고속 전략을 반환합니다.
+	 *
+	 * @return MurmurHash3 해시 전략
+	 */
+	static BucketHasher murmur3() { return Murmur3BucketHasher.INSTANCE; }
+}
@@ -0,0 +1,144 @@
+package com.pluginpolicyengine.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 큰 사용자 ID 목록을 위한 읽기 전용 문자열 집합입니다.
+ *
+ * <p>정렬된 문자열을 하나의 배열(모두 Latin-1이면 {@code byte[]}, 아니면 {@code char[]})에 이어 붙이고
+ * 시작 위치만 {@code int[]}로 보관하므로, 항목마다 {@link String}과 해시 노드를 두는 {@link HashSet}보다
+ * 힙을 훨씬 적게 씁니다. 조회는 조회 문자열을 그대로 비교하는 이진 탐색이라 객체를 만들지 않으며,
+ * 앞단의 Bloom 필터가 대부분의 음성 조회를 {@link String#hashCode()}(문자열에 캐시됨)만으로 걸러냅니다.</p>
+ */
+final class CompactStringSet extends AbstractSet<String> {
+	private static final int BLOOM_BITS_PER_ENTRY = 8;
+
+	private final byte[] latin1; // 모든 문자가 Latin-1이면 사용, 아니면 null
+	private final char[] chars;  // latin1이 null일 때 사용
+	private final int[] offsets; // size + 1개, i번째 문자열은 [offsets[i], offsets[i + 1])
+	private final long[] bloom;
+	private final int bloomMask;
+
+	private CompactStringSet(String[] sorted) {
+		int n = sorted.length;
+		this.offsets = new int[n + 1];
+		boolean allLatin1 = true;
+		long total = 0;
+		for (String s : sorted) {
+			total += s.length();
+			if (allLatin1) {
+				for (int i = 0; i < s.length(); i++) {
+					if (s.charAt(i) > 0xff) { allLatin1 = false; break; }
+				}
+			}
+		}
+		if (total > Integer.MAX_VALUE) throw new IllegalArgumentException("user id list is too large");
+
+		this.latin1 = allLatin1 ? new byte[(int) total] : null;
+		this.chars = allLatin1 ? null : new char[(int) total];
+		int pos = 0;
+		for (int i = 0; i < n; i++) {
+			String s = sorted[i];
+			offsets[i] = pos;
+			if (allLatin1) {
+				for (int k = 0; k < s.length(); k++) latin1[pos + k] = (byte) s.charAt(k);
+			} else {
+				s.getChars(0, s.length(), chars, pos);
+			}
+			pos += s.length();
+		}
+		offsets[n] = pos;
+
+		int bits = Integer.highestOneBit(Math.max(64, n * BLOOM_BITS_PER_ENTRY - 1)) << 1;
+		this.bloom = new long[bits >>> 6];
+		this.bloomMask = bits - 1;
+		for (String s : sorted) {
+			int h = s.hashCode();
+			setBit(h);
+			setBit(spread(h));
+		}
+	}
+
+	/**
+	 * 중복과 {@code null}을 제거하고 정렬해 집합을 생성합니다.
+	 *
+	 * @param values 문자열 목록
+	 * @return 압축 집합
+	 */
+	static CompactStringSet of(Collection<String> values) {
+		String[] sorted = values.stream().filter(Objects::nonNull).distinct().sorted().toArray(String[]::new);
+		return new CompactStringSet(sorted);
+	}
+
+	@Override
+	public int size() { return offsets.length - 1; }
+
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof String)) return false;
+		String s = (String) o;
+		int h = s.hashCode();
+		if (!hasBit(h) || !hasBit(spread(h))) return false;
+
+		int lo = 0;
+		int hi = size() - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int c = compareAt(mid, s);
+			if (c < 0) lo = mid + 1;
+			else if (c > 0) hi = mid - 1;
+			else return true;
+		}
+		return false;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return new Iterator<>() {
+			private int i;
+
+			@Override
+			public boolean hasNext() { return i < size(); }
+
+			@Override
+			public String next() {
+				if (i >= size()) throw new NoSuchElementException();
+				return stringAt(i++);
+			}
+		};
+	}
+
+	private String stringAt(int i) {
+		int from = offsets[i];
+		int len = offsets[i + 1] - from;
+		return latin1 != null ? new String(latin1, from, len, StandardCharsets.ISO_8859_1) : new String(chars, from, len);
+	}
+
+	/** {@link String#compareTo(String)}와 같은 순서로 i번째 문자열과 {@code s}를 비교합니다. */
+	private int compareAt(int i, String s) {
+		int from = offsets[i];
+		int len = offsets[i + 1] - from;
+		int n = Math.min(len, s.length());
+		for (int k = 0; k < n; k++) {
+			int c = (latin1 != null ? latin1[from + k] & 0xff : chars[from + k]) - s.charAt(k);
+			if (c != 0) return c;
+		}
+		return len - s.length();
+	}
+
+	private static int spread(int h) {
+		h *= 0x9e3779b9;
+		return h ^ (h >>> 16);
+	}
+
+	private void setBit(int h) {
+		int bit = h & bloomMask;
+		bloom[bit >>> 6] |= 1L << bit;
+	}
+
+	private boolean hasBit(int h) {
+		int bit = h & bloomMask;
+		return (bloom[bit >>> 6] & (1L << bit)) != 0;
+	}
+}
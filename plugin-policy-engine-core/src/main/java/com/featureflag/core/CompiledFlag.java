@@ -0,0 +1,231 @@
+package com.pluginpolicyengine.core;
+
+import java.util.*;
+
+/**
+ * {@link FlagDefinition}을 평가하기 좋은 형태로 한 번 컴파일한 불변 평가 계획입니다.
+ *
+ * <p>정의를 만들 때 함께 생성되며, 빈 규칙 집합은 플래그로 미리 판별하고 variant 가중치는
+ * 누적 배열로 바꿔 두므로 평가 비용은 실제로 존재하는 규칙 수에만 비례합니다.
+ * 그룹과 속성 규칙은 {@link TargetingDictionary} 비트 마스크로도 컴파일해 컨텍스트 비트셋과 AND로 판정합니다.</p>
+ */
+public final class CompiledFlag {
+	final FlagDefinition definition;
+	final String key;
+	final boolean enabled;
+	final int rolloutPercent;
+
+	final Set<String> denyUserIds;
+	final Set<String> denyGroups;
+	final Set<String> allowUserIds;
+	final Set<String> allowGroups;
+	final boolean hasDenyRules;
+	final boolean hasAllowRules;
+	final String[] attrKeys;
+	final Set<String>[] attrValues;
+
+	// 한 플래그의 규칙이 사전 한도를 넘어 마스크를 만들 수 없으면 dictionary가 null이고 문자열 집합으로 판정합니다.
+	final TargetingDictionary dictionary;
+	final long[] denyGroupMask;
+	final long[] allowGroupMask;
+	final long[][] attrMasks;
+
+	final String defaultVariant;
+	final String[] variantNames;
+	final int[] cumulativeWeights;
+	final int totalWeight;
+
+	final FlagDecision disabledDecision;
+	final FlagDecision denyDecision;
+	final FlagDecision missDecision;
+	final FlagDecision rolloutOutDecision;
+	final FlagDecision[] allowDecisions;     // [0]=defaultVariant, [i+1]=variantNames[i]
+	final FlagDecision[] rolloutInDecisions; // allowDecisions와 같은 slot 배치
+
+	private volatile Seeds seeds;
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	CompiledFlag(FlagDefinition def) {
+		this.definition = def;
+		this.key = def.key();
+		this.enabled = def.enabled();
+		this.rolloutPercent = def.rolloutPercent();
+
+		Targeting t = def.targeting();
+		this.denyUserIds = t.denyUserIds();
+		this.denyGroups = t.denyGroups();
+		this.allowUserIds = t.allowUserIds();
+		this.allowGroups = t.allowGroups();
+		this.hasDenyRules = !denyUserIds.isEmpty() || !denyGroups.isEmpty();
+		this.hasAllowRules = !allowUserIds.isEmpty() || !allowGroups.isEmpty();
+
+		Map<String, Set<String>> attrs = t.requireAttrsIn();
+		this.attrKeys = new String[attrs.size()];
+		this.attrValues = new Set[attrs.size()];
+		int i = 0;
+		for (var e : attrs.entrySet()) {
+			attrKeys[i] = e.getKey();
+			attrValues[i] = e.getValue();
+			i++;
+		}
+
+		TargetingDictionary dict = null;
+		long[][] masks = null;
+		if (fitsEmptyDictionary()) {
+			dict = TargetingDictionary.current();
+			masks = masks(dict);
+			if (masks == null) {
+				// 현재 세대가 가득 찼으면 새 세대에 등록합니다.
+				dict = TargetingDictionary.rollOver(dict);
+				masks = masks(dict);
+			}
+		}
+		this.dictionary = masks == null ? null : dict;
+		this.denyGroupMask = masks == null ? null : masks[0];
+		this.allowGroupMask = masks == null ? null : masks[1];
+		this.attrMasks = masks == null ? null : Arrays.copyOfRange(masks, 2, masks.length);
+
+		this.defaultVariant = def.defaultVariant();
+		List<FlagDefinition.VariantAllocation> variants = def.variants();
+		this.variantNames = new String[variants.size()];
+		this.cumulativeWeights = new int[variants.size()];
+		int acc = 0;
+		for (int v = 0; v < variants.size(); v++) {
+			variantNames[v] = variants.get(v).name();
+			acc += variants.get(v).weight();
+			cumulativeWeights[v] = acc;
+		}
+		this.totalWeight = acc;
+
+		this.disabledDecision = new FlagDecision(FlagReason.FLAG_DISABLED, "off", FlagDecision.VARIANT_OFF, key, rolloutPercent);
+		this.denyDecision = new FlagDecision(FlagReason.TARGET_DENY, "off", FlagDecision.VARIANT_OFF, key, rolloutPercent);
+		this.missDecision = new FlagDecision(FlagReason.TARGET_MISS, "off", FlagDecision.VARIANT_OFF, key, rolloutPercent);
+		this.rolloutOutDecision = new FlagDecision(FlagReason.ROLLOUT_OUT, "off", FlagDecision.VARIANT_OFF, key, rolloutPercent);
+		this.allowDecisions = new FlagDecision[variantNames.length + 1];
+		this.rolloutInDecisions = new FlagDecision[variantNames.length + 1];
+		for (int slot = 0; slot <= variantNames.length; slot++) {
+			String name = variantName(slot);
+			int index = slotToIndex(slot);
+			allowDecisions[slot] = new FlagDecision(FlagReason.TARGET_ALLOW, name, index, key, rolloutPercent);
+			rolloutInDecisions[slot] = new FlagDecision(FlagReason.ROLLOUT_IN, name, index, key, rolloutPercent);
+		}
+	}
+
+	/**
+	 * @return 그룹/속성 규칙을 사전 비트 마스크로 판정하면 {@code true}, 규칙이 사전 한도보다 커서 문자열 집합으로
+	 *         판정하면 {@code false}
+	 */
+	public boolean usesTargetingMasks() { return dictionary != null; }
+
+	/**
+	 * @return 컴파일 원본 정의
+	 */
+	public FlagDefinition definition() { return definition; }
+
+	/**
+	 * @return 기능 플래그 키
+	 */
+	public String key() { return key; }
+
+	boolean isDenied(FlagContext ctx) {
+		if (!hasDenyRules) return false;
+		return matches(denyUserIds, denyGroups, denyGroupMask, ctx);
+	}
+
+	boolean isAllowed(FlagContext ctx) {
+		if (!hasAllowRules) return false;
+		return matches(allowUserIds, allowGroups, allowGroupMask, ctx);
+	}
+
+	/**
+	 * deny/allow 판정 이후에 호출되어 TARGET_MISS 여부를 판단합니다.
+	 * allow 규칙이 있는데 허용되지 않았다면 속성과 관계없이 대상이 아닙니다.
+	 */
+	boolean missesEligibility(FlagContext ctx) {
+		if (hasAllowRules) return true;
+		if (attrKeys.length == 0) return false;
+		if (dictionary != null) {
+			long[] bits = ctx.targetingBits(dictionary);
+			for (long[] mask : attrMasks) if (!TargetingDictionary.intersects(mask, bits)) return true;
+			return false;
+		}
+		for (int i = 0; i < attrKeys.length; i++) {
+			String actual = ctx.attrs().get(attrKeys[i]);
+			if (actual == null || !attrValues[i].contains(actual)) return true;
+		}
+		return false;
+	}
+
+	boolean hasWeightedVariants() { return totalWeight > 0; }
+
+	String variantName(int slot) { return slot == 0 ? defaultVariant : variantNames[slot - 1]; }
+
+	static int slotToIndex(int slot) { return slot == 0 ? FlagDecision.VARIANT_DEFAULT : slot - 1; }
+
+	/** 누적 가중치에서 {@code r}보다 큰 첫 위치를 이진 탐색합니다. */
+	int variantIndex(long r) {
+		int lo = 0;
+		int hi = cumulativeWeights.length - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (cumulativeWeights[mid] > r) hi = mid;
+			else lo = mid + 1;
+		}
+		return lo;
+	}
+
+	long rolloutSeed(BucketHasher hasher) { return seeds(hasher).rollout; }
+
+	long variantSeed(BucketHasher hasher) { return seeds(hasher).variant; }
+
+	private Seeds seeds(BucketHasher hasher) {
+		Seeds s = seeds;
+		if (s == null || s.hasher != hasher) {
+			s = new Seeds(hasher, hasher.seed(BucketHasher.Purpose.ROLLOUT, key), hasher.seed(BucketHasher.Purpose.VARIANT, key));
+			seeds = s;
+		}
+		return s;
+	}
+
+	/** @return [deny 그룹, allow 그룹, 속성 키별 값...] 마스크, 사전에 다 등록할 수 없으면 {@code null} */
+	private long[][] masks(TargetingDictionary dict) {
+		long[][] out = new long[2 + attrKeys.length][];
+		out[0] = dict.groupMask(denyGroups);
+		if (out[0] == null) return null;
+		out[1] = dict.groupMask(allowGroups);
+		if (out[1] == null) return null;
+		for (int a = 0; a < attrKeys.length; a++) {
+			out[2 + a] = dict.attrMask(attrKeys[a], attrValues[a]);
+			if (out[2 + a] == null) return null;
+		}
+		return out;
+	}
+
+	/** 빈 사전에 다 들어갈 규칙만 사전에 등록해, 한도보다 큰 플래그 하나가 세대를 채우거나 계속 바꾸지 않게 합니다. */
+	private boolean fitsEmptyDictionary() {
+		long ids = (long) denyGroups.size() + allowGroups.size();
+		for (Set<String> values : attrValues) ids += values.size();
+		return ids <= TargetingDictionary.MAX_IDS;
+	}
+
+	private boolean matches(Set<String> userIds, Set<String> groups, long[] groupMask, FlagContext ctx) {
+		String uid = ctx.userId();
+		if (uid != null && !userIds.isEmpty() && userIds.contains(uid)) return true;
+		if (groups.isEmpty()) return false;
+		if (dictionary != null) return TargetingDictionary.intersects(groupMask, ctx.targetingBits(dictionary));
+		for (String g : ctx.groupArray()) if (groups.contains(g)) return true;
+		return false;
+	}
+
+	private static final class Seeds {
+		final BucketHasher hasher;
+		final long rollout;
+		final long variant;
+
+		Seeds(BucketHasher hasher, long rollout, long variant) {
+			this.hasher = hasher;
+			this.rollout = rollout;
+			this.variant = variant;
+		}
+	}
+}
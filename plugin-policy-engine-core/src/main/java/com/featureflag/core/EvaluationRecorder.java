@@ -0,0 +1,39 @@
+package com.pluginpolicyengine.core;
+
+/**
+ * {@link FeatureFlagService}가 평가 결과와 (표본) 지연을 알리는 계측 SPI입니다.
+ *
+ * <p>모든 메서드는 평가 스레드에서 잠금 없이 호출되므로 구현은 빠르고 스레드 안전해야 하며 예외를 던지면 안 됩니다.
+ * 기본값은 아무것도 하지 않는 {@link #NOOP}이고, 이때 서비스는 호출 자체를 생략합니다.
+ * 기본 구현은 {@code com.pluginpolicyengine.core.metrics.EvaluationMetrics}입니다.</p>
+ */
+public interface EvaluationRecorder {
+	/** 아무것도 기록하지 않는 구현입니다. */
+	EvaluationRecorder NOOP = (key, reason, variantIndex) -> { };
+
+	/**
+	 * 평가 한 건을 기록합니다.
+	 *
+	 * @param key 기능 플래그 키
+	 * @param reason 평가 사유
+	 * @param variantIndex 선택된 variant index, 기본 variant면 {@link FlagDecision#VARIANT_DEFAULT},
+	 *                     비활성이면 {@link FlagDecision#VARIANT_OFF}
+	 */
+	void record(String key, FlagReason reason, int variantIndex);
+
+	/**
+	 * 이번 평가의 지연을 측정할지 정합니다. {@code true}면 서비스가 평가 전후로 {@link System#nanoTime()}을 읽고
+	 * {@link #recordLatency(String, long)}를 호출합니다.
+	 *
+	 * @return 이번 평가를 표본으로 삼으면 {@code true}
+	 */
+	default boolean sampleLatency() { return false; }
+
+	/**
+	 * 표본으로 선택된 평가의 지연을 기록합니다.
+	 *
+	 * @param key 기능 플래그 키
+	 * @param nanos 평가에 걸린 시간(ns)
+	 */
+	default void recordLatency(String key, long nanos) { }
+}
@@ -0,0 +1,23 @@
+package com.pluginpolicyengine.core;
+
+/**
+ * variant가 결정된(활성) 평가마다 호출되는 노출(exposure) SPI입니다.
+ *
+ * <p>A/B 분석용 노출 이벤트를 모으기 위한 것으로, 평가 스레드에서 호출되므로 구현은 I/O 없이 빠르게
+ * 끝나야 하며 예외를 던지면 안 됩니다. 기본값은 {@link #NOOP}이고, 이때 서비스는 호출 자체를 생략합니다.
+ * 기본 구현은 {@code com.pluginpolicyengine.core.exposure.ExposurePipeline}입니다.</p>
+ */
+public interface ExposureListener {
+	/** 아무것도 하지 않는 구현입니다. */
+	ExposureListener NOOP = (key, ctx, variantIndex, variant) -> { };
+
+	/**
+	 * 활성 평가 한 건을 알립니다.
+	 *
+	 * @param key 기능 플래그 키
+	 * @param ctx 평가에 사용한 컨텍스트
+	 * @param variantIndex 선택된 variant index, 기본 variant면 {@link FlagDecision#VARIANT_DEFAULT}
+	 * @param variant 선택된 variant 이름
+	 */
+	void onExposure(String key, FlagContext ctx, int variantIndex, String variant);
+}
@@ -1,21 +1,66 @@
 package com.pluginpolicyengine.core;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.util.*;
 
 /**
  * 컨텍스트를 기준으로 기능 플래그를 평가하는 핵심 서비스입니다.
  */
 public final class FeatureFlagService {
+	private static final int REASON_SHIFT = 24;
+	private static final int SLOT_MASK = (1 << REASON_SHIFT) - 1;
+	private static final FlagReason[] REASONS = FlagReason.values();
+
 	private final FlagStore store;
+	private final SnapshotFlagStore snapshots; // 스냅샷을 지원하지 않는 저장소면 null
+	private final BucketHasher hasher;
+	private final EvaluationRecorder recorder;
+	private final boolean recording;          // recorder가 NOOP이 아니면 true
+	private final ExposureListener exposures;
+	private final boolean exposing;           // exposures가 NOOP이 아니면 true
+
+	/**
+	 * {@link FlagStore}를 사용해 서비스를 생성합니다. 버킷 해시는 SHA-256 호환 전략을 사용합니다.
+	 *
+	 * @param store 플래그 저장소
+	 */
+	public FeatureFlagService(FlagStore store) { this(store, BucketHasher.sha256()); }
+
+	/**
+	 * {@link FlagStore}와 버킷 해시 전략을 사용해 서비스를 생성합니다.
+	 *
+	 * @param store 플래그 저장소
+	 * @param hasher rollout/variant 버킷 해시 전략
+	 */
+	public FeatureFlagService(FlagStore store, BucketHasher hasher) { this(store, hasher, EvaluationRecorder.NOOP); }
 
 	/**
-	 * {@link FlagStore}를 사용해 서비스를 생성합니다.
+	 * {@link FlagStore}, 버킷 해시 전략, 계측기를 사용해 서비스를 생성합니다.
 	 *
 	 * @param store 플래그 저장소
+	 * @param hasher rollout/variant 버킷 해시 전략
+	 * @param recorder 평가 결과/지연 계측기. {@link EvaluationRecorder#NOOP}이면 계측 호출을 생략합니다.
 	 */
-	public FeatureFlagService(FlagStore store) { this.store = Objects.requireNonNull(store, "store"); }
+	public FeatureFlagService(FlagStore store, BucketHasher hasher, EvaluationRecorder recorder) {
+		this(store, hasher, recorder, ExposureListener.NOOP);
+	}
+
+	/**
+	 * {@link FlagStore}, 버킷 해시 전략, 계측기, 노출 리스너를 사용해 서비스를 생성합니다.
+	 *
+	 * @param store 플래그 저장소
+	 * @param hasher rollout/variant 버킷 해시 전략
+	 * @param recorder 평가 결과/지연 계측기
+	 * @param exposures 활성 평가마다 호출할 노출 리스너. {@link ExposureListener#NOOP}이면 호출을 생략합니다.
+	 */
+	public FeatureFlagService(FlagStore store, BucketHasher hasher, EvaluationRecorder recorder, ExposureListener exposures) {
+		this.store = Objects.requireNonNull(store, "store");
+		this.snapshots = store instanceof SnapshotFlagStore ? (SnapshotFlagStore) store : null;
+		this.hasher = Objects.requireNonNull(hasher, "hasher");
+		this.recorder = Objects.requireNonNull(recorder, "recorder");
+		this.recording = recorder != EvaluationRecorder.NOOP;
+		this.exposures = Objects.requireNonNull(exposures, "exposures");
+		this.exposing = exposures != ExposureListener.NOOP;
+	}
 
 	/**
 	 * 플래그를 평가하고 상세 의사결정 정보를 반환합니다.
@@ -25,39 +70,167 @@ public final class FeatureFlagService {
 	 * @return 평가 결과
 	 */
 	public FlagDecision evaluate(String key, FlagContext ctx) {
-		var defOpt = store.find(key);
-		if (defOpt.isEmpty()) {
-			return new FlagDecision(false, "off", "FLAG_NOT_FOUND", Map.of("key", key));
-		}
-		FlagDefinition def = defOpt.get();
+		CompiledFlag f = lookup(key);
+		if (f == null) return notFound(key);
+		return decision(f, evaluateExposed(f, ctx));
+	}
+
+	/**
+	 * 주어진 스냅샷 한 시점에서 플래그를 평가합니다. 평가 결과를 스냅샷 버전과 함께 다루는 호출자
+	 * (예: 결정 캐시)가 버전과 결과가 어긋나지 않도록 사용합니다.
+	 *
+	 * @param snapshot 평가에 사용할 스냅샷
+	 * @param key 기능 플래그 키
+	 * @param ctx 요청 컨텍스트
+	 * @return 평가 결과
+	 */
+	public FlagDecision evaluate(FlagSnapshot snapshot, String key, FlagContext ctx) {
+		CompiledFlag f = snapshot.compiled(key);
+		if (f == null) return notFound(key);
+		return decision(f, evaluateExposed(f, ctx));
+	}
 
-		if (!def.enabled()) {
-			return new FlagDecision(false, "off", "FLAG_DISABLED", Map.of("key", key));
+	/**
+	 * 하나의 컨텍스트로 스토어의 모든 플래그를 평가합니다.
+	 * 기준값과 기준값 해시는 컨텍스트에 한 번만 계산되고, 플래그마다 {@link Optional}을 만들지 않습니다.
+	 * {@link SnapshotFlagStore}면 한 시점의 스냅샷 하나로 평가하고, 스냅샷의 타게팅 역색인으로 컨텍스트와
+	 * 관련 없는 타게팅 플래그는 평가 없이 미리 정해진 결과({@code TARGET_MISS}/{@code FLAG_DISABLED})를 사용합니다.
+	 * 활성 결과는 단건 평가와 같이 노출 리스너에 알립니다.
+	 *
+	 * @param ctx 요청 컨텍스트
+	 * @return 플래그별 평가 결과
+	 */
+	public FlagDecisions evaluateAll(FlagContext ctx) {
+		if (snapshots != null) return evaluateIndexed(snapshots.snapshot(), ctx);
+
+		Map<String, FlagDefinition> all = store.findAll();
+		FlagDecisions.Builder out = FlagDecisions.builder(all.size());
+		for (FlagDefinition def : all.values()) {
+			CompiledFlag f = def.compiled();
+			out.add(f.key, decision(f, evaluateExposed(f, ctx)));
 		}
+		return out.build();
+	}
 
-		Targeting t = def.targeting();
+	/**
+	 * 하나의 컨텍스트로 주어진 플래그들을 평가합니다. 없는 키는 {@code FLAG_NOT_FOUND}로 포함됩니다.
+	 * 활성 결과는 단건 평가와 같이 노출 리스너에 알립니다.
+	 *
+	 * @param keys 기능 플래그 키 목록
+	 * @param ctx 요청 컨텍스트
+	 * @return 키 순서대로의 평가 결과
+	 */
+	public FlagDecisions evaluate(Collection<String> keys, FlagContext ctx) {
+		FlagSnapshot snapshot = snapshots != null ? snapshots.snapshot() : null;
+		FlagDecisions.Builder out = FlagDecisions.builder(keys.size());
+		for (String key : keys) {
+			CompiledFlag f = snapshot != null ? snapshot.compiled(key) : lookup(key);
+			if (f == null) {
+				out.add(key, notFound(key));
+				continue;
+			}
+			out.add(key, decision(f, evaluateExposed(f, ctx)));
+		}
+		return out.build();
+	}
 
-		if (t.isExplicitlyDenied(ctx)) {
-			return new FlagDecision(false, "off", "TARGET_DENY", Map.of("key", key));
+	private FlagDecisions evaluateIndexed(FlagSnapshot snapshot, FlagContext ctx) {
+		TargetingIndex idx = snapshot.targetingIndex();
+		FlagDecision[] out = idx.baseline.clone();
+		evaluateAt(snapshot, idx.alwaysEvaluate, out, ctx);
+		evaluateAt(snapshot, idx.userCandidates(ctx.userId()), out, ctx);
+		if (idx.hasGroupRules()) {
+			for (String g : ctx.groupArray()) evaluateAt(snapshot, idx.groupCandidates(g), out, ctx);
+		}
+		if (idx.hasAttrRules()) {
+			for (Map.Entry<String, String> e : ctx.attrs().entrySet()) {
+				evaluateAt(snapshot, idx.attrCandidates(e.getKey(), e.getValue()), out, ctx);
+			}
 		}
+		if (recording) {
+			// 색인으로 건너뛴 플래그도 평가된 것으로 집계합니다. 지연 표본은 단건 평가에서만 수집합니다.
+			for (int i = 0; i < out.length; i++) recorder.record(idx.keys[i], out[i].reasonCode(), out[i].variantIndex());
+		}
+		return new FlagDecisions(idx.keys, out, out.length);
+	}
 
-		if (t.isExplicitlyAllowed(ctx)) {
-			String v = pickVariant(def, key, ctx);
-			return new FlagDecision(true, v, "TARGET_ALLOW", Map.of("key", key, "variant", v));
+	private void evaluateAt(FlagSnapshot snapshot, int[] positions, FlagDecision[] out, FlagContext ctx) {
+		for (int i : positions) {
+			CompiledFlag f = snapshot.compiled(i);
+			int outcome = decide(f, ctx);
+			if (exposing && enabled(outcome)) expose(f, outcome, ctx);
+			out[i] = decision(f, outcome);
 		}
+	}
+
+	private CompiledFlag lookup(String key) {
+		if (snapshots != null) return snapshots.snapshot().compiled(key);
+		FlagDefinition def = store.findOrNull(key);
+		return def == null ? null : def.compiled();
+	}
+
+	/** 평가하고, 활성 결과면 노출 리스너에 알립니다. 단건/일괄 평가가 함께 사용합니다. */
+	private int evaluateExposed(CompiledFlag f, FlagContext ctx) {
+		int outcome = evaluateOutcome(f, ctx);
+		if (exposing && enabled(outcome)) expose(f, outcome, ctx);
+		return outcome;
+	}
+
+	private void expose(CompiledFlag f, int outcome, FlagContext ctx) {
+		int slot = outcome & SLOT_MASK;
+		exposures.onExposure(f.key, ctx, CompiledFlag.slotToIndex(slot), f.variantName(slot));
+	}
 
-		if (t.hasEligibilityRules() && !t.matchesEligibility(ctx)) {
-			return new FlagDecision(false, "off", "TARGET_MISS", Map.of("key", key));
+	/** 평가하고, 계측기가 있으면 결과와 표본 지연을 기록합니다. */
+	private int evaluateOutcome(CompiledFlag f, FlagContext ctx) {
+		if (!recording) return decide(f, ctx);
+		int outcome;
+		if (recorder.sampleLatency()) {
+			long start = System.nanoTime();
+			outcome = decide(f, ctx);
+			recorder.recordLatency(f.key, System.nanoTime() - start);
+		} else {
+			outcome = decide(f, ctx);
 		}
+		recorder.record(f.key, REASONS[outcome >>> REASON_SHIFT],
+			enabled(outcome) ? CompiledFlag.slotToIndex(outcome & SLOT_MASK) : FlagDecision.VARIANT_OFF);
+		return outcome;
+	}
+
+	private FlagDecision notFound(String key) {
+		if (recording) recorder.record(key, FlagReason.FLAG_NOT_FOUND, FlagDecision.VARIANT_OFF);
+		return new FlagDecision(FlagReason.FLAG_NOT_FOUND, "off", FlagDecision.VARIANT_OFF, key, 0);
+	}
 
-		if (!passesRollout(def.rolloutPercent(), key, ctx)) {
-			return new FlagDecision(false, "off", "ROLLOUT_OUT", Map.of("key", key, "rollout", def.rolloutPercent()));
+	private static FlagDecision decision(CompiledFlag f, int outcome) {
+		int slot = outcome & SLOT_MASK;
+		switch (REASONS[outcome >>> REASON_SHIFT]) {
+			case FLAG_DISABLED: return f.disabledDecision;
+			case TARGET_DENY: return f.denyDecision;
+			case TARGET_ALLOW: return f.allowDecisions[slot];
+			case TARGET_MISS: return f.missDecision;
+			case ROLLOUT_OUT: return f.rolloutOutDecision;
+			default: return f.rolloutInDecisions[slot];
 		}
+	}
 
-		String v = pickVariant(def, key, ctx);
-		return new FlagDecision(true, v, "ROLLOUT_IN", Map.of("key", key, "variant", v, "rollout", def.rolloutPercent()));
+	/**
+	 * 결과 객체 없이 평가해 {@code reason ordinal << REASON_SHIFT | variant slot}으로 반환합니다.
+	 * slot 0은 defaultVariant, {@code i+1}은 {@code variantNames[i]}입니다.
+	 */
+	private int decide(CompiledFlag f, FlagContext ctx) {
+		if (!f.enabled) return outcome(FlagReason.FLAG_DISABLED, 0);
+		if (f.isDenied(ctx)) return outcome(FlagReason.TARGET_DENY, 0);
+		if (f.isAllowed(ctx)) return outcome(FlagReason.TARGET_ALLOW, pickVariantSlot(f, ctx));
+		if (f.missesEligibility(ctx)) return outcome(FlagReason.TARGET_MISS, 0);
+		if (!passesRollout(f, ctx)) return outcome(FlagReason.ROLLOUT_OUT, 0);
+		return outcome(FlagReason.ROLLOUT_IN, pickVariantSlot(f, ctx));
 	}
 
+	private static int outcome(FlagReason reason, int slot) { return (reason.ordinal() << REASON_SHIFT) | slot; }
+
+	private static boolean enabled(int outcome) { return REASONS[outcome >>> REASON_SHIFT].enabled(); }
+
 	/**
 	 * 활성/비활성 상태만 필요할 때 사용하는 편의 메서드입니다.
 	 *
@@ -66,7 +239,29 @@ public final class FeatureFlagService {
 	 * @return 활성화되면 {@code true}
 	 */
 	public boolean isEnabled(String key, FlagContext ctx) {
-		return evaluate(key, ctx).enabled();
+		CompiledFlag f = lookup(key);
+		if (f == null) {
+			if (recording) recorder.record(key, FlagReason.FLAG_NOT_FOUND, FlagDecision.VARIANT_OFF);
+			return false;
+		}
+		return enabled(evaluateExposed(f, ctx));
+	}
+
+	/**
+	 * {@link FlagDecision}을 만들지 않고 선택된 variant의 선언 순서 index를 반환합니다.
+	 *
+	 * @param key 기능 플래그 키
+	 * @param ctx 요청 컨텍스트
+	 * @return variant index, 기본 variant면 {@link FlagDecision#VARIANT_DEFAULT}, 비활성이면 {@link FlagDecision#VARIANT_OFF}
+	 */
+	public int variantIndex(String key, FlagContext ctx) {
+		CompiledFlag f = lookup(key);
+		if (f == null) {
+			if (recording) recorder.record(key, FlagReason.FLAG_NOT_FOUND, FlagDecision.VARIANT_OFF);
+			return FlagDecision.VARIANT_OFF;
+		}
+		int outcome = evaluateExposed(f, ctx);
+		return enabled(outcome) ? CompiledFlag.slotToIndex(outcome & SLOT_MASK) : FlagDecision.VARIANT_OFF;
 	}
 
 	/**
@@ -78,58 +273,36 @@ public final class FeatureFlagService {
 	 * @return 선택된 variant 또는 fallback
 	 */
 	public String variant(String key, FlagContext ctx, String fallback) {
-		FlagDecision d = evaluate(key, ctx);
-		return d.enabled() ? d.variant() : (fallback != null ? fallback : "off");
+		CompiledFlag f = lookup(key);
+		if (f != null) {
+			int outcome = evaluateExposed(f, ctx);
+			if (enabled(outcome)) return f.variantName(outcome & SLOT_MASK);
+		} else if (recording) {
+			recorder.record(key, FlagReason.FLAG_NOT_FOUND, FlagDecision.VARIANT_OFF);
+		}
+		return fallback != null ? fallback : "off";
 	}
 
-	private boolean passesRollout(int percent, String key, FlagContext ctx) {
+	private boolean passesRollout(CompiledFlag f, FlagContext ctx) {
+		int percent = f.rolloutPercent;
 		if (percent >= 100) return true;
 		if (percent <= 0) return false;
 
-		String basis = basisId(ctx);
 		// basis가 없으면 “항상 OFF”로 두는게 운영상 안전함(원하면 랜덤/쿠키로 확장)
+		String basis = ctx.basisId();
 		if (basis == null) return false;
 
-		int bucket = (int)(hashToPositiveLong(key + ":" + basis) % 100);
-		return bucket < percent;
+		long h = hasher.hash(BucketHasher.Purpose.ROLLOUT, f.key, f.rolloutSeed(hasher), basis, ctx.basisHash(hasher));
+		return (int)(h % 100) < percent;
 	}
 
-	private String pickVariant(FlagDefinition def, String key, FlagContext ctx) {
-		if (def.variants().isEmpty()) return def.defaultVariant();
+	/** @return 0이면 defaultVariant, {@code i+1}이면 {@code variantNames[i]} */
+	private int pickVariantSlot(CompiledFlag f, FlagContext ctx) {
+		if (!f.hasWeightedVariants()) return 0;
+		String basis = ctx.basisId();
+		if (basis == null) return 0;
 
-		String basis = basisId(ctx);
-		if (basis == null) return def.defaultVariant();
-
-		int total = 0;
-		for (var v : def.variants()) total += v.weight();
-		if (total <= 0) return def.defaultVariant();
-
-		long r = hashToPositiveLong("variant:" + key + ":" + basis) % total;
-		int acc = 0;
-		for (var v : def.variants()) {
-			acc += v.weight();
-			if (r < acc) return v.name();
-		}
-		return def.defaultVariant();
-	}
-
-	private String basisId(FlagContext ctx) {
-		if (ctx.userId() != null && !ctx.userId().isBlank()) return ctx.userId();
-		String anon = ctx.attrs().get("anonId");
-		if (anon != null && !anon.isBlank()) return anon;
-		return null;
-	}
-
-	private static long hashToPositiveLong(String s) {
-		try {
-			MessageDigest md = MessageDigest.getInstance("SHA-256");
-			byte[] h = md.digest(s.getBytes(StandardCharsets.UTF_8));
-			long v = 0L;
-			for (int i = 0; i < 8; i++) v = (v << 8) | (h[i] & 0xffL);
-			return v & Long.MAX_VALUE;
-		} catch (Exception e) {
-			// 최후 fallback (운영에선 절대 권장 X)
-			return Math.abs((long)s.hashCode());
-		}
+		long h = hasher.hash(BucketHasher.Purpose.VARIANT, f.key, f.variantSeed(hasher), basis, ctx.basisHash(hasher));
+		return f.variantIndex(h % f.totalWeight) + 1;
 	}
 }
@@ -4,16 +4,38 @@ import java.util.*;
 
 /**
  * 타게팅 및 롤아웃 규칙 평가에 사용하는 요청 컨텍스트입니다.
+ *
+ * <p>버킷 기준값(userId 또는 anonId)과 그룹 배열은 생성 시 한 번 계산하고, 기준값 해시는
+ * 해시 전략별로 처음 필요할 때 계산해 보관합니다. 따라서 한 컨텍스트로 여러 플래그를 평가해도
+ * 이 작업은 한 번만 일어납니다.</p>
  */
 public final class FlagContext {
+	private static final String[] NO_GROUPS = new String[0];
+
 	private final String userId;              // deterministic rollout/AB의 기준
 	private final Set<String> groups;         // "beta", "staff" 등
 	private final Map<String, String> attrs;  // "region"="KR", "plan"="PRO" 등
+	private final String basisId;             // 버킷 기준값, 없으면 null
+	private final String[] groupArray;        // 평가 루프용(iterator 없이 순회)
+	private BasisHash basisHash;              // 지연 계산(불변 홀더이므로 경합 시 중복 계산만 허용)
+	private TargetingBits targetingBits;      // 지연 계산(위와 같음)
+	private TargetingBits olderTargetingBits; // 지연 계산, 세대가 섞인 스냅샷의 두 번째 사전용
+	private int hash;                         // 지연 계산, 0이면 아직 계산하지 않음
 
 	private FlagContext(Builder b) {
 		this.userId = b.userId;
-		this.groups = Collections.unmodifiableSet(new HashSet<>(b.groups));
-		this.attrs = Collections.unmodifiableMap(new HashMap<>(b.attrs));
+		// 빌더의 컬렉션을 넘겨받고, 빌더가 다시 쓰이면 그때 빌더 쪽에서 복사합니다.
+		this.groups = b.groups.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(b.groups);
+		this.attrs = b.attrs.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(b.attrs);
+		this.basisId = resolveBasisId(userId, b.attrs);
+		this.groupArray = b.groups.isEmpty() ? NO_GROUPS : b.groups.toArray(NO_GROUPS);
+	}
+
+	private static String resolveBasisId(String userId, Map<String, String> attrs) {
+		if (userId != null && !userId.isBlank()) return userId;
+		String anon = attrs.get("anonId");
+		if (anon != null && !anon.isBlank()) return anon;
+		return null;
 	}
 
 	/**
@@ -31,6 +53,54 @@ public final class FlagContext {
 	 */
 	public Map<String, String> attrs() { return attrs; }
 
+	/**
+	 * rollout/variant 버킷 기준값입니다. 비어 있지 않은 userId, 없으면 비어 있지 않은 {@code anonId} 속성입니다.
+	 *
+	 * @return 버킷 기준값, 없으면 {@code null}
+	 */
+	public String basisId() { return basisId; }
+
+	/**
+	 * userId, 그룹, 속성이 모두 같으면 같은 컨텍스트입니다. 같은 컨텍스트는 같은 스냅샷에서 항상 같은 평가 결과를 얻습니다.
+	 *
+	 * @param o 비교 대상
+	 * @return 값이 같으면 {@code true}
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof FlagContext)) return false;
+		FlagContext other = (FlagContext) o;
+		return hashCode() == other.hashCode()
+			&& Objects.equals(userId, other.userId)
+			&& groups.equals(other.groups)
+			&& attrs.equals(other.attrs);
+	}
+
+	@Override
+	public int hashCode() {
+		int h = hash;
+		if (h == 0) {
+			h = Objects.hash(userId, groups, attrs);
+			if (h == 0) h = 1;
+			hash = h;
+		}
+		return h;
+	}
+
+	/** 평가 루프에서 iterator 없이 순회하기 위한 그룹 배열입니다. 수정하면 안 됩니다. */
+	String[] groupArray() { return groupArray; }
+
+	/** {@link BucketHasher#basisHash(String)} 결과를 전략별로 한 번만 계산합니다. 기준값이 없으면 0입니다. */
+	long basisHash(BucketHasher hasher) {
+		BasisHash h = basisHash;
+		if (h == null || h.hasher != hasher) {
+			h = new BasisHash(hasher, basisId == null ? 0L : hasher.basisHash(basisId));
+			basisHash = h;
+		}
+		return h.value;
+	}
+
 	/**
 	 * {@link FlagContext} 빌더를 생성합니다.
 	 *
@@ -38,13 +108,87 @@ public final class FlagContext {
 	 */
 	public static Builder builder() { return new Builder(); }
 
+	/**
+	 * 그룹과 속성 (키, 값)을 {@link TargetingDictionary} id 비트셋으로 한 번만 변환합니다.
+	 * 사전 세대가 바뀐 직후에는 한 스냅샷에 이전 세대와 새 세대로 컴파일된 플래그가 섞이므로 사전 두 개까지 비트셋을 보관합니다.
+	 * 사전에 없던 항목이 있었고 그 뒤 사전이 커졌거나, 보관하지 않은 세대의 플래그를 평가하면 다시 계산합니다.
+	 */
+	long[] targetingBits(TargetingDictionary dict) {
+		TargetingBits b = targetingBits;
+		if (b != null && b.isCurrentFor(dict)) return b.bits;
+		TargetingBits older = olderTargetingBits;
+		if (older != null && older.isCurrentFor(dict)) return older.bits;
+		TargetingBits computed = computeTargetingBits(dict);
+		if (older != null && older.dictionary == dict) {
+			olderTargetingBits = computed;
+		} else {
+			olderTargetingBits = b;
+			targetingBits = computed;
+		}
+		return computed.bits;
+	}
+
+	private TargetingBits computeTargetingBits(TargetingDictionary dict) {
+		int dictionarySize = dict.size();
+		long[] bits = new long[(dictionarySize + 63) >>> 6];
+		boolean incomplete = false;
+		for (String g : groupArray) {
+			int id = dict.groupId(g);
+			if (id < 0) incomplete = true;
+			else bits = TargetingDictionary.set(bits, id);
+		}
+		for (Map.Entry<String, String> e : attrs.entrySet()) {
+			if (e.getKey() == null || e.getValue() == null) continue;
+			int id = dict.attrId(e.getKey(), e.getValue());
+			if (id < 0) incomplete = true;
+			else bits = TargetingDictionary.set(bits, id);
+		}
+		return new TargetingBits(dict, dictionarySize, incomplete, bits);
+	}
+
+	private static final class TargetingBits {
+		final TargetingDictionary dictionary;
+		final int dictionarySize;
+		final boolean incomplete;
+		final long[] bits;
+
+		TargetingBits(TargetingDictionary dictionary, int dictionarySize, boolean incomplete, long[] bits) {
+			this.dictionary = dictionary;
+			this.dictionarySize = dictionarySize;
+			this.incomplete = incomplete;
+			this.bits = bits;
+		}
+
+		boolean isCurrentFor(TargetingDictionary dict) {
+			return dictionary == dict && (!incomplete || dictionarySize == dict.size());
+		}
+	}
+
+	private static final class BasisHash {
+		final BucketHasher hasher;
+		final long value;
+
+		BasisHash(BucketHasher hasher, long value) {
+			this.hasher = hasher;
+			this.value = value;
+		}
+	}
+
 	/**
 	 * {@link FlagContext} 빌더입니다.
 	 */
 	public static final class Builder {
 		private String userId;
-		private final Set<String> groups = new HashSet<>();
-		private final Map<String, String> attrs = new HashMap<>();
+		private Set<String> groups = new HashSet<>();
+		private Map<String, String> attrs = new HashMap<>();
+		private boolean built; // build() 이후 컬렉션은 컨텍스트 소유이므로 다음 변경 전에 복사합니다.
+
+		private void ensureOwned() {
+			if (!built) return;
+			groups = new HashSet<>(groups);
+			attrs = new HashMap<>(attrs);
+			built = false;
+		}
 
 		/**
 		 * 사용자 식별자를 설정합니다.
@@ -60,7 +204,7 @@ public final class FlagContext {
 		 * @param g 그룹 이름
 		 * @return 현재 빌더
 		 */
-		public Builder group(String g) { if (g != null) this.groups.add(g); return this; }
+		public Builder group(String g) { ensureOwned(); if (g != null) this.groups.add(g); return this; }
 
 		/**
 		 * 여러 그룹을 추가합니다.
@@ -68,7 +212,11 @@ public final class FlagContext {
 		 * @param gs 그룹 이름 목록
 		 * @return 현재 빌더
 		 */
-		public Builder groups(Collection<String> gs) { if (gs != null) this.groups.addAll(gs); return this; }
+		public Builder groups(Collection<String> gs) {
+			ensureOwned();
+			if (gs != null) for (String g : gs) if (g != null) this.groups.add(g);
+			return this;
+		}
 
 		/**
 		 * 속성 하나를 추가합니다.
@@ -77,7 +225,7 @@ public final class FlagContext {
 		 * @param v 속성 값
 		 * @return 현재 빌더
 		 */
-		public Builder attr(String k, String v) { if (k != null && v != null) this.attrs.put(k, v); return this; }
+		public Builder attr(String k, String v) { ensureOwned(); if (k != null && v != null) this.attrs.put(k, v); return this; }
 
 		/**
 		 * 여러 속성을 추가합니다.
@@ -85,13 +233,17 @@ public final class FlagContext {
 		 * @param m 속성 맵
 		 * @return 현재 빌더
 		 */
-		public Builder attrs(Map<String,String> m) { if (m != null) this.attrs.putAll(m); return this; }
+		public Builder attrs(Map<String,String> m) { ensureOwned(); if (m != null) this.attrs.putAll(m); return this; }
 
 		/**
 		 * 불변 {@link FlagContext}를 생성합니다.
 		 *
 		 * @return 새 컨텍스트 인스턴스
 		 */
-		public FlagContext build() { return new FlagContext(this); }
+		public FlagContext build() {
+			FlagContext ctx = new FlagContext(this);
+			built = true;
+			return ctx;
+		}
 	}
 }
@@ -5,12 +5,27 @@ import java.util.Map;
 
 /**
  * 기능 플래그 평가 결과를 담는 불변 객체입니다.
+ *
+ * <p>{@link FeatureFlagService}가 반환하는 결과는 컴파일된 플래그마다 미리 만들어 둔 공유 인스턴스이며,
+ * 진단용 메타데이터는 처음 조회할 때 만들어집니다.</p>
  */
 public final class FlagDecision {
+	/** 비활성 결과의 {@link #variantIndex()} 값 */
+	public static final int VARIANT_OFF = -1;
+	/** 가중치 variant 대신 기본 variant로 활성된 결과의 {@link #variantIndex()} 값 */
+	public static final int VARIANT_DEFAULT = -2;
+
+	private static final int NO_ROLLOUT = -1;
+
 	private final boolean enabled;
 	private final String variant;
 	private final String reason;
-	private final Map<String, Object> meta;
+	private final FlagReason reasonCode;
+	private final int variantIndex;
+	private final String key;
+	private final int rollout;
+	private final Map<String, Object> fixedMeta;
+	private Map<String, Object> lazyMeta; // 불변 맵이므로 경합 시 중복 생성만 허용
 
 	/**
 	 * 평가 결과 객체를 생성합니다.
@@ -24,7 +39,22 @@ public final class FlagDecision {
 		this.enabled = enabled;
 		this.variant = variant;
 		this.reason = reason;
-		this.meta = meta == null ? Map.of() : Collections.unmodifiableMap(meta);
+		this.reasonCode = FlagReason.of(reason);
+		this.variantIndex = enabled ? VARIANT_DEFAULT : VARIANT_OFF;
+		this.key = null;
+		this.rollout = NO_ROLLOUT;
+		this.fixedMeta = meta == null ? Map.of() : Collections.unmodifiableMap(meta);
+	}
+
+	FlagDecision(FlagReason reason, String variant, int variantIndex, String key, int rollout) {
+		this.enabled = reason.enabled();
+		this.variant = variant;
+		this.reason = reason.name();
+		this.reasonCode = reason;
+		this.variantIndex = enabled ? variantIndex : VARIANT_OFF;
+		this.key = key;
+		this.rollout = reason == FlagReason.ROLLOUT_OUT || reason == FlagReason.ROLLOUT_IN ? rollout : NO_ROLLOUT;
+		this.fixedMeta = null;
 	}
 
 	/**
@@ -42,8 +72,35 @@ public final class FlagDecision {
 	 */
 	public String reason() { return reason; }
 
+	/**
+	 * @return 이번 평가의 사유 코드. {@link FlagReason}에 없는 사용자 정의 사유면 {@code null}
+	 */
+	public FlagReason reasonCode() { return reasonCode; }
+
+	/**
+	 * @return 선택된 variant의 선언 순서 index, 기본 variant면 {@link #VARIANT_DEFAULT}, 비활성이면 {@link #VARIANT_OFF}
+	 */
+	public int variantIndex() { return variantIndex; }
+
 	/**
 	 * @return 평가 결과에 연결된 불변 메타데이터
 	 */
-	public Map<String, Object> meta() { return meta; }
+	public Map<String, Object> meta() {
+		if (fixedMeta != null) return fixedMeta;
+		Map<String, Object> m = lazyMeta;
+		if (m == null) {
+			m = buildMeta();
+			lazyMeta = m;
+		}
+		return m;
+	}
+
+	private Map<String, Object> buildMeta() {
+		if (enabled) {
+			return rollout == NO_ROLLOUT
+				? Map.of("key", key, "variant", variant)
+				: Map.of("key", key, "variant", variant, "rollout", rollout);
+		}
+		return rollout == NO_ROLLOUT ? Map.of("key", key) : Map.of("key", key, "rollout", rollout);
+	}
 }
@@ -0,0 +1,170 @@
+package com.pluginpolicyengine.core;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * 하나의 컨텍스트로 여러 플래그를 평가한 결과를 담는 불변 묶음입니다.
+ *
+ * <p>키와 결정을 평가 순서대로 병렬 배열에 보관하며, 키 조회용 인덱스는 처음 필요할 때 만듭니다.</p>
+ */
+public final class FlagDecisions {
+	private static final int LINEAR_SCAN_LIMIT = 8;
+	private static final FlagDecisions EMPTY = new FlagDecisions(new String[0], new FlagDecision[0], 0);
+
+	private final String[] keys;
+	private final FlagDecision[] decisions;
+	private final int size;
+	private Map<String, Integer> index; // 지연 생성(불변 맵이므로 경합 시 중복 생성만 허용)
+
+	FlagDecisions(String[] keys, FlagDecision[] decisions, int size) {
+		this.keys = keys;
+		this.decisions = decisions;
+		this.size = size;
+	}
+
+	/**
+	 * @return 비어 있는 결과
+	 */
+	public static FlagDecisions empty() { return EMPTY; }
+
+	/**
+	 * 결과 빌더를 생성합니다.
+	 *
+	 * @param expectedSize 예상 플래그 수
+	 * @return 결과 빌더
+	 */
+	public static Builder builder(int expectedSize) { return new Builder(expectedSize); }
+
+	/**
+	 * @return 평가된 플래그 수
+	 */
+	public int size() { return size; }
+
+	/**
+	 * @param i 0부터 시작하는 위치
+	 * @return 해당 위치의 플래그 키
+	 */
+	public String key(int i) { return keys[Objects.checkIndex(i, size)]; }
+
+	/**
+	 * @param i 0부터 시작하는 위치
+	 * @return 해당 위치의 평가 결과
+	 */
+	public FlagDecision decision(int i) { return decisions[Objects.checkIndex(i, size)]; }
+
+	/**
+	 * 키로 평가 결과를 조회합니다.
+	 *
+	 * @param key 기능 플래그 키
+	 * @return 평가 결과, 이 묶음에 없는 키면 {@code null}
+	 */
+	public FlagDecision get(String key) {
+		int i = indexOf(key);
+		return i < 0 ? null : decisions[i];
+	}
+
+	/**
+	 * @param key 기능 플래그 키
+	 * @return 평가 결과가 있고 활성이면 {@code true}
+	 */
+	public boolean isEnabled(String key) {
+		FlagDecision d = get(key);
+		return d != null && d.enabled();
+	}
+
+	/**
+	 * @param key 기능 플래그 키
+	 * @param fallbackVariant 비활성이거나 결과가 없을 때 사용할 variant
+	 * @return 선택된 variant 또는 fallback variant
+	 */
+	public String variant(String key, String fallbackVariant) {
+		FlagDecision d = get(key);
+		if (d != null && d.enabled()) return d.variant();
+		return fallbackVariant != null ? fallbackVariant : "off";
+	}
+
+	/**
+	 * 평가 순서대로 모든 결과를 전달합니다.
+	 *
+	 * @param action 키와 결과를 받는 콜백
+	 */
+	public void forEach(BiConsumer<String, FlagDecision> action) {
+		for (int i = 0; i < size; i++) action.accept(keys[i], decisions[i]);
+	}
+
+	/**
+	 * @return 키와 결과의 불변 맵 복사본
+	 */
+	public Map<String, FlagDecision> asMap() {
+		Map<String, FlagDecision> out = new LinkedHashMap<>(size * 2);
+		forEach(out::put);
+		return Collections.unmodifiableMap(out);
+	}
+
+	private int indexOf(String key) {
+		if (key == null) return -1;
+		if (size <= LINEAR_SCAN_LIMIT) {
+			for (int i = 0; i < size; i++) if (keys[i].equals(key)) return i;
+			return -1;
+		}
+		Map<String, Integer> idx = index;
+		if (idx == null) {
+			Map<String, Integer> m = new HashMap<>(size * 2);
+			for (int i = 0; i < size; i++) m.putIfAbsent(keys[i], i);
+			idx = Collections.unmodifiableMap(m);
+			index = idx;
+		}
+		Integer i = idx.get(key);
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * {@link FlagDecisions} 빌더입니다.
+	 */
+	public static final class Builder {
+		private String[] keys;
+		private FlagDecision[] decisions;
+		private int size;
+		private boolean built;
+
+		private Builder(int expectedSize) {
+			int cap = Math.max(4, expectedSize);
+			this.keys = new String[cap];
+			this.decisions = new FlagDecision[cap];
+		}
+
+		/**
+		 * 평가 결과 하나를 추가합니다.
+		 *
+		 * @param key 기능 플래그 키
+		 * @param decision 평가 결과
+		 * @return 현재 빌더
+		 */
+		public Builder add(String key, FlagDecision decision) {
+			if (built) {
+				keys = keys.clone();
+				decisions = decisions.clone();
+				built = false;
+			}
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size << 1);
+				decisions = Arrays.copyOf(decisions, size << 1);
+			}
+			keys[size] = Objects.requireNonNull(key, "key");
+			decisions[size] = Objects.requireNonNull(decision, "decision");
+			size++;
+			return this;
+		}
+
+		/**
+		 * 불변 결과 묶음을 생성합니다.
+		 *
+		 * @return 결과 묶음
+		 */
+		public FlagDecisions build() {
+			built = true;
+			return new FlagDecisions(keys, decisions, size);
+		}
+	}
+}
@@ -14,6 +14,7 @@ public final class FlagDefinition {
 	private final List<VariantAllocation> variants; // empty면 boolean flag처럼 사용
 	private final String defaultVariant;
 	private final Instant updatedAt;
+	private final CompiledFlag compiled;
 
 	private FlagDefinition(Builder b) {
 		this.key = Objects.requireNonNull(b.key, "key");
@@ -23,6 +24,7 @@ public final class FlagDefinition {
 		this.variants = Collections.unmodifiableList(new ArrayList<>(b.variants));
 		this.defaultVariant = b.defaultVariant != null ? b.defaultVariant : "on";
 		this.updatedAt = b.updatedAt != null ? b.updatedAt : Instant.now();
+		this.compiled = new CompiledFlag(this); // 모든 필드가 준비된 뒤 마지막에 컴파일
 	}
 
 	private static int clamp(int v, int min, int max) { return Math.max(min, Math.min(max, v)); }
@@ -62,6 +64,11 @@ public final class FlagDefinition {
 	 */
 	public Instant updatedAt() { return updatedAt; }
 
+	/**
+	 * @return 로드 시점에 한 번 컴파일된 평가 계획
+	 */
+	public CompiledFlag compiled() { return compiled; }
+
 	/**
 	 * 지정한 플래그 키에 대한 빌더를 생성합니다.
 	 *
@@ -0,0 +1,44 @@
+package com.pluginpolicyengine.core;
+
+/**
+ * {@link FeatureFlagService}가 반환하는 평가 사유 코드입니다. 선언 순서가 평가 순서입니다.
+ */
+public enum FlagReason {
+	/** 스토어에 플래그 정의가 없어 OFF */
+	FLAG_NOT_FOUND(false),
+	/** {@code enabled=false}라서 OFF */
+	FLAG_DISABLED(false),
+	/** deny 사용자/그룹과 일치해 OFF */
+	TARGET_DENY(false),
+	/** allow 사용자/그룹과 일치해 ON */
+	TARGET_ALLOW(true),
+	/** 타게팅 조건을 만족하지 못해 OFF */
+	TARGET_MISS(false),
+	/** 롤아웃 버킷에서 탈락해 OFF */
+	ROLLOUT_OUT(false),
+	/** 롤아웃 버킷을 통과해 ON */
+	ROLLOUT_IN(true);
+
+	private static final FlagReason[] VALUES = values();
+
+	private final boolean enabled;
+
+	FlagReason(boolean enabled) { this.enabled = enabled; }
+
+	/**
+	 * @return 이 사유로 끝난 평가의 활성 여부
+	 */
+	public boolean enabled() { return enabled; }
+
+	/**
+	 * 사유 문자열을 코드로 변환합니다.
+	 *
+	 * @param name 사유 문자열
+	 * @return 일치하는 코드, 알 수 없는 문자열이면 {@code null}
+	 */
+	public static FlagReason of(String name) {
+		if (name == null) return null;
+		for (FlagReason r : VALUES) if (r.name().equals(name)) return r;
+		return null;
+	}
+}
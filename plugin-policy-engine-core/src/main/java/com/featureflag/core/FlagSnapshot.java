@@ -0,0 +1,250 @@
+package com.pluginpolicyengine.core;
+
+import java.util.*;
+
+/**
+ * 특정 시점의 플래그 정의 전체를 담는 불변 스냅샷입니다.
+ *
+ * <p>한 요청에서 스냅샷을 한 번 가져와 평가하면 갱신 도중의 일부 반영 상태를 보지 않습니다.
+ * 키 조회는 open addressing 테이블로 컴파일된 플래그를 바로 찾습니다.</p>
+ *
+ * <p>{@link #withChanges(Collection, Collection)}는 바뀐 키만 다시 컴파일하고 해시하지만, 불변 배열을 복사하므로
+ * 변경 한 번에 플래그 수에 비례하는 배열 복사 비용이 듭니다. 여러 정의를 바꿀 때는 한 번에 넘깁니다.</p>
+ */
+public final class FlagSnapshot {
+	private static final FlagSnapshot EMPTY = new FlagSnapshot(0L, new CompiledFlag[0]);
+
+	private final long version;
+	private final CompiledFlag[] flags; // 입력 순서
+	private final String[] tableKeys;
+	private final CompiledFlag[] tableValues;
+	private final int[] tablePositions;   // 테이블 슬롯 → flags 위치
+	private final int mask;
+	private Map<String, FlagDefinition> definitions; // 지연 생성 뷰
+	private TargetingIndex targetingIndex;           // 지연 생성(불변이므로 경합 시 중복 생성만 허용)
+
+	private FlagSnapshot(long version, CompiledFlag[] flags) {
+		this(version, flags, capacity(flags.length));
+		index(flags.length);
+	}
+
+	private FlagSnapshot(long version, CompiledFlag[] flags, int cap) {
+		this(version, flags, new String[cap], new CompiledFlag[cap], new int[cap]);
+	}
+
+	private FlagSnapshot(long version, CompiledFlag[] flags, String[] tableKeys, CompiledFlag[] tableValues,
+			int[] tablePositions) {
+		this.version = version;
+		this.flags = flags;
+		this.tableKeys = tableKeys;
+		this.tableValues = tableValues;
+		this.tablePositions = tablePositions;
+		this.mask = tableKeys.length - 1;
+	}
+
+	/** 생성 중에만 호출합니다. {@code flags}의 앞 {@code count}개를 테이블에 넣습니다. */
+	private void index(int count) {
+		for (int i = 0; i < count; i++) put(flags[i], i);
+	}
+
+	/** 생성 중에만 호출합니다. 새 키면 {@code position}에 두고 그 위치를, 이미 있으면 기존 위치를 반환합니다. */
+	private int put(CompiledFlag f, int position) {
+		int slot = slotOf(f.key);
+		if (tableKeys[slot] == null) {
+			tableKeys[slot] = f.key;
+			tablePositions[slot] = position;
+		}
+		tableValues[slot] = f;
+		flags[tablePositions[slot]] = f;
+		return tablePositions[slot];
+	}
+
+	/** 사용률이 1/2 이하가 되는 2의 거듭제곱 테이블 크기입니다. */
+	private static int capacity(int size) {
+		return Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+	}
+
+	/**
+	 * @return 버전 0의 빈 스냅샷
+	 */
+	public static FlagSnapshot empty() { return EMPTY; }
+
+	/**
+	 * 정의 목록으로 스냅샷을 생성합니다. 같은 키가 여러 번 나오면 마지막 정의를 사용합니다.
+	 *
+	 * @param version 스냅샷 버전
+	 * @param definitions 플래그 정의 목록
+	 * @return 새 스냅샷
+	 */
+	public static FlagSnapshot of(long version, Collection<FlagDefinition> definitions) {
+		Map<String, CompiledFlag> byKey = new LinkedHashMap<>(definitions.size() * 2);
+		for (FlagDefinition def : definitions) byKey.put(def.key(), def.compiled());
+		return new FlagSnapshot(version, byKey.values().toArray(new CompiledFlag[0]));
+	}
+
+	/**
+	 * 현재 버전보다 1 큰 버전으로 정의 전체를 교체한 스냅샷을 생성합니다.
+	 *
+	 * @param definitions 새 플래그 정의 목록
+	 * @return 새 스냅샷
+	 */
+	public FlagSnapshot next(Collection<FlagDefinition> definitions) { return of(version + 1, definitions); }
+
+	/**
+	 * 주어진 정의를 추가하거나 교체한 다음 버전 스냅샷을 생성합니다.
+	 *
+	 * @param changes 추가/교체할 정의 목록
+	 * @return 새 스냅샷
+	 */
+	public FlagSnapshot withPut(Collection<FlagDefinition> changes) { return withChanges(changes, List.of()); }
+
+	/**
+	 * 주어진 키를 제거한 다음 버전 스냅샷을 생성합니다.
+	 *
+	 * @param keys 제거할 키 목록
+	 * @return 새 스냅샷
+	 */
+	public FlagSnapshot withRemoved(Collection<String> keys) { return withChanges(List.of(), keys); }
+
+	/**
+	 * 주어진 키를 제거한 뒤 정의를 추가하거나 교체한 다음 버전 스냅샷을 생성합니다. 바뀌지 않은 플래그는 다시 컴파일하거나
+	 * 해시하지 않고 그대로 공유합니다. 교체된 플래그는 원래 위치를 유지하고 새 플래그는 끝에 붙습니다.
+	 *
+	 * @param puts 추가/교체할 정의 목록. 같은 키가 여러 번 나오면 마지막 정의를 사용합니다.
+	 * @param removes 제거할 키 목록
+	 * @return 새 스냅샷
+	 */
+	public FlagSnapshot withChanges(Collection<FlagDefinition> puts, Collection<String> removes) {
+		CompiledFlag[] base = flags;
+		if (!removes.isEmpty()) {
+			Set<String> removed = new HashSet<>(removes);
+			CompiledFlag[] kept = new CompiledFlag[flags.length];
+			int n = 0;
+			for (CompiledFlag f : flags) if (!removed.contains(f.key)) kept[n++] = f;
+			if (n < flags.length) base = Arrays.copyOf(kept, n);
+		}
+		int size = base.length;
+		CompiledFlag[] out = Arrays.copyOf(base, size + puts.size());
+		FlagSnapshot next;
+		if (base == flags && out.length * 2 <= tableKeys.length) {
+			next = new FlagSnapshot(version + 1, out, tableKeys.clone(), tableValues.clone(), tablePositions.clone());
+		} else {
+			// 제거로 위치가 바뀌었거나 테이블이 부족하면 남은 플래그로 테이블만 다시 만듭니다.
+			next = new FlagSnapshot(version + 1, out, capacity(out.length));
+			next.index(size);
+		}
+		for (FlagDefinition def : puts) {
+			if (next.put(def.compiled(), size) == size) size++;
+		}
+		if (size == out.length) return next;
+		return new FlagSnapshot(version + 1, Arrays.copyOf(out, size), next.tableKeys, next.tableValues, next.tablePositions);
+	}
+
+	/**
+	 * @return 단조 증가하는 스냅샷 버전
+	 */
+	public long version() { return version; }
+
+	/**
+	 * @return 스냅샷에 포함된 플래그 수
+	 */
+	public int size() { return flags.length; }
+
+	/**
+	 * @param i 0부터 시작하는 위치
+	 * @return 해당 위치의 컴파일된 플래그
+	 */
+	public CompiledFlag compiled(int i) { return flags[i]; }
+
+	/**
+	 * 키로 컴파일된 플래그를 조회합니다.
+	 *
+	 * @param key 기능 플래그 키
+	 * @return 컴파일된 플래그, 없으면 {@code null}
+	 */
+	public CompiledFlag compiled(String key) {
+		if (key == null) return null;
+		int slot = slotOf(key);
+		return tableValues[slot];
+	}
+
+	/**
+	 * 키로 플래그 정의를 조회합니다.
+	 *
+	 * @param key 기능 플래그 키
+	 * @return 플래그 정의, 없으면 {@code null}
+	 */
+	public FlagDefinition find(String key) {
+		CompiledFlag f = compiled(key);
+		return f == null ? null : f.definition;
+	}
+
+	/**
+	 * @return 키와 정의의 불변 맵 뷰
+	 */
+	public Map<String, FlagDefinition> definitions() {
+		Map<String, FlagDefinition> m = definitions;
+		if (m == null) {
+			m = new DefinitionsView();
+			definitions = m;
+		}
+		return m;
+	}
+
+	/** 전체 평가에서 후보 플래그만 고르기 위한 타게팅 역색인입니다. 처음 필요할 때 만듭니다. */
+	TargetingIndex targetingIndex() {
+		TargetingIndex idx = targetingIndex;
+		if (idx == null) {
+			idx = new TargetingIndex(this);
+			targetingIndex = idx;
+		}
+		return idx;
+	}
+
+	/** 키가 있으면 그 위치, 없으면 비어 있는 위치를 반환합니다. */
+	private int slotOf(String key) {
+		int h = key.hashCode();
+		int i = (h ^ (h >>> 16)) & mask;
+		while (true) {
+			String k = tableKeys[i];
+			if (k == null || k.equals(key)) return i;
+			i = (i + 1) & mask;
+		}
+	}
+
+	private final class DefinitionsView extends AbstractMap<String, FlagDefinition> {
+		@Override
+		public int size() { return flags.length; }
+
+		@Override
+		public boolean containsKey(Object key) { return key instanceof String && compiled((String) key) != null; }
+
+		@Override
+		public FlagDefinition get(Object key) { return key instanceof String ? find((String) key) : null; }
+
+		@Override
+		public Set<Entry<String, FlagDefinition>> entrySet() {
+			return new AbstractSet<>() {
+				@Override
+				public int size() { return flags.length; }
+
+				@Override
+				public Iterator<Entry<String, FlagDefinition>> iterator() {
+					return new Iterator<>() {
+						private int i;
+
+						@Override
+						public boolean hasNext() { return i < flags.length; }
+
+						@Override
+						public Entry<String, FlagDefinition> next() {
+							if (i >= flags.length) throw new NoSuchElementException();
+							CompiledFlag f = flags[i++];
+							return new SimpleImmutableEntry<>(f.key, f.definition);
+						}
+					};
+				}
+			};
+		}
+	}
+}
@@ -14,6 +14,14 @@ public interface FlagStore {
 	 */
 	Optional<FlagDefinition> find(String key);
 
+	/**
+	 * {@link Optional}을 만들지 않고 키로 플래그를 조회합니다. 평가 hot path에서 사용합니다.
+	 *
+	 * @param key 기능 플래그 키
+	 * @return 플래그 정의, 없으면 {@code null}
+	 */
+	default FlagDefinition findOrNull(String key) { return find(key).orElse(null); }
+
 	/**
 	 * 모든 플래그 정의를 반환합니다.
 	 *
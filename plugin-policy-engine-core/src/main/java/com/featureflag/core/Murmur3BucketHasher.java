@@ -0,0 +1,75 @@
+package com.pluginpolicyengine.core;
+
+/**
+ * MurmurHash3(x64) 믹싱을 UTF-16 char에 직접 적용하는 고속 전략입니다.
+ *
+ * <p>플래그 키는 용도별 seed로 한 번 해시하고, 기준값 해시와 섞은 뒤 {@code fmix64}로 마무리합니다.
+ * SHA-256 호환 모드와는 다른 버킷을 만들므로 신규 플래그나 재배치가 허용되는 경우에 사용합니다.</p>
+ */
+final class Murmur3BucketHasher implements BucketHasher {
+	static final Murmur3BucketHasher INSTANCE = new Murmur3BucketHasher();
+
+	private static final long C1 = 0x87c37b91114253d5L;
+	private static final long C2 = 0x4cf5ad432745937fL;
+	private static final long ROLLOUT_SALT = 0x9e3779b97f4a7c15L;
+	private static final long VARIANT_SALT = 0xc2b2ae3d27d4eb4fL;
+
+	private Murmur3BucketHasher() {
+	}
+
+	@Override
+	public long seed(Purpose purpose, String key) {
+		return hashChars(key, purpose == Purpose.VARIANT ? VARIANT_SALT : ROLLOUT_SALT);
+	}
+
+	@Override
+	public long hash(Purpose purpose, String key, long seed, String basis) {
+		return hash(purpose, key, seed, basis, basisHash(basis));
+	}
+
+	@Override
+	public long basisHash(String basis) {
+		return hashChars(basis, 0L);
+	}
+
+	@Override
+	public long hash(Purpose purpose, String key, long seed, String basis, long basisHash) {
+		return fmix64(seed ^ basisHash) & Long.MAX_VALUE;
+	}
+
+	/** 4개의 char를 64비트 블록 하나로 묶어 murmur3 x64 블록 믹싱을 적용합니다. */
+	static long hashChars(String s, long seed) {
+		long h = seed;
+		int n = s.length();
+		int i = 0;
+		for (; i + 4 <= n; i += 4) {
+			long k = (long) s.charAt(i)
+				| ((long) s.charAt(i + 1) << 16)
+				| ((long) s.charAt(i + 2) << 32)
+				| ((long) s.charAt(i + 3) << 48);
+			h ^= mixK(k);
+			h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+		}
+		long k = 0L;
+		for (int shift = 0; i < n; i++, shift += 16) k |= (long) s.charAt(i) << shift;
+		h ^= mixK(k);
+		h ^= (long) n << 1;
+		return fmix64(h);
+	}
+
+	private static long mixK(long k) {
+		k *= C1;
+		k = Long.rotateLeft(k, 31);
+		k *= C2;
+		return k;
+	}
+
+	static long fmix64(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,113 @@
+package com.pluginpolicyengine.core;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * {@code SHA-256(prefix + key + ":" + basis)}의 앞 8바이트를 사용하는 호환 전략입니다.
+ *
+ * <p>문자열 연결과 {@code getBytes}를 하지 않고 스레드별 버퍼에 UTF-8로 직접 인코딩하므로
+ * 기존 구현과 같은 버킷을 내면서도 호출마다 할당하지 않습니다.</p>
+ *
+ * <p>스레드별 digest는 클래스 초기화 때 한 번 찾은 원형을 복제해 만듭니다. {@link MessageDigest#getInstance(String)}는
+ * 보안 공급자 목록을 잠금으로 조회하므로, 가상 스레드처럼 스레드가 계속 새로 생기는 환경에서도 평가 스레드가 그 잠금을
+ * 잡지 않게 합니다.</p>
+ */
+final class Sha256BucketHasher implements BucketHasher {
+	static final Sha256BucketHasher INSTANCE = new Sha256BucketHasher();
+
+	private static final MessageDigest PROTOTYPE = newDigest();
+	private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+	private Sha256BucketHasher() {
+	}
+
+	@Override
+	public long seed(Purpose purpose, String key) {
+		return 0L;
+	}
+
+	@Override
+	public long hash(Purpose purpose, String key, long seed, String basis) {
+		State s = STATE.get();
+		s.len = 0;
+		s.append(purpose.prefix());
+		s.append(key);
+		s.put((byte) ':');
+		s.append(basis);
+
+		MessageDigest md = s.md;
+		md.reset();
+		md.update(s.buf, 0, s.len);
+		try {
+			md.digest(s.out, 0, s.out.length);
+		} catch (DigestException e) {
+			throw new IllegalStateException("SHA-256 digest failed", e);
+		}
+		long v = 0L;
+		for (int i = 0; i < 8; i++) v = (v << 8) | (s.out[i] & 0xffL);
+		return v & Long.MAX_VALUE;
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static final class State {
+		final MessageDigest md;
+		final byte[] out = new byte[32];
+		byte[] buf = new byte[128];
+		int len;
+
+		State() {
+			MessageDigest md;
+			try {
+				md = (MessageDigest) PROTOTYPE.clone();
+			} catch (CloneNotSupportedException e) {
+				md = newDigest(); // 복제를 지원하지 않는 공급자
+			}
+			this.md = md;
+		}
+
+		void put(byte b) {
+			if (len == buf.length) {
+				byte[] next = new byte[buf.length << 1];
+				System.arraycopy(buf, 0, next, 0, len);
+				buf = next;
+			}
+			buf[len++] = b;
+		}
+
+		/** {@code String.getBytes(UTF_8)}와 같은 결과(짝이 없는 surrogate는 '?')로 인코딩합니다. */
+		void append(String s) {
+			for (int i = 0, n = s.length(); i < n; i++) {
+				char c = s.charAt(i);
+				if (c < 0x80) {
+					put((byte) c);
+				} else if (c < 0x800) {
+					put((byte) (0xc0 | (c >> 6)));
+					put((byte) (0x80 | (c & 0x3f)));
+				} else if (Character.isSurrogate(c)) {
+					if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+						int cp = Character.toCodePoint(c, s.charAt(++i));
+						put((byte) (0xf0 | (cp >> 18)));
+						put((byte) (0x80 | ((cp >> 12) & 0x3f)));
+						put((byte) (0x80 | ((cp >> 6) & 0x3f)));
+						put((byte) (0x80 | (cp & 0x3f)));
+					} else {
+						put((byte) '?');
+					}
+				} else {
+					put((byte) (0xe0 | (c >> 12)));
+					put((byte) (0x80 | ((c >> 6) & 0x3f)));
+					put((byte) (0x80 | (c & 0x3f)));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.pluginpolicyengine.core;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 시점 일관성이 있는 {@link FlagSnapshot}을 제공하는 {@link FlagStore} 확장입니다.
+ *
+ * <p>{@link FeatureFlagService}는 이 계약을 구현한 저장소에서 요청마다 스냅샷을 한 번만 가져와
+ * 평가하므로, bulk 평가 중 갱신이 일어나도 일부만 반영된 상태를 보지 않습니다.</p>
+ */
+public interface SnapshotFlagStore extends FlagStore {
+	/**
+	 * 현재 스냅샷을 반환합니다. 반환된 스냅샷은 이후 갱신과 무관하게 변하지 않습니다.
+	 *
+	 * @return 현재 스냅샷
+	 */
+	FlagSnapshot snapshot();
+
+	/**
+	 * 원본에서 읽은 첫 스냅샷을 제공할 수 있게 되면 완료되는 future를 반환합니다. 시작 시 평가 스레드를 막지 않고
+	 * 준비를 기다릴 때 사용합니다. 원본을 계속 읽지 못하면 완료되지 않으므로 호출자가 {@code orTimeout} 등으로 제한합니다.
+	 * 기본 구현은 생성 시 이미 준비된 저장소용으로, 현재 스냅샷으로 완료된 future를 반환합니다.
+	 *
+	 * @return 준비 시점의 스냅샷으로 완료되는 future. 이후 갱신은 {@link #snapshot()}으로 확인합니다.
+	 */
+	default CompletableFuture<FlagSnapshot> ready() { return CompletableFuture.completedFuture(snapshot()); }
+
+	@Override
+	default Optional<FlagDefinition> find(String key) { return Optional.ofNullable(findOrNull(key)); }
+
+	@Override
+	default FlagDefinition findOrNull(String key) { return snapshot().find(key); }
+
+	@Override
+	default Map<String, FlagDefinition> findAll() { return snapshot().definitions(); }
+}
@@ -6,6 +6,9 @@ import java.util.*;
  * 허용/차단 및 속성 기반 자격 조건을 정의하는 타게팅 규칙입니다.
  */
 public final class Targeting {
+	/** 사용자 ID 목록이 이 크기 이상이면 {@link HashSet} 대신 압축 집합으로 보관합니다. */
+	static final int COMPACT_USER_ID_THRESHOLD = 1024;
+
 	private final Set<String> allowUserIds;
 	private final Set<String> denyUserIds;
 	private final Set<String> allowGroups;
@@ -13,20 +16,52 @@ public final class Targeting {
 	private final Map<String, Set<String>> requireAttrsIn; // attrKey -> allowedValues
 
 	private Targeting(Builder b) {
-		this.allowUserIds = unmodSet(b.allowUserIds);
-		this.denyUserIds = unmodSet(b.denyUserIds);
+		this.allowUserIds = userIdSet(b.allowUserIds);
+		this.denyUserIds = userIdSet(b.denyUserIds);
 		this.allowGroups = unmodSet(b.allowGroups);
 		this.denyGroups = unmodSet(b.denyGroups);
 		this.requireAttrsIn = unmodMapSet(b.requireAttrsIn);
 	}
 
 	private static Set<String> unmodSet(Set<String> s) { return Collections.unmodifiableSet(new HashSet<>(s)); }
+	private static Set<String> userIdSet(Set<String> s) {
+		return s.size() >= COMPACT_USER_ID_THRESHOLD ? CompactStringSet.of(s) : unmodSet(s);
+	}
 	private static Map<String, Set<String>> unmodMapSet(Map<String, Set<String>> m) {
 		Map<String, Set<String>> out = new HashMap<>();
 		for (var e : m.entrySet()) out.put(e.getKey(), Collections.unmodifiableSet(new HashSet<>(e.getValue())));
 		return Collections.unmodifiableMap(out);
 	}
 
+	/**
+	 * 목록이 크면 정렬·압축된 읽기 전용 집합이므로 순회 시 항목마다 문자열을 새로 만듭니다.
+	 *
+	 * @return 허용 사용자 ID 불변 집합
+	 */
+	public Set<String> allowUserIds() { return allowUserIds; }
+
+	/**
+	 * 목록이 크면 정렬·압축된 읽기 전용 집합입니다.
+	 *
+	 * @return 차단 사용자 ID 불변 집합
+	 */
+	public Set<String> denyUserIds() { return denyUserIds; }
+
+	/**
+	 * @return 허용 그룹 불변 집합
+	 */
+	public Set<String> allowGroups() { return allowGroups; }
+
+	/**
+	 * @return 차단 그룹 불변 집합
+	 */
+	public Set<String> denyGroups() { return denyGroups; }
+
+	/**
+	 * @return 속성 키별 허용 값 집합의 불변 맵
+	 */
+	public Map<String, Set<String>> requireAttrsIn() { return requireAttrsIn; }
+
 	/**
 	 * 규칙이 없는 타게팅을 생성합니다.
 	 *
@@ -50,7 +85,7 @@ public final class Targeting {
 	public boolean isExplicitlyDenied(FlagContext ctx) {
 		String uid = ctx.userId();
 		if (uid != null && denyUserIds.contains(uid)) return true;
-		for (String g : ctx.groups()) if (denyGroups.contains(g)) return true;
+		for (String g : ctx.groupArray()) if (denyGroups.contains(g)) return true;
 		return false;
 	}
 
@@ -63,7 +98,7 @@ public final class Targeting {
 	public boolean isExplicitlyAllowed(FlagContext ctx) {
 		String uid = ctx.userId();
 		if (uid != null && allowUserIds.contains(uid)) return true;
-		for (String g : ctx.groups()) if (allowGroups.contains(g)) return true;
+		for (String g : ctx.groupArray()) if (allowGroups.contains(g)) return true;
 		return false;
 	}
 
@@ -123,6 +158,22 @@ public final class Targeting {
 		 */
 		public Builder denyUser(String id) { if (id != null) denyUserIds.add(id); return this; }
 
+		/**
+		 * 허용 사용자 ID를 한 번에 추가합니다.
+		 *
+		 * @param ids 사용자 ID 목록({@code null} 항목은 무시)
+		 * @return 현재 빌더
+		 */
+		public Builder allowUsers(Collection<String> ids) { addAllNonNull(allowUserIds, ids); return this; }
+
+		/**
+		 * 차단 사용자 ID를 한 번에 추가합니다.
+		 *
+		 * @param ids 사용자 ID 목록({@code null} 항목은 무시)
+		 * @return 현재 빌더
+		 */
+		public Builder denyUsers(Collection<String> ids) { addAllNonNull(denyUserIds, ids); return this; }
+
 		/**
 		 * 허용 그룹을 추가합니다.
 		 *
@@ -157,5 +208,10 @@ public final class Targeting {
 		 * @return 타게팅 인스턴스
 		 */
 		public Targeting build() { return new Targeting(this); }
+
+		private static void addAllNonNull(Set<String> target, Collection<String> values) {
+			if (values == null) return;
+			for (String v : values) if (v != null) target.add(v);
+		}
 	}
 }
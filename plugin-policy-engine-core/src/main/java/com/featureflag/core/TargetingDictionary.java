@@ -0,0 +1,128 @@
+package com.pluginpolicyengine.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 플래그 정의에 등장한 그룹 이름과 속성 (키, 값) 쌍을 작은 정수 id로 바꾸는 공용 사전입니다.
+ *
+ * <p>{@link CompiledFlag}가 컴파일될 때 자신의 그룹/속성 규칙을 등록해 비트 마스크를 만들고,
+ * {@link FlagContext}는 자신의 그룹과 속성을 같은 id 공간의 비트셋으로 한 번만 변환합니다.
+ * 그러면 그룹 allow/deny와 {@code requireAttrsIn} 판정은 문자열 해시 조회 대신 {@code long} AND가 됩니다.</p>
+ *
+ * <p>사전 하나의 id 수는 {@link #MAX_IDS}로 제한하고 id를 개별로 회수하지는 않습니다. 대신 사전을 세대 단위로
+ * 바꿉니다. 현재 세대가 가득 차면 새 세대를 시작해 이후 컴파일되는 플래그를 그 세대에 등록하고, 이전 세대는 그 세대를
+ * 쓰는 플래그가 모두 교체되면 함께 회수됩니다. 새 세대에도 다 들어가지 않는 규칙(한 플래그가 {@link #MAX_IDS}개를
+ * 넘는 그룹/속성 값을 쓰는 경우)만 기존 문자열 집합 조회로 평가하며, 이는 {@link CompiledFlag#usesTargetingMasks()}로
+ * 확인할 수 있습니다.</p>
+ */
+final class TargetingDictionary {
+	static final int MAX_IDS = 4096;
+
+	private static final AtomicReference<TargetingDictionary> CURRENT = new AtomicReference<>(new TargetingDictionary());
+	private static final AtomicLong GENERATIONS = new AtomicLong(1);
+
+	private final Map<String, Integer> groups = new ConcurrentHashMap<>();
+	private final Map<String, Map<String, Integer>> attrs = new ConcurrentHashMap<>();
+	private volatile int size;
+
+	/** @return 새 플래그를 등록할 현재 세대 사전 */
+	static TargetingDictionary current() { return CURRENT.get(); }
+
+	/**
+	 * 가득 찬 세대를 새 세대로 바꿉니다. 다른 스레드가 먼저 바꿨으면 그 세대를 반환합니다.
+	 *
+	 * @param full 등록에 실패한 세대
+	 * @return 새 현재 세대
+	 */
+	static TargetingDictionary rollOver(TargetingDictionary full) {
+		TargetingDictionary next = new TargetingDictionary();
+		if (CURRENT.compareAndSet(full, next)) {
+			GENERATIONS.incrementAndGet();
+			return next;
+		}
+		return CURRENT.get();
+	}
+
+	/** @return 지금까지 시작한 사전 세대 수 */
+	static long generations() { return GENERATIONS.get(); }
+
+	/** @return 지금까지 부여한 id 수. id가 추가될 때마다 증가합니다. */
+	int size() { return size; }
+
+	/** @return 그룹 id, 사전에 없으면 -1 */
+	int groupId(String group) {
+		Integer id = groups.get(group);
+		return id == null ? -1 : id;
+	}
+
+	/** @return 속성 (키, 값) id, 사전에 없으면 -1 */
+	int attrId(String key, String value) {
+		Map<String, Integer> values = attrs.get(key);
+		if (values == null) return -1;
+		Integer id = values.get(value);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * 그룹들을 등록하고 마스크를 만듭니다.
+	 *
+	 * @return 그룹 마스크, 한도를 넘어 등록할 수 없으면 {@code null}
+	 */
+	synchronized long[] groupMask(Collection<String> names) {
+		long[] mask = new long[0];
+		for (String g : names) {
+			if (g == null) continue;
+			Integer id = groups.get(g);
+			if (id == null) {
+				if (size >= MAX_IDS) return null;
+				id = size;
+				groups.put(g, id);
+				size = id + 1;
+			}
+			mask = set(mask, id);
+		}
+		return mask;
+	}
+
+	/**
+	 * 한 속성 키의 허용 값들을 등록하고 마스크를 만듭니다.
+	 *
+	 * @return 속성 값 마스크, 한도를 넘어 등록할 수 없으면 {@code null}
+	 */
+	synchronized long[] attrMask(String key, Collection<String> values) {
+		Map<String, Integer> ids = attrs.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+		long[] mask = new long[0];
+		for (String v : values) {
+			if (v == null) continue;
+			Integer id = ids.get(v);
+			if (id == null) {
+				if (size >= MAX_IDS) return null;
+				id = size;
+				ids.put(v, id);
+				size = id + 1;
+			}
+			mask = set(mask, id);
+		}
+		return mask;
+	}
+
+	static long[] set(long[] bits, int id) {
+		int word = id >>> 6;
+		if (word >= bits.length) bits = Arrays.copyOf(bits, word + 1);
+		bits[word] |= 1L << id;
+		return bits;
+	}
+
+	/** @return 두 비트셋에 공통 비트가 있으면 {@code true} */
+	static boolean intersects(long[] a, long[] b) {
+		for (int i = 0, n = Math.min(a.length, b.length); i < n; i++) {
+			if ((a[i] & b[i]) != 0) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,108 @@
+package com.pluginpolicyengine.core;
+
+import java.util.*;
+
+/**
+ * 스냅샷의 타게팅 규칙으로 만든 역색인입니다. 전체 평가({@code evaluateAll})에서 컨텍스트와 관련 있는
+ * 플래그만 실제로 평가하기 위해 사용합니다.
+ *
+ * <p>allow 규칙이나 {@code requireAttrsIn}이 있는 활성 플래그(게이트 플래그)는 deny/allow에 걸리거나
+ * 속성 조건을 통과하지 않는 한 결과가 항상 {@code TARGET_MISS}입니다. 그래서 게이트 플래그는 기본 결과를
+ * MISS로 두고, 컨텍스트의 userId·그룹·속성으로 색인을 조회해 나온 후보만 평가합니다.
+ * 속성 조건은 모두 만족해야 하므로 첫 번째 속성 키 하나만 색인해도 후보를 빠뜨리지 않습니다.
+ * 비활성 플래그는 항상 {@code FLAG_DISABLED}이고, 그 밖의 플래그(rollout만 있는 플래그 등)와 사용자 ID 목록이
+ * 큰 플래그는 매번 평가합니다.</p>
+ */
+final class TargetingIndex {
+	private static final int[] NONE = new int[0];
+
+	final String[] keys;             // 스냅샷 순서
+	final FlagDecision[] baseline;   // 평가하지 않았을 때의 결과, 항상 평가해야 하면 null
+	final int[] alwaysEvaluate;      // baseline이 null인 위치
+	private final Map<String, int[]> byUser;
+	private final Map<String, int[]> byGroup;
+	private final Map<String, Map<String, int[]>> byAttr;
+
+	TargetingIndex(FlagSnapshot snapshot) {
+		int n = snapshot.size();
+		this.keys = new String[n];
+		this.baseline = new FlagDecision[n];
+		List<Integer> always = new ArrayList<>();
+		Map<String, List<Integer>> users = new HashMap<>();
+		Map<String, List<Integer>> groups = new HashMap<>();
+		Map<String, Map<String, List<Integer>>> attrs = new HashMap<>();
+
+		for (int i = 0; i < n; i++) {
+			CompiledFlag f = snapshot.compiled(i);
+			keys[i] = f.key;
+			if (!f.enabled) {
+				baseline[i] = f.disabledDecision;
+				continue;
+			}
+			boolean gated = f.hasAllowRules || f.attrKeys.length > 0;
+			boolean smallUserLists = f.allowUserIds.size() < Targeting.COMPACT_USER_ID_THRESHOLD
+				&& f.denyUserIds.size() < Targeting.COMPACT_USER_ID_THRESHOLD;
+			if (!gated || !smallUserLists) {
+				always.add(i);
+				continue;
+			}
+			baseline[i] = f.missDecision;
+			for (String u : f.denyUserIds) add(users, u, i);
+			for (String u : f.allowUserIds) add(users, u, i);
+			for (String g : f.denyGroups) add(groups, g, i);
+			for (String g : f.allowGroups) add(groups, g, i);
+			if (!f.hasAllowRules) {
+				Map<String, List<Integer>> values = attrs.computeIfAbsent(f.attrKeys[0], k -> new HashMap<>());
+				for (String v : f.attrValues[0]) add(values, v, i);
+			}
+		}
+
+		this.alwaysEvaluate = toArray(always);
+		this.byUser = freeze(users);
+		this.byGroup = freeze(groups);
+		Map<String, Map<String, int[]>> a = new HashMap<>(attrs.size() * 2);
+		attrs.forEach((k, v) -> a.put(k, freeze(v)));
+		this.byAttr = a;
+	}
+
+	/** @return userId 규칙으로 후보가 되는 플래그 위치 */
+	int[] userCandidates(String userId) {
+		if (userId == null || byUser.isEmpty()) return NONE;
+		return byUser.getOrDefault(userId, NONE);
+	}
+
+	/** @return 그룹 규칙으로 후보가 되는 플래그 위치 */
+	int[] groupCandidates(String group) {
+		if (byGroup.isEmpty()) return NONE;
+		return byGroup.getOrDefault(group, NONE);
+	}
+
+	/** @return 속성 조건 첫 키로 후보가 되는 플래그 위치 */
+	int[] attrCandidates(String key, String value) {
+		Map<String, int[]> values = byAttr.get(key);
+		if (values == null || value == null) return NONE;
+		return values.getOrDefault(value, NONE);
+	}
+
+	boolean hasGroupRules() { return !byGroup.isEmpty(); }
+
+	boolean hasAttrRules() { return !byAttr.isEmpty(); }
+
+	private static void add(Map<String, List<Integer>> index, String token, int position) {
+		List<Integer> list = index.computeIfAbsent(token, k -> new ArrayList<>(2));
+		// 같은 플래그가 allow와 deny에 같은 값을 가져도 한 번만 넣습니다.
+		if (list.isEmpty() || list.get(list.size() - 1) != position) list.add(position);
+	}
+
+	private static Map<String, int[]> freeze(Map<String, List<Integer>> index) {
+		Map<String, int[]> out = new HashMap<>(index.size() * 2);
+		index.forEach((k, v) -> out.put(k, toArray(v)));
+		return out;
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] out = new int[list.size()];
+		for (int i = 0; i < out.length; i++) out[i] = list.get(i);
+		return out;
+	}
+}
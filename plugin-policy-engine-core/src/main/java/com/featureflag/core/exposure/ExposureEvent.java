@@ -0,0 +1,54 @@
+package com.pluginpolicyengine.core.exposure;
+
+import com.pluginpolicyengine.core.FlagDecision;
+
+/**
+ * 노출 이벤트 한 건입니다. 싱크로 전달되는 배치의 원소이며 불변입니다.
+ */
+public final class ExposureEvent {
+	private final long timestampMillis;
+	private final String flagKey;
+	private final String basisId;
+	private final int variantIndex;
+	private final String variant;
+
+	/**
+	 * @param timestampMillis 평가 시각(epoch millis)
+	 * @param flagKey 기능 플래그 키
+	 * @param basisId 컨텍스트의 기준값(userId 또는 anonId), 없으면 {@code null}
+	 * @param variantIndex 선택된 variant index
+	 * @param variant 선택된 variant 이름
+	 */
+	public ExposureEvent(long timestampMillis, String flagKey, String basisId, int variantIndex, String variant) {
+		this.timestampMillis = timestampMillis;
+		this.flagKey = flagKey;
+		this.basisId = basisId;
+		this.variantIndex = variantIndex;
+		this.variant = variant;
+	}
+
+	/**
+	 * @return 평가 시각(epoch millis)
+	 */
+	public long timestampMillis() { return timestampMillis; }
+
+	/**
+	 * @return 기능 플래그 키
+	 */
+	public String flagKey() { return flagKey; }
+
+	/**
+	 * @return 컨텍스트의 기준값(userId 또는 anonId), 없으면 {@code null}
+	 */
+	public String basisId() { return basisId; }
+
+	/**
+	 * @return 선택된 variant index, 기본 variant면 {@link FlagDecision#VARIANT_DEFAULT}
+	 */
+	public int variantIndex() { return variantIndex; }
+
+	/**
+	 * @return 선택된 variant 이름
+	 */
+	public String variant() { return variant; }
+}
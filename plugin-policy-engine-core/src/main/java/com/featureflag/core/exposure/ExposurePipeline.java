@@ -0,0 +1,434 @@
+package com.pluginpolicyengine.core.exposure;
+
+import com.pluginpolicyengine.core.ExposureListener;
+import com.pluginpolicyengine.core.FlagContext;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 노출 이벤트를 평가 스레드에서 I/O 없이 모아 백그라운드 스레드에서 배치로 {@link ExposureSink}에 전달합니다.
+ *
+ * <p>평가 스레드는 잠금 없는 고정 크기 링 버퍼(슬롯별 시퀀스 번호를 쓰는 다중 생산자/단일 소비자 큐)의
+ * 슬롯을 CAS로 차지해 필드를 배열에 바로 쓰므로 이벤트 객체를 만들지 않습니다. 이벤트 객체는 소비자 스레드가
+ * 배치를 만들 때 생성합니다.</p>
+ *
+ * <p>같은 (기준값, 플래그, variant) 노출은 {@code dedupeWindow} 안에서 한 번만 넣습니다. 중복 판정은
+ * 64비트 해시를 키로 하는 고정 크기 테이블이라 손실이 있을 수 있으며, 테이블 충돌은 중복 이벤트를 더 보내는
+ * 쪽으로만 틀립니다.</p>
+ *
+ * <p>버퍼가 가득 차면 {@link OverflowPolicy}에 따라 바로 버리거나 {@code maxWait}까지 기다린 뒤 버립니다.
+ * 종료({@link #close()}) 시 남은 이벤트를 모두 싱크에 전달하고 싱크를 닫습니다. 종료와 겹쳐 들어온 노출은 싱크에
+ * 전달되거나 버린 것으로 세어지며, {@code enqueued}로 센 노출은 모두 {@code written} 또는 싱크 실패로 끝납니다.</p>
+ */
+public final class ExposurePipeline implements ExposureListener, AutoCloseable {
+	/**
+	 * 링 버퍼가 가득 찼을 때의 처리 방식입니다.
+	 */
+	public enum OverflowPolicy {
+		/** 새 이벤트를 바로 버립니다. 평가 지연에 영향을 주지 않습니다. */
+		DROP,
+		/** 평가 스레드가 {@code maxWait}까지 빈 슬롯을 기다린 뒤, 그래도 없으면 버립니다. */
+		WAIT
+	}
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final ExposureSink sink;
+	private final int capacity;
+	private final int mask;
+	private final AtomicLongArray sequences;
+	private final long[] times;
+	private final String[] keys;
+	private final String[] bases;
+	private final int[] variantIndexes;
+	private final String[] variants;
+	private final AtomicLong tail = new AtomicLong();
+	private volatile long head;                   // 소비자 스레드만 씁니다.
+
+	private final long windowMillis;
+	private final int dedupeMask;
+	private final AtomicLongArray dedupeHashes;
+	private final AtomicLongArray dedupeTimes;
+
+	private final OverflowPolicy overflowPolicy;
+	private final long maxWaitNanos;
+	private final int batchSize;
+	private final long flushIntervalNanos;
+	private final Thread thread;
+	private volatile boolean closed;
+	private volatile boolean sealed;              // 소비자가 마지막 수거를 시작했습니다.
+
+	private final LongAdder enqueued = new LongAdder();
+	private final LongAdder deduplicated = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder waited = new LongAdder();
+	private final LongAdder written = new LongAdder();
+	private final LongAdder batches = new LongAdder();
+	private final LongAdder sinkFailures = new LongAdder();
+
+	private ExposurePipeline(Builder b) {
+		this.sink = b.sink;
+		this.capacity = powerOfTwo(b.capacity);
+		this.mask = capacity - 1;
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) sequences.set(i, i);
+		this.times = new long[capacity];
+		this.keys = new String[capacity];
+		this.bases = new String[capacity];
+		this.variantIndexes = new int[capacity];
+		this.variants = new String[capacity];
+
+		this.windowMillis = b.dedupeWindow.toMillis();
+		int slots = windowMillis > 0 ? powerOfTwo(b.dedupeSlots) : 1;
+		this.dedupeMask = slots - 1;
+		this.dedupeHashes = new AtomicLongArray(slots);
+		this.dedupeTimes = new AtomicLongArray(slots);
+
+		this.overflowPolicy = b.overflowPolicy;
+		this.maxWaitNanos = b.maxWait.toNanos();
+		this.batchSize = b.batchSize;
+		this.flushIntervalNanos = Math.max(1_000_000L, b.flushInterval.toNanos());
+		this.thread = new Thread(this::run, b.threadName);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * 파이프라인 빌더를 생성합니다.
+	 *
+	 * @param sink 배치를 받을 싱크
+	 * @return 파이프라인 빌더
+	 */
+	public static Builder builder(ExposureSink sink) {
+		return new Builder(sink);
+	}
+
+	@Override
+	public void onExposure(String key, FlagContext ctx, int variantIndex, String variant) {
+		if (closed) {
+			dropped.increment();
+			return;
+		}
+		long now = System.currentTimeMillis();
+		String basis = ctx.basisId();
+		long hash = 0;
+		if (windowMillis > 0) {
+			hash = hash(key, basis, variantIndex);
+			int slot = (int) hash & dedupeMask;
+			if (dedupeHashes.get(slot) == hash && now - dedupeTimes.get(slot) < windowMillis) {
+				deduplicated.increment();
+				return;
+			}
+		}
+		long pos = offer(now, key, basis, variantIndex, variant);
+		if (pos < 0) pos = awaitOffer(now, key, basis, variantIndex, variant);
+		if (pos < 0 || (sealed && cancel(pos))) {
+			dropped.increment();
+			return;
+		}
+		enqueued.increment();
+		if (windowMillis > 0) {
+			// 넣는 데 성공한 노출만 기억해, 버려진 노출이 창 안의 재시도를 막지 않게 합니다.
+			int slot = (int) hash & dedupeMask;
+			dedupeTimes.set(slot, now);
+			dedupeHashes.set(slot, hash);
+		}
+	}
+
+	/**
+	 * @return 버퍼가 가득 찼을 때의 처리 방식
+	 */
+	public OverflowPolicy overflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * @return 누적 통계
+	 */
+	public ExposureStats stats() {
+		// 종료 뒤에 들어온 노출은 버린 것으로 세므로 남은 이벤트가 아닙니다.
+		int pending = sealed && !thread.isAlive() ? 0 : (int) Math.max(0L, Math.min(capacity, tail.get() - head));
+		return new ExposureStats(enqueued.sum(), deduplicated.sum(), dropped.sum(), waited.sum(), written.sum(),
+			batches.sum(), sinkFailures.sum(), pending);
+	}
+
+	/**
+	 * 새 노출을 받지 않고, 남은 이벤트를 싱크에 전달한 뒤 싱크를 닫습니다.
+	 */
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** @return 차지한 위치, 가득 찼으면 -1 */
+	private long offer(long now, String key, String basis, int variantIndex, String variant) {
+		long pos = tail.get();
+		for (;;) {
+			int i = (int) pos & mask;
+			long dif = sequences.get(i) - pos;
+			if (dif == 0) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					times[i] = now;
+					keys[i] = key;
+					bases[i] = basis;
+					variantIndexes[i] = variantIndex;
+					variants[i] = variant;
+					sequences.set(i, pos + 1); // 소비자에게 공개
+					return pos;
+				}
+				pos = tail.get();
+			} else if (dif < 0) {
+				return -1L; // 가득 참
+			} else {
+				pos = tail.get();
+			}
+		}
+	}
+
+	private long awaitOffer(long now, String key, String basis, int variantIndex, String variant) {
+		if (overflowPolicy != OverflowPolicy.WAIT || maxWaitNanos <= 0) return -1L;
+		waited.increment();
+		LockSupport.unpark(thread);
+		long deadline = System.nanoTime() + maxWaitNanos;
+		do {
+			Thread.onSpinWait();
+			long pos = offer(now, key, basis, variantIndex, variant);
+			if (pos >= 0) return pos;
+		} while (System.nanoTime() - deadline < 0 && !closed);
+		return -1L;
+	}
+
+	/**
+	 * 마지막 수거가 시작된 뒤 공개한 슬롯을 생산자가 되가져옵니다. 소비자의 {@link #claim}과 같은 CAS를 경쟁하므로
+	 * 슬롯은 둘 중 하나만 가져갑니다.
+	 *
+	 * @return 되가져왔으면(싱크에 전달되지 않으므로 버린 것으로 셈) {@code true}, 소비자가 이미 가져갔으면 {@code false}
+	 */
+	private boolean cancel(long pos) {
+		return sequences.compareAndSet((int) pos & mask, pos + 1, pos + capacity);
+	}
+
+	/** 마지막 수거에서 공개된 슬롯을 CAS로 가져옵니다. 공개되지 않은 슬롯은 생산자가 {@link #cancel}로 버립니다. */
+	private ExposureEvent claim(long pos) {
+		int i = (int) pos & mask;
+		if (!sequences.compareAndSet(i, pos + 1, pos + capacity)) return null;
+		return new ExposureEvent(times[i], keys[i], bases[i], variantIndexes[i], variants[i]);
+	}
+
+	private ExposureEvent poll() {
+		long pos = head;
+		int i = (int) pos & mask;
+		if (sequences.get(i) != pos + 1) return null;
+		ExposureEvent e = new ExposureEvent(times[i], keys[i], bases[i], variantIndexes[i], variants[i]);
+		keys[i] = null;
+		bases[i] = null;
+		variants[i] = null;
+		sequences.set(i, pos + capacity); // 생산자에게 반환
+		head = pos + 1;
+		return e;
+	}
+
+	private void run() {
+		List<ExposureEvent> batch = new ArrayList<>(batchSize);
+		long batchStart = 0;
+		long idleNanos = Math.min(flushIntervalNanos, 1_000_000L);
+		while (!closed) {
+			ExposureEvent e = poll();
+			if (e != null) {
+				if (batch.isEmpty()) batchStart = System.nanoTime();
+				batch.add(e);
+				if (batch.size() >= batchSize) flush(batch);
+				continue;
+			}
+			if (!batch.isEmpty() && System.nanoTime() - batchStart >= flushIntervalNanos) flush(batch);
+			LockSupport.parkNanos(this, idleNanos);
+		}
+		for (ExposureEvent e; (e = poll()) != null; ) {
+			batch.add(e);
+			if (batch.size() >= batchSize) flush(batch);
+		}
+		// closed를 보기 전에 통과한 생산자가 아직 슬롯을 공개하는 중일 수 있습니다. sealed를 먼저 쓰고 tail을 읽으므로,
+		// 이 수거에서 공개된 슬롯을 보지 못하면 그 생산자는 공개 뒤 sealed를 보고 슬롯을 되가져가 버린 것으로 셉니다.
+		sealed = true;
+		for (long pos = head, end = tail.get(); pos < end; pos++) {
+			ExposureEvent e = claim(pos);
+			if (e == null) continue;
+			batch.add(e);
+			if (batch.size() >= batchSize) flush(batch);
+		}
+		flush(batch);
+		try {
+			sink.close();
+		} catch (IOException | RuntimeException e) {
+			sinkFailures.increment();
+		}
+	}
+
+	private void flush(List<ExposureEvent> batch) {
+		if (batch.isEmpty()) return;
+		try {
+			sink.write(batch);
+			written.add(batch.size());
+		} catch (IOException | RuntimeException e) {
+			sinkFailures.increment();
+		}
+		batches.increment();
+		batch.clear();
+	}
+
+	private static long hash(String key, String basis, int variantIndex) {
+		long h = FNV_OFFSET;
+		for (int i = 0; i < key.length(); i++) h = (h ^ key.charAt(i)) * FNV_PRIME;
+		h = (h ^ 0xff) * FNV_PRIME; // 구분자
+		if (basis != null) {
+			for (int i = 0; i < basis.length(); i++) h = (h ^ basis.charAt(i)) * FNV_PRIME;
+		}
+		h = (h ^ variantIndex) * FNV_PRIME;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	private static int powerOfTwo(int n) {
+		int v = Integer.highestOneBit(Math.max(2, n));
+		return v == n ? v : v << 1;
+	}
+
+	/**
+	 * {@link ExposurePipeline} 빌더입니다.
+	 */
+	public static final class Builder {
+		private final ExposureSink sink;
+		private int capacity = 8192;
+		private int batchSize = 256;
+		private Duration flushInterval = Duration.ofSeconds(1);
+		private Duration dedupeWindow = Duration.ofMinutes(1);
+		private int dedupeSlots = 1 << 16;
+		private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+		private Duration maxWait = Duration.ofMillis(1);
+		private String threadName = "plugin-policy-engine-exposure";
+
+		private Builder(ExposureSink sink) {
+			this.sink = Objects.requireNonNull(sink, "sink");
+		}
+
+		/**
+		 * 링 버퍼 크기를 설정합니다. 2의 거듭제곱으로 올림합니다. 기본값은 8192입니다.
+		 *
+		 * @param capacity 링 버퍼 크기
+		 * @return 현재 빌더
+		 */
+		public Builder capacity(int capacity) {
+			if (capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("capacity out of range: " + capacity);
+			this.capacity = capacity;
+			return this;
+		}
+
+		/**
+		 * 싱크 호출 한 번에 전달할 최대 이벤트 수를 설정합니다. 기본값은 256입니다.
+		 *
+		 * @param batchSize 최대 배치 크기
+		 * @return 현재 빌더
+		 */
+		public Builder batchSize(int batchSize) {
+			if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * 배치가 차지 않아도 싱크에 전달할 최대 대기 시간을 설정합니다. 기본값은 1초입니다.
+		 *
+		 * @param flushInterval 최대 대기 시간
+		 * @return 현재 빌더
+		 */
+		public Builder flushInterval(Duration flushInterval) {
+			this.flushInterval = Objects.requireNonNull(flushInterval, "flushInterval");
+			return this;
+		}
+
+		/**
+		 * 같은 (기준값, 플래그, variant) 노출을 한 번만 보낼 시간 창을 설정합니다.
+		 * 기본값은 1분이며 {@link Duration#ZERO}면 중복 제거를 하지 않습니다.
+		 *
+		 * @param dedupeWindow 중복 제거 창
+		 * @return 현재 빌더
+		 */
+		public Builder dedupeWindow(Duration dedupeWindow) {
+			this.dedupeWindow = Objects.requireNonNull(dedupeWindow, "dedupeWindow");
+			return this;
+		}
+
+		/**
+		 * 중복 제거 테이블 크기를 설정합니다. 2의 거듭제곱으로 올림하며, 창 안의 서로 다른 노출 수보다 커야
+		 * 중복이 잘 걸러집니다. 기본값은 65536입니다.
+		 *
+		 * @param dedupeSlots 중복 제거 테이블 크기
+		 * @return 현재 빌더
+		 */
+		public Builder dedupeSlots(int dedupeSlots) {
+			if (dedupeSlots <= 0 || dedupeSlots > 1 << 26) throw new IllegalArgumentException("dedupeSlots out of range: " + dedupeSlots);
+			this.dedupeSlots = dedupeSlots;
+			return this;
+		}
+
+		/**
+		 * 버퍼가 가득 찼을 때의 처리 방식을 설정합니다. 기본값은 {@link OverflowPolicy#DROP}입니다.
+		 *
+		 * @param overflowPolicy 처리 방식
+		 * @return 현재 빌더
+		 */
+		public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+			this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+			return this;
+		}
+
+		/**
+		 * {@link OverflowPolicy#WAIT}에서 평가 스레드가 기다릴 최대 시간을 설정합니다. 기본값은 1ms입니다.
+		 *
+		 * @param maxWait 최대 대기 시간
+		 * @return 현재 빌더
+		 */
+		public Builder maxWait(Duration maxWait) {
+			this.maxWait = Objects.requireNonNull(maxWait, "maxWait");
+			return this;
+		}
+
+		/**
+		 * 백그라운드 스레드 이름을 설정합니다.
+		 *
+		 * @param threadName 스레드 이름
+		 * @return 현재 빌더
+		 */
+		public Builder threadName(String threadName) {
+			this.threadName = Objects.requireNonNull(threadName, "threadName");
+			return this;
+		}
+
+		/**
+		 * 파이프라인을 생성하고 백그라운드 스레드를 시작합니다.
+		 *
+		 * @return 노출 파이프라인
+		 */
+		public ExposurePipeline build() {
+			return new ExposurePipeline(this);
+		}
+	}
+}
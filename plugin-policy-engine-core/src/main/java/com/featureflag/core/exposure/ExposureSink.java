@@ -0,0 +1,29 @@
+package com.pluginpolicyengine.core.exposure;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * {@link ExposurePipeline}이 모은 노출 이벤트 배치를 받는 싱크 SPI입니다.
+ *
+ * <p>파이프라인의 백그라운드 스레드 하나에서만 호출되므로 구현은 스레드 안전할 필요가 없습니다.
+ * 예외가 나면 해당 배치는 버려지고 {@link ExposureStats#sinkFailures()}가 증가합니다.</p>
+ */
+public interface ExposureSink extends Closeable {
+	/**
+	 * 배치를 기록합니다. 호출이 끝난 뒤 목록은 재사용되므로 보관하려면 복사해야 합니다.
+	 *
+	 * @param events 노출 이벤트 배치
+	 * @throws IOException 기록에 실패한 경우
+	 */
+	void write(List<ExposureEvent> events) throws IOException;
+
+	/**
+	 * 파이프라인 종료 시 남은 배치를 기록한 뒤 호출됩니다.
+	 *
+	 * @throws IOException 자원 정리에 실패한 경우
+	 */
+	@Override
+	default void close() throws IOException { }
+}
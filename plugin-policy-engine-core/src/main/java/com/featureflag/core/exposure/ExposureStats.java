@@ -0,0 +1,67 @@
+package com.pluginpolicyengine.core.exposure;
+
+/**
+ * {@link ExposurePipeline}의 누적 통계입니다. 값은 조회 시점의 근사치입니다.
+ */
+public final class ExposureStats {
+	private final long enqueued;
+	private final long deduplicated;
+	private final long dropped;
+	private final long waited;
+	private final long written;
+	private final long batches;
+	private final long sinkFailures;
+	private final int pending;
+
+	ExposureStats(long enqueued, long deduplicated, long dropped, long waited, long written, long batches,
+			long sinkFailures, int pending) {
+		this.enqueued = enqueued;
+		this.deduplicated = deduplicated;
+		this.dropped = dropped;
+		this.waited = waited;
+		this.written = written;
+		this.batches = batches;
+		this.sinkFailures = sinkFailures;
+		this.pending = pending;
+	}
+
+	/**
+	 * @return 링 버퍼에 넣은 이벤트 수
+	 */
+	public long enqueued() { return enqueued; }
+
+	/**
+	 * @return 중복 제거 창 안의 반복 노출이라 넣지 않은 이벤트 수
+	 */
+	public long deduplicated() { return deduplicated; }
+
+	/**
+	 * @return 버퍼가 가득 차 버린 이벤트 수
+	 */
+	public long dropped() { return dropped; }
+
+	/**
+	 * @return {@link ExposurePipeline.OverflowPolicy#WAIT}에서 버퍼가 가득 차 평가 스레드가 기다린 횟수
+	 */
+	public long waited() { return waited; }
+
+	/**
+	 * @return 싱크에 기록한 이벤트 수
+	 */
+	public long written() { return written; }
+
+	/**
+	 * @return 싱크 호출 수
+	 */
+	public long batches() { return batches; }
+
+	/**
+	 * @return 싱크 예외로 버린 배치 수
+	 */
+	public long sinkFailures() { return sinkFailures; }
+
+	/**
+	 * @return 아직 싱크에 전달하지 않은 이벤트 수
+	 */
+	public int pending() { return pending; }
+}
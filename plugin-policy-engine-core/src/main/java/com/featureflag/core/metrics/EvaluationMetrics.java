@@ -0,0 +1,200 @@
+package com.pluginpolicyengine.core.metrics;
+
+import com.pluginpolicyengine.core.EvaluationRecorder;
+import com.pluginpolicyengine.core.FlagDecision;
+import com.pluginpolicyengine.core.FlagReason;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 플래그별 평가 횟수(사유별, variant별)와 표본 지연 히스토그램을 모으는 기본 {@link EvaluationRecorder}입니다.
+ *
+ * <p>평가 경로는 잠금이 없습니다. 플래그별 카운터는 키 해시로 나눈 구간마다 불변 맵을 두고, 처음 보는 키는 그 구간의
+ * 맵을 복사해 CAS로 바꿔 넣습니다. variant 카운터와 지연 히스토그램도 처음 쓸 때 CAS로 만듭니다. 따라서 처음 평가되는
+ * 플래그도 모니터나 {@code ConcurrentHashMap}의 구간 잠금을 잡지 않으며, 이후 평가는 맵 조회와 {@link LongAdder} 증가뿐입니다.
+ * 지연은 {@code latencySampleRate} 비율의 평가만 측정해 2의 거듭제곱 ns 구간 히스토그램에 더합니다.</p>
+ *
+ * <p>정의가 없는 키({@link FlagReason#FLAG_NOT_FOUND})는 키별로 추적하지 않고 {@link #NOT_FOUND_KEY} 하나에 모읍니다.
+ * 잘못된 키나 임의 문자열로 평가해도 카운터가 무한히 늘지 않게 하기 위해서입니다.</p>
+ *
+ * <p>{@link #snapshot()}은 누적값을, {@link #drain()}은 직전 drain 이후 증가분을 반환합니다.
+ * drain은 카운터를 0으로 되돌리지 않고 직전 값과의 차이를 계산하므로, drain 도중 기록된 평가는
+ * 이번 또는 다음 drain에 포함되고 잃어버리지 않습니다.</p>
+ */
+public final class EvaluationMetrics implements EvaluationRecorder {
+	/** 정의가 없는 키의 평가를 모아 보고하는 키입니다. */
+	public static final String NOT_FOUND_KEY = "(not found)";
+
+	private static final FlagReason[] REASONS = FlagReason.values();
+	private static final int SAMPLE_BITS = 24;
+	private static final int STRIPES = 64;
+	private static final int VARIANT_OFFSET = -FlagDecision.VARIANT_DEFAULT; // 기본 variant가 0번 칸입니다.
+
+	private final AtomicReferenceArray<Map<String, Counters>> flags = new AtomicReferenceArray<>(STRIPES);
+	private final Counters notFound = new Counters();
+	private final int sampleThreshold;
+
+	/**
+	 * 평가 횟수만 기록하고 지연은 측정하지 않는 계측기를 생성합니다.
+	 */
+	public EvaluationMetrics() {
+		this(0.0);
+	}
+
+	/**
+	 * @param latencySampleRate 지연을 측정할 평가 비율(0~1). 0이면 측정하지 않고 1이면 모든 평가를 측정합니다.
+	 */
+	public EvaluationMetrics(double latencySampleRate) {
+		if (!(latencySampleRate >= 0.0 && latencySampleRate <= 1.0)) {
+			throw new IllegalArgumentException("latencySampleRate must be between 0 and 1: " + latencySampleRate);
+		}
+		this.sampleThreshold = (int) Math.round(latencySampleRate * (1 << SAMPLE_BITS));
+		for (int i = 0; i < STRIPES; i++) flags.set(i, Map.of());
+	}
+
+	@Override
+	public void record(String key, FlagReason reason, int variantIndex) {
+		Counters c = reason == FlagReason.FLAG_NOT_FOUND ? notFound : counters(key);
+		c.reasons[reason.ordinal()].increment();
+		if (reason.enabled() && variantIndex >= FlagDecision.VARIANT_DEFAULT) c.variant(variantIndex).increment();
+	}
+
+	@Override
+	public boolean sampleLatency() {
+		int t = sampleThreshold;
+		if (t == 0) return false;
+		return t >= 1 << SAMPLE_BITS || (ThreadLocalRandom.current().nextInt() & ((1 << SAMPLE_BITS) - 1)) < t;
+	}
+
+	@Override
+	public void recordLatency(String key, long nanos) {
+		counters(key).latency()[LatencyHistogram.bucketOf(nanos)].increment();
+	}
+
+	/**
+	 * @return 플래그 키 순서의 누적 지표
+	 */
+	public Map<String, FlagMetrics> snapshot() {
+		Map<String, FlagMetrics> out = new TreeMap<>();
+		for (int i = 0; i < STRIPES; i++) flags.get(i).forEach((key, c) -> out.put(key, c.read(key, false)));
+		FlagMetrics missing = notFound.read(NOT_FOUND_KEY, false);
+		if (missing.total() > 0) out.put(NOT_FOUND_KEY, missing);
+		return out;
+	}
+
+	/**
+	 * 직전 drain 이후 증가분을 반환합니다. 증가분이 없는 플래그는 제외됩니다.
+	 *
+	 * @return 플래그 키 순서의 증가분 지표
+	 */
+	public synchronized Map<String, FlagMetrics> drain() {
+		Map<String, FlagMetrics> out = new TreeMap<>();
+		for (int i = 0; i < STRIPES; i++) {
+			flags.get(i).forEach((key, c) -> {
+				FlagMetrics m = c.read(key, true);
+				if (m.total() > 0 || m.latency().count() > 0) out.put(key, m);
+			});
+		}
+		FlagMetrics missing = notFound.read(NOT_FOUND_KEY, true);
+		if (missing.total() > 0) out.put(NOT_FOUND_KEY, missing);
+		return out;
+	}
+
+	private Counters counters(String key) {
+		int h = key.hashCode();
+		int stripe = (h ^ (h >>> 16)) & (STRIPES - 1);
+		for (;;) {
+			Map<String, Counters> m = flags.get(stripe);
+			Counters c = m.get(key);
+			if (c != null) return c;
+			// 게시된 맵은 바꾸지 않고 복사본에 넣어 교체합니다. 경쟁에서 지면 다시 조회합니다.
+			Map<String, Counters> next = new HashMap<>(m);
+			c = new Counters();
+			next.put(key, c);
+			if (flags.compareAndSet(stripe, m, next)) return c;
+		}
+	}
+
+	private static final class Counters {
+		final LongAdder[] reasons = new LongAdder[REASONS.length];
+		private final AtomicReference<LongAdder[]> variants = new AtomicReference<>(new LongAdder[0]);
+		private final AtomicReference<LongAdder[]> latency = new AtomicReference<>();  // 첫 표본에서 생성
+
+		// drain 기준값, drain()의 잠금 안에서만 사용
+		private final long[] drainedReasons = new long[REASONS.length];
+		private final Map<Integer, Long> drainedVariants = new HashMap<>(4);
+		private final long[] drainedLatency = new long[LatencyHistogram.BUCKETS];
+
+		Counters() {
+			for (int i = 0; i < reasons.length; i++) reasons[i] = new LongAdder();
+		}
+
+		LongAdder variant(int index) {
+			int slot = index + VARIANT_OFFSET;
+			for (;;) {
+				LongAdder[] cur = variants.get();
+				if (slot < cur.length && cur[slot] != null) return cur[slot];
+				LongAdder[] next = Arrays.copyOf(cur, Math.max(cur.length, slot + 1));
+				LongAdder a = new LongAdder();
+				next[slot] = a;
+				if (variants.compareAndSet(cur, next)) return a;
+			}
+		}
+
+		LongAdder[] latency() {
+			LongAdder[] l = latency.get();
+			if (l != null) return l;
+			l = new LongAdder[LatencyHistogram.BUCKETS];
+			for (int i = 0; i < l.length; i++) l[i] = new LongAdder();
+			LongAdder[] won = latency.compareAndExchange(null, l);
+			return won != null ? won : l;
+		}
+
+		FlagMetrics read(String key, boolean drain) {
+			long[] byReason = new long[REASONS.length];
+			for (int i = 0; i < byReason.length; i++) {
+				long v = reasons[i].sum();
+				if (drain) {
+					byReason[i] = v - drainedReasons[i];
+					drainedReasons[i] = v;
+				} else {
+					byReason[i] = v;
+				}
+			}
+			Map<Integer, Long> byVariant = new TreeMap<>();
+			LongAdder[] vs = variants.get();
+			for (int slot = 0; slot < vs.length; slot++) {
+				if (vs[slot] == null) continue;
+				int index = slot - VARIANT_OFFSET;
+				long v = vs[slot].sum();
+				if (drain) {
+					long prev = drainedVariants.getOrDefault(index, 0L);
+					drainedVariants.put(index, v);
+					v -= prev;
+				}
+				if (v != 0) byVariant.put(index, v);
+			}
+			long[] buckets = new long[LatencyHistogram.BUCKETS];
+			LongAdder[] l = latency.get();
+			if (l != null) {
+				for (int i = 0; i < buckets.length; i++) {
+					long v = l[i].sum();
+					if (drain) {
+						buckets[i] = v - drainedLatency[i];
+						drainedLatency[i] = v;
+					} else {
+						buckets[i] = v;
+					}
+				}
+			}
+			return new FlagMetrics(key, byReason, byVariant, new LatencyHistogram(buckets));
+		}
+	}
+}
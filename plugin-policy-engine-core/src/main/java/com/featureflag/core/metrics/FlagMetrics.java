@@ -0,0 +1,71 @@
+package com.pluginpolicyengine.core.metrics;
+
+import com.pluginpolicyengine.core.FlagDecision;
+import com.pluginpolicyengine.core.FlagReason;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 한 플래그의 평가 지표입니다. {@link EvaluationMetrics#snapshot()}이면 누적값,
+ * {@link EvaluationMetrics#drain()}이면 직전 drain 이후 증가분입니다.
+ */
+public final class FlagMetrics {
+	private static final FlagReason[] REASONS = FlagReason.values();
+
+	private final String key;
+	private final long[] byReason;
+	private final Map<Integer, Long> byVariant;
+	private final LatencyHistogram latency;
+
+	FlagMetrics(String key, long[] byReason, Map<Integer, Long> byVariant, LatencyHistogram latency) {
+		this.key = key;
+		this.byReason = byReason;
+		this.byVariant = Collections.unmodifiableMap(byVariant);
+		this.latency = latency;
+	}
+
+	/**
+	 * @return 기능 플래그 키
+	 */
+	public String key() { return key; }
+
+	/**
+	 * @param reason 평가 사유
+	 * @return 해당 사유로 끝난 평가 수
+	 */
+	public long count(FlagReason reason) { return byReason[reason.ordinal()]; }
+
+	/**
+	 * @return 전체 평가 수
+	 */
+	public long total() {
+		long n = 0;
+		for (long v : byReason) n += v;
+		return n;
+	}
+
+	/**
+	 * @return 평가 수가 있는 사유별 평가 수
+	 */
+	public Map<FlagReason, Long> reasons() {
+		Map<FlagReason, Long> out = new EnumMap<>(FlagReason.class);
+		for (int i = 0; i < byReason.length; i++) {
+			if (byReason[i] != 0) out.put(REASONS[i], byReason[i]);
+		}
+		return out;
+	}
+
+	/**
+	 * 활성 평가의 variant index별 횟수입니다. 기본 variant는 {@link FlagDecision#VARIANT_DEFAULT}입니다.
+	 *
+	 * @return variant index별 평가 수
+	 */
+	public Map<Integer, Long> variants() { return byVariant; }
+
+	/**
+	 * @return 표본 지연 히스토그램, 표본이 없으면 비어 있음
+	 */
+	public LatencyHistogram latency() { return latency; }
+}
@@ -0,0 +1,65 @@
+package com.pluginpolicyengine.core.metrics;
+
+/**
+ * 2의 거듭제곱 ns 구간으로 나눈 지연 히스토그램입니다. 구간 {@code i}는 {@code [2^(i-1), 2^i)} ns이고,
+ * 구간 0은 0ns, 마지막 구간은 그 이상 전부입니다.
+ */
+public final class LatencyHistogram {
+	static final int BUCKETS = 40;
+
+	private final long[] counts;
+	private final long count;
+
+	LatencyHistogram(long[] counts) {
+		this.counts = counts;
+		long n = 0;
+		for (long c : counts) n += c;
+		this.count = n;
+	}
+
+	static int bucketOf(long nanos) {
+		if (nanos <= 0) return 0;
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+	}
+
+	/**
+	 * @return 구간 수
+	 */
+	public int bucketCount() { return counts.length; }
+
+	/**
+	 * @param bucket 구간 번호
+	 * @return 구간에 들어간 표본 수
+	 */
+	public long countAt(int bucket) { return counts[bucket]; }
+
+	/**
+	 * @param bucket 구간 번호
+	 * @return 구간의 상한(ns, 포함하지 않음). 마지막 구간은 {@link Long#MAX_VALUE}
+	 */
+	public long upperBoundNanos(int bucket) {
+		return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+	}
+
+	/**
+	 * @return 전체 표본 수
+	 */
+	public long count() { return count; }
+
+	/**
+	 * 분위수가 속한 구간의 상한을 반환합니다. 구간 폭 때문에 실제 값보다 최대 2배 클 수 있습니다.
+	 *
+	 * @param quantile 0~1 분위
+	 * @return 분위수 상한(ns), 표본이 없으면 0
+	 */
+	public long quantileUpperBoundNanos(double quantile) {
+		if (count == 0) return 0;
+		long rank = (long) Math.ceil(Math.max(0.0, Math.min(1.0, quantile)) * count);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank && counts[i] > 0) return upperBoundNanos(i);
+		}
+		return upperBoundNanos(counts.length - 1);
+	}
+}
@@ -3,13 +3,26 @@ package com.pluginpolicyengine.core.store;
 import com.pluginpolicyengine.core.*;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 주로 로컬/개발 환경에서 사용하는 메모리 기반 {@link FlagStore} 구현체입니다.
+ *
+ * <p>모든 변경은 새 {@link FlagSnapshot}을 원자적으로 게시하는 copy-on-write 방식입니다.
+ * 바뀐 플래그만 다시 컴파일하지만 단건 변경도 스냅샷 배열 전체를 복사하므로, 변경 한 번의 비용은 플래그 수에 비례합니다.
+ * {@link #put(FlagDefinition)}을 반복해 채우면 전체 비용이 플래그 수의 제곱에 비례하므로 여러 정의는
+ * {@link #putAll(Collection)}이나 {@link #replaceAll(Collection)}로 한 번에 넘깁니다.</p>
  */
-public final class InMemoryFlagStore implements FlagStore {
-	private final Map<String, FlagDefinition> map = new ConcurrentHashMap<>();
+public final class InMemoryFlagStore implements SnapshotFlagStore {
+	private final AtomicReference<FlagSnapshot> current = new AtomicReference<>(FlagSnapshot.empty());
+
+	/**
+	 * @return 현재 게시된 스냅샷
+	 */
+	@Override
+	public FlagSnapshot snapshot() {
+		return current.get();
+	}
 
 	/**
 	 * 키로 플래그 정의를 조회합니다.
@@ -19,30 +32,59 @@ public final class InMemoryFlagStore implements FlagStore {
 	 */
 	@Override
 	public Optional<FlagDefinition> find(String key) {
-		return Optional.ofNullable(map.get(key));
+		return Optional.ofNullable(findOrNull(key));
+	}
+
+	@Override
+	public FlagDefinition findOrNull(String key) {
+		return current.get().find(Objects.requireNonNull(key, "key"));
 	}
 
 	/**
-	 * 현재 저장된 모든 플래그 정의를 반환합니다.
+	 * 현재 스냅샷의 모든 플래그 정의를 반환합니다.
 	 *
-	 * @return 전체 플래그의 불변 뷰
+	 * @return 전체 플래그의 불변 맵
 	 */
 	@Override
 	public Map<String, FlagDefinition> findAll() {
-		return Collections.unmodifiableMap(map);
+		return current.get().definitions();
 	}
 
 	/**
-	 * 플래그 정의를 추가하거나 교체합니다.
+	 * 플래그 정의를 추가하거나 교체합니다. 스냅샷 배열 전체를 복사하므로 여러 정의를 넣을 때는
+	 * {@link #putAll(Collection)}을 사용합니다.
 	 *
 	 * @param def 저장할 정의
 	 */
-	public void put(FlagDefinition def) { map.put(def.key(), def); }
+	public void put(FlagDefinition def) { putAll(List.of(def)); }
 
 	/**
-	 * 키로 플래그를 삭제합니다.
+	 * 여러 플래그 정의를 한 번에 추가하거나 교체하고 새 스냅샷 하나로 게시합니다.
+	 *
+	 * @param defs 저장할 정의 목록
+	 */
+	public void putAll(Collection<FlagDefinition> defs) {
+		List<FlagDefinition> copy = List.copyOf(defs);
+		current.updateAndGet(s -> s.withPut(copy));
+	}
+
+	/**
+	 * 저장된 정의 전체를 주어진 목록으로 교체하고 새 스냅샷 하나로 게시합니다.
+	 *
+	 * @param defs 새 정의 목록
+	 */
+	public void replaceAll(Collection<FlagDefinition> defs) {
+		List<FlagDefinition> copy = List.copyOf(defs);
+		current.updateAndGet(s -> s.next(copy));
+	}
+
+	/**
+	 * 키로 플래그를 삭제합니다. 스냅샷 배열 전체를 복사합니다.
 	 *
 	 * @param key 기능 플래그 키
 	 */
-	public void remove(String key) { map.remove(key); }
+	public void remove(String key) {
+		Objects.requireNonNull(key, "key");
+		current.updateAndGet(s -> s.find(key) == null ? s : s.withRemoved(List.of(key)));
+	}
 }
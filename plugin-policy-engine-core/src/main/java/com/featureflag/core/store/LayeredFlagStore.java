@@ -0,0 +1,189 @@
+package com.pluginpolicyengine.core.store;
+
+import com.pluginpolicyengine.core.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 여러 저장소를 우선순위대로 겹쳐 하나의 병합 스냅샷으로 제공하는 {@link FlagStore} 구현체입니다.
+ *
+ * <p>계층은 낮은 우선순위부터 받습니다(예: 기본 파일, 환경별 파일, 리전별 파일). 같은 키가 여러 계층에 있으면
+ * 뒤 계층의 정의가 앞 계층의 정의를 통째로 대체합니다. 필드 단위 병합은 하지 않습니다.</p>
+ *
+ * <p>계층의 현재 스냅샷이 마지막 병합 때와 같은 인스턴스인지만 확인하고, 하나라도 바뀌었으면 병합 스냅샷을 다시 만들어
+ * 원자적으로 게시합니다. 병합은 정의에 이미 컴파일된 플래그를 재사용하므로 다시 컴파일하지 않으며, 조회는 계층 수와
+ * 관계없이 병합 스냅샷의 해시 조회 한 번입니다. 병합 스냅샷의 버전은 계층 버전과 별개로 단조 증가합니다.</p>
+ *
+ * <p>갱신 주기 없이 만들면 {@link #snapshot()}이 호출될 때마다 계층을 확인합니다. 갱신 주기를 주면 daemon 스레드가
+ * 그 주기로 계층을 확인해 병합하고, {@link #snapshot()}은 계층을 건드리지 않고 마지막 병합 스냅샷만 반환합니다. 계층이
+ * 스스로 백그라운드에서 갱신되는 경우(예: 감시 스레드를 쓰는 파일 저장소) 이 방식을 쓰면 조회 비용이 계층 수와 무관해집니다.</p>
+ *
+ * <p>여러 스레드가 동시에 병합해도 계층마다 버전이 더 높은 스냅샷만 받아들이므로, 늦게 끝난 병합이 더 오래된 계층
+ * 스냅샷으로 최신 병합을 덮어쓰지 않습니다. 따라서 계층 저장소는 새 스냅샷의 버전을 높여 게시해야 합니다.</p>
+ */
+public final class LayeredFlagStore implements SnapshotFlagStore, AutoCloseable {
+	private final SnapshotFlagStore[] layers;
+	private final AtomicReference<Merged> merged;
+	private final Thread refresher; // null이면 snapshot()이 계층을 확인합니다.
+	private volatile boolean closed;
+
+	/**
+	 * @param layers 낮은 우선순위부터 나열한 계층 저장소
+	 */
+	public LayeredFlagStore(List<? extends SnapshotFlagStore> layers) {
+		this(layers, null);
+	}
+
+	/**
+	 * @param layers 낮은 우선순위부터 나열한 계층 저장소
+	 * @param refreshInterval 계층을 확인해 다시 병합하는 주기(최소 10ms). {@code null}이면 {@link #snapshot()} 호출 때 확인합니다.
+	 */
+	public LayeredFlagStore(List<? extends SnapshotFlagStore> layers, Duration refreshInterval) {
+		if (layers == null || layers.isEmpty()) throw new IllegalArgumentException("layers must not be empty");
+		if (refreshInterval != null && refreshInterval.isNegative()) throw new IllegalArgumentException("refreshInterval must not be negative");
+		this.layers = layers.toArray(new SnapshotFlagStore[0]);
+		for (SnapshotFlagStore layer : this.layers) Objects.requireNonNull(layer, "layer");
+		this.merged = new AtomicReference<>(new Merged(new FlagSnapshot[this.layers.length], FlagSnapshot.empty()));
+		if (refreshInterval == null) {
+			this.refresher = null;
+		} else {
+			refresh(); // 첫 병합은 생성 시점에 해 두어 스레드가 돌기 전에도 빈 스냅샷을 내지 않습니다.
+			long intervalNanos = Math.max(Duration.ofMillis(10).toNanos(), refreshInterval.toNanos());
+			this.refresher = new Thread(() -> runRefresher(intervalNanos), "layered-flag-store-refresh");
+			this.refresher.setDaemon(true);
+			this.refresher.start();
+		}
+	}
+
+	/**
+	 * @param layers 낮은 우선순위부터 나열한 계층 저장소
+	 * @return 계층 저장소
+	 */
+	public static LayeredFlagStore of(SnapshotFlagStore... layers) {
+		return new LayeredFlagStore(Arrays.asList(layers));
+	}
+
+	/**
+	 * @return 갱신 주기가 없으면 계층 중 하나라도 바뀌었을 때 새로 병합한 스냅샷, 아니면 마지막 병합 스냅샷
+	 */
+	@Override
+	public FlagSnapshot snapshot() {
+		return refresher == null ? refresh() : merged.get().snapshot;
+	}
+
+	/** 각 계층의 현재 스냅샷을 확인해 바뀐 계층이 있으면 다시 병합합니다. */
+	private FlagSnapshot refresh() {
+		Merged cur = merged.get();
+		FlagSnapshot[] sources = null;
+		for (int i = 0; i < layers.length; i++) {
+			FlagSnapshot s = layers[i].snapshot();
+			if (sources == null) {
+				if (s == cur.sources[i]) continue;
+				sources = cur.sources.clone();
+			}
+			sources[i] = s;
+		}
+		return sources == null ? cur.snapshot : publish(sources);
+	}
+
+	/**
+	 * @return 모든 계층이 준비되면 그 시점의 병합 스냅샷으로 완료되는 future
+	 */
+	@Override
+	public CompletableFuture<FlagSnapshot> ready() {
+		CompletableFuture<?>[] all = new CompletableFuture<?>[layers.length];
+		for (int i = 0; i < layers.length; i++) all[i] = layers[i].ready();
+		return CompletableFuture.allOf(all).thenApply(v -> refresh());
+	}
+
+	/**
+	 * @return 계층 수
+	 */
+	public int layerCount() { return layers.length; }
+
+	/**
+	 * 갱신 스레드를 멈추고 {@link AutoCloseable}인 계층(예: 백그라운드 감시를 쓰는 파일 저장소)을 모두 닫습니다.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		if (refresher != null) {
+			LockSupport.unpark(refresher);
+			try {
+				refresher.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		RuntimeException failure = null;
+		for (SnapshotFlagStore layer : layers) {
+			if (!(layer instanceof AutoCloseable)) continue;
+			try {
+				((AutoCloseable) layer).close();
+			} catch (Exception e) {
+				if (failure == null) failure = new IllegalStateException("failed to close layer: " + layer, e);
+				else failure.addSuppressed(e);
+			}
+		}
+		if (failure != null) throw failure;
+	}
+
+	private void runRefresher(long intervalNanos) {
+		while (!closed) {
+			try {
+				refresh();
+			} catch (RuntimeException e) {
+				// 계층을 읽지 못하면 마지막 병합 스냅샷을 유지하고 다음 주기에 다시 시도합니다.
+			}
+			LockSupport.parkNanos(this, intervalNanos);
+		}
+	}
+
+	/**
+	 * 관찰한 계층 스냅샷을 현재 병합의 원본과 계층별로 비교해, 더 새로운(버전이 높은) 것만 받아들여 병합합니다.
+	 * 다른 스레드가 그사이 같거나 더 새로운 스냅샷으로 병합했으면 다시 병합하지 않고 그 결과를 씁니다.
+	 */
+	private FlagSnapshot publish(FlagSnapshot[] observed) {
+		for (;;) {
+			Merged cur = merged.get();
+			FlagSnapshot[] sources = null;
+			for (int i = 0; i < observed.length; i++) {
+				FlagSnapshot had = cur.sources[i];
+				FlagSnapshot s = observed[i];
+				if (s == had || (had != null && s.version() <= had.version())) continue;
+				if (sources == null) sources = cur.sources.clone();
+				sources[i] = s;
+			}
+			if (sources == null) return cur.snapshot;
+			Merged next = new Merged(sources, cur.snapshot.next(merge(sources)));
+			if (merged.compareAndSet(cur, next)) return next.snapshot;
+		}
+	}
+
+	private static Collection<FlagDefinition> merge(FlagSnapshot[] sources) {
+		int total = 0;
+		for (FlagSnapshot s : sources) total += s.size();
+		Map<String, FlagDefinition> byKey = new LinkedHashMap<>(total * 2);
+		for (FlagSnapshot s : sources) {
+			for (int i = 0; i < s.size(); i++) {
+				FlagDefinition def = s.compiled(i).definition();
+				byKey.put(def.key(), def);
+			}
+		}
+		return byKey.values();
+	}
+
+	private static final class Merged {
+		final FlagSnapshot[] sources;
+		final FlagSnapshot snapshot;
+
+		Merged(FlagSnapshot[] sources, FlagSnapshot snapshot) {
+			this.sources = sources;
+			this.snapshot = snapshot;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.pluginpolicyengine.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.junit.jupiter.api.Test;
+
+class BucketHasherTest {
+	private static final String[] BASES = {
+		"user-1", "", "a", "사용자-42", "emoji-😀", "broken-\uD83D", "\uDE00-tail",
+		"x".repeat(300)
+	};
+
+	@Test
+	void sha256MatchesLegacyDigestForRolloutAndVariant() throws Exception {
+		BucketHasher hasher = BucketHasher.sha256();
+		for (String key : new String[] {"checkout.newFlow", "검색.랭킹", "k\uD83D"}) {
+			for (String basis : BASES) {
+				long rollout = hasher.hash(BucketHasher.Purpose.ROLLOUT, key, hasher.seed(BucketHasher.Purpose.ROLLOUT, key), basis);
+				long variant = hasher.hash(BucketHasher.Purpose.VARIANT, key, hasher.seed(BucketHasher.Purpose.VARIANT, key), basis);
+
+				assertEquals(legacy(key + ":" + basis), rollout, key + "/" + basis);
+				assertEquals(legacy("variant:" + key + ":" + basis), variant, key + "/" + basis);
+			}
+		}
+	}
+
+	@Test
+	void murmur3IsDeterministicAndSpreadsBuckets() {
+		BucketHasher hasher = BucketHasher.murmur3();
+		long seed = hasher.seed(BucketHasher.Purpose.ROLLOUT, "checkout.newFlow");
+		int[] buckets = new int[100];
+		for (int i = 0; i < 100_000; i++) {
+			String basis = "user-" + i;
+			long h = hasher.hash(BucketHasher.Purpose.ROLLOUT, "checkout.newFlow", seed, basis);
+			assertTrue(h >= 0);
+			assertEquals(h, hasher.hash(BucketHasher.Purpose.ROLLOUT, "checkout.newFlow", seed, basis));
+			buckets[(int) (h % 100)]++;
+		}
+		for (int count : buckets) {
+			assertTrue(count > 850 && count < 1150, "bucket skew: " + count);
+		}
+	}
+
+	private static long legacy(String s) throws Exception {
+		byte[] h = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+		long v = 0L;
+		for (int i = 0; i < 8; i++) v = (v << 8) | (h[i] & 0xffL);
+		return v & Long.MAX_VALUE;
+	}
+}
@@ -0,0 +1,249 @@
+package com.pluginpolicyengine.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.pluginpolicyengine.core.metrics.EvaluationMetrics;
+import com.pluginpolicyengine.core.metrics.FlagMetrics;
+import com.pluginpolicyengine.core.store.InMemoryFlagStore;
+
+class FeatureFlagServiceTest {
+	private final InMemoryFlagStore store = new InMemoryFlagStore();
+	private final FeatureFlagService service = new FeatureFlagService(store);
+
+	@Test
+	void evaluatesReasonsInOrder() {
+		store.put(FlagDefinition.builder("disabled").enabled(false).build());
+		store.put(FlagDefinition.builder("targeted")
+			.targeting(Targeting.builder()
+				.denyUser("blocked")
+				.allowGroup("beta")
+				.requireAttrIn("region", Set.of("KR"))
+				.build())
+			.build());
+		store.put(FlagDefinition.builder("regional")
+			.targeting(Targeting.builder().requireAttrIn("region", Set.of("KR")).build())
+			.build());
+		store.put(FlagDefinition.builder("closed").rolloutPercent(0).build());
+		store.put(FlagDefinition.builder("open").build());
+
+		FlagContext user = FlagContext.builder().userId("user-1").attr("region", "KR").build();
+
+		assertEquals("FLAG_NOT_FOUND", service.evaluate("missing", user).reason());
+		assertEquals("FLAG_DISABLED", service.evaluate("disabled", user).reason());
+		assertEquals("TARGET_DENY", service.evaluate("targeted", FlagContext.builder().userId("blocked").group("beta").build()).reason());
+		assertEquals("TARGET_ALLOW", service.evaluate("targeted", FlagContext.builder().userId("u").group("beta").build()).reason());
+		assertEquals("TARGET_MISS", service.evaluate("targeted", user).reason());
+		assertEquals("TARGET_MISS", service.evaluate("regional", FlagContext.builder().userId("u").attr("region", "JP").build()).reason());
+		assertEquals("ROLLOUT_OUT", service.evaluate("closed", user).reason());
+		assertEquals("ROLLOUT_IN", service.evaluate("regional", user).reason());
+		assertTrue(service.isEnabled("open", FlagContext.builder().build()));
+		assertFalse(service.isEnabled("closed", user));
+	}
+
+	@Test
+	void keepsLegacyRolloutAndVariantBuckets() throws Exception {
+		store.put(FlagDefinition.builder("exp")
+			.rolloutPercent(40)
+			.variant("A", 1)
+			.variant("zero", 0)
+			.variant("B", 2)
+			.variant("C", 3)
+			.build());
+
+		for (int i = 0; i < 2_000; i++) {
+			String uid = "user-" + i;
+			FlagDecision d = service.evaluate("exp", FlagContext.builder().userId(uid).build());
+
+			boolean in = legacyHash("exp:" + uid) % 100 < 40;
+			assertEquals(in, d.enabled(), uid);
+			if (in) {
+				long r = legacyHash("variant:exp:" + uid) % 6;
+				String expected = r < 1 ? "A" : r < 3 ? "B" : "C";
+				assertEquals(expected, d.variant(), uid);
+			}
+		}
+	}
+
+	@Test
+	void reusesDecisionInstancesWithLegacyMeta() {
+		store.put(FlagDefinition.builder("exp").rolloutPercent(100).variant("A", 1).defaultVariant("A").build());
+		store.put(FlagDefinition.builder("half").rolloutPercent(0).build());
+		FlagContext ctx = FlagContext.builder().userId("user-1").build();
+
+		FlagDecision first = service.evaluate("exp", ctx);
+		assertSame(first, service.evaluate("exp", ctx));
+		assertEquals(FlagReason.ROLLOUT_IN, first.reasonCode());
+		assertEquals(Map.of("key", "exp", "variant", "A", "rollout", 100), first.meta());
+		assertEquals(Map.of("key", "half", "rollout", 0), service.evaluate("half", ctx).meta());
+		assertEquals(Map.of("key", "missing"), service.evaluate("missing", ctx).meta());
+	}
+
+	@Test
+	void primitivePathsMatchDecisions() {
+		store.put(FlagDefinition.builder("exp").rolloutPercent(60).variant("A", 1).variant("B", 1).build());
+		store.put(FlagDefinition.builder("plain").defaultVariant("on").build());
+		store.put(FlagDefinition.builder("off").enabled(false).build());
+
+		for (int i = 0; i < 500; i++) {
+			FlagContext ctx = FlagContext.builder().userId("user-" + i).build();
+			for (String key : new String[] {"exp", "plain", "off", "missing"}) {
+				FlagDecision d = service.evaluate(key, ctx);
+				assertEquals(d.enabled(), service.isEnabled(key, ctx));
+				assertEquals(d.variantIndex(), service.variantIndex(key, ctx));
+				assertEquals(d.enabled() ? d.variant() : "fb", service.variant(key, ctx, "fb"));
+			}
+		}
+		FlagContext ctx = FlagContext.builder().userId("user-1").build();
+		assertEquals(FlagDecision.VARIANT_DEFAULT, service.variantIndex("plain", ctx));
+		assertEquals(FlagDecision.VARIANT_OFF, service.variantIndex("off", ctx));
+	}
+
+	@Test
+	void bulkEvaluationMatchesSingleEvaluation() {
+		for (BucketHasher hasher : new BucketHasher[] {BucketHasher.sha256(), BucketHasher.murmur3()}) {
+			InMemoryFlagStore bulkStore = new InMemoryFlagStore();
+			for (int i = 0; i < 20; i++) {
+				bulkStore.put(FlagDefinition.builder("flag-" + i).rolloutPercent(i * 5).variant("A", 1).variant("B", i).build());
+			}
+			FeatureFlagService bulk = new FeatureFlagService(bulkStore, hasher);
+			FlagContext ctx = FlagContext.builder().attr("anonId", "anon-7").build();
+
+			FlagDecisions all = bulk.evaluateAll(ctx);
+			assertEquals(20, all.size());
+			for (int i = 0; i < all.size(); i++) {
+				assertSame(bulk.evaluate(all.key(i), ctx), all.decision(i));
+			}
+
+			FlagDecisions some = bulk.evaluate(List.of("flag-3", "missing"), ctx);
+			assertEquals("flag-3", some.key(0));
+			assertSame(bulk.evaluate("flag-3", ctx), some.get("flag-3"));
+			assertEquals(FlagReason.FLAG_NOT_FOUND, some.get("missing").reasonCode());
+		}
+	}
+
+	@Test
+	void indexedBulkEvaluationMatchesSingleEvaluation() {
+		InMemoryFlagStore indexed = new InMemoryFlagStore();
+		String[] regions = {"KR", "JP", "US"};
+		for (int i = 0; i < 60; i++) {
+			Targeting.Builder t = Targeting.builder();
+			switch (i % 6) {
+				case 0: t.requireAttrIn("region", Set.of(regions[i % 3])).requireAttrIn("plan", Set.of("PRO")); break;
+				case 1: t.allowGroup("beta").denyUser("user-" + (i % 4)); break;
+				case 2: t.allowUser("user-" + (i % 4)).requireAttrIn("region", Set.of("KR")); break;
+				case 3: t.denyGroup("staff"); break;
+				case 4: t.requireAttrIn("region", Set.of(regions[i % 3])).denyUser("user-1"); break;
+				default: break;
+			}
+			indexed.put(FlagDefinition.builder("flag-" + i).enabled(i % 7 != 0).rolloutPercent(i * 2).targeting(t.build()).build());
+		}
+		FeatureFlagService svc = new FeatureFlagService(indexed);
+
+		FlagContext[] contexts = {
+			FlagContext.builder().build(),
+			FlagContext.builder().userId("user-1").attr("region", "KR").attr("plan", "PRO").build(),
+			FlagContext.builder().userId("user-2").group("beta").attr("region", "JP").build(),
+			FlagContext.builder().userId("user-3").group("staff").group("beta").attr("plan", "PRO").build(),
+		};
+		for (FlagContext ctx : contexts) {
+			FlagDecisions all = svc.evaluateAll(ctx);
+			assertEquals(60, all.size());
+			for (int i = 0; i < all.size(); i++) {
+				assertSame(svc.evaluate(all.key(i), ctx), all.decision(i), all.key(i));
+			}
+		}
+	}
+
+	@Test
+	void contextPrecomputesBasisAndIsIsolatedFromBuilderReuse() {
+		FlagContext.Builder b = FlagContext.builder().userId(" ").attr("anonId", "anon-1").group("beta");
+		FlagContext first = b.build();
+		FlagContext second = b.userId("user-2").group("staff").attr("plan", "PRO").build();
+
+		assertEquals("anon-1", first.basisId());
+		assertEquals(Set.of("beta"), first.groups());
+		assertEquals(Map.of("anonId", "anon-1"), first.attrs());
+		assertEquals("user-2", second.basisId());
+		assertEquals(Set.of("beta", "staff"), second.groups());
+		assertNull(FlagContext.builder().build().basisId());
+		assertEquals(BucketHasher.murmur3().basisHash("anon-1"), first.basisHash(BucketHasher.murmur3()));
+	}
+
+	private static long legacyHash(String s) throws Exception {
+		byte[] h = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+		long v = 0L;
+		for (int i = 0; i < 8; i++) v = (v << 8) | (h[i] & 0xffL);
+		return v & Long.MAX_VALUE;
+	}
+
+	@Test
+	void recordsEvaluationsByReasonVariantAndSampledLatency() {
+		store.put(FlagDefinition.builder("exp").variant("A", 1).variant("B", 1).build());
+		store.put(FlagDefinition.builder("off").enabled(false).build());
+		EvaluationMetrics metrics = new EvaluationMetrics(1.0);
+		FeatureFlagService recorded = new FeatureFlagService(store, BucketHasher.sha256(), metrics);
+
+		FlagContext ctx = FlagContext.builder().userId("user-1").build();
+		int variant = recorded.variantIndex("exp", ctx);
+		recorded.isEnabled("exp", ctx);
+		recorded.evaluate("off", ctx);
+		recorded.variant("missing", ctx, "fb");
+		recorded.isEnabled("missing-" + ctx.userId(), ctx);
+		recorded.evaluateAll(ctx);
+
+		FlagMetrics exp = metrics.snapshot().get("exp");
+		assertEquals(3, exp.count(FlagReason.ROLLOUT_IN));
+		assertEquals(Map.of(variant, 3L), exp.variants());
+		assertEquals(2, exp.latency().count());
+		assertEquals(2, metrics.snapshot().get("off").count(FlagReason.FLAG_DISABLED));
+		// 정의가 없는 키는 키마다 카운터를 만들지 않고 한 곳에 모읍니다.
+		assertEquals(2, metrics.snapshot().get(EvaluationMetrics.NOT_FOUND_KEY).count(FlagReason.FLAG_NOT_FOUND));
+		assertFalse(metrics.snapshot().containsKey("missing"));
+
+		assertEquals(3, metrics.drain().get("exp").total());
+		recorded.isEnabled("exp", ctx);
+		Map<String, FlagMetrics> delta = metrics.drain();
+		assertEquals(Set.of("exp"), delta.keySet());
+		assertEquals(1, delta.get("exp").total());
+		assertEquals(4, metrics.snapshot().get("exp").total());
+	}
+
+	@Test
+	void bulkEvaluationsReportExposuresForEnabledResults() {
+		store.put(FlagDefinition.builder("exp").variant("A", 1).variant("B", 1).build());
+		store.put(FlagDefinition.builder("off").enabled(false).build());
+		store.put(FlagDefinition.builder("regional")
+			.targeting(Targeting.builder().requireAttrIn("region", Set.of("KR")).build())
+			.build());
+		store.put(FlagDefinition.builder("pilot")
+			.targeting(Targeting.builder().allowUser("user-1").requireAttrIn("region", Set.of("KR")).build())
+			.build());
+		List<String> exposed = new ArrayList<>();
+		FeatureFlagService exposing = new FeatureFlagService(store, BucketHasher.sha256(), EvaluationRecorder.NOOP,
+			(key, ctx, variantIndex, variant) -> exposed.add(key + "=" + variant));
+
+		FlagContext ctx = FlagContext.builder().userId("user-1").attr("region", "JP").build();
+		String variant = service.variant("exp", ctx, null);
+		exposing.evaluateAll(ctx);
+		assertEquals(Set.of("exp=" + variant, "pilot=on"), Set.copyOf(exposed));
+		assertEquals(2, exposed.size());
+
+		exposed.clear();
+		exposing.evaluate(List.of("exp", "off", "regional", "missing"), ctx);
+		assertEquals(List.of("exp=" + variant), exposed);
+	}
+
+}
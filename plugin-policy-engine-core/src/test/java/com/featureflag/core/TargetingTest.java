@@ -0,0 +1,96 @@
+package com.pluginpolicyengine.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class TargetingTest {
+	@Test
+	void largeUserListsUseCompactSetWithSameMembership() {
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < Targeting.COMPACT_USER_ID_THRESHOLD * 3; i++) ids.add("user-" + i);
+		ids.add("사용자-한글");
+		ids.add(null);
+
+		Targeting t = Targeting.builder().denyUsers(ids).allowUser("vip").build();
+		assertTrue(t.denyUserIds() instanceof CompactStringSet);
+		assertFalse(t.allowUserIds() instanceof CompactStringSet);
+
+		ids.remove(null);
+		assertEquals(ids.size(), t.denyUserIds().size());
+		assertEquals(new HashSet<>(ids), new HashSet<>(t.denyUserIds()));
+		for (String id : ids) assertTrue(t.denyUserIds().contains(id), id);
+		assertFalse(t.denyUserIds().contains("user-"));
+		assertFalse(t.denyUserIds().contains("user-99999"));
+		assertFalse(t.denyUserIds().contains(null));
+
+		assertTrue(t.isExplicitlyDenied(FlagContext.builder().userId("user-42").build()));
+		assertFalse(t.isExplicitlyDenied(FlagContext.builder().userId("user-x").build()));
+	}
+
+	@Test
+	void bitsetTargetingMatchesStringTargeting() {
+		FlagContext early = FlagContext.builder().userId("u").group("g-late").attr("tier", "gold").build();
+		CompiledFlag before = FlagDefinition.builder("before").targeting(Targeting.builder().allowGroup("g-1").build()).build().compiled();
+		assertFalse(before.isAllowed(early));
+
+		// 컨텍스트의 비트셋을 만든 뒤 새 그룹/속성 값이 사전에 추가되어도 결과가 맞아야 합니다.
+		CompiledFlag late = FlagDefinition.builder("late")
+			.targeting(Targeting.builder().denyGroup("g-late").requireAttrIn("tier", Set.of("gold-late", "gold")).build())
+			.build().compiled();
+		assertTrue(late.isDenied(early));
+		assertFalse(late.missesEligibility(early));
+		assertTrue(late.missesEligibility(FlagContext.builder().attr("tier", "silver").build()));
+		assertTrue(late.missesEligibility(FlagContext.builder().build()));
+
+		Targeting t = late.definition().targeting();
+		for (String g : new String[] {"g-late", "g-1", "other"}) {
+			FlagContext ctx = FlagContext.builder().group(g).attr("tier", "gold").build();
+			assertEquals(t.isExplicitlyDenied(ctx), late.isDenied(ctx), g);
+			assertEquals(!t.matchesEligibility(ctx), late.missesEligibility(ctx), g);
+		}
+	}
+
+	@Test
+	void fullDictionaryStartsNewGenerationInsteadOfFallingBack() {
+		long generations = TargetingDictionary.generations();
+		FlagContext ctx = FlagContext.builder().group("first-0").group("third-0").build();
+		List<CompiledFlag> flags = new ArrayList<>();
+		for (String prefix : new String[] {"first-", "second-", "third-"}) {
+			Targeting.Builder groups = Targeting.builder();
+			for (int i = 0; i < TargetingDictionary.MAX_IDS / 2; i++) groups.allowGroup(prefix + i);
+			flags.add(FlagDefinition.builder(prefix + "flag").targeting(groups.build()).build().compiled());
+		}
+		assertTrue(TargetingDictionary.generations() > generations, "a full dictionary rolls over");
+		for (CompiledFlag f : flags) assertTrue(f.usesTargetingMasks(), f.key());
+		// 세대가 다른 플래그를 번갈아 평가해도 컨텍스트 비트셋은 해당 세대로 다시 계산됩니다.
+		assertTrue(flags.get(0).isAllowed(ctx));
+		assertFalse(flags.get(1).isAllowed(ctx));
+		assertTrue(flags.get(2).isAllowed(ctx));
+		assertTrue(flags.get(0).isAllowed(ctx));
+		// 두 세대의 비트셋을 함께 보관하므로 번갈아 평가해도 다시 계산하지 않습니다.
+		long[] first = ctx.targetingBits(flags.get(0).dictionary);
+		long[] last = ctx.targetingBits(flags.get(2).dictionary);
+		assertNotSame(first, last);
+		assertSame(first, ctx.targetingBits(flags.get(0).dictionary));
+		assertSame(last, ctx.targetingBits(flags.get(2).dictionary));
+
+		// 빈 사전에도 다 들어가지 않는 플래그만 문자열 집합으로 판정하며, 세대를 바꾸지 않습니다.
+		Targeting.Builder huge = Targeting.builder();
+		for (int i = 0; i <= TargetingDictionary.MAX_IDS; i++) huge.allowGroup("huge-" + i);
+		long before = TargetingDictionary.generations();
+		CompiledFlag tooLarge = FlagDefinition.builder("huge").targeting(huge.build()).build().compiled();
+		assertFalse(tooLarge.usesTargetingMasks());
+		assertEquals(before, TargetingDictionary.generations());
+		assertTrue(tooLarge.isAllowed(FlagContext.builder().group("huge-7").build()));
+	}
+}
@@ -0,0 +1,118 @@
+package com.pluginpolicyengine.core.exposure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pluginpolicyengine.core.BucketHasher;
+import com.pluginpolicyengine.core.EvaluationRecorder;
+import com.pluginpolicyengine.core.FeatureFlagService;
+import com.pluginpolicyengine.core.FlagContext;
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.store.InMemoryFlagStore;
+
+class ExposurePipelineTest {
+	@Test
+	void deduplicatesRepeatExposuresAndFlushesOnClose() {
+		InMemoryFlagStore store = new InMemoryFlagStore();
+		store.put(FlagDefinition.builder("exp").variant("A", 1).variant("B", 1).build());
+		store.put(FlagDefinition.builder("off").enabled(false).build());
+		List<ExposureEvent> received = new ArrayList<>();
+		ExposurePipeline pipeline = ExposurePipeline.builder(received::addAll)
+			.flushInterval(Duration.ofHours(1))
+			.build();
+		FeatureFlagService service = new FeatureFlagService(store, BucketHasher.sha256(), EvaluationRecorder.NOOP, pipeline);
+
+		for (int i = 0; i < 5; i++) {
+			for (int u = 0; u < 10; u++) {
+				FlagContext ctx = FlagContext.builder().userId("user-" + u).build();
+				service.variant("exp", ctx, "control");
+				service.isEnabled("off", ctx);
+			}
+		}
+		service.evaluateAll(FlagContext.builder().userId("user-99").build());
+		pipeline.close();
+
+		ExposureStats stats = pipeline.stats();
+		assertEquals(11, stats.enqueued());
+		assertEquals(40, stats.deduplicated());
+		assertEquals(11, stats.written());
+		assertEquals(0, stats.pending());
+		assertEquals(11, received.size());
+		for (ExposureEvent e : received) {
+			assertEquals("exp", e.flagKey());
+			assertEquals(service.variant("exp", FlagContext.builder().userId(e.basisId()).build(), null), e.variant());
+		}
+	}
+
+	@Test
+	void dropsWhenBufferIsFullAndCountsIt() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ExposurePipeline pipeline = ExposurePipeline.builder(events -> {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			})
+			.capacity(8)
+			.batchSize(1)
+			.dedupeWindow(Duration.ZERO)
+			.build();
+
+		for (int i = 0; i < 100; i++) {
+			pipeline.onExposure("exp", FlagContext.builder().userId("u-" + i).build(), 0, "A");
+		}
+		ExposureStats during = pipeline.stats();
+		release.countDown();
+		pipeline.close();
+
+		ExposureStats stats = pipeline.stats();
+		assertTrue(during.dropped() > 0, "dropped: " + during.dropped());
+		assertEquals(100, stats.enqueued() + stats.dropped());
+		assertEquals(stats.enqueued(), stats.written());
+	}
+
+	@Test
+	void exposuresRacingCloseAreWrittenOrCountedAsDropped() throws Exception {
+		for (int round = 0; round < 20; round++) {
+			List<ExposureEvent> received = Collections.synchronizedList(new ArrayList<>());
+			ExposurePipeline pipeline = ExposurePipeline.builder(received::addAll)
+				.dedupeWindow(Duration.ZERO)
+				.capacity(1 << 12)
+				.build();
+			int producers = 4;
+			int perProducer = 2_000;
+			CountDownLatch started = new CountDownLatch(producers);
+			List<Thread> threads = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				int id = p;
+				Thread t = new Thread(() -> {
+					started.countDown();
+					for (int i = 0; i < perProducer; i++) {
+						pipeline.onExposure("exp", FlagContext.builder().userId(id + "-" + i).build(), 0, "A");
+					}
+				});
+				threads.add(t);
+				t.start();
+			}
+			started.await();
+			pipeline.close();
+			for (Thread t : threads) t.join();
+
+			ExposureStats stats = pipeline.stats();
+			assertEquals(producers * perProducer, stats.enqueued() + stats.dropped());
+			assertEquals(stats.enqueued(), stats.written(), "round " + round);
+			assertEquals(stats.written(), received.size());
+			assertEquals(0, stats.pending());
+		}
+	}
+}
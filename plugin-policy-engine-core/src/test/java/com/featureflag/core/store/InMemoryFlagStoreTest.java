@@ -0,0 +1,66 @@
+package com.pluginpolicyengine.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagSnapshot;
+
+class InMemoryFlagStoreTest {
+	@Test
+	void publishesVersionedSnapshots() {
+		InMemoryFlagStore store = new InMemoryFlagStore();
+		FlagSnapshot empty = store.snapshot();
+
+		List<FlagDefinition> defs = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) defs.add(FlagDefinition.builder("flag-" + i).build());
+		store.putAll(defs);
+		FlagSnapshot loaded = store.snapshot();
+
+		assertEquals(0, empty.size());
+		assertEquals(1_000, loaded.size());
+		assertTrue(loaded.version() > empty.version());
+		for (FlagDefinition def : defs) assertSame(def, loaded.find(def.key()));
+		assertNull(loaded.compiled("flag-1000"));
+
+		store.replaceAll(List.of(FlagDefinition.builder("only").build()));
+		assertTrue(store.snapshot().version() > loaded.version());
+		assertEquals(1, store.findAll().size());
+		assertEquals(1_000, loaded.definitions().size(), "old snapshot must stay unchanged");
+
+		store.remove("only");
+		assertTrue(store.findAll().isEmpty());
+	}
+
+	@Test
+	void incrementalChangesKeepPositionsAndShareUnchangedFlags() {
+		InMemoryFlagStore store = new InMemoryFlagStore();
+		for (int i = 0; i < 100; i++) store.put(FlagDefinition.builder("flag-" + i).build());
+		FlagSnapshot before = store.snapshot();
+		assertEquals(100, before.size());
+
+		FlagDefinition replaced = FlagDefinition.builder("flag-10").enabled(false).build();
+		FlagSnapshot after = before.withChanges(
+			List.of(replaced, FlagDefinition.builder("added").build()), List.of("flag-3", "missing"));
+		assertEquals(100, after.size());
+		assertEquals(before.version() + 1, after.version());
+		assertNull(after.find("flag-3"));
+		assertSame(replaced, after.find("flag-10"));
+		assertSame(before.compiled("flag-50"), after.compiled("flag-50"));
+		assertEquals("flag-10", after.compiled(9).key(), "replacement keeps its position after earlier removals");
+		assertEquals("added", after.compiled(99).key());
+		List<String> keys = new ArrayList<>(after.definitions().keySet());
+		for (int i = 0; i < after.size(); i++) {
+			assertSame(after.compiled(keys.get(i)), after.compiled(i));
+		}
+		assertSame(before.find("flag-3"), store.findOrNull("flag-3"), "old snapshot must stay unchanged");
+	}
+
+}
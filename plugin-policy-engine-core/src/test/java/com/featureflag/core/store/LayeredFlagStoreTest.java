@@ -0,0 +1,82 @@
+package com.pluginpolicyengine.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.pluginpolicyengine.core.FlagDefinition;
+import com.pluginpolicyengine.core.FlagSnapshot;
+import com.pluginpolicyengine.core.SnapshotFlagStore;
+
+class LayeredFlagStoreTest {
+	@Test
+	void laterLayersOverrideAndMergeIsRepublishedOnChange() {
+		InMemoryFlagStore base = new InMemoryFlagStore();
+		InMemoryFlagStore region = new InMemoryFlagStore();
+		FlagDefinition shared = FlagDefinition.builder("shared").rolloutPercent(10).build();
+		base.putAll(List.of(shared, FlagDefinition.builder("checkout").rolloutPercent(10).build()));
+		FlagDefinition regional = FlagDefinition.builder("checkout").enabled(false).build();
+		region.put(regional);
+		LayeredFlagStore store = LayeredFlagStore.of(base, region);
+
+		FlagSnapshot first = store.snapshot();
+		assertEquals(2, first.size());
+		assertSame(regional, store.findOrNull("checkout"));
+		assertSame(shared.compiled(), first.compiled("shared"), "merge reuses compiled flags");
+		assertSame(first, store.snapshot(), "unchanged layers keep the merged snapshot");
+
+		region.remove("checkout");
+		FlagSnapshot second = store.snapshot();
+		assertTrue(second.version() > first.version());
+		assertEquals(10, second.find("checkout").rolloutPercent());
+		assertFalse(first.find("checkout").enabled(), "published snapshots are immutable");
+	}
+
+	@Test
+	void olderLayerSnapshotNeverReplacesNewerMerge() {
+		FlagSnapshot older = FlagSnapshot.of(1, List.of(FlagDefinition.builder("checkout").rolloutPercent(10).build()));
+		FlagSnapshot newer = older.next(List.of(FlagDefinition.builder("checkout").rolloutPercent(50).build()));
+		// 느린 병합이 먼저 읽어 둔 오래된 스냅샷을 늦게 게시하는 경우를 흉내 냅니다.
+		Deque<FlagSnapshot> reads = new ArrayDeque<>(List.of(newer, older));
+		SnapshotFlagStore layer = () -> reads.size() > 1 ? reads.poll() : reads.peek();
+		LayeredFlagStore store = LayeredFlagStore.of(layer);
+
+		FlagSnapshot merged = store.snapshot();
+		assertEquals(50, merged.find("checkout").rolloutPercent());
+		assertSame(merged, store.snapshot());
+		assertEquals(50, store.findOrNull("checkout").rolloutPercent());
+	}
+
+	@Test
+	void refresherMergesInBackgroundAndLookupsDoNotPollLayers() throws Exception {
+		InMemoryFlagStore base = new InMemoryFlagStore();
+		base.put(FlagDefinition.builder("checkout").rolloutPercent(10).build());
+		AtomicInteger polls = new AtomicInteger();
+		SnapshotFlagStore counting = () -> {
+			polls.incrementAndGet();
+			return base.snapshot();
+		};
+		try (LayeredFlagStore store = new LayeredFlagStore(List.of(counting), Duration.ofMillis(10))) {
+			assertEquals(10, store.findOrNull("checkout").rolloutPercent(), "first merge happens on construction");
+
+			base.put(FlagDefinition.builder("checkout").rolloutPercent(70).build());
+			long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+			while (store.findOrNull("checkout").rolloutPercent() != 70 && System.nanoTime() < deadline) Thread.sleep(5);
+			assertEquals(70, store.findOrNull("checkout").rolloutPercent());
+
+			store.close();
+			int after = polls.get();
+			for (int i = 0; i < 100; i++) store.snapshot();
+			assertEquals(after, polls.get(), "lookups read the published merge only");
+		}
+	}
+}